@@ -110,6 +110,16 @@ public class FiringEvent implements DebugEvent {
         return _director;
     }
 
+    /** Return the multiplicity of the firing, which is the number of
+     *  times that the actor is iterated by a single invocation, for
+     *  example by a call to iterate(int).
+     *  @return The multiplicity of the firing, which is 1 unless
+     *  it was given to the constructor.
+     */
+    public int getMultiplicity() {
+        return _multiplicity;
+    }
+
     /** Return the source of the event.  This class returns the director
      *  that activated the actor.
      *  @return An instance of Director.
@@ -44,6 +44,12 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import ptolemy.actor.CompositeActor;
 import ptolemy.actor.Director;
@@ -111,6 +117,16 @@ public class GraphMatcher extends GraphAnalyzer {
         return _success;
     }
 
+    /** Return whether the top-level candidates in the host model are
+     *  explored in parallel.
+     *
+     *  @return true if the matching is parallel.
+     *  @see #setParallel(boolean)
+     */
+    public boolean isParallel() {
+        return _parallel;
+    }
+
     /** Match a rule file to a model file. This main method takes a parameter
      *  array of length 2 or 3. If the array's length is 2, the first string is
      *  the rule file name, and the second is the model file name. In this case,
@@ -188,13 +204,28 @@ public class GraphMatcher extends GraphAnalyzer {
 
         _findAllMatchCallbacksInPattern(pattern);
 
+        // The state-independent checks of candidate pairs can be cached
+        // only if no criteria depend on the values of value iterators.
+        if (records.isEmpty()) {
+            _candidates = new HashMap<Object, Map<Object, Boolean>>();
+        }
+
         try {
-            _success = _matchCompositeEntityAtAllLevels(pattern, hostGraph);
+            if (_parallel && records.isEmpty()
+                    && getClass() == GraphMatcher.class
+                    && _getOptionalContainer(pattern) == null) {
+                _success = _matchCompositeEntityAtAllLevelsInParallel(pattern,
+                        hostGraph);
+            } else {
+                _success = _matchCompositeEntityAtAllLevels(pattern,
+                        hostGraph);
+            }
         } finally {
             _parameterValues.clear();
             _ignoredOptionalObjects.clear();
             _callbacksInPattern.clear();
             _clearCaches();
+            _candidates = null;
         }
 
         // Restore the values of all the iterators.
@@ -290,6 +321,25 @@ public class GraphMatcher extends GraphAnalyzer {
         }
     }
 
+    /** Set whether the top-level candidates in the host model are explored
+     *  in parallel. If true, each composite entity in the host model that
+     *  the pattern may be matched to is searched in a separate thread. The
+     *  match results found in those threads are then passed to the
+     *  callback in the same order as in sequential matching, so the
+     *  results do not depend on thread scheduling. Because the search in
+     *  each thread continues until all the matches for its candidate are
+     *  found, this is most useful with callbacks that collect all the
+     *  matches. Patterns with value iterators, patterns contained in
+     *  optional objects, and subclasses of this class are always matched
+     *  sequentially.
+     *
+     *  @param parallel Whether the matching is parallel.
+     *  @see #isParallel()
+     */
+    public void setParallel(boolean parallel) {
+        _parallel = parallel;
+    }
+
     /** The default callback that always returns true. A callback is
      *  invoked whenever a match is found. Because this callback always returns
      *  true, it terminates the matching process after the first match
@@ -425,16 +475,13 @@ public class GraphMatcher extends GraphAnalyzer {
                     _negation = false;
                 }
             }
-            if (_checkConstraints()) {
-                for (MatchCallback callback : _callbacksInPattern) {
-                    if (!callback.foundMatch(this)) {
-                        return false;
-                    }
-                }
-                return _callback.foundMatch(this);
-            } else {
-                return false;
+            if (_branchResults != null) {
+                // Matching a branch in parallel. The constraints and
+                // callbacks are checked by the invoking matcher.
+                _branchResults.add((MatchResult) _matchResult.clone());
+                return _abort.get();
             }
+            return _foundMatch();
         } else {
             return _matchList(lists);
         }
@@ -576,6 +623,26 @@ public class GraphMatcher extends GraphAnalyzer {
         }
     }
 
+    /** Check the constraints for the match in _matchResult, and if they are
+     *  satisfied, invoke the callbacks in the pattern and then the callback
+     *  set by the user.
+     *
+     *  @return true if the match is accepted and the matching should
+     *   terminate.
+     */
+    private boolean _foundMatch() {
+        if (_checkConstraints()) {
+            for (MatchCallback callback : _callbacksInPattern) {
+                if (!callback.foundMatch(this)) {
+                    return false;
+                }
+            }
+            return _callback.foundMatch(this);
+        } else {
+            return false;
+        }
+    }
+
     /** Search for the value of an attribute in the pattern hierarchy or the
      *  host model hierarchy.
      *
@@ -624,6 +691,45 @@ public class GraphMatcher extends GraphAnalyzer {
         return null;
     }
 
+    /** Return the list of the composite entities in the host model, at all
+     *  levels, that a pattern may be matched to.
+     *
+     *  @param hostEntity The composite entity in the host model.
+     *  @return The list of composite entities, starting with the given one.
+     */
+    private ObjectList _getCompositeEntities(CompositeEntity hostEntity) {
+        ObjectList hostList = new ObjectList();
+        if (!_isIgnored(hostEntity)) {
+            hostList.add(hostEntity);
+        }
+        IndexedLists markedList = new IndexedLists();
+        boolean added = true;
+        int i = 0;
+        ObjectList.Entry entry = hostList.getHead();
+
+        while (added) {
+            added = false;
+            int size = hostList.size();
+            for (; i < size; i++) {
+                markedList.clear();
+                hostEntity = (CompositeEntity) entry.getElement();
+
+                NamedObj nextChild = findFirstChild(hostEntity, markedList,
+                        _matchResult.keySet());
+                while (nextChild != null) {
+                    if (nextChild instanceof CompositeEntity) {
+                        hostList.add(nextChild);
+                        added = true;
+                    }
+                    nextChild = findNextChild(hostEntity, markedList,
+                            _matchResult.keySet());
+                }
+                entry = entry.getNext();
+            }
+        }
+        return hostList;
+    }
+
     /** Get a string that represents the object. If the object is an instance of
      *  {@link NamedObj}, the returned string is its name retrieved by {@link
      *  NamedObj#getFullName()}; otherwise, the toString() method of the
@@ -667,6 +773,65 @@ public class GraphMatcher extends GraphAnalyzer {
         }
     }
 
+    /** Return whether the host object is a candidate for the pattern object.
+     *  A pair is not a candidate if it fails any of the checks that depend
+     *  only on the two objects, such as their classes, the signatures of
+     *  ports, and the criteria. The results are cached for the duration of
+     *  a match, so a pair that is reconsidered during backtracking is
+     *  rejected without repeating those checks.
+     *
+     *  @param patternObject The object in the pattern.
+     *  @param hostObject The object in the host model.
+     *  @return false if the pattern object can never be matched to the host
+     *   object.
+     */
+    private boolean _isCandidate(Object patternObject, Object hostObject) {
+        if (_candidates == null || !(patternObject instanceof NamedObj)
+                || !(hostObject instanceof NamedObj)) {
+            return true;
+        }
+
+        Map<Object, Boolean> candidates = _candidates.get(patternObject);
+        if (candidates == null) {
+            candidates = new HashMap<Object, Boolean>();
+            _candidates.put(patternObject, candidates);
+        }
+        Boolean candidate = candidates.get(hostObject);
+        if (candidate != null) {
+            return candidate.booleanValue();
+        }
+
+        NamedObj patternNamedObj = (NamedObj) patternObject;
+        NamedObj hostNamedObj = (NamedObj) hostObject;
+        boolean result;
+        if (patternNamedObj instanceof GTEntity
+                && !((GTEntity) patternNamedObj).match(hostNamedObj)) {
+            result = false;
+        } else if (patternObject instanceof AttributeMatcher
+                && hostObject instanceof Attribute
+                || patternObject instanceof CompositeEntity
+                        && hostObject instanceof CompositeEntity) {
+            result = _checkCriteria(patternNamedObj, hostNamedObj);
+        } else if (patternObject instanceof ComponentEntity
+                && hostObject instanceof ComponentEntity) {
+            result = _checkCriteria(patternNamedObj, hostNamedObj)
+                    && (patternObject instanceof GTEntity || patternObject
+                            .getClass().isInstance(hostObject));
+        } else if (patternObject instanceof Port
+                && hostObject instanceof Port) {
+            result = _shallowMatchPort((Port) patternObject,
+                    (Port) hostObject);
+        } else if (patternObject instanceof Relation
+                && hostObject instanceof Relation) {
+            result = _shallowMatchRelation((Relation) patternObject,
+                    (Relation) hostObject);
+        } else {
+            result = false;
+        }
+        candidates.put(hostObject, result);
+        return result;
+    }
+
     /** Return whether the object in the pattern is tagged to be created.
      *
      *  @param object The object in the pattern.
@@ -800,6 +965,40 @@ public class GraphMatcher extends GraphAnalyzer {
         }
     }
 
+    /** Match a composite entity in the pattern to one composite entity in
+     *  the host model, and return all the match results found. This is
+     *  invoked on a new matcher for each branch of a parallel match.
+     *
+     *  @param patternEntity The composite entity in the pattern.
+     *  @param hostEntity The composite entity in the host model.
+     *  @param abort The flag that is set when the parallel match is
+     *   finished, so that the search of this branch can terminate.
+     *  @return The list of match results, which have not yet been checked
+     *   against the constraints.
+     */
+    private List<MatchResult> _matchBranch(CompositeEntity patternEntity,
+            CompositeEntity hostEntity, AtomicBoolean abort) {
+        _matchResult = new MatchResult(_parameterValues);
+        _abort = abort;
+        _branchResults = new LinkedList<MatchResult>();
+        _candidates = new HashMap<Object, Map<Object, Boolean>>();
+        _negation = false;
+        try {
+            ObjectList patternList = new ObjectList();
+            patternList.add(patternEntity);
+            ObjectList hostList = new ObjectList();
+            hostList.add(hostEntity);
+            _matchObject(patternList, hostList);
+            return _branchResults;
+        } finally {
+            _ignoredOptionalObjects.clear();
+            _clearCaches();
+            _abort = null;
+            _branchResults = null;
+            _candidates = null;
+        }
+    }
+
     /** Match a composite entity in the pattern to a composite entity in the
      *  host model.
      *
@@ -943,37 +1142,90 @@ public class GraphMatcher extends GraphAnalyzer {
         if (!_isIgnored(patternEntity)) {
             patternList.add(patternEntity);
         }
-        ObjectList hostList = new ObjectList();
-        if (!_isIgnored(hostEntity)) {
-            hostList.add(hostEntity);
-        }
-        IndexedLists markedList = new IndexedLists();
-        boolean added = true;
-        int i = 0;
-        ObjectList.Entry entry = hostList.getHead();
+        return _matchObject(patternList, _getCompositeEntities(hostEntity));
+    }
 
-        while (added) {
-            added = false;
-            int size = hostList.size();
-            for (; i < size; i++) {
-                markedList.clear();
-                hostEntity = (CompositeEntity) entry.getElement();
+    /** Try to match a composite entity in the pattern to any composite entity
+     *  in the host model, searching for the matches with each of the
+     *  composite entities in the host model in a separate thread. The
+     *  matches found are checked against the constraints and passed to the
+     *  callbacks in this thread, in the same order as {@link
+     *  #_matchCompositeEntityAtAllLevels(CompositeEntity, CompositeEntity)}
+     *  would find them.
+     *
+     *  @param patternEntity The composite entity in the pattern.
+     *  @param hostEntity The composite entity in the host model.
+     *  @return true if a match is found and accepted by the callbacks.
+     */
+    private boolean _matchCompositeEntityAtAllLevelsInParallel(
+            final CompositeEntity patternEntity, CompositeEntity hostEntity) {
+        ObjectList hostList = _getCompositeEntities(hostEntity);
+        int size = hostList.size();
+        if (_isIgnored(patternEntity) || size < 2) {
+            return _matchCompositeEntityAtAllLevels(patternEntity, hostEntity);
+        }
+
+        // The criteria are parsed lazily. Parse them here so that the
+        // threads do not race to do so.
+        _parseCriteria(patternEntity);
+
+        final AtomicBoolean abort = new AtomicBoolean(false);
+        int threads = Math.min(size,
+                Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<MatchResult>>> futures = new LinkedList<Future<List<MatchResult>>>();
+        try {
+            ObjectList.Entry entry = hostList.getHead();
+            while (entry != null) {
+                final CompositeEntity candidate = (CompositeEntity) entry
+                        .getElement();
+                futures.add(executor.submit(new Callable<List<MatchResult>>() {
+                    @Override
+                    public List<MatchResult> call() {
+                        GraphMatcher matcher = new GraphMatcher();
+                        return matcher._matchBranch(patternEntity, candidate,
+                                abort);
+                    }
+                }));
+                entry = entry.getNext();
+            }
 
-                NamedObj nextChild = findFirstChild(hostEntity, markedList,
-                        _matchResult.keySet());
-                while (nextChild != null) {
-                    if (nextChild instanceof CompositeEntity) {
-                        hostList.add(nextChild);
-                        added = true;
+            MatchResult emptyResult = _matchResult;
+            boolean success = false;
+            // Wait for all the branches, even after a match is accepted,
+            // so that no thread reads the host model after this method
+            // returns.
+            for (Future<List<MatchResult>> future : futures) {
+                List<MatchResult> results = future.get();
+                for (MatchResult result : results) {
+                    if (success) {
+                        break;
+                    }
+                    _matchResult = result;
+                    if (_foundMatch()) {
+                        success = true;
+                        abort.set(true);
                     }
-                    nextChild = findNextChild(hostEntity, markedList,
-                            _matchResult.keySet());
                 }
-                entry = entry.getNext();
             }
+            if (!success) {
+                _matchResult = emptyResult;
+            }
+            return success;
+        } catch (InterruptedException e) {
+            throw new KernelRuntimeException(e,
+                    "Interrupted while matching in parallel.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new KernelRuntimeException(cause,
+                    "Failed to match in parallel.");
+        } finally {
+            abort.set(true);
+            executor.shutdown();
         }
-
-        return _matchObject(patternList, hostList);
     }
 
     /** Match the list of pattern objects in the lookback entry to the list of
@@ -984,6 +1236,10 @@ public class GraphMatcher extends GraphAnalyzer {
      *  @return true if the match is successful.
      */
     private boolean _matchList(LookbackEntry matchedObjectLists) {
+        if (_abort != null && _abort.get()) {
+            return false;
+        }
+
         ObjectList patternList = matchedObjectLists.getPatternList();
         ObjectList hostList = matchedObjectLists.getHostList();
 
@@ -1105,6 +1361,8 @@ public class GraphMatcher extends GraphAnalyzer {
             return _checkBackward();
         } else if (match != null || _matchResult.containsValue(hostObject)) {
             return false;
+        } else if (!_isCandidate(patternObject, hostObject)) {
+            return false;
         }
 
         if (patternObject instanceof AttributeMatcher
@@ -1372,6 +1630,26 @@ public class GraphMatcher extends GraphAnalyzer {
         return success;
     }
 
+    /** Parse the criteria of all the objects in the given container, so
+     *  that they are not parsed lazily by multiple threads at once.
+     *
+     *  @param container The container.
+     */
+    private static void _parseCriteria(NamedObj container) {
+        Iterator<?> objects = container.containedObjectsIterator();
+        while (objects.hasNext()) {
+            NamedObj object = (NamedObj) objects.next();
+            if (object instanceof GTIngredientsAttribute) {
+                try {
+                    ((GTIngredientsAttribute) object).getIngredientList();
+                } catch (MalformedStringException e) {
+                    // The error is handled when the criteria are checked.
+                }
+            }
+            _parseCriteria(object);
+        }
+    }
+
     /** Print the match result in a readable format to standard output.
      *
      *  @param match The match result to be printed.
@@ -1554,6 +1832,23 @@ public class GraphMatcher extends GraphAnalyzer {
     ///////////////////////////////////////////////////////////////////
     ////                         private fields                    ////
 
+    /** The flag that is set when a parallel match is finished, or null if
+     *  this matcher is not matching a branch of a parallel match.
+     */
+    private AtomicBoolean _abort;
+
+    /** The match results found while matching a branch of a parallel match,
+     *  or null otherwise.
+     */
+    private List<MatchResult> _branchResults;
+
+    /** A map from objects in the pattern to maps from objects in the host
+     *  model to Boolean values that identify whether the pairs pass the
+     *  checks that do not depend on the rest of the match, or null if the
+     *  checks are not cached.
+     */
+    private Map<Object, Map<Object, Boolean>> _candidates;
+
     /** A map from objects to Booleans value that identify whether they are
      *  tagged to be created.
      */
@@ -1617,6 +1912,11 @@ public class GraphMatcher extends GraphAnalyzer {
      */
     private SequentialTwoWayHashMap<ValueIterator, Token> _parameterValues = new SequentialTwoWayHashMap<ValueIterator, Token>();
 
+    /** Whether the top-level candidates in the host model are explored in
+     *  parallel.
+     */
+    private boolean _parallel = false;
+
     /** The variable that indicates whether the last match operation is
      *  successful.
      */
@@ -82,3 +82,31 @@ test Match3Actors.8 {Test Match3Actors_rule.xml with Match3Actors_succ8} {
     set matchResult [java::call ptolemy.actor.gt.GraphMatcher match ${p}Match3Actors_rule.xml ${p}Match3Actors_succ8.xml]
     [$matchResult getMatchResult] toString
 } {{ptolemy.actor.gt.AtomicActorMatcher {.Match3Actors_rule.Pattern.A} = ptolemy.actor.lib.Const {.Match3Actors_succ8.CompositeActor.A}, ptolemy.actor.gt.AtomicActorMatcher {.Match3Actors_rule.Pattern.B} = ptolemy.actor.lib.Const {.Match3Actors_succ8.CompositeActor.B}, ptolemy.actor.gt.AtomicActorMatcher {.Match3Actors_rule.Pattern.C} = ptolemy.actor.lib.gui.Display {.Match3Actors_succ8.C}, ptolemy.actor.gt.Pattern {.Match3Actors_rule.Pattern} = ptolemy.actor.TypedCompositeActor {.Match3Actors_succ8}, ptolemy.actor.gt.PortMatcher {.Match3Actors_rule.Pattern.A.criterion1} = ptolemy.actor.TypedIOPort {.Match3Actors_succ8.CompositeActor.A.output}, ptolemy.actor.gt.PortMatcher {.Match3Actors_rule.Pattern.B.criterion1} = ptolemy.actor.TypedIOPort {.Match3Actors_succ8.CompositeActor.B.output}, ptolemy.actor.gt.PortMatcher {.Match3Actors_rule.Pattern.C.criterion1} = ptolemy.actor.TypedIOPort {.Match3Actors_succ8.C.input}}}
+
+proc matchAll {ruleFile hostFile parallel} {
+    set parser [java::new ptolemy.moml.MoMLParser]
+    set rule [java::cast ptolemy.actor.gt.TransformationRule \
+        [$parser parseFile $ruleFile]]
+    $parser reset
+    set host [java::cast ptolemy.kernel.CompositeEntity \
+        [$parser parseFile $hostFile]]
+    set helper [java::new ptolemy.actor.gt.test.AllMatchingTestHelper]
+    set matcher [java::new ptolemy.actor.gt.GraphMatcher]
+    $matcher setMatchCallback [java::field $helper callback]
+    $matcher setParallel $parallel
+    $matcher match [$rule getPattern] $host
+    $helper toString
+}
+
+test Match3Actors.9 {Parallel matching finds the same matches in the same order} {
+    set results {}
+    foreach host {succ1 fail2 succ3 succ4 succ5 fail6 succ7 succ8} {
+        set sequential [matchAll ${p}Match3Actors_rule.xml \
+            ${p}Match3Actors_${host}.xml false]
+        set parallel [matchAll ${p}Match3Actors_rule.xml \
+            ${p}Match3Actors_${host}.xml true]
+        lappend results [expr {$sequential == $parallel}] \
+            [llength [split $sequential "\n"]]
+    }
+    list $results
+} {{1 2 1 0 1 2 1 2 1 2 1 0 1 2 1 2}}
@@ -119,7 +119,7 @@ public class Gaussian extends RandomSource {
         double meanValue = ((DoubleToken) mean.getToken()).doubleValue();
         double standardDeviationValue = ((DoubleToken) standardDeviation
                 .getToken()).doubleValue();
-        double rawNum = _random.nextGaussian();
+        double rawNum = _nextGaussian();
         _current = rawNum * standardDeviationValue + meanValue;
     }
 
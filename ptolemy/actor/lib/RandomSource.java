@@ -69,6 +69,16 @@ import ptolemy.kernel.util.Workspace;
  tests. If the seed is zero, then a new seed is generated
  on each run using the same technique described above
  (combining current time and the hash code).
+<p>
+ If the model contains a {@link RandomStreams} attribute, in this
+ actor or in one of its containers, and the <i>privateSeed</i>
+ is not set, then the random numbers are instead drawn from a stream
+ provided by that attribute, which depends only on its seed and on
+ the name of this actor.  Such streams are recreated on each run,
+ are independent of each other, and are reproducible even when
+ the actors execute in separate threads.  Derived classes should use
+ {@link #_nextDouble()} and {@link #_nextGaussian()}, which draw
+ the numbers of such a stream in blocks.
 
  @author Edward A. Lee, Steve Neuendorffer, Elaine Cheong
  @version $Id$
@@ -189,6 +199,9 @@ public abstract class RandomSource extends Source {
         // all clones will have the same actor name, which results
         // in the same seed.
         newObject._needNewGenerator = true;
+        newObject._stream = null;
+        newObject._doubles = null;
+        newObject._gaussians = null;
 
         return newObject;
     }
@@ -221,7 +234,8 @@ public abstract class RandomSource extends Source {
     public void initialize() throws IllegalActionException {
         super.initialize();
 
-        if (_random == null
+        if (_random == null || _random == _stream
+                || RandomStreams.find(this) != null
                 || ((BooleanToken) resetOnEachRun.getToken()).booleanValue()) {
             _createGenerator();
         }
@@ -246,6 +260,12 @@ public abstract class RandomSource extends Source {
      *  seed Token.
      */
     protected void _createGenerator() throws IllegalActionException {
+        if (_createStream() != null) {
+            _random = _stream;
+            _needNewGenerator = false;
+            _needNew = true;
+            return;
+        }
         long seedValue;
         Token privateSeedToken = privateSeed.getToken();
         if (privateSeedToken != null) {
@@ -273,6 +293,30 @@ public abstract class RandomSource extends Source {
         _needNew = true;
     }
 
+    /** Create the stream of random numbers of this actor if the model
+     *  contains a {@link RandomStreams} attribute and the
+     *  <i>privateSeed</i> parameter is not set, and set
+     *  {@link #_stream} to that stream or to null.
+     *  @return The new stream, or null if there is none.
+     *  @exception IllegalActionException If the seeds cannot be
+     *   evaluated.
+     */
+    protected RandomStreams.Stream _createStream()
+            throws IllegalActionException {
+        _stream = null;
+        _doubleIndex = 0;
+        _doubles = null;
+        _gaussianIndex = 0;
+        _gaussians = null;
+        if (privateSeed.getToken() == null) {
+            RandomStreams streams = RandomStreams.find(this);
+            if (streams != null) {
+                _stream = streams.createStream(this);
+            }
+        }
+        return _stream;
+    }
+
     /** Generate a new random number.
      *  @exception IllegalActionException Not thrown in this base class.
      *  Derived classes may throw it if there are problems getting parameter
@@ -281,6 +325,50 @@ public abstract class RandomSource extends Source {
     protected abstract void _generateRandomNumber()
             throws IllegalActionException;
 
+    /** Return the next pseudorandom double, uniformly distributed
+     *  between 0.0 (inclusive) and 1.0 (exclusive).  If this actor
+     *  uses a stream of a {@link RandomStreams} attribute, then the
+     *  doubles are generated in blocks.  Otherwise, this returns
+     *  the next double of {@link #_random}.
+     *  @return The next double.
+     */
+    protected double _nextDouble() {
+        if (_stream == null) {
+            return _random.nextDouble();
+        }
+        if (_doubles == null) {
+            _doubles = new double[_BLOCK_SIZE];
+            _doubleIndex = _BLOCK_SIZE;
+        }
+        if (_doubleIndex == _BLOCK_SIZE) {
+            _stream.nextDoubles(_doubles, 0, _BLOCK_SIZE);
+            _doubleIndex = 0;
+        }
+        return _doubles[_doubleIndex++];
+    }
+
+    /** Return the next pseudorandom Gaussian double, with mean 0.0
+     *  and standard deviation 1.0.  If this actor uses a stream of a
+     *  {@link RandomStreams} attribute, then the doubles are generated
+     *  in blocks.  Otherwise, this returns the next Gaussian of
+     *  {@link #_random}.
+     *  @return The next Gaussian double.
+     */
+    protected double _nextGaussian() {
+        if (_stream == null) {
+            return _random.nextGaussian();
+        }
+        if (_gaussians == null) {
+            _gaussians = new double[_BLOCK_SIZE];
+            _gaussianIndex = _BLOCK_SIZE;
+        }
+        if (_gaussianIndex == _BLOCK_SIZE) {
+            _stream.nextGaussians(_gaussians, 0, _BLOCK_SIZE);
+            _gaussianIndex = 0;
+        }
+        return _gaussians[_gaussianIndex++];
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         protected variables               ////
 
@@ -296,4 +384,27 @@ public abstract class RandomSource extends Source {
     /** The Random object. */
     protected Random _random;
 
+    /** The stream of the {@link RandomStreams} attribute that this
+     *  actor uses, or null if it uses none.  If it is not null, then
+     *  it is also the value of {@link #_random}.
+     */
+    protected RandomStreams.Stream _stream;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The number of doubles generated at a time from a stream. */
+    private static final int _BLOCK_SIZE = 256;
+
+    /** The index of the next double of _doubles. */
+    private int _doubleIndex;
+
+    /** The block of uniformly distributed doubles. */
+    private double[] _doubles;
+
+    /** The index of the next double of _gaussians. */
+    private int _gaussianIndex;
+
+    /** The block of Gaussian doubles. */
+    private double[] _gaussians;
 }
@@ -0,0 +1,291 @@
+/* An attribute that provides reproducible streams of random numbers.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.actor.lib;
+
+import java.util.Random;
+
+import ptolemy.data.LongToken;
+import ptolemy.data.expr.Parameter;
+import ptolemy.data.type.BaseType;
+import ptolemy.kernel.util.Attribute;
+import ptolemy.kernel.util.IllegalActionException;
+import ptolemy.kernel.util.NameDuplicationException;
+import ptolemy.kernel.util.NamedObj;
+
+///////////////////////////////////////////////////////////////////
+//// RandomStreams
+
+/**
+ An attribute that provides each random source in its container with
+ its own reproducible stream of random numbers.
+
+ <p>When a model contains this attribute, each {@link RandomSource}
+ below the container that does not have a <i>privateSeed</i> draws its
+ numbers from a stream whose state depends only on the <i>seed</i>
+ parameter of this attribute and on the name of the actor relative to
+ the container.  Unlike the shared <i>seed</i> of the random sources,
+ which is added to the hash code of the full name of each actor, the
+ name is hashed with 64 bits and mixed with the seed, so that the
+ streams of distinct actors are statistically independent and do not
+ change when the model is renamed or cloned, for instance in a
+ replication of a {@link ptolemy.actor.lib.hoc.ParameterSweep}.  The
+ streams are recreated on each run, so each run with the same seed
+ produces the same numbers, whatever the number of threads that execute
+ the actors.</p>
+
+ <p>The streams use the SplitMix64 algorithm, which passes the usual
+ statistical test suites, has a period of 2<sup>64</sup>, and whose
+ state is a single long, so that a stream can be created, or split into
+ a new independent stream, at the cost of a few multiplications.  The
+ streams also generate blocks of numbers into arrays of doubles, which
+ the random sources use to amortize the cost of each number.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @see RandomSource
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class RandomStreams extends Attribute {
+
+    /** Construct an attribute with the given container and name.
+     *  @param container The container.
+     *  @param name The name of this attribute.
+     *  @exception IllegalActionException If the attribute cannot be
+     *   contained by the proposed container.
+     *  @exception NameDuplicationException If the container already has
+     *   an attribute with this name.
+     */
+    public RandomStreams(NamedObj container, String name)
+            throws IllegalActionException, NameDuplicationException {
+        super(container, name);
+        seed = new Parameter(this, "seed");
+        seed.setTypeEquals(BaseType.LONG);
+        seed.setExpression("0L");
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         parameters                        ////
+
+    /** The seed of the streams.  This is a long that defaults to 0L.
+     *  Unlike the seed of the random sources, the value 0L is not
+     *  interpreted specially: the streams are always reproducible.
+     */
+    public Parameter seed;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Create the stream of the specified object.  The stream depends
+     *  only on the value of the <i>seed</i> parameter and on the name
+     *  of the object relative to the container of this attribute.
+     *  @param object The object, typically an actor, that will use the
+     *   stream.
+     *  @return A new stream.
+     *  @exception IllegalActionException If the seed cannot be
+     *   evaluated.
+     */
+    public Stream createStream(NamedObj object) throws IllegalActionException {
+        long seedValue = ((LongToken) seed.getToken()).longValue();
+        // FNV-1a hash of the relative name.
+        long hash = 0xcbf29ce484222325L;
+        String name = object.getName(getContainer());
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return new Stream(_mix64(seedValue) ^ _mix64(hash));
+    }
+
+    /** Return the first RandomStreams attribute of the specified
+     *  object or of its containers, starting with the object.
+     *  @param object The object.
+     *  @return The attribute, or null if there is none.
+     */
+    public static RandomStreams find(NamedObj object) {
+        NamedObj container = object;
+        while (container != null) {
+            for (Object attribute : container
+                    .attributeList(RandomStreams.class)) {
+                return (RandomStreams) attribute;
+            }
+            container = container.getContainer();
+        }
+        return null;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         inner classes                     ////
+
+    /** A stream of random numbers produced by the SplitMix64 algorithm.
+     *  This is a subclass of java.util.Random so that it can be used
+     *  wherever a Random is expected, but unlike Random, it is not
+     *  thread safe: each stream is meant to be used by a single actor.
+     */
+    public static class Stream extends Random {
+
+        /** Construct a stream with the specified state.
+         *  @param state The initial state.
+         */
+        public Stream(long state) {
+            super(state);
+        }
+
+        /** Return the next pseudorandom double, uniformly distributed
+         *  between 0.0 (inclusive) and 1.0 (exclusive).
+         *  @return The next double.
+         */
+        @Override
+        public double nextDouble() {
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+
+        /** Fill a range of an array with pseudorandom doubles, uniformly
+         *  distributed between 0.0 (inclusive) and 1.0 (exclusive).
+         *  The numbers are the same as those returned by as many calls
+         *  to {@link #nextDouble()}.
+         *  @param values The array.
+         *  @param offset The index of the first element to fill.
+         *  @param length The number of elements to fill.
+         */
+        public void nextDoubles(double[] values, int offset, int length) {
+            long state = _state;
+            for (int i = offset; i < offset + length; i++) {
+                state += _GOLDEN_GAMMA;
+                values[i] = (_mix64(state) >>> 11) * 0x1.0p-53;
+            }
+            _state = state;
+        }
+
+        /** Return the next pseudorandom Gaussian double, with mean 0.0
+         *  and standard deviation 1.0, using the polar method.
+         *  @return The next Gaussian double.
+         */
+        @Override
+        public double nextGaussian() {
+            if (_haveNextGaussian) {
+                _haveNextGaussian = false;
+                return _nextGaussian;
+            }
+            double v1, v2, s;
+            do {
+                v1 = 2 * nextDouble() - 1;
+                v2 = 2 * nextDouble() - 1;
+                s = v1 * v1 + v2 * v2;
+            } while (s >= 1 || s == 0);
+            double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+            _nextGaussian = v2 * multiplier;
+            _haveNextGaussian = true;
+            return v1 * multiplier;
+        }
+
+        /** Fill a range of an array with pseudorandom Gaussian doubles,
+         *  with mean 0.0 and standard deviation 1.0.  The numbers are
+         *  the same as those returned by as many calls to
+         *  {@link #nextGaussian()}.
+         *  @param values The array.
+         *  @param offset The index of the first element to fill.
+         *  @param length The number of elements to fill.
+         */
+        public void nextGaussians(double[] values, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                values[i] = nextGaussian();
+            }
+        }
+
+        /** Return the next pseudorandom long.
+         *  @return The next long.
+         */
+        @Override
+        public long nextLong() {
+            _state += _GOLDEN_GAMMA;
+            return _mix64(_state);
+        }
+
+        /** Set the state of this stream.
+         *  @param seed The new state.
+         */
+        @Override
+        public void setSeed(long seed) {
+            // This is called by the constructor of the base class, before
+            // the fields of this class are initialized, so the fields
+            // must not have initializers.
+            _state = seed;
+            _haveNextGaussian = false;
+        }
+
+        /** Return a new stream that is statistically independent of this
+         *  one, and advance the state of this one.
+         *  @return A new stream.
+         */
+        public Stream split() {
+            return new Stream(_mix64(nextLong()));
+        }
+
+        /** Return the specified number of high-order bits of the next
+         *  pseudorandom long.  The other methods of the base class, such
+         *  as nextInt(), use this method.
+         *  @param bits The number of bits.
+         *  @return The next bits.
+         */
+        @Override
+        protected int next(int bits) {
+            return (int) (nextLong() >>> 64 - bits);
+        }
+
+        /** True if _nextGaussian holds the second number of a pair. */
+        private boolean _haveNextGaussian;
+
+        /** The second Gaussian number of the last pair. */
+        private double _nextGaussian;
+
+        /** The state of the stream. */
+        private long _state;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return the SplitMix64 finalizer of the specified value, which
+     *  spreads each bit of the value over the bits of the result.
+     *  @param value The value.
+     *  @return The mixed value.
+     */
+    private static long _mix64(long value) {
+        long z = (value ^ value >>> 30) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+        return z ^ z >>> 31;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The increment of the state of the streams. */
+    private static final long _GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+}
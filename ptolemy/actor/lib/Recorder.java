@@ -30,18 +30,19 @@ package ptolemy.actor.lib;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
+import ptolemy.actor.util.TokenHistory;
 import ptolemy.data.IntToken;
 import ptolemy.data.StringToken;
 import ptolemy.data.Token;
 import ptolemy.data.expr.Parameter;
 import ptolemy.data.type.BaseType;
 import ptolemy.kernel.CompositeEntity;
+import ptolemy.kernel.util.Attribute;
 import ptolemy.kernel.util.IllegalActionException;
 import ptolemy.kernel.util.NameDuplicationException;
+import ptolemy.kernel.util.Workspace;
 
 ///////////////////////////////////////////////////////////////////
 //// Recorder
@@ -61,6 +62,14 @@ import ptolemy.kernel.util.NameDuplicationException;
  then only the most recently seen token on each channel is recorded.
  If the capacity is negative (the default), then the capacity
  is infinite.</p>
+ <p>
+ Unitless double, int, long and boolean tokens are recorded as
+ primitive values rather than as token objects, so that long
+ histories use little memory.  If the <i>spillThreshold</i> parameter
+ is positive, then once more than that many firings are recorded,
+ older records of such tokens are moved into a memory-mapped
+ temporary file.  The lists returned by getHistory() and
+ getTimeHistory() are views of the record rather than copies.</p>
 
  @author Edward A. Lee
  @version $Id$
@@ -84,6 +93,10 @@ public class Recorder extends Sink {
 
         capacity = new Parameter(this, "capacity", new IntToken(-1));
         capacity.setTypeEquals(BaseType.INT);
+
+        spillThreshold = new Parameter(this, "spillThreshold",
+                new IntToken(0));
+        spillThreshold.setTypeEquals(BaseType.INT);
     }
 
     ///////////////////////////////////////////////////////////////////
@@ -94,9 +107,51 @@ public class Recorder extends Sink {
      */
     public Parameter capacity;
 
+    /** The number of firings to keep in memory before older records
+     *  are moved to a memory-mapped temporary file.  If the value is
+     *  zero (the default) or negative, then the record is kept in memory.
+     *  This parameter must contain an IntToken.
+     */
+    public Parameter spillThreshold;
+
     ///////////////////////////////////////////////////////////////////
     ////                         public methods                    ////
 
+    /** If the attribute is <i>capacity</i>, then limit the record to
+     *  the new capacity, discarding the oldest records if necessary.
+     *  @param attribute The attribute that changed.
+     *  @exception IllegalActionException If the capacity cannot be
+     *   evaluated.
+     */
+    @Override
+    public void attributeChanged(Attribute attribute)
+            throws IllegalActionException {
+        if (attribute == capacity) {
+            _capacity = ((IntToken) capacity.getToken()).intValue();
+            if (_history != null) {
+                _history.setCapacity(_capacity);
+            }
+        } else {
+            super.attributeChanged(attribute);
+        }
+    }
+
+    /** Clone the actor into the specified workspace. The new actor
+     *  has an empty record.
+     *  @param workspace The workspace for the new object.
+     *  @return A new actor.
+     *  @exception CloneNotSupportedException If a derived class contains
+     *   an attribute that cannot be cloned.
+     */
+    @Override
+    public Object clone(Workspace workspace) throws CloneNotSupportedException {
+        Recorder newObject = (Recorder) super.clone(workspace);
+        newObject._history = null;
+        newObject._latest = null;
+        newObject._count = 0;
+        return newObject;
+    }
+
     /** Get the total number of events seen so far.
      *  @return The total number of events seen so far.
      */
@@ -109,33 +164,16 @@ public class Recorder extends Sink {
      *  channel, then a string token with value "_" is returned in the
      *  position of the list corresponding to that firing.
      *  If nothing has been recorded (there have been no firings),
-     *  then return an empty list.
+     *  then return an empty list.  The returned list is a view of the
+     *  record that cannot be modified, and it is not copied.
      *  @param channel The input channel for which the history is desired.
      *  @return A list of Token objects.
      */
     public List getHistory(int channel) {
-        ArrayList result = new ArrayList();
-
-        if (_records != null) {
-            result.ensureCapacity(_records.size());
-
-            Iterator firings = _records.iterator();
-
-            while (firings.hasNext()) {
-                Token[] record = (Token[]) firings.next();
-
-                if (channel < record.length) {
-                    if (record[channel] != null) {
-                        result.add(record[channel]);
-                        continue;
-                    }
-                }
-
-                result.add(_bottom);
-            }
+        if (_history == null) {
+            return new ArrayList();
         }
-
-        return result;
+        return _history.channelHistory(channel, _bottom);
     }
 
     /** Get the latest input for the specified channel.
@@ -171,7 +209,10 @@ public class Recorder extends Sink {
      *  @return A list of Double objects.
      */
     public List getTimeHistory() {
-        return _timeRecord;
+        if (_history == null) {
+            return new ArrayList();
+        }
+        return _history.timeHistory();
     }
 
     /** Get the record of the current time of each invocation of postfire().
@@ -180,7 +221,7 @@ public class Recorder extends Sink {
      */
     @Deprecated
     public Enumeration getTimeRecord() {
-        return Collections.enumeration(_timeRecord);
+        return Collections.enumeration(getTimeHistory());
     }
 
     /** Initialize the lists used to record input data.
@@ -189,8 +230,11 @@ public class Recorder extends Sink {
     @Override
     public void initialize() throws IllegalActionException {
         super.initialize();
-        _records = new LinkedList();
-        _timeRecord = new LinkedList();
+        if (_history != null) {
+            _history.clear();
+        }
+        _history = new TokenHistory(this, _capacity,
+                ((IntToken) spillThreshold.getToken()).intValue());
         _latest = null;
         _count = 0;
     }
@@ -214,24 +258,25 @@ public class Recorder extends Sink {
             }
         }
 
-        int capacityValue = ((IntToken) capacity.getToken()).intValue();
-
-        if (capacityValue != 0) {
-            _records.add(record);
-            _timeRecord.add(Double
-                    .valueOf(getDirector().getModelTime().getDoubleValue()));
-
-            if (capacityValue > 0 && _records.size() > capacityValue) {
-                // Remove the first element.
-                _records.remove(0);
-                _timeRecord.remove(0);
-            }
-        }
+        _history.append(getDirector().getModelTime().getDoubleValue(),
+                record);
 
         _latest = record;
         return true;
     }
 
+    /** Close and delete the temporary file that holds the older records,
+     *  if any.  The records remain available until the next run.
+     *  @exception IllegalActionException If the parent class throws it.
+     */
+    @Override
+    public void wrapup() throws IllegalActionException {
+        super.wrapup();
+        if (_history != null) {
+            _history.releaseSpillFile();
+        }
+    }
+
     //     public void wrapup() throws IllegalActionException {
     //         super.wrapup();
     //         for (int channel = 0; channel < input.getWidth(); channel++) {
@@ -246,18 +291,18 @@ public class Recorder extends Sink {
 
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
+    // The value of the capacity parameter.
+    private int _capacity = -1;
+
     // Count of events seen.
     private int _count = 0;
 
-    // A linked list of arrays.
-    private List _records;
+    // The record of inputs and times.
+    private TokenHistory _history;
 
     // The most recent set of inputs.
     Token[] _latest;
 
-    // A linked list of Double objects, which are times.
-    private List _timeRecord;
-
     // A token to indicate absence.
     private static Token _bottom = new StringToken("_");
 }
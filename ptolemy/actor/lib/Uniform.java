@@ -130,7 +130,7 @@ public class Uniform extends RandomSource {
                     "Invalid bounds: lowerBound is greater than upperBound.");
         }
 
-        double rawNum = _random.nextDouble();
+        double rawNum = _nextDouble();
         _current = rawNum * (upperValue - lowerValue) + lowerValue;
     }
 
@@ -50,7 +50,10 @@ import ptolemy.kernel.util.NameDuplicationException;
 
  <p> This actor instantiates a
  <a href="http://hoschek.home.cern.ch/hoschek/colt/V1.0.3/doc/cern/jet/random/Normal.html">cern.jet.random.Normal</a> object with
- a mean of 1.0 and a standardDeviation of 1.0.
+ a mean of 1.0 and a standardDeviation of 1.0.  If the model
+ contains a {@link ptolemy.actor.lib.RandomStreams} attribute, then
+ the values are instead computed from Gaussian numbers that are
+ generated in blocks from the stream of this actor.
 
  @author David Bauer and Kostas Oikonomou
  @version $Id$
@@ -134,8 +137,12 @@ public class ColtNormal extends ColtRandomSource {
         double standardDeviationValue = ((DoubleToken) standardDeviation
                 .getToken()).doubleValue();
 
-        _generator.setState(meanValue, standardDeviationValue);
-        _current = _generator.nextDouble();
+        if (_stream != null) {
+            _current = meanValue + standardDeviationValue * _nextGaussian();
+        } else {
+            _generator.setState(meanValue, standardDeviationValue);
+            _current = _generator.nextDouble();
+        }
     }
 
     ///////////////////////////////////////////////////////////////////
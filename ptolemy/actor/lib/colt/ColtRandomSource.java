@@ -54,7 +54,11 @@ import ptolemy.kernel.util.NameDuplicationException;
  generator class is set for any one actor in a model,
  it gets set to match in all other actors within the
  same top-level container (unless this actor is within
- an EntityLibrary).
+ an EntityLibrary).  If the model contains a
+ {@link ptolemy.actor.lib.RandomStreams} attribute, then the
+ generator is seeded from the stream of this actor, so that
+ the sequence is reproducible and independent of those of
+ the other actors.
 
  @author David Bauer, Kostas Oikonomou, and Edward A. Lee
  @version $Id$
@@ -149,7 +153,11 @@ public abstract class ColtRandomSource extends RandomSource {
     protected void _createGenerator() throws IllegalActionException {
         long seedValue = ((LongToken) seed.getToken()).longValue();
         Token token = privateSeed.getToken();
-        if (token != null) {
+        if (_createStream() != null) {
+            // The stream of a RandomStreams attribute seeds the generator.
+            _generatorSeed = seedValue;
+            seedValue = _stream.nextLong();
+        } else if (token != null) {
             seedValue = ((LongToken) token).longValue();
             _generatorSeed = seedValue;
         } else {
@@ -194,7 +202,11 @@ public abstract class ColtRandomSource extends RandomSource {
         // In the base class, if _random is null, then initialize()
         // will re-run this method. We don't want this, so even though
         // we don't need it, we create an instance of Random.
-        _random = new Random();
+        if (_stream != null) {
+            _random = _stream;
+        } else {
+            _random = new Random();
+        }
         _needNewGenerator = false;
         _needNew = true;
 
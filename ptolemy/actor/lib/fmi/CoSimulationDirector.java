@@ -0,0 +1,368 @@
+/* A director that steps co-simulation FMUs concurrently.
+
+   Copyright (c) 2026 The Regents of the University of California.
+   All rights reserved.
+   Permission is hereby granted, without written agreement and without
+   license or royalty fees, to use, copy, modify, and distribute this
+   software and its documentation for any purpose, provided that the above
+   copyright notice and the following two paragraphs appear in all copies
+   of this software.
+
+   IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+   FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+   ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+   THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+   SUCH DAMAGE.
+
+   THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+   INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+   MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+   PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+   CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+   ENHANCEMENTS, OR MODIFICATIONS.
+
+   PT_COPYRIGHT_VERSION_2
+   COPYRIGHTENDKEY
+
+ */
+package ptolemy.actor.lib.fmi;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ptolemy.actor.CompositeActor;
+import ptolemy.actor.util.Time;
+import ptolemy.data.BooleanToken;
+import ptolemy.data.IntToken;
+import ptolemy.data.expr.Parameter;
+import ptolemy.data.type.BaseType;
+import ptolemy.domains.sdf.kernel.SDFDirector;
+import ptolemy.kernel.CompositeEntity;
+import ptolemy.kernel.util.IllegalActionException;
+import ptolemy.kernel.util.NameDuplicationException;
+import ptolemy.kernel.util.Workspace;
+
+///////////////////////////////////////////////////////////////////
+//// CoSimulationDirector
+
+/**
+ A director that acts as a co-simulation master for FMUs, advancing
+ the co-simulation FMUs that it controls concurrently on a pool of
+ threads.
+
+ <p>This director extends the SDF director. Its <i>period</i> parameter
+ is the communication step size. At the start of each iteration, if
+ model time has advanced since the last communication point, this
+ director invokes fmiDoStep() on every contained {@link FMUImport}
+ actor that is used for co-simulation, and it does this in parallel.
+ It then executes the SDF schedule as usual, during which each FMU
+ finds that it is already at the current time, so that firing it
+ only exchanges input and output values.</p>
+
+ <p>Running the fmiDoStep() calls concurrently does not change the
+ results. {@link FMUImport} sets the inputs of a co-simulation FMU
+ during fire() and they take effect only at the <i>next</i> call to
+ fmiDoStep(), so the step of each FMU from one communication point to
+ the next depends only on values that have already been exchanged.
+ All the FMUs are therefore mutually independent during the
+ integration step, whatever their input/output dependencies are; those
+ dependencies matter only for the order in which values are exchanged
+ at the communication point, which the SDF schedule takes care of.</p>
+
+ <p>The FMI standard does not require that multiple instances of the
+ same FMU be usable from different threads at the same time, so
+ instances that share a model identifier are stepped one after the
+ other within a single task. FMUs that use model exchange or the raw
+ JNI interface are not stepped by this director; they are handled by
+ {@link FMUImport#fire()} exactly as under the SDF director.</p>
+
+ <p>If any FMU discards a step and the <i>rollback</i> parameter is
+ true, then every FMU that supports fmiGetFMUstate() and
+ fmiSetFMUstate() is restored to the state recorded at the last
+ communication point, so that all the FMUs remain consistent, and an
+ exception is thrown that reports the step size suggested by the
+ FMUs. If <i>rollback</i> is false, then the step is treated as the
+ SDF director would treat it.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class CoSimulationDirector extends SDFDirector {
+
+    /** Construct a director in the given container with the given name.
+     *  @param container Container of the director.
+     *  @param name Name of this director.
+     *  @exception IllegalActionException If the director is not compatible
+     *   with the specified container.
+     *  @exception NameDuplicationException If the container is not a
+     *   CompositeActor and the name collides with an entity in the container.
+     */
+    public CoSimulationDirector(CompositeEntity container, String name)
+            throws IllegalActionException, NameDuplicationException {
+        super(container, name);
+        _initParameters();
+    }
+
+    /** Construct a director in the workspace with an empty name.
+     *  @param workspace The workspace for this object.
+     *  @exception IllegalActionException If the name has a period in it, or
+     *   the director is not compatible with the specified container.
+     *  @exception NameDuplicationException If the container already contains
+     *   an entity with the specified name.
+     */
+    public CoSimulationDirector(Workspace workspace)
+            throws IllegalActionException, NameDuplicationException {
+        super(workspace);
+        _initParameters();
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         parameters                        ////
+
+    /** The number of threads used to step the FMUs. This is an int
+     *  that defaults to 0, which means to use one thread per available
+     *  processor. A value of 1 steps the FMUs sequentially in the
+     *  calling thread.
+     */
+    public Parameter numberOfThreads;
+
+    /** If true, then when any FMU discards a step, roll back all the
+     *  FMUs to the last communication point before reporting the
+     *  error. This is a boolean that defaults to false.
+     */
+    public Parameter rollback;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Clone the director into the specified workspace.
+     *  @param workspace The workspace for the new object.
+     *  @return A new director.
+     *  @exception CloneNotSupportedException If a derived class has an
+     *   attribute that cannot be cloned.
+     */
+    @Override
+    public Object clone(Workspace workspace) throws CloneNotSupportedException {
+        CoSimulationDirector newObject = (CoSimulationDirector) super.clone(
+                workspace);
+        newObject._executor = null;
+        newObject._groups = null;
+        return newObject;
+    }
+
+    /** Advance all the co-simulation FMUs to the current model time,
+     *  concurrently, and then execute the schedule.
+     *  @exception IllegalActionException If an FMU fails to advance,
+     *   or if the superclass throws it.
+     */
+    @Override
+    public void fire() throws IllegalActionException {
+        _advanceFMUs();
+        super.fire();
+    }
+
+    /** Collect the co-simulation FMUs, group them by model identifier
+     *  and create the thread pool.
+     *  @exception IllegalActionException If the superclass throws it,
+     *   or if the <i>numberOfThreads</i> parameter cannot be evaluated.
+     */
+    @Override
+    public void initialize() throws IllegalActionException {
+        super.initialize();
+
+        // FMUImport.initialize() has been called by now, so the model
+        // descriptions are available.
+        _groups = new LinkedHashMap<String, List<FMUImport>>();
+        CompositeActor container = (CompositeActor) getContainer();
+        for (Object entity : container.deepEntityList()) {
+            if (entity instanceof FMUImport) {
+                FMUImport fmu = (FMUImport) entity;
+                if (fmu._fmiModelDescription == null
+                        || fmu._fmiModelDescription.modelExchange
+                        || fmu._useRawJNI()) {
+                    continue;
+                }
+                String key = fmu._fmiModelDescription.modelIdentifier;
+                List<FMUImport> group = _groups.get(key);
+                if (group == null) {
+                    group = new LinkedList<FMUImport>();
+                    _groups.put(key, group);
+                }
+                group.add(fmu);
+            }
+        }
+
+        int threads = ((IntToken) numberOfThreads.getToken()).intValue();
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        threads = Math.min(threads, _groups.size());
+        _shutdownExecutor();
+        if (threads > 1) {
+            _executor = Executors.newFixedThreadPool(threads);
+        }
+        if (_debugging) {
+            _debug("Stepping " + _groups.size() + " groups of FMUs using "
+                    + Math.max(threads, 1) + " threads.");
+        }
+    }
+
+    /** Shut down the thread pool and invoke the superclass.
+     *  @exception IllegalActionException If the superclass throws it.
+     */
+    @Override
+    public void wrapup() throws IllegalActionException {
+        try {
+            super.wrapup();
+        } finally {
+            _shutdownExecutor();
+            _groups = null;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Advance every FMU to the current model time, in parallel if
+     *  there is a thread pool. If any FMU discards the step, then
+     *  roll back if requested and throw an exception.
+     */
+    private void _advanceFMUs() throws IllegalActionException {
+        if (_groups == null || _groups.isEmpty()) {
+            return;
+        }
+        final Time currentTime = getModelTime();
+        // Like FMUImport.fire(), use microstep 1 because this director
+        // does not implement SuperdenseTimeDirector.
+        final int microstep = 1;
+
+        List<FMUImport> rejected = new LinkedList<FMUImport>();
+        if (_executor == null) {
+            for (List<FMUImport> group : _groups.values()) {
+                rejected.addAll(_advanceGroup(group, currentTime, microstep));
+            }
+        } else {
+            List<Future<List<FMUImport>>> futures = new ArrayList<Future<List<FMUImport>>>(
+                    _groups.size());
+            for (final List<FMUImport> group : _groups.values()) {
+                futures.add(_executor.submit(new Callable<List<FMUImport>>() {
+                    @Override
+                    public List<FMUImport> call()
+                            throws IllegalActionException {
+                        return _advanceGroup(group, currentTime, microstep);
+                    }
+                }));
+            }
+            // Wait for all the tasks, in the order they were
+            // submitted, so that the first error reported is
+            // deterministic.
+            IllegalActionException error = null;
+            for (Future<List<FMUImport>> future : futures) {
+                try {
+                    rejected.addAll(future.get());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    if (error == null) {
+                        error = new IllegalActionException(this, ex,
+                                "Interrupted while stepping FMUs.");
+                    }
+                } catch (ExecutionException ex) {
+                    if (error == null) {
+                        Throwable cause = ex.getCause();
+                        if (cause instanceof IllegalActionException) {
+                            error = (IllegalActionException) cause;
+                        } else {
+                            error = new IllegalActionException(this, cause,
+                                    "Failed to step FMU.");
+                        }
+                    }
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+
+        if (!rejected.isEmpty()
+                && ((BooleanToken) rollback.getToken()).booleanValue()) {
+            double suggestedStepSize = Double.POSITIVE_INFINITY;
+            for (FMUImport fmu : rejected) {
+                suggestedStepSize = Math.min(suggestedStepSize,
+                        fmu.refinedStepSize());
+            }
+            for (List<FMUImport> group : _groups.values()) {
+                for (FMUImport fmu : group) {
+                    if (fmu._fmiModelDescription.canGetAndSetFMUstate) {
+                        fmu.rollBackToCommittedState();
+                    }
+                }
+            }
+            throw new IllegalActionException(rejected.get(0), this,
+                    "FMU discarded the step to time " + currentTime
+                            + ". All FMUs that support it have been"
+                            + " rolled back to the last communication point."
+                            + " The suggested step size is "
+                            + suggestedStepSize + ".");
+        }
+    }
+
+    /** Advance each FMU in the group, in order, and return those that
+     *  discarded the step.
+     */
+    private static List<FMUImport> _advanceGroup(List<FMUImport> group,
+            Time time, int microstep) throws IllegalActionException {
+        List<FMUImport> rejected = null;
+        for (FMUImport fmu : group) {
+            if (!fmu.advance(time, microstep)) {
+                if (rejected == null) {
+                    rejected = new LinkedList<FMUImport>();
+                }
+                rejected.add(fmu);
+            }
+        }
+        if (rejected == null) {
+            return new LinkedList<FMUImport>();
+        }
+        return rejected;
+    }
+
+    /** Create the parameters. */
+    private void _initParameters()
+            throws IllegalActionException, NameDuplicationException {
+        numberOfThreads = new Parameter(this, "numberOfThreads");
+        numberOfThreads.setTypeEquals(BaseType.INT);
+        numberOfThreads.setExpression("0");
+
+        rollback = new Parameter(this, "rollback");
+        rollback.setTypeEquals(BaseType.BOOLEAN);
+        rollback.setExpression("false");
+    }
+
+    /** Shut down the thread pool, if there is one. */
+    private void _shutdownExecutor() {
+        if (_executor != null) {
+            _executor.shutdownNow();
+            _executor = null;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The thread pool, or null to step the FMUs in the calling thread. */
+    private ExecutorService _executor;
+
+    /** The co-simulation FMUs, grouped by model identifier. */
+    private Map<String, List<FMUImport>> _groups;
+}
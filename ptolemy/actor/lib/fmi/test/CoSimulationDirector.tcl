@@ -0,0 +1,108 @@
+# Test CoSimulationDirector
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+if {[string compare sdfModel [info procs sdfModel]] != 0} \
+        then {
+    source [file join $PTII util testsuite models.tcl]
+} {}
+
+# Return a model with two co-simulation FMUs, each of which counts
+# the seconds and discards the step in which its counter reaches 17.
+# The FMUs have distinct model identifiers, so the director steps them
+# in parallel if there are several threads.
+proc coSimulationModel {threads rollback} {
+    set e1 [java::new ptolemy.actor.TypedCompositeActor]
+    $e1 setName top
+    set manager [java::new ptolemy.actor.Manager [$e1 workspace] manager]
+    $e1 setManager $manager
+    set director [java::new ptolemy.actor.lib.fmi.CoSimulationDirector \
+            $e1 director]
+    [getParameter $director iterations] setExpression 40
+    [getParameter $director period] setExpression 0.5
+    [getParameter $director numberOfThreads] setExpression $threads
+    [getParameter $director rollback] setExpression $rollback
+    [getParameter $director allowDisconnectedGraphs] setExpression true
+    foreach fmu {fmuA20pt inc20pt} {
+        set fmuFile [java::new ptolemy.data.expr.FileParameter $e1 file_$fmu]
+        $fmuFile setExpression \
+                "\$CLASSPATH/ptolemy/actor/lib/fmi/test/auto/$fmu.fmu"
+        java::call ptolemy.actor.lib.fmi.FMUImport importFMU \
+                $e1 $fmuFile $e1 100.0 100.0 false
+        set actor [$e1 getEntity $fmu]
+        [getParameter $actor suppressWarnings] setExpression true
+        set recorder [java::new ptolemy.actor.lib.Recorder $e1 rec_$fmu]
+        $e1 connect [$actor getPort counter] \
+                [java::field [java::cast ptolemy.actor.lib.Sink $recorder] input]
+    }
+    return $e1
+}
+
+# Return the values recorded from the output of the specified FMU.
+proc coSimulationRecord {e1 fmu} {
+    set recorder [java::cast ptolemy.actor.lib.Recorder \
+            [$e1 getEntity rec_$fmu]]
+    return [enumToTokenValues [$recorder getRecord 0]]
+}
+
+######################################################################
+####
+#
+test CoSimulationDirector-1.1 {Step two FMUs in parallel and roll back both when one discards a step} {
+    set e1 [coSimulationModel 2 true]
+    catch {[$e1 getManager] execute} errMsg
+    list [lindex [split $errMsg "\n"] 0] \
+            [coSimulationRecord $e1 fmuA20pt] \
+            [coSimulationRecord $e1 inc20pt]
+} {{ptolemy.kernel.util.IllegalActionException: FMU discarded the step to time 16.0. All FMUs that support it have been rolled back to the last communication point. The suggested step size is 0.5000000000000071.} {1 1 2 2 3 3 4 4 5 5 6 6 7 7 8 8 9 9 10 10 11 11 12 12 13 13 14 14 15 15 16 16} {1 1 2 2 3 3 4 4 5 5 6 6 7 7 8 8 9 9 10 10 11 11 12 12 13 13 14 14 15 15 16 16}}
+
+test CoSimulationDirector-1.2 {The FMUs produce the same values in a single thread} {
+    set e2 [coSimulationModel 1 true]
+    catch {[$e2 getManager] execute} errMsg2
+    list [expr {[coSimulationRecord $e2 fmuA20pt] \
+                    == [coSimulationRecord $e1 fmuA20pt]}] \
+            [expr {[coSimulationRecord $e2 inc20pt] \
+                    == [coSimulationRecord $e1 inc20pt]}] \
+            [string match {*FMU discarded the step to time 16.0.*} $errMsg2]
+} {1 1 1}
+
+test CoSimulationDirector-1.3 {Without rollback, the discarded step is not reported by the director} {
+    set e3 [coSimulationModel 2 false]
+    catch {[$e3 getManager] execute} errMsg3
+    list [string match {*FMU discarded the step*} $errMsg3] \
+            [string match {*inc20pt_fmiDoStep*returned fmiError*} $errMsg3]
+} {0 1}
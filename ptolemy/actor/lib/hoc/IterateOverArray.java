@@ -29,11 +29,19 @@ package ptolemy.actor.lib.hoc;
 
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import ptolemy.actor.Actor;
 import ptolemy.actor.CompositeActor;
@@ -42,6 +50,7 @@ import ptolemy.actor.Executable;
 import ptolemy.actor.FiringEvent;
 import ptolemy.actor.IOPort;
 import ptolemy.actor.IOPortEvent;
+import ptolemy.actor.Manager;
 import ptolemy.actor.NoRoomException;
 import ptolemy.actor.NoTokenException;
 import ptolemy.actor.QueueReceiver;
@@ -53,6 +62,8 @@ import ptolemy.actor.util.GLBFunction;
 import ptolemy.data.ArrayToken;
 import ptolemy.data.IntToken;
 import ptolemy.data.Token;
+import ptolemy.data.expr.ModelScope;
+import ptolemy.data.expr.Parameter;
 import ptolemy.data.expr.Variable;
 import ptolemy.data.type.ArrayType;
 import ptolemy.data.type.BaseType;
@@ -66,6 +77,7 @@ import ptolemy.kernel.CompositeEntity;
 import ptolemy.kernel.Port;
 import ptolemy.kernel.util.IllegalActionException;
 import ptolemy.kernel.util.InternalErrorException;
+import ptolemy.kernel.util.KernelException;
 import ptolemy.kernel.util.NameDuplicationException;
 import ptolemy.kernel.util.Nameable;
 import ptolemy.kernel.util.Workspace;
@@ -109,6 +121,20 @@ import ptolemy.kernel.util.Workspace;
  inside actors consume one token on each firing, then
  its final value will be the size of the input array(s).</p>
  <p>
+ If the <i>parallelism</i> parameter is greater than 1, then the
+ elements of the input arrays are processed concurrently by up to that
+ many threads. Each thread iterates its own copy of the contained actor,
+ which is cloned into a separate workspace the first time it is needed
+ after initialize() and is reused by later firings. Iteration <i>i</i>
+ is given the <i>i</i>-th element of each input array, and the outputs
+ are assembled in the order of the elements, so the result is the same
+ as in sequential execution, provided that the contained actor consumes
+ one token from each input on each iteration and has no state that
+ carries over from one iteration to the next. Expressions in the copies
+ are evaluated against a snapshot, taken when the copy is created, of
+ the variables in scope of this actor. This mode is not used if this
+ actor has multiports or contains more than one actor.</p>
+ <p>
  This actor is properly viewed as a "higher-order component" in
  that its contained actor is a parameter that specifies how to
  operate on input arrays.  It is inspired by the higher-order
@@ -220,6 +246,16 @@ public class IterateOverArray extends MirrorComposite {
         _init();
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                     ports and parameters                  ////
+
+    /** The maximum number of threads used to process the elements
+     *  of the input arrays concurrently. This is an integer that
+     *  defaults to 1, which means that the elements are processed
+     *  sequentially by the contained actor itself.
+     */
+    public Parameter parallelism;
+
     ///////////////////////////////////////////////////////////////////
     ////                         public methods                    ////
 
@@ -537,6 +573,9 @@ public class IterateOverArray extends MirrorComposite {
 
         _iterationCount = new Variable(this, "iterationCount", new IntToken(0));
         _iterationCount.setTypeEquals(BaseType.INT);
+
+        parallelism = new Parameter(this, "parallelism", new IntToken(1));
+        parallelism.setTypeEquals(BaseType.INT);
     }
 
     ///////////////////////////////////////////////////////////////////
@@ -628,6 +667,37 @@ public class IterateOverArray extends MirrorComposite {
         }
     }
 
+    ///////////////////////////////////////////////////////////////////
+    //// InstanceDirector
+
+    /** The director of the toplevel composite actor that contains a
+     *  copy of the contained actor. It provides the copy with queue
+     *  receivers, so that tokens can be sent to it before it is
+     *  iterated, but it never fires the copy itself.
+     */
+    private static class InstanceDirector extends Director {
+        /** Construct a director in the given container with the given name.
+         *  @param container The container.
+         *  @param name The name of this director.
+         *  @exception IllegalActionException If the director cannot be
+         *   contained by the container.
+         *  @exception NameDuplicationException If the container already
+         *   has an attribute with this name.
+         */
+        public InstanceDirector(CompositeEntity container, String name)
+                throws IllegalActionException, NameDuplicationException {
+            super(container, name);
+        }
+
+        /** Return a new instance of QueueReceiver.
+         *  @return A new instance of QueueReceiver.
+         */
+        @Override
+        public Receiver newReceiver() {
+            return new QueueReceiver();
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////
     //// IterateComposite
 
@@ -717,9 +787,25 @@ public class IterateOverArray extends MirrorComposite {
             // Don't call "super.fire();" here, this actor contains its
             // own director.
             CompositeActor container = (CompositeActor) getContainer();
-            Iterator actors = container.entityList().iterator();
             _postfireReturns = true;
 
+            if (_parallelInputs != null) {
+                int length = 0;
+                for (ArrayToken array : _parallelInputs.values()) {
+                    length = Math.max(length, array.length());
+                }
+                if (length > 0) {
+                    _fireInParallel((ComponentEntity) container.entityList()
+                            .get(0), length);
+                    return;
+                }
+                // With no input data, iterate the contained actor
+                // itself, which finds its inputs empty as it would
+                // in sequential execution.
+            }
+
+            Iterator actors = container.entityList().iterator();
+
             while (actors.hasNext() && !_stopRequested) {
                 Actor actor = (Actor) actors.next();
 
@@ -787,6 +873,24 @@ public class IterateOverArray extends MirrorComposite {
             }
         }
 
+        /** Initialize the contained actor, discard the copies of it
+         *  that were used by a previous execution to process array
+         *  elements in parallel, and, if elements are to be processed
+         *  in parallel, create the threads that process them.
+         *  @exception IllegalActionException If the base class throws it,
+         *   or if a copy cannot be wrapped up.
+         */
+        @Override
+        public void initialize() throws IllegalActionException {
+            super.initialize();
+            _discardInstances();
+            _shutdownExecutor();
+            if (_isParallel()) {
+                _createExecutor(
+                        ((IntToken) parallelism.getToken()).intValue());
+            }
+        }
+
         /** Return a new instance of QueueReceiver.
          *  @return A new instance of QueueReceiver.
          *  @see QueueReceiver
@@ -808,6 +912,19 @@ public class IterateOverArray extends MirrorComposite {
             return superReturns && _postfireReturns;
         }
 
+        /** Discard the input arrays and outputs recorded by the previous
+         *  firing when elements are processed in parallel, and return
+         *  what the base class returns.
+         *  @return True if the container is ready to fire.
+         *  @exception IllegalActionException If the base class throws it.
+         */
+        @Override
+        public boolean prefire() throws IllegalActionException {
+            _parallelInputs = null;
+            _parallelOutputs = null;
+            return super.prefire();
+        }
+
         /** Transfer data from an input port of the
          *  container to the ports it is connected to on the inside.
          *  This method extracts tokens from the input array and
@@ -820,6 +937,21 @@ public class IterateOverArray extends MirrorComposite {
         @Override
         public boolean transferInputs(IOPort port)
                 throws IllegalActionException {
+            if (_isParallel()) {
+                // Record the input array instead of sending its elements
+                // inside. They are given to copies of the contained actor
+                // in fire().
+                if (_parallelInputs == null) {
+                    _parallelInputs = new HashMap<String, ArrayToken>();
+                }
+                if (port.getWidth() > 0 && port.isKnown(0)
+                        && port.hasToken(0)) {
+                    _parallelInputs.put(port.getName(),
+                            (ArrayToken) port.get(0));
+                    return true;
+                }
+                return false;
+            }
             boolean result = false;
 
             for (int i = 0; i < port.getWidth(); i++) {
@@ -876,6 +1008,20 @@ public class IterateOverArray extends MirrorComposite {
                 elementType = ((ArrayType) portType).getElementType();
             }
 
+            if (_parallelOutputs != null) {
+                if (port.getWidthInside() == 0) {
+                    return false;
+                }
+                List<Token> list = _parallelOutputs.get(port.getName());
+                if (list == null || list.size() == 0) {
+                    port.send(0, new ArrayToken(elementType));
+                } else {
+                    port.send(0, new ArrayToken(elementType,
+                            list.toArray(new Token[list.size()])));
+                }
+                return true;
+            }
+
             for (int i = 0; i < port.getWidthInside(); i++) {
                 try {
                     ArrayList list = new ArrayList();
@@ -909,8 +1055,219 @@ public class IterateOverArray extends MirrorComposite {
             return result;
         }
 
+        /** Wrap up the contained actor and the copies of it that were
+         *  used to process array elements in parallel.
+         *  @exception IllegalActionException If the base class throws it,
+         *   or if a copy cannot be wrapped up.
+         */
+        @Override
+        public void wrapup() throws IllegalActionException {
+            try {
+                super.wrapup();
+            } finally {
+                try {
+                    _discardInstances();
+                } finally {
+                    _shutdownExecutor();
+                }
+            }
+        }
+
+        //////////////////////////////////////////////////////////////
+        ////                   private methods                    ////
+
+        /** Create the threads that process array elements in parallel.
+         *  @param threads The number of threads.
+         */
+        private void _createExecutor(int threads) {
+            _executor = Executors.newFixedThreadPool(threads);
+            _executorThreads = threads;
+        }
+
+        /** Wrap up and discard the copies of the contained actor. */
+        private void _discardInstances() throws IllegalActionException {
+            if (_instances == null) {
+                return;
+            }
+            List<IterationInstance> instances = _instances;
+            _instances = null;
+            for (IterationInstance instance : instances) {
+                instance.wrapup();
+            }
+        }
+
+        /** Process the elements of the recorded input arrays
+         *  concurrently on copies of the given actor, and record
+         *  the outputs in the order of the elements.
+         *  @param actor The contained actor.
+         *  @param length The length of the longest input array.
+         *  @exception IllegalActionException If a copy cannot be
+         *   created, or if an iteration of a copy throws it.
+         */
+        private void _fireInParallel(ComponentEntity actor, final int length)
+                throws IllegalActionException {
+            if (!actor.isOpaque()) {
+                throw new IllegalActionException(getContainer(),
+                        "Inside actor is not opaque "
+                                + "(perhaps it needs a director).");
+            }
+            int threads = Math.min(length,
+                    ((IntToken) parallelism.getToken()).intValue());
+            final List<IterationInstance> instances = _getInstances(actor,
+                    threads);
+            final Map<String, ArrayToken> inputs = _parallelInputs;
+            // The result of each iteration, or -1 if it was not performed.
+            final int[] results = new int[length];
+            Arrays.fill(results, -1);
+            // The tokens produced on each output by each iteration.
+            final Token[][][] outputs = new Token[length][][];
+
+            if (_executor == null || _executorThreads < threads) {
+                // The parallelism parameter changed during execution.
+                _shutdownExecutor();
+                _createExecutor(threads);
+            }
+            List<Future<Void>> futures = new LinkedList<Future<Void>>();
+            try {
+                for (int i = 0; i < threads; i++) {
+                    final int first = i;
+                    futures.add(_executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws IllegalActionException {
+                            IterationInstance instance = instances.get(first);
+                            // Each copy processes every threads-th element,
+                            // in order, so that the assignment of elements
+                            // to copies does not depend on timing.
+                            for (int j = first; j < length
+                                    && !_stopRequested; j += instances
+                                            .size()) {
+                                results[j] = instance.iterate(j, inputs,
+                                        outputs);
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                throw new IllegalActionException(getContainer(), ex,
+                        "Interrupted while iterating in parallel.");
+            } catch (ExecutionException ex) {
+                throw new IllegalActionException(getContainer(), ex.getCause(),
+                        "Failed to iterate in parallel.");
+            }
+
+            // Assemble the outputs in the order of the elements, stopping
+            // where sequential execution would have stopped.
+            _parallelOutputs = new HashMap<String, List<Token>>();
+            List<String> outputNames = instances.get(0).outputNames();
+            for (String name : outputNames) {
+                _parallelOutputs.put(name, new ArrayList<Token>());
+            }
+            int count = 0;
+            for (int i = 0; i < length && results[i] >= 0; i++) {
+                count++;
+                for (int j = 0; j < outputNames.size(); j++) {
+                    List<Token> list = _parallelOutputs.get(outputNames.get(j));
+                    for (Token token : outputs[i][j]) {
+                        list.add(token);
+                    }
+                }
+                if (results[i] == Executable.NOT_READY) {
+                    break;
+                } else if (results[i] == Executable.STOP_ITERATING) {
+                    if (_debugging) {
+                        _debug("Actor requests halt: " + actor.getFullName());
+                    }
+                    _postfireReturns = false;
+                    break;
+                }
+            }
+            _iterationCount.setToken(new IntToken(count));
+        }
+
+        /** Return the given number of copies of the given actor, creating
+         *  them if necessary. Copies are discarded if the model has
+         *  changed since they were created.
+         *  @param actor The contained actor.
+         *  @param count The number of copies.
+         *  @return A list of copies.
+         *  @exception IllegalActionException If a copy cannot be created.
+         */
+        private List<IterationInstance> _getInstances(ComponentEntity actor,
+                int count) throws IllegalActionException {
+            if (_instances != null
+                    && _instancesVersion != workspace().getVersion()) {
+                _discardInstances();
+            }
+            if (_instances == null) {
+                _instances = new ArrayList<IterationInstance>();
+            }
+            while (_instances.size() < count) {
+                _instances.add(new IterationInstance(actor));
+            }
+            _instancesVersion = workspace().getVersion();
+            return _instances.subList(0, count);
+        }
+
+        /** Return true if the elements of the input arrays are to be
+         *  processed in parallel.
+         *  @return True if parallelism is greater than 1, this actor
+         *   contains exactly one actor, and it has no multiports.
+         *  @exception IllegalActionException If the parallelism
+         *   parameter cannot be evaluated.
+         */
+        private boolean _isParallel() throws IllegalActionException {
+            if (((IntToken) parallelism.getToken()).intValue() <= 1
+                    || IterateOverArray.this.entityList().size() != 1) {
+                return false;
+            }
+            for (Object port : IterateOverArray.this.portList()) {
+                if (((IOPort) port).isMultiport()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Stop the threads that process array elements in parallel,
+         *  if any.
+         */
+        private void _shutdownExecutor() {
+            if (_executor != null) {
+                _executor.shutdown();
+                _executor = null;
+                _executorThreads = 0;
+            }
+        }
+
         //////////////////////////////////////////////////////////////
         ////                   private variables                  ////
+
+        // The threads that process array elements in parallel, or null
+        // if there are none.
+        private ExecutorService _executor;
+
+        // The number of threads of _executor.
+        private int _executorThreads;
+
+        // The copies of the contained actor used to process array
+        // elements in parallel, or null if there are none.
+        private List<IterationInstance> _instances;
+
+        // The workspace version when the copies were created.
+        private long _instancesVersion = -1;
+
+        // The input arrays of the current firing, indexed by port name,
+        // if elements are processed in parallel.
+        private Map<String, ArrayToken> _parallelInputs;
+
+        // The outputs of the current firing, indexed by port name,
+        // if elements are processed in parallel.
+        private Map<String, List<Token>> _parallelOutputs;
+
         // Indicator that at least one actor returned false in postfire.
         private boolean _postfireReturns = true;
     }
@@ -1067,4 +1424,169 @@ public class IterateOverArray extends MirrorComposite {
             }
         }
     }
+
+    ///////////////////////////////////////////////////////////////////
+    //// IterationInstance
+
+    /** A copy of the contained actor in a separate workspace, used to
+     *  process array elements in parallel. The copy is contained by a
+     *  toplevel composite actor that has a port connected to each port
+     *  of the copy, and a variable for each variable in scope of this
+     *  IterateOverArray actor, with the value that variable had when
+     *  the copy was created.
+     */
+    private class IterationInstance {
+        /** Clone the given actor into a new workspace and initialize it.
+         *  @param actor The contained actor.
+         *  @exception IllegalActionException If the actor cannot be
+         *   cloned or the copy cannot be initialized.
+         */
+        private IterationInstance(ComponentEntity actor)
+                throws IllegalActionException {
+            Workspace workspace = new Workspace(actor.getName());
+            try {
+                _model = new TypedCompositeActor(workspace);
+                _model.setName(IterateOverArray.this.getName());
+                new InstanceDirector(_model, "InstanceDirector");
+
+                for (String name : ModelScope.getAllScopedVariableNames(null,
+                        IterateOverArray.this)) {
+                    Variable variable = ModelScope.getScopedVariable(null,
+                            IterateOverArray.this, name);
+                    if (variable != null && _model.getAttribute(name) == null) {
+                        // Use a Parameter, since the toplevel model
+                        // expects some of its attributes, such as
+                        // enableBackwardTypeInference, to be parameters.
+                        new Parameter(_model, name, variable.getToken());
+                    }
+                }
+                _instanceIterationCount = (Variable) _model
+                        .getAttribute("iterationCount");
+
+                ComponentEntity copy = (ComponentEntity) actor
+                        .clone(workspace);
+                copy.setContainer(_model);
+                _actor = (Actor) copy;
+
+                for (Object object : actor.portList()) {
+                    TypedIOPort port = (TypedIOPort) object;
+                    TypedIOPort copyPort = (TypedIOPort) copy
+                            .getPort(port.getName());
+                    TypedIOPort modelPort = new TypedIOPort(_model,
+                            port.getName(), port.isInput(), port.isOutput());
+                    // The copy is typed in isolation, so fix the types of
+                    // its ports to those resolved in this model, which may
+                    // depend on connections outside of this actor.
+                    Type type = port.getType();
+                    if (!type.equals(BaseType.UNKNOWN)) {
+                        copyPort.setTypeEquals(type);
+                        modelPort.setTypeEquals(type);
+                    }
+                    if (port.isInput()) {
+                        _inputs.add(modelPort);
+                    }
+                    if (port.isOutput()) {
+                        _outputs.add(modelPort);
+                    }
+                    _model.connect(modelPort, copyPort);
+                }
+
+                _manager = new Manager(workspace, "manager");
+                _model.setManager(_manager);
+                _manager.initialize();
+            } catch (CloneNotSupportedException ex) {
+                throw new IllegalActionException(IterateOverArray.this, ex,
+                        "Failed to clone " + actor.getFullName());
+            } catch (KernelException ex) {
+                throw new IllegalActionException(IterateOverArray.this, ex,
+                        "Failed to initialize a copy of "
+                                + actor.getFullName());
+            }
+        }
+
+        /** Iterate the copy once on the elements at the given index of
+         *  the given input arrays, and record the tokens it produces.
+         *  @param index The index of the array elements.
+         *  @param inputs The input arrays, indexed by port name.
+         *  @param outputs The array in which to record, at the given
+         *   index, the tokens produced on each output port.
+         *  @return The value returned by iterate() of the copy.
+         *  @exception IllegalActionException If the copy throws it.
+         */
+        private int iterate(int index, Map<String, ArrayToken> inputs,
+                Token[][][] outputs) throws IllegalActionException {
+            for (TypedIOPort port : _inputs) {
+                ArrayToken array = inputs.get(port.getName());
+                if (array != null && index < array.length()) {
+                    port.sendInside(0, array.getElement(index));
+                }
+            }
+            _instanceIterationCount.setToken(new IntToken(index + 1));
+
+            int result = _actor.iterate(1);
+
+            Token[][] tokens = new Token[_outputs.size()][];
+            for (int i = 0; i < tokens.length; i++) {
+                TypedIOPort port = _outputs.get(i);
+                List<Token> list = new ArrayList<Token>();
+                while (port.getWidthInside() > 0 && port.hasTokenInside(0)) {
+                    list.add(port.getInside(0));
+                }
+                tokens[i] = list.toArray(new Token[list.size()]);
+            }
+            outputs[index] = tokens;
+
+            // Discard any inputs that were not consumed, so that
+            // they are not seen by the next iteration of this copy.
+            for (TypedIOPort port : _inputs) {
+                for (Receiver[] receivers : port.deepGetReceivers()) {
+                    for (Receiver receiver : receivers) {
+                        receiver.clear();
+                    }
+                }
+            }
+            return result;
+        }
+
+        /** Return the names of the output ports of the copy.
+         *  @return A list of port names.
+         */
+        private List<String> outputNames() {
+            List<String> result = new ArrayList<String>(_outputs.size());
+            for (TypedIOPort port : _outputs) {
+                result.add(port.getName());
+            }
+            return result;
+        }
+
+        /** Wrap up the copy.
+         *  @exception IllegalActionException If the copy throws it.
+         */
+        private void wrapup() throws IllegalActionException {
+            try {
+                _manager.wrapup();
+            } catch (KernelException ex) {
+                throw new IllegalActionException(IterateOverArray.this, ex,
+                        "Failed to wrap up a copy of the contained actor.");
+            }
+        }
+
+        /** The copy of the contained actor. */
+        private Actor _actor;
+
+        /** The ports of the toplevel model that feed the copy. */
+        private List<TypedIOPort> _inputs = new ArrayList<TypedIOPort>();
+
+        /** The iteration count variable seen by the copy. */
+        private Variable _instanceIterationCount;
+
+        /** The manager of the toplevel model. */
+        private Manager _manager;
+
+        /** The toplevel model that contains the copy. */
+        private TypedCompositeActor _model;
+
+        /** The ports of the toplevel model fed by the copy. */
+        private List<TypedIOPort> _outputs = new ArrayList<TypedIOPort>();
+    }
 }
@@ -31,8 +31,8 @@
  */
 package ptolemy.actor.lib.hoc;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import ptolemy.actor.TypedCompositeActor;
@@ -165,6 +165,7 @@ public class MultiInstanceComposite extends TypedCompositeActor {
         MultiInstanceComposite newObject = (MultiInstanceComposite) super.clone(
                 workspace);
         newObject._isMasterCopy = _isMasterCopy;
+        newObject._clones = new ArrayList<MultiInstanceComposite>();
         return newObject;
     }
 
@@ -200,9 +201,11 @@ public class MultiInstanceComposite extends TypedCompositeActor {
 
             TypedCompositeActor container = (TypedCompositeActor) getContainer();
 
-            // We first remove the superfluous clones
+            // We first remove the superfluous clones, starting with the
+            // last one so that removing each of them takes constant time.
             while (_clones.size() > N - 1) {
-                MultiInstanceComposite clone = _clones.get(N - 1);
+                MultiInstanceComposite clone = _clones
+                        .get(_clones.size() - 1);
                 Iterator<?> ports = clone.portList().iterator();
                 while (ports.hasNext()) {
                     TypedIOPort port = (TypedIOPort) ports.next();
@@ -251,7 +254,7 @@ public class MultiInstanceComposite extends TypedCompositeActor {
                 } catch (NameDuplicationException ex) {
                     throw new InternalErrorException(ex);
                 }
-                _clones.remove(N - 1);
+                _clones.remove(_clones.size() - 1);
             }
 
             // Initialize the clones
@@ -421,6 +424,7 @@ public class MultiInstanceComposite extends TypedCompositeActor {
         MultiInstanceComposite newObject = (MultiInstanceComposite) super.clone(
                 workspace);
         newObject._isMasterCopy = false;
+        newObject._clones = new ArrayList<MultiInstanceComposite>();
         // The following is necessary in case an exception occurs
         // during execution because then wrapup might not properly complete.
         newObject.setPersistent(false);
@@ -477,7 +481,7 @@ public class MultiInstanceComposite extends TypedCompositeActor {
 
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
-    private List<MultiInstanceComposite> _clones = new LinkedList<MultiInstanceComposite>();
+    private List<MultiInstanceComposite> _clones = new ArrayList<MultiInstanceComposite>();
 
     private boolean _isMasterCopy = false;
 
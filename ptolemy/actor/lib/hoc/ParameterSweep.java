@@ -0,0 +1,724 @@
+/* A composite actor that executes replications of its contents over
+ a space of parameter values.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.actor.lib.hoc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ptolemy.actor.Manager;
+import ptolemy.actor.TypedIOPort;
+import ptolemy.actor.lib.RandomSource;
+import ptolemy.actor.lib.RandomStreams;
+import ptolemy.data.ArrayToken;
+import ptolemy.data.DoubleToken;
+import ptolemy.data.IntToken;
+import ptolemy.data.LongToken;
+import ptolemy.data.RecordToken;
+import ptolemy.data.StringToken;
+import ptolemy.data.Token;
+import ptolemy.data.expr.ModelScope;
+import ptolemy.data.expr.Parameter;
+import ptolemy.data.expr.StringParameter;
+import ptolemy.data.expr.Variable;
+import ptolemy.data.type.ArrayType;
+import ptolemy.data.type.BaseType;
+import ptolemy.data.type.RecordType;
+import ptolemy.data.type.Type;
+import ptolemy.kernel.CompositeEntity;
+import ptolemy.kernel.util.Attribute;
+import ptolemy.kernel.util.IllegalActionException;
+import ptolemy.kernel.util.InternalErrorException;
+import ptolemy.kernel.util.KernelException;
+import ptolemy.kernel.util.NameDuplicationException;
+import ptolemy.kernel.util.Settable;
+import ptolemy.kernel.util.Workspace;
+
+///////////////////////////////////////////////////////////////////
+//// ParameterSweep
+
+/**
+ A composite actor that, each time it fires, executes replications of
+ its contents for each point of a space of parameter values, and
+ produces one record per replication.
+
+ <p>Like {@link RunCompositeActor}, this actor contains a complete model
+ with its own director.  The <i>parameterSpace</i> parameter is a
+ record whose field names are the names of parameters of this actor,
+ and the <i>method</i> parameter determines how the points of the
+ space are chosen:</p>
+ <ul>
+ <li> "grid": each field is an array of values, and the points are all
+ the combinations of these values, with the fields in alphabetical
+ order and the last one varying the fastest.</li>
+ <li> "random": each field is an array {<i>low</i>, <i>high</i>}, and
+ each of the <i>samples</i> points takes values uniformly distributed
+ between <i>low</i> and <i>high</i>.</li>
+ <li> "latin hypercube": each field is an array {<i>low</i>,
+ <i>high</i>}, and the range of each field is divided into
+ <i>samples</i> intervals of equal size, each of which is sampled by
+ exactly one of the <i>samples</i> points.</li>
+ </ul>
+
+ <p>Each point is executed <i>replications</i> times.  Each replication
+ clones this actor into a fresh workspace, sets the parameters to the
+ values of the point, and executes the clone as a top-level model with
+ its own manager, so that replications share no state.  Parameters of
+ the containers of this actor that are referenced inside are copied
+ into the clone.  Up to <i>parallelism</i> replications execute at the
+ same time on separate threads.</p>
+
+ <p>Each replication has a seed that depends only on the <i>seed</i>
+ parameter and on the position of the replication in the sweep, so that
+ the results of a sweep are reproducible whatever the number of threads.
+ The seed is assigned to the <i>replicationSeed</i> parameter of the
+ clone, which the contained model can reference, and to the
+ <i>seed</i> parameter of each random source of the clone that does
+ not have a private seed.  If the model contains a {@link RandomStreams}
+ attribute, here or in a container of this actor, then the seed is also
+ assigned to the <i>seed</i> of the RandomStreams attributes of the
+ clone, to which one is added if it has none, so that each random
+ source of each replication draws from its own independent stream.</p>
+
+ <p>After a replication finishes, a record is produced on the
+ <i>output</i> port with the values of the swept parameters, the
+ index of the replication in the field "replication", its seed in the
+ field "seed", and the final value of each parameter of this actor named
+ by <i>observedParameters</i>.  As with {@link RunCompositeActor}, the
+ contained model typically sets these parameters with SetVariable
+ actors.  The records are produced in the order of the points and of
+ the replications, as soon as each replication and those before it have
+ finished.  Input ports behave as in {@link RunCompositeActor}: the
+ tokens they receive set the parameters of the same name before the
+ sweep.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @see RunCompositeActor
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class ParameterSweep extends LifeCycleManager {
+    /** Construct an actor in the specified workspace with no container
+     *  and an empty string as a name.
+     *  @param workspace The workspace that will list the actor.
+     *  @exception IllegalActionException If the parameters cannot be
+     *   created.
+     *  @exception NameDuplicationException If there is already an
+     *   attribute with the name of one of the parameters.
+     */
+    public ParameterSweep(Workspace workspace)
+            throws IllegalActionException, NameDuplicationException {
+        super(workspace);
+        _init();
+    }
+
+    /** Construct an actor with a name and a container.
+     *  @param container The container.
+     *  @param name The name of this actor.
+     *  @exception IllegalActionException If the container is incompatible
+     *   with this actor.
+     *  @exception NameDuplicationException If the name coincides with
+     *   an actor already in the container.
+     */
+    public ParameterSweep(CompositeEntity container, String name)
+            throws IllegalActionException, NameDuplicationException {
+        super(container, name);
+        _init();
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                     ports and parameters                  ////
+
+    /** The method used to choose the points of the parameter space,
+     *  which is one of "grid", "random" and "latin hypercube".  It
+     *  defaults to "grid".
+     */
+    public StringParameter method;
+
+    /** The names of the parameters of this actor whose final values are
+     *  included in the records, as an array of strings.  It defaults to
+     *  an empty array.
+     */
+    public Parameter observedParameters;
+
+    /** The output port, which produces one record per replication. */
+    public TypedIOPort output;
+
+    /** The maximum number of replications that execute at the same time.
+     *  This is an int that defaults to 1.
+     */
+    public Parameter parallelism;
+
+    /** The space of parameter values, a record whose fields name
+     *  parameters of this actor.  It defaults to an empty record, which
+     *  defines a single point.
+     */
+    public Parameter parameterSpace;
+
+    /** The number of replications of each point, an int that defaults
+     *  to 1.
+     */
+    public Parameter replications;
+
+    /** The seed of the current replication.  This parameter is set in
+     *  each replication and is not editable.  It is a long that defaults
+     *  to 0L.
+     */
+    public Parameter replicationSeed;
+
+    /** The number of points of the "random" and "latin hypercube"
+     *  methods, an int that defaults to 10.
+     */
+    public Parameter samples;
+
+    /** The seed from which the points of the "random" and "latin
+     *  hypercube" methods and the seeds of the replications are derived.
+     *  This is a long that defaults to 1L.
+     */
+    public Parameter seed;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Clone the actor into the specified workspace.
+     *  @param workspace The workspace for the new object.
+     *  @return A new actor.
+     *  @exception CloneNotSupportedException If a derived class contains
+     *   an attribute that cannot be cloned.
+     */
+    @Override
+    public Object clone(Workspace workspace) throws CloneNotSupportedException {
+        ParameterSweep newObject = (ParameterSweep) super.clone(workspace);
+        newObject._activeManagers = new HashSet<Manager>();
+        newObject._cloneLock = new Object();
+        newObject._isReplica = false;
+        return newObject;
+    }
+
+    /** Execute the replications of the contained model for each point
+     *  of the parameter space and produce their records.  In a
+     *  replication, execute the contained model instead.
+     *  @exception IllegalActionException If the parameter space is
+     *   malformed, or if a replication fails.
+     */
+    @Override
+    public void fire() throws IllegalActionException {
+        if (_isReplica) {
+            super.fire();
+            return;
+        }
+        _readInputs();
+
+        final List<Map<String, Token>> points = _points();
+        int replicationCount = ((IntToken) replications.getToken())
+                .intValue();
+        int runs = points.size() * replicationCount;
+        if (runs == 0) {
+            return;
+        }
+
+        // Evaluate the variables of the containers here, since the
+        // replications execute in other threads.
+        final Map<String, Token> scope = new LinkedHashMap<String, Token>();
+        for (String name : ModelScope.getAllScopedVariableNames(null, this)) {
+            if (getAttribute(name) == null) {
+                Variable variable = ModelScope.getScopedVariable(null, this,
+                        name);
+                if (variable != null) {
+                    scope.put(name, variable.getToken());
+                }
+            }
+        }
+        final List<String> observed = _getObservedParameters();
+        _hasRandomStreams = RandomStreams.find(this) != null;
+
+        // Draw the seeds in the order of the replications, so that
+        // they do not depend on the order in which the threads run.
+        SplittableRandom seeds = new SplittableRandom(
+                ((LongToken) seed.getToken()).longValue());
+        int threads = Math.max(1, Math.min(runs,
+                ((IntToken) parallelism.getToken()).intValue()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<RecordToken>> futures = new ArrayList<Future<RecordToken>>();
+        try {
+            for (final Map<String, Token> point : points) {
+                for (int i = 0; i < replicationCount; i++) {
+                    final int replication = i;
+                    long replicationSeedValue = seeds.nextLong();
+                    // A seed of zero means no seed for random sources.
+                    final long seedValue = replicationSeedValue == 0L ? 1L
+                            : replicationSeedValue;
+                    futures.add(executor.submit(new Callable<RecordToken>() {
+                        @Override
+                        public RecordToken call() throws KernelException {
+                            if (_stopRequested) {
+                                return null;
+                            }
+                            return _replicate(point, replication, seedValue,
+                                    scope, observed);
+                        }
+                    }));
+                }
+            }
+            for (Future<RecordToken> future : futures) {
+                RecordToken record = future.get();
+                if (record != null) {
+                    output.send(0, record);
+                }
+            }
+        } catch (InterruptedException ex) {
+            throw new IllegalActionException(this, ex,
+                    "Interrupted while executing replications.");
+        } catch (ExecutionException ex) {
+            throw new IllegalActionException(this, ex.getCause(),
+                    "Failed to execute a replication.");
+        } finally {
+            // If a replication failed, do not start the others.
+            executor.shutdownNow();
+        }
+    }
+
+    /** Initialize the contained model in a replication, and otherwise
+     *  do nothing, since the contained model is only executed by the
+     *  replications.
+     *  @exception IllegalActionException If the contained model cannot
+     *   be initialized.
+     */
+    @Override
+    public void initialize() throws IllegalActionException {
+        if (_isReplica) {
+            super.initialize();
+        }
+    }
+
+    /** Postfire the contained model in a replication, and otherwise
+     *  return true.
+     *  @return True if execution can continue.
+     *  @exception IllegalActionException If the contained model throws
+     *   it.
+     */
+    @Override
+    public boolean postfire() throws IllegalActionException {
+        if (_isReplica) {
+            return super.postfire();
+        }
+        return true;
+    }
+
+    /** Prefire the contained model in a replication, and otherwise
+     *  return true.
+     *  @return True if the actor is ready to fire.
+     *  @exception IllegalActionException If the contained model throws
+     *   it.
+     */
+    @Override
+    public boolean prefire() throws IllegalActionException {
+        if (_isReplica) {
+            return super.prefire();
+        }
+        return true;
+    }
+
+    /** Override the base class to set the type of the output port to a
+     *  record type with a field for each swept and observed parameter,
+     *  and its production rate to the number of replications of the
+     *  sweep.
+     *  @exception IllegalActionException If the parameter space is
+     *   malformed, or if the base class throws it.
+     */
+    @Override
+    public void preinitialize() throws IllegalActionException {
+        super.preinitialize();
+        if (_isReplica) {
+            return;
+        }
+        RecordToken space = _getParameterSpace();
+        List<String> labels = new ArrayList<String>();
+        List<Type> types = new ArrayList<Type>();
+        boolean grid = _isGrid();
+        int points = grid ? 1 : ((IntToken) samples.getToken()).intValue();
+        for (String name : space.labelSet()) {
+            labels.add(name);
+            if (grid) {
+                ArrayToken values = (ArrayToken) space.get(name);
+                types.add(((ArrayType) values.getType()).getElementType());
+                points *= values.length();
+            } else {
+                types.add(BaseType.DOUBLE);
+            }
+        }
+        labels.add("replication");
+        types.add(BaseType.INT);
+        labels.add("seed");
+        types.add(BaseType.LONG);
+        for (String name : _getObservedParameters()) {
+            if (labels.contains(name)) {
+                continue;
+            }
+            Attribute attribute = getAttribute(name);
+            Type type = BaseType.STRING;
+            if (attribute instanceof Variable) {
+                type = ((Variable) attribute).getType();
+                if (type.equals(BaseType.UNKNOWN)) {
+                    type = BaseType.GENERAL;
+                }
+            }
+            labels.add(name);
+            types.add(type);
+        }
+        output.setTypeEquals(new RecordType(
+                labels.toArray(new String[labels.size()]),
+                types.toArray(new Type[types.size()])));
+
+        Variable rate = (Variable) output.getAttribute("tokenProductionRate");
+        if (rate == null) {
+            try {
+                rate = new Variable(output, "tokenProductionRate");
+            } catch (NameDuplicationException ex) {
+                throw new InternalErrorException(ex);
+            }
+        }
+        rate.setToken(new IntToken(
+                points * ((IntToken) replications.getToken()).intValue()));
+    }
+
+    /** Request that the replications stop, and that those that have not
+     *  started do not start.
+     */
+    @Override
+    public void stop() {
+        synchronized (_activeManagers) {
+            for (Manager manager : _activeManagers) {
+                manager.stop();
+            }
+        }
+        super.stop();
+    }
+
+    /** Wrap up the contained model in a replication, and otherwise do
+     *  nothing.
+     *  @exception IllegalActionException If the contained model throws
+     *   it.
+     */
+    @Override
+    public void wrapup() throws IllegalActionException {
+        if (_isReplica) {
+            super.wrapup();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return the names of the observed parameters.
+     *  @return A list of names.
+     *  @exception IllegalActionException If observedParameters cannot be
+     *   evaluated.
+     */
+    private List<String> _getObservedParameters()
+            throws IllegalActionException {
+        List<String> names = new ArrayList<String>();
+        ArrayToken array = (ArrayToken) observedParameters.getToken();
+        for (int i = 0; i < array.length(); i++) {
+            names.add(((StringToken) array.getElement(i)).stringValue());
+        }
+        return names;
+    }
+
+    /** Return the parameter space, after checking that each of its
+     *  fields names a parameter of this actor and is an array, with two
+     *  elements if the method is not "grid".
+     *  @return The parameter space.
+     *  @exception IllegalActionException If the parameter space is
+     *   malformed.
+     */
+    private RecordToken _getParameterSpace() throws IllegalActionException {
+        RecordToken space = (RecordToken) parameterSpace.getToken();
+        boolean grid = _isGrid();
+        for (String name : space.labelSet()) {
+            if (!(getAttribute(name) instanceof Settable)) {
+                throw new IllegalActionException(this,
+                        "No parameter named " + name + " to sweep.");
+            }
+            Token values = space.get(name);
+            if (!(values instanceof ArrayToken) || !grid
+                    && ((ArrayToken) values).length() != 2) {
+                throw new IllegalActionException(this, "The values of " + name
+                        + " must be an array"
+                        + (grid ? "." : " {low, high}, not " + values + "."));
+            }
+        }
+        return space;
+    }
+
+    /** Initialize the ports and parameters. */
+    private void _init()
+            throws IllegalActionException, NameDuplicationException {
+        output = new TypedIOPort(this, "output", false, true);
+
+        parameterSpace = new Parameter(this, "parameterSpace");
+        parameterSpace.setExpression("{=}");
+        parameterSpace.setTypeAtMost(BaseType.RECORD);
+
+        method = new StringParameter(this, "method");
+        method.setExpression("grid");
+        method.addChoice("grid");
+        method.addChoice("random");
+        method.addChoice("latin hypercube");
+
+        samples = new Parameter(this, "samples", new IntToken(10));
+        samples.setTypeEquals(BaseType.INT);
+
+        replications = new Parameter(this, "replications", new IntToken(1));
+        replications.setTypeEquals(BaseType.INT);
+
+        seed = new Parameter(this, "seed", new LongToken(1L));
+        seed.setTypeEquals(BaseType.LONG);
+
+        replicationSeed = new Parameter(this, "replicationSeed",
+                new LongToken(0L));
+        replicationSeed.setTypeEquals(BaseType.LONG);
+        replicationSeed.setVisibility(Settable.NOT_EDITABLE);
+
+        observedParameters = new Parameter(this, "observedParameters");
+        observedParameters.setTypeEquals(new ArrayType(BaseType.STRING));
+        observedParameters.setExpression("{}");
+
+        parallelism = new Parameter(this, "parallelism", new IntToken(1));
+        parallelism.setTypeEquals(BaseType.INT);
+    }
+
+    /** Return true if the method is "grid".
+     *  @return True if the points form a grid.
+     *  @exception IllegalActionException If the method is not
+     *   recognized.
+     */
+    private boolean _isGrid() throws IllegalActionException {
+        String methodValue = method.stringValue();
+        if (methodValue.equals("grid")) {
+            return true;
+        }
+        if (methodValue.equals("random")
+                || methodValue.equals("latin hypercube")) {
+            return false;
+        }
+        throw new IllegalActionException(this,
+                "Unrecognized method: " + methodValue);
+    }
+
+    /** Return the points of the parameter space, each of which maps the
+     *  names of the swept parameters to their values.
+     *  @return The list of points.
+     *  @exception IllegalActionException If the parameter space is
+     *   malformed.
+     */
+    private List<Map<String, Token>> _points() throws IllegalActionException {
+        RecordToken space = _getParameterSpace();
+        List<String> names = new ArrayList<String>(space.labelSet());
+        List<Map<String, Token>> points = new ArrayList<Map<String, Token>>();
+
+        if (_isGrid()) {
+            points.add(new LinkedHashMap<String, Token>());
+            for (String name : names) {
+                ArrayToken values = (ArrayToken) space.get(name);
+                List<Map<String, Token>> product = new ArrayList<Map<String, Token>>();
+                for (Map<String, Token> point : points) {
+                    for (int i = 0; i < values.length(); i++) {
+                        Map<String, Token> newPoint = new LinkedHashMap<String, Token>(
+                                point);
+                        newPoint.put(name, values.getElement(i));
+                        product.add(newPoint);
+                    }
+                }
+                points = product;
+            }
+            return points;
+        }
+
+        int count = ((IntToken) samples.getToken()).intValue();
+        boolean latinHypercube = method.stringValue()
+                .equals("latin hypercube");
+        Random random = new Random(((LongToken) seed.getToken()).longValue());
+        for (int i = 0; i < count; i++) {
+            points.add(new LinkedHashMap<String, Token>());
+        }
+        for (String name : names) {
+            ArrayToken range = (ArrayToken) space.get(name);
+            double low = DoubleToken.convert(range.getElement(0))
+                    .doubleValue();
+            double high = DoubleToken.convert(range.getElement(1))
+                    .doubleValue();
+            // A random permutation of the intervals, one per point.
+            int[] intervals = new int[count];
+            for (int i = 0; i < count; i++) {
+                intervals[i] = i;
+            }
+            if (latinHypercube) {
+                for (int i = count - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int interval = intervals[i];
+                    intervals[i] = intervals[j];
+                    intervals[j] = interval;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                double fraction = latinHypercube
+                        ? (intervals[i] + random.nextDouble()) / count
+                        : random.nextDouble();
+                points.get(i).put(name,
+                        new DoubleToken(low + fraction * (high - low)));
+            }
+        }
+        return points;
+    }
+
+    /** Execute a replication of the contained model and return its
+     *  record.
+     *  @param point The values of the swept parameters.
+     *  @param replication The index of the replication of the point.
+     *  @param seedValue The seed of the replication.
+     *  @param scope The values of the variables of the containers.
+     *  @param observed The names of the observed parameters.
+     *  @return The record of the replication.
+     *  @exception KernelException If the clone cannot be created or
+     *   executed.
+     */
+    private RecordToken _replicate(Map<String, Token> point, int replication,
+            long seedValue, Map<String, Token> scope, List<String> observed)
+            throws KernelException {
+        Workspace workspace = new Workspace(getName());
+        ParameterSweep replica;
+        try {
+            // Cloning reads this actor, which other threads may be
+            // cloning too.
+            synchronized (_cloneLock) {
+                replica = (ParameterSweep) clone(workspace);
+            }
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalActionException(this, ex,
+                    "Failed to clone " + getFullName());
+        }
+        replica._isReplica = true;
+        for (Map.Entry<String, Token> variable : scope.entrySet()) {
+            new Parameter(replica, variable.getKey(), variable.getValue());
+        }
+        for (Map.Entry<String, Token> value : point.entrySet()) {
+            Settable parameter = (Settable) replica
+                    .getAttribute(value.getKey());
+            parameter.setExpression(value.getValue().toString());
+            parameter.validate();
+        }
+        replica.replicationSeed.setToken(new LongToken(seedValue));
+        for (Object entity : replica.allAtomicEntityList()) {
+            if (entity instanceof RandomSource) {
+                RandomSource source = (RandomSource) entity;
+                if (source.privateSeed.getToken() == null) {
+                    source.seed.setExpression(seedValue + "L");
+                }
+            }
+        }
+        if (_hasRandomStreams) {
+            List<RandomStreams> streams = new ArrayList<RandomStreams>(
+                    replica.attributeList(RandomStreams.class));
+            for (CompositeEntity composite : replica
+                    .deepCompositeEntityList()) {
+                streams.addAll(composite.attributeList(RandomStreams.class));
+            }
+            if (streams.isEmpty()) {
+                streams.add(new RandomStreams(replica,
+                        replica.uniqueName("RandomStreams")));
+            }
+            for (RandomStreams attribute : streams) {
+                attribute.seed.setToken(new LongToken(seedValue));
+            }
+        }
+
+        Manager manager = new Manager(workspace, "manager");
+        manager.enablePrintTimeAndMemory(false);
+        replica.setManager(manager);
+        synchronized (_activeManagers) {
+            _activeManagers.add(manager);
+        }
+        try {
+            manager.execute();
+        } finally {
+            synchronized (_activeManagers) {
+                _activeManagers.remove(manager);
+            }
+        }
+
+        Map<String, Token> fields = new LinkedHashMap<String, Token>(point);
+        fields.put("replication", new IntToken(replication));
+        fields.put("seed", new LongToken(seedValue));
+        for (String name : observed) {
+            if (fields.containsKey(name)) {
+                continue;
+            }
+            Attribute attribute = replica.getAttribute(name);
+            if (attribute instanceof Variable) {
+                fields.put(name, ((Variable) attribute).getToken());
+            } else if (attribute instanceof Settable) {
+                fields.put(name, new StringToken(
+                        ((Settable) attribute).getExpression()));
+            }
+        }
+        return new RecordToken(fields);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The managers of the replications that are executing. */
+    private Set<Manager> _activeManagers = new HashSet<Manager>();
+
+    /** The lock that serializes the cloning of this actor. */
+    private Object _cloneLock = new Object();
+
+    /** True if the model contains a RandomStreams attribute, in which
+     *  case the replications draw from streams of random numbers.
+     */
+    private boolean _hasRandomStreams = false;
+
+    /** True if this actor is a replication that executes the contained
+     *  model.
+     */
+    private boolean _isReplica = false;
+}
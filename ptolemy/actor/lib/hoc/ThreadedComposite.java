@@ -47,6 +47,7 @@ import ptolemy.actor.util.CausalityInterface;
 import ptolemy.actor.util.Time;
 import ptolemy.data.BooleanToken;
 import ptolemy.data.DoubleToken;
+import ptolemy.data.IntToken;
 import ptolemy.data.Token;
 import ptolemy.data.expr.Parameter;
 import ptolemy.data.type.BaseType;
@@ -203,6 +204,22 @@ import ptolemy.kernel.util.Workspace;
  minimum increment between these or fireAt() could result in an
  exception.  Do we want a parameter to relax that?
  <p>
+ The input events are queued for the inside thread, which takes all
+ of the events that are queued when it becomes idle and processes them
+ in order, so that a burst of events does not require a handoff between
+ the threads for each event. By default the queue is unbounded, so the
+ director thread never waits for the inside thread to consume inputs.
+ If the <i>queueCapacity</i> parameter is given a positive value, then
+ at most that many input events can be pending (queued or being
+ processed) at once. When the queue is full, the director thread stalls
+ in postfire() until the inside thread completes an iteration. This
+ back pressure keeps a slow contained actor from accumulating an
+ unbounded backlog when this actor is used as a pipeline stage.
+ The methods {@link #getFramesProcessed()},
+ {@link #getMaximumQueueLength()}, {@link #getBackPressureTime()} and
+ {@link #getThroughput()} report how the pipeline behaved during the
+ current or most recent execution.
+ <p>
  On subtlety of this actor is that it cannot expose instances of ParameterPort
  without introducing nondeterminacy in the execution. A ParameterPort
  is an input port that sets the value of a parameter with the same name. Upon receiving
@@ -256,6 +273,10 @@ public class ThreadedComposite extends MirrorComposite {
         delay.setTypeEquals(BaseType.DOUBLE);
         delay.setExpression("0.0");
 
+        queueCapacity = new Parameter(this, "queueCapacity");
+        queueCapacity.setTypeEquals(BaseType.INT);
+        queueCapacity.setExpression("0");
+
         synchronizeToRealTime = new Parameter(this, "synchronizeToRealTime");
         synchronizeToRealTime.setTypeEquals(BaseType.BOOLEAN);
         synchronizeToRealTime.setExpression("false");
@@ -277,6 +298,17 @@ public class ThreadedComposite extends MirrorComposite {
      */
     public Parameter delay;
 
+    /** The maximum number of input events that can be pending for the
+     *  inside thread, counting the events that are queued and the event
+     *  that is being processed. This is an integer that defaults to 0,
+     *  which means that the number is not bounded. If the number of
+     *  pending events reaches this value, then postfire() stalls the
+     *  director thread until the inside thread completes an iteration.
+     *  Changing the value of this parameter has no effect until the
+     *  next execution of the model.
+     */
+    public Parameter queueCapacity;
+
     /** If set to true, the inside thread stalls until real time matches
      *  the time stamps of input events or pure events for each firing.
      *  In addition, if <i>delay</i> is set to undefined and this is set
@@ -343,9 +375,23 @@ public class ThreadedComposite extends MirrorComposite {
 
         newObject._causalityInterface = null;
         newObject._realStartTime = 0L;
+        newObject._backPressureTime = 0L;
+        newObject._framesProcessed = 0L;
+        newObject._maximumQueueLength = 0;
+        newObject._statisticsStartTime = 0L;
+        newObject._statisticsEndTime = 0L;
         return newObject;
     }
 
+    /** Return the total time in milliseconds that the director thread
+     *  has stalled in the current or most recent execution because
+     *  the number of pending input events reached <i>queueCapacity</i>.
+     *  @return The time spent waiting for space in the input queue.
+     */
+    public long getBackPressureTime() {
+        return _backPressureTime;
+    }
+
     /** Override the base class to return a causality interface that
      *  indicates that the output does not depend (immediately) on
      *  the input. This method assumes that the director deals with BooleanDependencies
@@ -368,6 +414,43 @@ public class ThreadedComposite extends MirrorComposite {
         return _causalityInterface;
     }
 
+    /** Return the number of input events that the inside thread has
+     *  processed in the current or most recent execution.
+     *  @return The number of processed input events.
+     */
+    public long getFramesProcessed() {
+        return _framesProcessed;
+    }
+
+    /** Return the largest number of input events that were pending for
+     *  the inside thread at once in the current or most recent execution.
+     *  @return The high-water mark of the input queue.
+     */
+    public int getMaximumQueueLength() {
+        return _maximumQueueLength;
+    }
+
+    /** Return the number of input events processed per second of real
+     *  time since the inside thread was started, or until it terminated
+     *  if it is no longer running.
+     *  @return The throughput of the inside thread, or 0.0 if it
+     *   has not been started.
+     */
+    public double getThroughput() {
+        long start = _statisticsStartTime;
+        if (start == 0L) {
+            return 0.0;
+        }
+        long end = _statisticsEndTime;
+        if (end == 0L) {
+            end = System.currentTimeMillis();
+        }
+        if (end <= start) {
+            return 0.0;
+        }
+        return _framesProcessed * 1000.0 / (end - start);
+    }
+
     /** Iterate the contained actors of the
      *  container of this director.
      *  @return False if any contained actor returns false in postfire.
@@ -404,12 +487,33 @@ public class ThreadedComposite extends MirrorComposite {
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
 
+    /** The time in milliseconds that the director thread has waited
+     *  for space in the input queue.
+     */
+    private volatile long _backPressureTime = 0L;
+
     /** The cached value of the <i>delay</i> parameter. */
     private double _delayValue = 0.0;
 
+    /** The number of input events processed by the inside thread. */
+    private volatile long _framesProcessed = 0L;
+
+    /** The largest number of input events pending at once. */
+    private volatile int _maximumQueueLength = 0;
+
     /** The real time at which the model begins executing, in milliseconds. */
     private long _realStartTime = 0;
 
+    /** The real time at which the inside thread terminated, in
+     *  milliseconds, or 0 if it is running.
+     */
+    private volatile long _statisticsEndTime = 0L;
+
+    /** The real time at which the inside thread was started, in
+     *  milliseconds, or 0 if it has not been started.
+     */
+    private volatile long _statisticsStartTime = 0L;
+
     ///////////////////////////////////////////////////////////////////
     ////                         inner classes                     ////
 
@@ -747,6 +851,14 @@ public class ThreadedComposite extends MirrorComposite {
 
             _synchronizeToRealTime = ((BooleanToken) synchronizeToRealTime
                     .getToken()).booleanValue();
+            _queueCapacity = ((IntToken) queueCapacity.getToken()).intValue();
+            _pendingFrames = 0;
+
+            _backPressureTime = 0L;
+            _framesProcessed = 0L;
+            _maximumQueueLength = 0;
+            _statisticsEndTime = 0L;
+            _statisticsStartTime = System.currentTimeMillis();
 
             // Create and start the inside thread.
             _thread = new CompositeThread();
@@ -826,8 +938,13 @@ public class ThreadedComposite extends MirrorComposite {
                                     + environmentTime);
                 }
                 synchronized (this) {
+                    _waitForQueueSpace();
                     _inputFrames.add(new TokenFrame(environmentTime,
                             _inputTokens, TokenFrame.EVENT));
+                    _pendingFrames++;
+                    if (_pendingFrames > _maximumQueueLength) {
+                        _maximumQueueLength = _pendingFrames;
+                    }
                     notifyAll();
                     if (_delayValue >= 0.0) {
                         // Delay value is not UNDEFINED. Schedule a firing
@@ -976,9 +1093,51 @@ public class ThreadedComposite extends MirrorComposite {
                     // Ignore.
                 }
             }
+            if (ThreadedComposite.this._debugging) {
+                ThreadedComposite.this._debug("Inside thread processed "
+                        + _framesProcessed + " input frames at "
+                        + getThroughput() + " frames per second, with at most "
+                        + _maximumQueueLength + " pending and "
+                        + _backPressureTime + " ms of back pressure.");
+            }
             super.wrapup();
         }
 
+        //////////////////////////////////////////////////////////////
+        ////                   private methods                    ////
+
+        /** If <i>queueCapacity</i> is positive, wait until fewer than that
+         *  many input frames are pending for the inside thread, or until
+         *  the inside thread terminates or a stop is requested. The time
+         *  spent waiting is added to the back pressure time. This method
+         *  must be called while holding the lock on this director.
+         *  @exception IllegalActionException If the director thread is
+         *   interrupted while waiting.
+         */
+        private void _waitForQueueSpace() throws IllegalActionException {
+            if (_queueCapacity <= 0 || _pendingFrames < _queueCapacity) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            if (ThreadedComposite.this._debugging) {
+                ThreadedComposite.this._debug(
+                        "Input queue is full. Waiting for the inside thread.");
+            }
+            try {
+                while (_pendingFrames >= _queueCapacity && !_stopRequested
+                        && _exception == null && _thread.isAlive()) {
+                    // The timeout allows this to notice that the inside
+                    // thread has terminated without posting a notification.
+                    wait(1000L);
+                }
+            } catch (InterruptedException ex) {
+                throw new IllegalActionException(ThreadedComposite.this, ex,
+                        "Director thread interrupted.");
+            } finally {
+                _backPressureTime += System.currentTimeMillis() - start;
+            }
+        }
+
         //////////////////////////////////////////////////////////////
         ////                   private variables                  ////
 
@@ -1010,6 +1169,17 @@ public class ThreadedComposite extends MirrorComposite {
          */
         private LinkedList<TokenFrame> _inputFrames = new LinkedList<TokenFrame>();
 
+        /** The number of input frames that have been queued by postfire()
+         *  and not yet completely processed by the inside thread. This is
+         *  accessed only while holding the lock on this director.
+         */
+        private int _pendingFrames;
+
+        /** The value of the queueCapacity parameter when initialize()
+         *  was invoked.
+         */
+        private int _queueCapacity;
+
         /** List of input events in the current iteration.
          *  This is accessed only in the director thread so it need
          *  not be thread safe.
@@ -1056,25 +1226,42 @@ public class ThreadedComposite extends MirrorComposite {
 
             @Override
             public void run() {
+                try {
+                    _run();
+                } finally {
+                    _statisticsEndTime = System.currentTimeMillis();
+                }
+            }
+
+            private void _run() {
+                // Frames taken from _inputFrames and not yet processed.
+                LinkedList<TokenFrame> batch = new LinkedList<TokenFrame>();
                 while (!_stopRequested) {
                     try {
-                        if (ThreadedComposite.this._debugging) {
-                            ThreadedComposite.this._debug(
-                                    "---- Waiting for inputs in the inside thread.");
-                        }
-                        TokenFrame frame = null;
-                        synchronized (ThreadedDirector.this) {
-                            // The following blocks this thread if the queue is empty.
-                            while (_inputFrames.isEmpty() && !_stopRequested) {
-                                // The timeout allows this to respond to stop()
-                                // even if we have a deadlock for some reason.
-                                ThreadedDirector.this.wait(1000L);
+                        if (batch.isEmpty()) {
+                            if (ThreadedComposite.this._debugging) {
+                                ThreadedComposite.this._debug(
+                                        "---- Waiting for inputs in the inside thread.");
                             }
-                            if (_stopRequested) {
-                                break;
+                            synchronized (ThreadedDirector.this) {
+                                // The following blocks this thread if the queue is empty.
+                                while (_inputFrames.isEmpty()
+                                        && !_stopRequested) {
+                                    // The timeout allows this to respond to stop()
+                                    // even if we have a deadlock for some reason.
+                                    ThreadedDirector.this.wait(1000L);
+                                }
+                                if (_stopRequested) {
+                                    break;
+                                }
+                                // Take all the queued frames at once so that
+                                // the lock is not acquired again until they
+                                // have been processed.
+                                batch.addAll(_inputFrames);
+                                _inputFrames.clear();
                             }
-                            frame = _inputFrames.poll();
                         }
+                        TokenFrame frame = batch.poll();
 
                         // Check for a "stop frame" and exit the thread.
                         if (frame.type == TokenFrame.STOP) {
@@ -1186,6 +1373,8 @@ public class ThreadedComposite extends MirrorComposite {
                                     responseTime, outputTokens,
                                     TokenFrame.EVENT);
                             _outputFrames.add(outputFrame);
+                            _pendingFrames--;
+                            _framesProcessed++;
                             if (ThreadedComposite.this._debugging) {
                                 ThreadedComposite.this._debug(
                                         "---- Inside thread posted output frame.");
@@ -33,7 +33,11 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.StringTokenizer;
 
+import ptolemy.data.ArrayToken;
 import ptolemy.data.BooleanToken;
+import ptolemy.data.DoubleToken;
+import ptolemy.data.IntToken;
+import ptolemy.data.LongToken;
 import ptolemy.data.OrderedRecordToken;
 import ptolemy.data.RecordToken;
 import ptolemy.data.StringToken;
@@ -122,6 +126,21 @@ import ptolemy.kernel.util.Settable;
  the first line, which defines the structure of the record.
  line read is produced on the <i>output</i> in the next iteration
  after it is read.
+ </p><p>
+ Field values that are plain decimal integers or floating-point
+ numbers, such as <code>42</code>, <code>-7</code> or
+ <code>1.5e-3</code>, are converted directly to int, long or double
+ tokens.  Only other field values are given to the expression parser,
+ which is much slower.  The resulting tokens are the same either way.
+ </p><p>
+ If <i>recordsPerFiring</i> is greater than one, then each firing
+ reads up to that many lines and produces a single ordered record
+ whose fields are arrays, one element per line, rather than one record
+ per line. The arrays have the type of the values in the column, so a
+ column of numbers yields an array of doubles or ints.  This is much
+ more efficient for large files, since downstream actors can process a
+ block of each column at a time. The last firing may produce shorter
+ arrays.
  </p>
 
  @see FileParameter
@@ -156,6 +175,10 @@ public class CSVReader extends LineReader {
         trimSpaces.setTypeEquals(BaseType.BOOLEAN);
         trimSpaces.setExpression("true");
 
+        recordsPerFiring = new Parameter(this, "recordsPerFiring");
+        recordsPerFiring.setTypeEquals(BaseType.INT);
+        recordsPerFiring.setExpression("1");
+
         new SingletonParameter(endOfFile, "_showName")
                 .setToken(BooleanToken.TRUE);
 
@@ -180,6 +203,13 @@ public class CSVReader extends LineReader {
     ///////////////////////////////////////////////////////////////////
     ////                     ports and parameters                  ////
 
+    /** The number of lines to read in each firing.  If this is 1
+     *  (the default), then each output is a record with one field
+     *  value per column.  If it is greater than 1, then each output
+     *  is a record with one array per column.  This is an int.
+     */
+    public Parameter recordsPerFiring;
+
     /** A specification of the separator between items in the table.
      *  The default is "comma", which results in assuming that fields
      *  are separated by commas. If the value is changed to "tab", then
@@ -287,59 +317,46 @@ public class CSVReader extends LineReader {
             }
         }
 
-        if (_currentLine != null) {
-            StringTokenizer tokenizer = new StringTokenizer(_currentLine,
-                    _delimiter);
-            int i = 0;
-            Token[] fieldValues = new Token[_fieldNames.length];
-            while (tokenizer.hasMoreTokens()) {
-                if (i >= _fieldNames.length) {
-                    // Ignore additional fields.
-                    break;
-                }
-                String nextToken = tokenizer.nextToken();
-                if (((BooleanToken) trimSpaces.getToken()).booleanValue()) {
-                    nextToken = nextToken.trim();
-                }
-                if (_parser == null) {
-                    _parser = new PtParser();
-                }
-
-                ASTPtRootNode parseTree = null;
-                try {
-                    parseTree = _parser.generateParseTree(nextToken);
-                } catch (Exception ex) {
-                    // If the field cannot be parsed, then interpret
-                    // the field as a string.
-                    fieldValues[i] = new StringToken(nextToken);
-                }
-                if (parseTree != null) {
-                    if (_parseTreeEvaluator == null) {
-                        _parseTreeEvaluator = new ParseTreeEvaluator();
-                    }
-
-                    if (_scope == null) {
-                        _scope = new ExpressionScope();
-                    }
-
+        boolean trim = ((BooleanToken) trimSpaces.getToken()).booleanValue();
+        int batchSize = ((IntToken) recordsPerFiring.getToken()).intValue();
+        if (batchSize > 1) {
+            // Read the rest of the block only once per iteration, so that
+            // fire() can be invoked more than once in an iteration.
+            if (_block == null) {
+                _block = new ArrayList<String>(batchSize);
+                if (_currentLine != null) {
+                    _block.add(_currentLine);
                     try {
-                        fieldValues[i] = _parseTreeEvaluator
-                                .evaluateParseTree(parseTree, _scope);
-                    } catch (Exception ex) {
-                        // If the field cannot be evaluated, then interpret
-                        // the field as a string.
-                        fieldValues[i] = new StringToken(nextToken);
+                        while (_block.size() < batchSize
+                                && _nextLine != null) {
+                            _block.add(_nextLine);
+                            _nextLine = _reader.readLine();
+                        }
+                    } catch (IOException ex) {
+                        throw new IllegalActionException(this, ex,
+                                "Failed to read file.");
                     }
                 }
-
-                i++;
             }
-            while (i < _fieldNames.length) {
-                fieldValues[i] = new StringToken("");
-                i++;
+            if (!_block.isEmpty()) {
+                Token[][] columns = new Token[_fieldNames.length][_block
+                        .size()];
+                for (int row = 0; row < _block.size(); row++) {
+                    Token[] fieldValues = _parseLine(_block.get(row), trim);
+                    for (int i = 0; i < _fieldNames.length; i++) {
+                        columns[i][row] = fieldValues[i];
+                    }
+                }
+                Token[] fieldValues = new Token[_fieldNames.length];
+                for (int i = 0; i < _fieldNames.length; i++) {
+                    fieldValues[i] = new ArrayToken(columns[i]);
+                }
+                output.broadcast(
+                        new OrderedRecordToken(_fieldNames, fieldValues));
             }
+        } else if (_currentLine != null) {
             RecordToken outputValue = new OrderedRecordToken(_fieldNames,
-                    fieldValues);
+                    _parseLine(_currentLine, trim));
             output.broadcast(outputValue);
         }
         if (_nextLine == null) {
@@ -349,12 +366,24 @@ public class CSVReader extends LineReader {
         }
     }
 
+    /** Discard the block of lines read in this iteration, if any,
+     *  and read the next line.
+     *  @return True if execution can continue into the next iteration.
+     *  @exception IllegalActionException If the superclass throws it.
+     */
+    @Override
+    public boolean postfire() throws IllegalActionException {
+        _block = null;
+        return super.postfire();
+    }
+
     /** Wrapup execution of this actor.  This method overrides the
      *  base class to discard the internal parser to save memory.
      */
     @Override
     public void wrapup() {
         _parser = null;
+        _block = null;
     }
 
     ///////////////////////////////////////////////////////////////////
@@ -368,9 +397,162 @@ public class CSVReader extends LineReader {
         return new HashSet<Inequality>();
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return the token for a field that is a plain decimal integer
+     *  or floating-point number, or null if the field is anything
+     *  else.  The token is the same as the one the expression parser
+     *  would produce, but is found without parsing.  Integers that
+     *  the parser would read as octal, numbers with suffixes and
+     *  other expressions return null.
+     */
+    private static Token _parseNumber(String field) {
+        int length = field.length();
+        int i = 0;
+        if (length > 0 && field.charAt(0) == '-') {
+            i = 1;
+        }
+        int digitsStart = i;
+        while (i < length && _isDigit(field.charAt(i))) {
+            i++;
+        }
+        int integerDigits = i - digitsStart;
+        if (i == length) {
+            if (integerDigits == 0 || integerDigits > 1
+                    && field.charAt(digitsStart) == '0') {
+                // Empty, "-", or an octal literal.  A single "0" is
+                // octal too, but "0" and "-0" have the same value in
+                // decimal, so they are parsed below.
+                return null;
+            }
+            try {
+                if (integerDigits < 10) {
+                    return new IntToken(Integer.parseInt(field));
+                }
+                long value = Long.parseLong(field);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return new IntToken((int) value);
+                }
+                return new LongToken(value);
+            } catch (NumberFormatException ex) {
+                // Too large even for a long.
+                return null;
+            }
+        }
+        // A double is digits "." digits [exponent], "." digits [exponent],
+        // or digits exponent.
+        boolean hasPoint = false;
+        if (field.charAt(i) == '.') {
+            hasPoint = true;
+            i++;
+            int fractionStart = i;
+            while (i < length && _isDigit(field.charAt(i))) {
+                i++;
+            }
+            if (i == fractionStart) {
+                return null;
+            }
+        } else if (integerDigits == 0) {
+            return null;
+        }
+        if (i < length) {
+            char c = field.charAt(i);
+            if (c != 'e' && c != 'E') {
+                return null;
+            }
+            i++;
+            if (i < length
+                    && (field.charAt(i) == '+' || field.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < length && _isDigit(field.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart || i != length) {
+                return null;
+            }
+        } else if (!hasPoint) {
+            return null;
+        }
+        // The parser negates by subtracting from zero, so "-0.0" is 0.0,
+        // and adding 0.0 does the same.
+        return new DoubleToken(Double.parseDouble(field) + 0.0);
+    }
+
+    /** Return true if the character is an ASCII digit. */
+    private static boolean _isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** Split a line into fields and return the field values.
+     *  Missing fields are empty strings, and extra fields are ignored.
+     */
+    private Token[] _parseLine(String line, boolean trim) {
+        StringTokenizer tokenizer = new StringTokenizer(line, _delimiter);
+        int i = 0;
+        Token[] fieldValues = new Token[_fieldNames.length];
+        while (tokenizer.hasMoreTokens()) {
+            if (i >= _fieldNames.length) {
+                // Ignore additional fields.
+                break;
+            }
+            String nextToken = tokenizer.nextToken();
+            if (trim) {
+                nextToken = nextToken.trim();
+            }
+            fieldValues[i] = _parseNumber(nextToken);
+            if (fieldValues[i] == null) {
+                fieldValues[i] = _parseField(nextToken);
+            }
+            i++;
+        }
+        while (i < _fieldNames.length) {
+            fieldValues[i] = new StringToken("");
+            i++;
+        }
+        return fieldValues;
+    }
+
+    /** Return the value of a field using the expression parser, or
+     *  a string token if the field cannot be parsed or evaluated.
+     */
+    private Token _parseField(String field) {
+        if (_parser == null) {
+            _parser = new PtParser();
+        }
+        ASTPtRootNode parseTree = null;
+        try {
+            parseTree = _parser.generateParseTree(field);
+        } catch (Exception ex) {
+            // If the field cannot be parsed, then interpret
+            // the field as a string.
+            return new StringToken(field);
+        }
+        if (_parseTreeEvaluator == null) {
+            _parseTreeEvaluator = new ParseTreeEvaluator();
+        }
+        if (_scope == null) {
+            _scope = new ExpressionScope();
+        }
+        try {
+            return _parseTreeEvaluator.evaluateParseTree(parseTree, _scope);
+        } catch (Exception ex) {
+            // If the field cannot be evaluated, then interpret
+            // the field as a string.
+            return new StringToken(field);
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         private members                   ////
 
+    /** The lines read in this iteration when recordsPerFiring is
+     *  greater than one, or null if they have not been read yet.
+     */
+    private ArrayList<String> _block;
+
     /** The delimiter. */
     private String _delimiter = ",";
 
@@ -160,6 +160,7 @@ public class CSVWriter extends LineWriter {
     @Override
     public Object clone(Workspace workspace) throws CloneNotSupportedException {
         CSVWriter newObject = (CSVWriter) super.clone(workspace);
+        newObject._line = new StringBuilder();
         newObject.input.setTypeEquals(BaseType.UNKNOWN);
         newObject.input.setTypeAtMost(RecordType.EMPTY_RECORD);
         return newObject;
@@ -215,15 +216,19 @@ public class CSVWriter extends LineWriter {
             _writer.print(eol);
             _firstFiring = false;
         }
+        // Assemble the line and write it with a single call, which is
+        // much cheaper than writing each field and separator separately.
+        _line.setLength(0);
         boolean first = true;
         for (String field : _fieldNames) {
             if (!first) {
-                _writer.print(_delimiter);
+                _line.append(_delimiter);
             }
             first = false;
-            _writer.print(record.get(field));
+            _line.append(record.get(field));
         }
-        _writer.print(eol);
+        _line.append(eol);
+        _writer.write(_line.toString());
 
         if (_flushValue) {
             _writer.flush();
@@ -241,4 +246,7 @@ public class CSVWriter extends LineWriter {
 
     /** Indicator for first firing. */
     private boolean _firstFiring;
+
+    /** The line being written. */
+    private StringBuilder _line = new StringBuilder();
 }
@@ -0,0 +1,183 @@
+# Test CSVReader
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+# Write the specified lines to a file and return the name of the file.
+proc writeCSV {name lines} {
+    set fd [open $name w]
+    foreach line $lines {
+        puts $fd $line
+    }
+    close $fd
+    return $name
+}
+
+# Return the token that CSVReader._parseNumber() returns for a field,
+# or "null" if it leaves the field to the expression parser.
+proc parseNumber {field} {
+    set method [[java::call Class forName ptolemy.actor.lib.io.CSVReader] \
+            getDeclaredMethod _parseNumber \
+            [java::new {Class[]} 1 [list [java::call Class forName java.lang.String]]]]
+    $method setAccessible true
+    set token [$method invoke [java::null] \
+            [java::new {Object[]} 1 [list [java::new String $field]]]]
+    if {[java::isnull $token]} {
+        return null
+    }
+    return [[java::cast ptolemy.data.Token $token] toString]
+}
+
+# Return the token that the expression parser returns for a field.
+proc parseExpression {field} {
+    set parser [java::new ptolemy.data.expr.PtParser]
+    set tree [$parser generateParseTree $field]
+    set evaluator [java::new ptolemy.data.expr.ParseTreeEvaluator]
+    return [[$evaluator evaluateParseTree $tree] toString]
+}
+
+# Return a CSVReader in an SDF model that reads the specified file,
+# with recorders connected to its output and endOfFile ports.
+proc csvModel {file recordsPerFiring} {
+    global reader outputs endOfFiles
+    set e0 [sdfModel 0]
+    set reader [java::new ptolemy.actor.lib.io.CSVReader $e0 CSVReader]
+    [getParameter $reader fileOrURL] setExpression $file
+    [getParameter $reader recordsPerFiring] setExpression $recordsPerFiring
+    set outputs [java::new ptolemy.actor.lib.Recorder $e0 outputs]
+    # The type of the output is inferred from its destinations, as in
+    # the ReadCSV models.
+    [java::new ptolemy.data.expr.Parameter $e0 enableBackwardTypeInference] \
+            setExpression true
+    [java::field [java::cast ptolemy.actor.lib.Sink $outputs] input] \
+            setTypeEquals [java::field ptolemy.data.type.BaseType GENERAL]
+    set endOfFiles [java::new ptolemy.actor.lib.Recorder $e0 endOfFiles]
+    $e0 connect [java::field [java::cast ptolemy.actor.lib.Source $reader] output] \
+            [java::field [java::cast ptolemy.actor.lib.Sink $outputs] input]
+    $e0 connect [java::field [java::cast ptolemy.actor.lib.io.LineReader $reader] endOfFile] \
+            [java::field [java::cast ptolemy.actor.lib.Sink $endOfFiles] input]
+    return $e0
+}
+
+######################################################################
+####
+#
+test CSVReader-1.1 {plain numbers are converted as the parser would} {
+    set results {}
+    foreach field {42 -7 0 -0 2147483647 -2147483648 2147483648 \
+            -2147483649 9223372036854775807 1.5 -1.5 .5 -.5 1.5e-3 \
+            1E5 2e+3 1e400 -0.0 0.0 1e-400} {
+        set number [parseNumber $field]
+        set expression [parseExpression $field]
+        if {$number != $expression} {
+            lappend results [list $field $number $expression]
+        }
+    }
+    list $results
+} {{}}
+
+test CSVReader-1.2 {other fields are left to the parser} {
+    set results {}
+    foreach field {007 -010 00 9223372036854775808 1. 1e 1e+ . - \
+            {} 1.5e3x 12L 0x10 abc {"1"} {1 2}} {
+        lappend results [parseNumber $field]
+    }
+    catch {parseExpression 9223372036854775808} errMsg
+    list $results [parseExpression 007] [lindex [split $errMsg "\n"] 3]
+} {{null null null null null null null null null null null null null null null null} 7 {Unable to convert token 9223372036854775808 to an integer or long}}
+
+######################################################################
+####
+#
+test CSVReader-2.1 {one record per line} {
+    set file [writeCSV csvReaderTest.csv {{a,b,c} {1,1.5,x} {010,.5,"y"} \
+            {1e400,-0.0,12L} {2147483648,-0,z}}]
+    set e0 [csvModel $file 1]
+    [$e0 getManager] execute
+    list [enumToTokenValues [$outputs getRecord 0]] \
+            [enumToTokenValues [$endOfFiles getRecord 0]]
+} {{{[a = 1, b = 1.5, c = "x"]} {[a = 8, b = 0.5, c = "y"]} {[a = Infinity, b = 0.0, c = 12L]} {[a = 2147483648L, b = 0, c = "z"]}} {false false false true}}
+
+test CSVReader-2.2 {full blocks and a short final block} {
+    set file [writeCSV csvReaderTest.csv {{a,b} {1,x} {2,y} {3,z} {4,w} \
+            {5,v} {6,u} {7,t}}]
+    set e0 [csvModel $file 3]
+    [$e0 getManager] execute
+    list [enumToTokenValues [$outputs getRecord 0]] \
+            [enumToTokenValues [$endOfFiles getRecord 0]]
+} {{{[a = {1, 2, 3}, b = {"x", "y", "z"}]} {[a = {4, 5, 6}, b = {"w", "v", "u"}]} {[a = {7}, b = {"t"}]}} {false false true}}
+
+test CSVReader-2.3 {a file that fills the last block exactly} {
+    set file [writeCSV csvReaderTest.csv {{a,b} {1,1.5} {2,2.5} {3,3.5} \
+            {4,4.5}}]
+    set e0 [csvModel $file 2]
+    [$e0 getManager] execute
+    list [enumToTokenValues [$outputs getRecord 0]] \
+            [enumToTokenValues [$endOfFiles getRecord 0]]
+} {{{[a = {1, 2}, b = {1.5, 2.5}]} {[a = {3, 4}, b = {3.5, 4.5}]}} {false true}}
+
+test CSVReader-2.4 {a block is read once per iteration and discarded by postfire} {
+    set file [writeCSV csvReaderTest.csv {{a} 1 2 3 4 5}]
+    set e0 [csvModel $file 2]
+    set manager [$e0 getManager]
+    $manager initialize
+    set field [[java::call Class forName ptolemy.actor.lib.io.CSVReader] \
+            getDeclaredField _block]
+    $field setAccessible true
+    set results {}
+    foreach iteration {1 2} {
+        $reader prefire
+        $reader fire
+        set block [$field get $reader]
+        # A second firing in the same iteration produces the same block.
+        # Consume the outputs of each firing so that there is room for
+        # the next ones.
+        $outputs postfire
+        $endOfFiles postfire
+        $reader fire
+        $outputs postfire
+        $endOfFiles postfire
+        lappend results [$block toString] \
+                [expr {[java::call System identityHashCode $block] \
+                == [java::call System identityHashCode [$field get $reader]]}]
+        $reader postfire
+        lappend results [java::isnull [$field get $reader]]
+    }
+    $manager wrapup
+    list $results [enumToTokenValues [$outputs getRecord 0]]
+} {{{[1, 2]} 1 1 {[3, 4]} 1 1} {{[a = {1, 2}]} {[a = {1, 2}]} {[a = {3, 4}]} {[a = {3, 4}]}}}
+
+file delete -force csvReaderTest.csv
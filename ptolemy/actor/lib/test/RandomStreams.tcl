@@ -0,0 +1,151 @@
+# Test RandomStreams
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+if {[info procs sdfModel] == "" } then {
+    source [file join $PTII util testsuite models.tcl]
+}
+
+######################################################################
+####
+#
+test RandomStreams-1.1 {test constructor} {
+    set e0 [java::new ptolemy.actor.TypedCompositeActor]
+    set streams [java::new ptolemy.actor.lib.RandomStreams $e0 streams]
+    [[getParameter $streams seed] getToken] toString
+} {0L}
+
+test RandomStreams-1.2 {blocks of numbers equal the numbers drawn one at a time} {
+    set s1 [java::new {ptolemy.actor.lib.RandomStreams$Stream} 42]
+    set s2 [java::new {ptolemy.actor.lib.RandomStreams$Stream} 42]
+    set values [java::new {double[]} 7]
+    set sequential {}
+    $s1 nextDoubles $values 1 3
+    $s1 nextGaussians $values 4 3
+    for {set i 0} {$i < 3} {incr i} {
+        lappend sequential [$s2 nextDouble]
+    }
+    for {set i 0} {$i < 3} {incr i} {
+        lappend sequential [$s2 nextGaussian]
+    }
+    set split [[$s1 split] nextLong]
+    list [expr {[lrange [$values getrange] 1 6] == $sequential}] \
+            [$values get 0] \
+            [expr {[$s1 nextLong] == [$s2 nextLong]}] \
+            [expr {$split != [$s2 nextLong]}]
+} {1 0.0 0 1}
+
+######################################################################
+#### Test RandomStreams in an SDF model
+#
+test RandomStreams-2.1 {sources draw from distinct, reproducible streams} {
+    set e0 [sdfModel 300]
+    [getParameter [$e0 getDirector] allowDisconnectedGraphs] \
+            setExpression true
+    set streams [java::new ptolemy.actor.lib.RandomStreams $e0 streams]
+    [getParameter $streams seed] setExpression {7L}
+    set g1 [java::new ptolemy.actor.lib.Gaussian $e0 g1]
+    set g2 [java::new ptolemy.actor.lib.Gaussian $e0 g2]
+    set rec1 [java::new ptolemy.actor.lib.Recorder $e0 rec1]
+    set rec2 [java::new ptolemy.actor.lib.Recorder $e0 rec2]
+    $e0 connect \
+            [java::field [java::cast ptolemy.actor.lib.Source $g1] output] \
+            [java::field [java::cast ptolemy.actor.lib.Sink $rec1] input]
+    $e0 connect \
+            [java::field [java::cast ptolemy.actor.lib.Source $g2] output] \
+            [java::field [java::cast ptolemy.actor.lib.Sink $rec2] input]
+    [$e0 getManager] execute
+    set first [enumToTokenValues [$rec1 getRecord 0]]
+    set other [enumToTokenValues [$rec2 getRecord 0]]
+    # The streams are recreated on each run, even though the
+    # resetOnEachRun parameter is false.
+    [$e0 getManager] execute
+    set second [enumToTokenValues [$rec1 getRecord 0]]
+    list [llength $first] [expr {$first == $second}] \
+            [expr {$first != $other}]
+} {300 1 1}
+
+test RandomStreams-2.2 {streams depend on the relative name and the seed} {
+    # Uses 2.1 above
+    $e0 setName renamed
+    [$e0 getManager] execute
+    set renamed [enumToTokenValues [$rec1 getRecord 0]]
+    [getParameter $streams seed] setExpression {8L}
+    [$e0 getManager] execute
+    set reseeded [enumToTokenValues [$rec1 getRecord 0]]
+    list [expr {$renamed == $first}] [expr {$reseeded != $first}]
+} {1 1}
+
+test RandomStreams-2.3 {a private seed overrides the stream} {
+    # Uses 2.2 above
+    [getParameter $g1 privateSeed] setExpression {8L}
+    [getParameter $g2 privateSeed] setExpression {8L}
+    [$e0 getManager] execute
+    set private1 [enumToTokenValues [$rec1 getRecord 0]]
+    set private2 [enumToTokenValues [$rec2 getRecord 0]]
+    list [expr {$private1 == $private2}] [expr {$private1 != $reseeded}]
+} {1 1}
+
+test RandomStreams-2.4 {uniform and Colt sources draw from streams} {
+    set e1 [sdfModel 300]
+    [getParameter [$e1 getDirector] allowDisconnectedGraphs] \
+            setExpression true
+    set streams1 [java::new ptolemy.actor.lib.RandomStreams $e1 streams]
+    set u [java::new ptolemy.actor.lib.Uniform $e1 u]
+    set n [java::new ptolemy.actor.lib.colt.ColtNormal $e1 n]
+    set recU [java::new ptolemy.actor.lib.Recorder $e1 recU]
+    set recN [java::new ptolemy.actor.lib.Recorder $e1 recN]
+    $e1 connect \
+            [java::field [java::cast ptolemy.actor.lib.Source $u] output] \
+            [java::field [java::cast ptolemy.actor.lib.Sink $recU] input]
+    $e1 connect \
+            [java::field [java::cast ptolemy.actor.lib.Source $n] output] \
+            [java::field [java::cast ptolemy.actor.lib.Sink $recN] input]
+    [$e1 getManager] execute
+    set uniform [enumToTokenValues [$recU getRecord 0]]
+    set normal [enumToTokenValues [$recN getRecord 0]]
+    [$e1 getManager] execute
+    set inRange 1
+    foreach value $uniform {
+        if {$value < 0.0 || $value >= 1.0} {
+            set inRange 0
+        }
+    }
+    list $inRange \
+            [expr {$uniform == [enumToTokenValues [$recU getRecord 0]]}] \
+            [expr {$normal == [enumToTokenValues [$recN getRecord 0]]}]
+} {1 1 1}
@@ -203,6 +203,8 @@ test Test-1.5 {Export} {
         </property>
         <property name="constrainBufferSizes" class="ptolemy.data.expr.Parameter" value="true">
         </property>
+        <property name="minimizeBufferSizes" class="ptolemy.data.expr.Parameter" value="false">
+        </property>
         <property name="period" class="ptolemy.data.expr.Parameter" value="0.0">
         </property>
         <property name="synchronizeToRealTime" class="ptolemy.data.expr.Parameter" value="false">
@@ -214,6 +216,8 @@ test Test-1.5 {Export} {
         <property name="Scheduler" class="ptolemy.domains.sdf.kernel.SDFScheduler">
             <property name="constrainBufferSizes" class="ptolemy.data.expr.Parameter" value="constrainBufferSizes">
             </property>
+            <property name="minimizeBufferSizes" class="ptolemy.data.expr.Parameter" value="minimizeBufferSizes">
+            </property>
         </property>
     </property>
     <entity name="ramp" class="ptolemy.actor.lib.Ramp">
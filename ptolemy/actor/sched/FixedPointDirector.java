@@ -26,10 +26,14 @@
  */
 package ptolemy.actor.sched;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import ptolemy.actor.Actor;
@@ -214,13 +218,21 @@ public class FixedPointDirector extends StaticSchedulingDirector
         newObject._actorsFinishedFiring = new HashSet();
         newObject._actorsFired = new HashSet();
         newObject._cachedAllInputsKnown = new HashSet();
+        newObject._actorsToFire = new BitSet();
+        newObject._indexedActors = null;
+        newObject._indexedSchedule = null;
+        newObject._actorIndex = new HashMap<Actor, Integer>();
         return newObject;
     }
 
     /** Prefire and fire actors in the order given by the scheduler
      *  until the iteration converges.
-     *  An iteration converges when a pass through the schedule does
-     *  not change the status of any receiver.
+     *  The first pass visits every actor in the schedule.  Each later
+     *  pass visits, in schedule order, only the actors with an input
+     *  receiver whose status became known since they were last visited.
+     *  An iteration converges when no such actor remains, which is when
+     *  a further pass through the whole schedule would not change the
+     *  status of any receiver.
      *  @exception IllegalActionException If an actor violates the
      *   monotonicity constraints, or the prefire() or fire() method
      *   of the actor throws it.
@@ -231,11 +243,19 @@ public class FixedPointDirector extends StaticSchedulingDirector
             _debug("FixedPointDirector: invoking fire().");
         }
         Schedule schedule = getScheduler().getSchedule();
+        if (schedule != _indexedSchedule
+                || _indexedActors.length != schedule.size()) {
+            _indexActors(schedule);
+        }
+        _actorsToFire.set(0, _indexedActors.length);
         int iterationCount = 0;
         do {
-            Iterator firingIterator = schedule.firingIterator();
-            while (firingIterator.hasNext() && !_stopRequested) {
-                Actor actor = ((Firing) firingIterator.next()).getActor();
+            int index = _actorsToFire.nextSetBit(0);
+            while (index >= 0 && !_stopRequested) {
+                // Clear the bit before firing so that a change to one of
+                // the actor's own inputs during the firing sets it again.
+                _actorsToFire.clear(index);
+                Actor actor = _indexedActors[index];
                 // If the actor has previously returned false in postfire(),
                 // do not fire it.
                 if (!_actorsFinishedExecution.contains(actor)) {
@@ -264,9 +284,11 @@ public class FixedPointDirector extends StaticSchedulingDirector
                     }
                     _sendAbsentToAllUnknownOutputsOf(actor);
                 }
+                index = _actorsToFire.nextSetBit(index + 1);
             }
             iterationCount++;
-        } while (!_hasIterationConverged() && !_stopRequested);
+            _hasIterationConverged();
+        } while (!_actorsToFire.isEmpty() && !_stopRequested);
 
         if (_debugging) {
             _debug(this.getFullName() + ": Fixed point found after "
@@ -841,6 +863,33 @@ public class FixedPointDirector extends StaticSchedulingDirector
         _currentNumberOfKnownReceivers++;
     }
 
+    /** React to the change in status of the specified receiver by
+     *  calling {@link #_receiverChanged()} and marking the actor that
+     *  contains the receiver to be visited again in the current
+     *  invocation of fire().
+     *  @param receiver The receiver whose status became known.
+     */
+    protected void _receiverChanged(FixedPointReceiver receiver) {
+        _receiverChanged();
+        if (_indexedActors == null) {
+            return;
+        }
+        if (receiver._actorIndexVersion != _actorIndexVersion) {
+            receiver._actorIndex = -1;
+            IOPort port = receiver.getContainer();
+            if (port != null) {
+                Integer index = _actorIndex.get(port.getContainer());
+                if (index != null) {
+                    receiver._actorIndex = index;
+                }
+            }
+            receiver._actorIndexVersion = _actorIndexVersion;
+        }
+        if (receiver._actorIndex >= 0) {
+            _actorsToFire.set(receiver._actorIndex);
+        }
+    }
+
     /** Reset all receivers to unknown status and clear out variables used
      *  to track which actors fired in the last iteration.
      */
@@ -996,6 +1045,27 @@ public class FixedPointDirector extends StaticSchedulingDirector
     ///////////////////////////////////////////////////////////////////
     ////                         private methods                   ////
 
+    /** Record the actors of the specified schedule in schedule order
+     *  and assign each its position, so that the actors to be visited
+     *  can be kept in a bit set.
+     */
+    private void _indexActors(Schedule schedule) {
+        _actorIndex.clear();
+        List<Actor> actors = new ArrayList<Actor>(schedule.size());
+        Iterator firingIterator = schedule.firingIterator();
+        while (firingIterator.hasNext()) {
+            Actor actor = ((Firing) firingIterator.next()).getActor();
+            if (!_actorIndex.containsKey(actor)) {
+                _actorIndex.put(actor, actors.size());
+                actors.add(actor);
+            }
+        }
+        _indexedActors = actors.toArray(new Actor[actors.size()]);
+        _indexedSchedule = schedule;
+        _actorIndexVersion++;
+        _actorsToFire = new BitSet(_indexedActors.length);
+    }
+
     /** Initialize the director by creating the parameters and setting their
      *  values and types.
      */
@@ -1032,6 +1102,19 @@ public class FixedPointDirector extends StaticSchedulingDirector
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
 
+    /** The position of each actor in _indexedActors. */
+    private Map<Actor, Integer> _actorIndex = new HashMap<Actor, Integer>();
+
+    /** The version of _actorIndex, used by receivers to validate
+     *  their cached actor position.
+     */
+    private long _actorIndexVersion;
+
+    /** The positions of the actors to be visited by fire() because
+     *  the status of one of their input receivers became known.
+     */
+    private BitSet _actorsToFire = new BitSet();
+
     /** The set of actors that have all inputs known in the given iteration. */
     private Set _cachedAllInputsKnown = new HashSet();
 
@@ -1047,6 +1130,14 @@ public class FixedPointDirector extends StaticSchedulingDirector
     /** Version number for the cached functional property. */
     private transient long _functionalPropertyVersion = -1L;
 
+    /** The actors of _indexedSchedule in schedule order, without
+     *  repetitions.
+     */
+    private Actor[] _indexedActors;
+
+    /** The schedule from which _indexedActors was built. */
+    private Schedule _indexedSchedule;
+
     /** The number of receivers with known state on the last phase of
      *  actor firings.
      */
@@ -107,7 +107,7 @@ public class FixedPointReceiver extends AbstractReceiver {
             _token = null;
             _known = true;
             if (_director != null) {
-                _director._receiverChanged();
+                _director._receiverChanged(this);
             }
         }
     }
@@ -260,7 +260,7 @@ public class FixedPointReceiver extends AbstractReceiver {
             _token = token;
             _known = true;
             if (_director != null) {
-                _director._receiverChanged();
+                _director._receiverChanged(this);
             }
         } else {
             if (!hasToken()) {
@@ -305,6 +305,7 @@ public class FixedPointReceiver extends AbstractReceiver {
         if (port == null && _director != null) {
             _director._receivers.remove(this);
         }
+        _actorIndexVersion = -1L;
         super.setContainer(port);
     }
 
@@ -319,4 +320,19 @@ public class FixedPointReceiver extends AbstractReceiver {
 
     /** The token held. */
     protected Token _token = null;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         package friendly variables        ////
+
+    /** The position in the director's schedule of the actor that
+     *  contains this receiver, or -1 if it is not in the schedule.
+     *  This is valid only if _actorIndexVersion matches the version
+     *  in the director.
+     */
+    int _actorIndex = -1;
+
+    /** The version of the director's actor index when _actorIndex
+     *  was computed.
+     */
+    long _actorIndexVersion = -1L;
 }
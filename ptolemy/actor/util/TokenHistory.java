@@ -0,0 +1,558 @@
+/* A compact record of tokens received on a set of channels.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+
+ */
+package ptolemy.actor.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ptolemy.data.BooleanToken;
+import ptolemy.data.DoubleToken;
+import ptolemy.data.IntToken;
+import ptolemy.data.LongToken;
+import ptolemy.data.ScalarToken;
+import ptolemy.data.Token;
+import ptolemy.kernel.util.IllegalActionException;
+import ptolemy.kernel.util.Nameable;
+
+///////////////////////////////////////////////////////////////////
+//// TokenHistory
+
+/**
+ A compact record of the tokens received on a set of channels, with
+ one row per firing and a time stamp for each row.  Rows are appended
+ with append() and read back with get(), or through the list views
+ returned by channelHistory() and timeHistory(), which do not copy
+ the record.
+
+ <p>Unitless double, int, long and boolean tokens are stored as
+ primitive values in columns, one per channel, so that recording a
+ token costs nine bytes rather than a token object, an array slot and
+ a list node.  Other tokens are stored as references.  Tokens that are
+ read back are equal to, but not necessarily the same objects as,
+ the tokens that were appended.</p>
+
+ <p>Rows are kept in fixed-size chunks.  If the capacity is positive,
+ then the oldest row is discarded when a row is appended to a full
+ record.  If the spill threshold is positive, then whenever more than
+ that many rows are held in memory, the primitive columns of the
+ oldest full chunk are written to a temporary file that is then
+ memory mapped, so that the operating system rather than the heap holds
+ them.  Tokens that are stored as references are never spilled.</p>
+
+ <p>This class is not thread safe.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class TokenHistory {
+    /** Construct an empty record with infinite capacity that does not
+     *  spill to disk.
+     */
+    public TokenHistory() {
+        this(null, -1, 0);
+    }
+
+    /** Construct an empty record.
+     *  @param container The object that owns the record, used only
+     *   for error reporting, or null.
+     *  @param capacity The maximum number of rows, or a negative number
+     *   for infinite capacity.
+     *  @param spillThreshold The maximum number of rows held in memory
+     *   before chunks are spilled to a temporary file, or zero or a
+     *   negative number to never spill.
+     */
+    public TokenHistory(Nameable container, int capacity,
+            int spillThreshold) {
+        _container = container;
+        _capacity = capacity;
+        _spillThreshold = spillThreshold;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public variables                  ////
+
+    /** The number of rows in each chunk. */
+    public static final int CHUNK_SIZE = 4096;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Append a row to the record.  If the record is at capacity,
+     *  the oldest row is discarded.
+     *  @param time The time stamp of the row.
+     *  @param record The tokens of the row, indexed by channel, where
+     *   null indicates that there was no token on the channel.
+     *  @exception IllegalActionException If spilling to the temporary
+     *   file fails.
+     */
+    public void append(double time, Token[] record)
+            throws IllegalActionException {
+        if (_capacity == 0) {
+            return;
+        }
+        Chunk chunk;
+        if (_chunks.isEmpty()
+                || _chunks.get(_chunks.size() - 1).size == CHUNK_SIZE) {
+            chunk = new Chunk();
+            _chunks.add(chunk);
+            _spillIfNecessary();
+        } else {
+            chunk = _chunks.get(_chunks.size() - 1);
+        }
+        int row = chunk.size;
+        chunk.ensureRows(row + 1);
+        chunk.times[row] = time;
+        chunk.ensureWidth(record.length);
+        for (int channel = 0; channel < record.length; channel++) {
+            chunk.set(row, channel, record[channel]);
+        }
+        chunk.size++;
+        _size++;
+
+        if (_capacity > 0 && _size > _capacity) {
+            _removeFirst();
+        }
+    }
+
+    /** Return a list view of the tokens recorded on the specified
+     *  channel, with one element per row.  Rows with no token on the
+     *  channel contain the <i>absent</i> argument.  The view is not
+     *  modifiable and reflects later changes to the record.
+     *  @param channel The channel.
+     *  @param absent The element to use for rows with no token.
+     *  @return A list of tokens.
+     */
+    public List<Token> channelHistory(final int channel, final Token absent) {
+        return new AbstractList<Token>() {
+            @Override
+            public Token get(int index) {
+                Token result = TokenHistory.this.get(index, channel);
+                return result == null ? absent : result;
+            }
+
+            @Override
+            public int size() {
+                return _size;
+            }
+        };
+    }
+
+    /** Remove all rows and delete the temporary file, if any.
+     */
+    public void clear() {
+        _chunks.clear();
+        _start = 0;
+        _size = 0;
+        _firstInMemory = 0;
+        releaseSpillFile();
+    }
+
+    /** Return the token recorded in the specified row on the specified
+     *  channel, or null if there was no token.
+     *  @param row The row, where 0 is the oldest row.
+     *  @param channel The channel.
+     *  @return The token or null.
+     *  @exception IndexOutOfBoundsException If the row is out of range.
+     */
+    public Token get(int row, int channel) {
+        int absolute = _absolute(row);
+        return _chunks.get(absolute / CHUNK_SIZE).get(absolute % CHUNK_SIZE,
+                channel);
+    }
+
+    /** Return the time stamp of the specified row.
+     *  @param row The row, where 0 is the oldest row.
+     *  @return The time stamp.
+     *  @exception IndexOutOfBoundsException If the row is out of range.
+     */
+    public double getTime(int row) {
+        int absolute = _absolute(row);
+        return _chunks.get(absolute / CHUNK_SIZE)
+                .getTime(absolute % CHUNK_SIZE);
+    }
+
+    /** Close and delete the temporary file, if any.  The chunks that
+     *  were already spilled remain readable, since a mapping does not
+     *  depend on the channel that created it, and the operating system
+     *  frees the file once the mappings are no longer used.  If more
+     *  chunks are spilled later, then a new temporary file is created.
+     */
+    public void releaseSpillFile() {
+        if (_spillChannel != null) {
+            try {
+                _spillChannel.close();
+            } catch (IOException ex) {
+                // Ignore, we are discarding the file anyway.
+            }
+            _spillChannel = null;
+        }
+        if (_spillFile != null) {
+            // On some platforms, a mapped file cannot be deleted.
+            if (!_spillFile.delete()) {
+                _spillFile.deleteOnExit();
+            }
+            _spillFile = null;
+        }
+    }
+
+    /** Set the maximum number of rows, discarding the oldest rows if
+     *  the record holds more than that.
+     *  @param capacity The maximum number of rows, or a negative number
+     *   for infinite capacity.
+     */
+    public void setCapacity(int capacity) {
+        _capacity = capacity;
+        while (_capacity >= 0 && _size > _capacity) {
+            _removeFirst();
+        }
+    }
+
+    /** Return the number of rows.
+     *  @return The number of rows.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /** Return a list view of the time stamps of the rows.  The view is
+     *  not modifiable and reflects later changes to the record.
+     *  @return A list of Double objects.
+     */
+    public List<Double> timeHistory() {
+        return new AbstractList<Double>() {
+            @Override
+            public Double get(int index) {
+                return Double.valueOf(getTime(index));
+            }
+
+            @Override
+            public int size() {
+                return _size;
+            }
+        };
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return the index of the row counting from the start of the
+     *  first chunk.
+     */
+    private int _absolute(int row) {
+        if (row < 0 || row >= _size) {
+            throw new IndexOutOfBoundsException(
+                    "Row " + row + " is not in the range 0 to " + _size);
+        }
+        return _start + row;
+    }
+
+    /** Discard the oldest row. */
+    private void _removeFirst() {
+        _start++;
+        _size--;
+        if (_start == CHUNK_SIZE) {
+            _chunks.remove(0);
+            _start = 0;
+            if (_firstInMemory > 0) {
+                _firstInMemory--;
+            }
+        }
+    }
+
+    /** If more rows than the spill threshold are in memory, spill the
+     *  oldest full chunks that are still in memory.
+     */
+    private void _spillIfNecessary() throws IllegalActionException {
+        if (_spillThreshold <= 0) {
+            return;
+        }
+        // The last chunk is the one being filled and is never spilled.
+        while (_firstInMemory < _chunks.size() - 1
+                && (_chunks.size() - _firstInMemory)
+                        * CHUNK_SIZE > _spillThreshold) {
+            try {
+                if (_spillChannel == null) {
+                    _spillFile = File.createTempFile("TokenHistory", ".bin");
+                    _spillFile.deleteOnExit();
+                    _spillChannel = new RandomAccessFile(_spillFile, "rw")
+                            .getChannel();
+                }
+                _chunks.get(_firstInMemory).spill(_spillChannel);
+            } catch (IOException ex) {
+                throw new IllegalActionException(_container, ex,
+                        "Failed to spill recorded tokens to "
+                                + (_spillFile == null ? "a temporary file"
+                                        : _spillFile.getPath()));
+            }
+            _firstInMemory++;
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The maximum number of rows, or negative for no limit. */
+    private int _capacity;
+
+    /** The chunks, oldest first. */
+    private List<Chunk> _chunks = new ArrayList<Chunk>();
+
+    /** The owner of this record, used for error reporting. */
+    private Nameable _container;
+
+    /** The index in _chunks of the oldest chunk that is in memory. */
+    private int _firstInMemory = 0;
+
+    /** The number of rows. */
+    private int _size = 0;
+
+    /** The file channel for spilled chunks, or null. */
+    private FileChannel _spillChannel;
+
+    /** The temporary file for spilled chunks, or null. */
+    private File _spillFile;
+
+    /** The maximum number of rows in memory, or non-positive to never spill. */
+    private int _spillThreshold;
+
+    /** The index in the first chunk of the oldest row. */
+    private int _start = 0;
+
+    // Kinds of values in the primitive columns.
+    private static final byte _ABSENT = 0;
+
+    private static final byte _DOUBLE = 1;
+
+    private static final byte _INT = 2;
+
+    private static final byte _LONG = 3;
+
+    private static final byte _BOOLEAN = 4;
+
+    private static final byte _OBJECT = 5;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         inner classes                     ////
+
+    /** A fixed-size block of rows. While in memory, the primitive
+     *  columns are arrays; once spilled, they are read from a mapped
+     *  region of the temporary file, laid out as the time stamps,
+     *  followed by the kinds of each channel, followed by the values
+     *  of each channel.
+     */
+    private static class Chunk {
+        /** Make sure that the arrays can hold the given number of rows.
+         *  The arrays start small and grow up to CHUNK_SIZE so that a
+         *  short record does not allocate a full chunk.
+         */
+        void ensureRows(int rows) {
+            if (rows <= times.length) {
+                return;
+            }
+            int length = Math.min(CHUNK_SIZE,
+                    Math.max(rows, times.length * 2));
+            times = Arrays.copyOf(times, length);
+            for (int channel = 0; channel < _width; channel++) {
+                _kinds[channel] = Arrays.copyOf(_kinds[channel], length);
+                _values[channel] = Arrays.copyOf(_values[channel], length);
+                if (_objects[channel] != null) {
+                    _objects[channel] = Arrays.copyOf(_objects[channel],
+                            length);
+                }
+            }
+        }
+
+        /** Make sure that there are columns for the given number of
+         *  channels.
+         */
+        void ensureWidth(int width) {
+            if (width <= _width) {
+                return;
+            }
+            byte[][] kinds = new byte[width][];
+            long[][] values = new long[width][];
+            Token[][] objects = new Token[width][];
+            if (_width > 0) {
+                System.arraycopy(_kinds, 0, kinds, 0, _width);
+                System.arraycopy(_values, 0, values, 0, _width);
+                System.arraycopy(_objects, 0, objects, 0, _width);
+            }
+            for (int channel = _width; channel < width; channel++) {
+                kinds[channel] = new byte[times.length];
+                values[channel] = new long[times.length];
+            }
+            _kinds = kinds;
+            _values = values;
+            _objects = objects;
+            _width = width;
+        }
+
+        /** Return the token in the given row and channel, or null. */
+        Token get(int row, int channel) {
+            if (channel >= _width) {
+                return null;
+            }
+            byte kind;
+            long value;
+            if (_mapped == null) {
+                kind = _kinds[channel][row];
+                value = _values[channel][row];
+            } else {
+                kind = _mapped.get(_kindOffset(channel) + row);
+                value = _mapped.getLong(_valueOffset(channel) + row * 8);
+            }
+            switch (kind) {
+            case _DOUBLE:
+                return new DoubleToken(Double.longBitsToDouble(value));
+            case _INT:
+                return new IntToken((int) value);
+            case _LONG:
+                return new LongToken(value);
+            case _BOOLEAN:
+                return value != 0 ? BooleanToken.TRUE : BooleanToken.FALSE;
+            case _OBJECT:
+                return _objects[channel][row];
+            default:
+                return null;
+            }
+        }
+
+        /** Return the time stamp of the given row. */
+        double getTime(int row) {
+            if (_mapped == null) {
+                return times[row];
+            }
+            return _mapped.getDouble(row * 8);
+        }
+
+        /** Record a token in the given row and channel. */
+        void set(int row, int channel, Token token) {
+            if (token == null) {
+                return;
+            }
+            Class<?> tokenClass = token.getClass();
+            if (tokenClass == DoubleToken.class
+                    && !((DoubleToken) token).isNil()
+                    && _isUnitless(token)) {
+                _kinds[channel][row] = _DOUBLE;
+                _values[channel][row] = Double.doubleToRawLongBits(
+                        ((DoubleToken) token).doubleValue());
+            } else if (tokenClass == IntToken.class
+                    && !((IntToken) token).isNil() && _isUnitless(token)) {
+                _kinds[channel][row] = _INT;
+                _values[channel][row] = ((IntToken) token).intValue();
+            } else if (tokenClass == LongToken.class
+                    && !((LongToken) token).isNil() && _isUnitless(token)) {
+                _kinds[channel][row] = _LONG;
+                _values[channel][row] = ((LongToken) token).longValue();
+            } else if (tokenClass == BooleanToken.class
+                    && !((BooleanToken) token).isNil()) {
+                _kinds[channel][row] = _BOOLEAN;
+                _values[channel][row] = ((BooleanToken) token).booleanValue()
+                        ? 1
+                        : 0;
+            } else {
+                _kinds[channel][row] = _OBJECT;
+                if (_objects[channel] == null) {
+                    _objects[channel] = new Token[times.length];
+                }
+                _objects[channel][row] = token;
+            }
+        }
+
+        /** Write the primitive columns to the end of the file, map them
+         *  and release the arrays.
+         */
+        void spill(FileChannel channel) throws IOException {
+            int bytes = _valueOffset(_width);
+            ByteBuffer buffer = ByteBuffer.allocate(bytes);
+            for (int row = 0; row < CHUNK_SIZE; row++) {
+                buffer.putDouble(times[row]);
+            }
+            for (int column = 0; column < _width; column++) {
+                buffer.put(_kinds[column]);
+            }
+            for (int column = 0; column < _width; column++) {
+                for (int row = 0; row < CHUNK_SIZE; row++) {
+                    buffer.putLong(_values[column][row]);
+                }
+            }
+            buffer.flip();
+            long position = channel.size();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+            _mapped = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    bytes);
+            times = null;
+            _kinds = null;
+            _values = null;
+        }
+
+        /** The time stamps, or null if spilled. */
+        double[] times = new double[16];
+
+        /** The number of rows. */
+        int size = 0;
+
+        private static boolean _isUnitless(Token token) {
+            return ((ScalarToken) token).unitsString().length() == 0;
+        }
+
+        private int _kindOffset(int channel) {
+            return CHUNK_SIZE * 8 + channel * CHUNK_SIZE;
+        }
+
+        private int _valueOffset(int channel) {
+            return CHUNK_SIZE * 8 + _width * CHUNK_SIZE
+                    + channel * CHUNK_SIZE * 8;
+        }
+
+        private byte[][] _kinds;
+
+        private MappedByteBuffer _mapped;
+
+        private Token[][] _objects;
+
+        private long[][] _values;
+
+        private int _width = 0;
+    }
+}
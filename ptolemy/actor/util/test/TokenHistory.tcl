@@ -0,0 +1,152 @@
+# Tests for the TokenHistory class
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+# 						COPYRIGHTENDKEY
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+# Uncomment this to get a full report, or set in your Tcl shell window.
+# set VERBOSE 1
+
+# Append a row with the given time and list of tokens.
+proc _appendRow {history time tokens} {
+    set record [java::new {ptolemy.data.Token[]} [llength $tokens] $tokens]
+    $history append $time $record
+}
+
+######################################################################
+####
+#
+test TokenHistory-1.1 {Empty history} {
+    set history [java::new ptolemy.actor.util.TokenHistory]
+    list [$history size] \
+	[listToStrings [$history timeHistory]]
+} {0 {}}
+
+######################################################################
+####
+#
+test TokenHistory-1.2 {Record primitive, object and absent tokens} {
+    set history [java::new ptolemy.actor.util.TokenHistory]
+    set bottom [java::new ptolemy.data.StringToken "_"]
+    _appendRow $history 0.0 [list \
+	[java::new ptolemy.data.DoubleToken 1.5] \
+	[java::new ptolemy.data.StringToken "a"]]
+    _appendRow $history 1.0 [list \
+	[java::new ptolemy.data.IntToken 2] \
+	[java::null] \
+	[java::field ptolemy.data.BooleanToken TRUE]]
+    _appendRow $history 2.0 [list \
+	[java::new ptolemy.data.LongToken 3]]
+    list [$history size] \
+	[listToStrings [$history channelHistory 0 $bottom]] \
+	[listToStrings [$history channelHistory 1 $bottom]] \
+	[listToStrings [$history channelHistory 2 $bottom]] \
+	[listToStrings [$history timeHistory]]
+} {3 {1.5 2 3L} {{"a"} {"_"} {"_"}} {{"_"} true {"_"}} {0.0 1.0 2.0}}
+
+######################################################################
+####
+#
+test TokenHistory-1.3 {Capacity discards the oldest rows} {
+    set history [java::new ptolemy.actor.util.TokenHistory \
+		     [java::null] 2 0]
+    for {set i 0} {$i < 5} {incr i} {
+	_appendRow $history $i [list [java::new ptolemy.data.IntToken $i]]
+    }
+    list [$history size] \
+	[listToStrings [$history channelHistory 0 [java::null]]] \
+	[listToStrings [$history timeHistory]]
+} {2 {3 4} {3.0 4.0}}
+
+######################################################################
+####
+#
+test TokenHistory-1.4 {Spill to a temporary file} {
+    # The threshold is less than one chunk, so every full chunk spills.
+    set history [java::new ptolemy.actor.util.TokenHistory \
+		     [java::null] -1 10]
+    set chunk [java::field ptolemy.actor.util.TokenHistory CHUNK_SIZE]
+    set rows [expr {3 * $chunk + 7}]
+    for {set i 0} {$i < $rows} {incr i} {
+	_appendRow $history $i [list [java::new ptolemy.data.DoubleToken $i]]
+    }
+    set result [list [$history size] \
+		    [[$history get 0 0] toString] \
+		    [[$history get [expr {$chunk + 1}] 0] toString] \
+		    [$history getTime [expr {$rows - 1}]]]
+    $history clear
+    lappend result [$history size]
+} {12295 0.0 4097.0 12294.0 0}
+
+######################################################################
+####
+#
+test TokenHistory-1.5 {Spilled rows remain readable after releasing the file} {
+    set history [java::new ptolemy.actor.util.TokenHistory \
+		     [java::null] -1 10]
+    set chunk [java::field ptolemy.actor.util.TokenHistory CHUNK_SIZE]
+    set rows [expr {2 * $chunk + 3}]
+    for {set i 0} {$i < $rows} {incr i} {
+	_appendRow $history $i [list [java::new ptolemy.data.IntToken $i]]
+    }
+    $history releaseSpillFile
+    set result [list [[$history get 1 0] toString] \
+		    [$history getTime [expr {$chunk + 2}]]]
+    # Appending more rows spills to a new file.
+    for {set i 0} {$i < $chunk} {incr i} {
+	_appendRow $history $i [list [java::new ptolemy.data.IntToken $i]]
+    }
+    lappend result [$history size] [[$history get [expr {$chunk + 5}] 0] toString]
+    $history clear
+    set result
+} {1 4098.0 12291 4101}
+
+######################################################################
+####
+#
+test TokenHistory-1.6 {setCapacity discards the oldest rows} {
+    set history [java::new ptolemy.actor.util.TokenHistory]
+    for {set i 0} {$i < 5} {incr i} {
+	_appendRow $history $i [list [java::new ptolemy.data.IntToken $i]]
+    }
+    $history setCapacity 3
+    set result [listToStrings [$history channelHistory 0 [java::null]]]
+    _appendRow $history 5 [list [java::new ptolemy.data.IntToken 5]]
+    lappend result [listToStrings [$history channelHistory 0 [java::null]]]
+    $history setCapacity -1
+    _appendRow $history 6 [list [java::new ptolemy.data.IntToken 6]]
+    lappend result [listToStrings [$history channelHistory 0 [java::null]]]
+} {2 3 4 {3 4 5} {3 4 5 6}}
@@ -27,6 +27,7 @@
  */
 package ptolemy.cg.adapter.generic.adapters.ptolemy.actor;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -40,6 +41,7 @@ import ptolemy.actor.util.ExplicitChangeContext;
 import ptolemy.cg.kernel.generic.CodeGeneratorAdapter;
 import ptolemy.cg.kernel.generic.GenericCodeGenerator;
 import ptolemy.cg.kernel.generic.program.CodeStream;
+import ptolemy.cg.kernel.generic.program.ExecutionProfile;
 import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
 import ptolemy.cg.kernel.generic.program.ProgramCodeGenerator;
 import ptolemy.data.expr.Parameter;
@@ -127,7 +129,9 @@ public class Director extends NamedProgramCodeGeneratorAdapter {
 
     /** Generate The fire function code. This method is called when the firing
      *  code of each actor is not inlined. Each actor's firing code is in a
-     *  function with the same name as that of the actor.
+     *  function with the same name as that of the actor.  If the code
+     *  generator recorded an execution profile, then the functions of the
+     *  actors that fire most often come first.
      *
      *  @return The fire function code.
      *  @exception IllegalActionException If thrown while generating fire code.
@@ -135,8 +139,16 @@ public class Director extends NamedProgramCodeGeneratorAdapter {
     @Override
     public String generateFireFunctionCode() throws IllegalActionException {
         StringBuffer code = new StringBuffer();
-        Iterator<?> actors = ((CompositeActor) _director.getContainer())
-                .deepEntityList().iterator();
+        List<Actor> actorList = new ArrayList<Actor>();
+        for (Object actor : ((CompositeActor) _director.getContainer())
+                .deepEntityList()) {
+            actorList.add((Actor) actor);
+        }
+        ExecutionProfile profile = getCodeGenerator().getExecutionProfile();
+        if (profile != null) {
+            profile.sortByFiringCount(actorList);
+        }
+        Iterator<?> actors = actorList.iterator();
 
         while (actors.hasNext()) {
             Actor actor = (Actor) actors.next();
@@ -27,6 +27,7 @@
  */
 package ptolemy.cg.adapter.generic.program.procedural.adapters.ptolemy.domains.sdf.kernel;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -44,6 +45,7 @@ import ptolemy.cg.adapter.generic.program.procedural.adapters.ptolemy.actor.sche
 import ptolemy.cg.kernel.generic.CodeGeneratorAdapter;
 import ptolemy.cg.kernel.generic.GenericCodeGenerator;
 import ptolemy.cg.kernel.generic.program.CodeStream;
+import ptolemy.cg.kernel.generic.program.ExecutionProfile;
 import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
 import ptolemy.cg.kernel.generic.program.ProgramCodeGenerator;
 import ptolemy.cg.kernel.generic.program.ProgramCodeGeneratorAdapter;
@@ -92,6 +94,9 @@ public class SDFDirector extends StaticSchedulingDirector {
      *  the code generator is true, then each actor's firing code is in a
      *  function with the same name as that of the actor.  If the <i>inline</i>
      *  parameter is false, then the firing code is grouped in inner classes.
+     *  If the <i>inline</i> parameter is true and the code generator
+     *  recorded an execution profile, then the functions of the actors
+     *  that fire most often come first.
      *
      *  @return The fire function code.
      *  @exception IllegalActionException If thrown while generating fire code.
@@ -99,8 +104,11 @@ public class SDFDirector extends StaticSchedulingDirector {
     @Override
     public String generateFireFunctionCode() throws IllegalActionException {
         StringBuffer code = new StringBuffer();
-        List actorList = ((CompositeActor) _director.getContainer())
-                .deepEntityList();
+        List<Actor> actorList = new ArrayList<Actor>();
+        for (Object actor : ((CompositeActor) _director.getContainer())
+                .deepEntityList()) {
+            actorList.add((Actor) actor);
+        }
 
         // Sort by name so that we retrieve the actors from the list
         // by composite.
@@ -112,6 +120,15 @@ public class SDFDirector extends StaticSchedulingDirector {
 
         boolean inline = ((BooleanToken) codeGenerator.inline.getToken())
                 .booleanValue();
+
+        // If there is an execution profile, then put the functions of
+        // the actors that fire most often first.  The inner classes
+        // below are looked up by name, so only do this when the
+        // functions are not grouped in inner classes.
+        ExecutionProfile profile = codeGenerator.getExecutionProfile();
+        if (inline && profile != null) {
+            profile.sortByFiringCount(actorList);
+        }
         String className = "";
 
         // Magic text used to pass the name of the inner class in which
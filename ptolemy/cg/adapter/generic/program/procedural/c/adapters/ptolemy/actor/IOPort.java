@@ -33,6 +33,7 @@ import ptolemy.actor.Receiver;
 import ptolemy.actor.TypedIOPort;
 import ptolemy.actor.lib.hoc.MirrorPort;
 import ptolemy.actor.parameters.ParameterPort;
+import ptolemy.cg.adapter.generic.program.procedural.c.adapters.ptolemy.domains.sdf.kernel.SDFReceiver;
 import ptolemy.cg.kernel.generic.CodeGeneratorAdapter;
 import ptolemy.cg.kernel.generic.program.ProgramCodeGenerator;
 import ptolemy.cg.kernel.generic.program.TemplateParser;
@@ -105,6 +106,11 @@ public class IOPort extends
             return processCode(
                     "$new(" + typeString + "(0))->payload." + typeString);
         }
+        SDFReceiver fusedReceiver = _getFusedReceiver(port.getReceivers(),
+                channelIndex);
+        if (fusedReceiver != null) {
+            return fusedReceiver.generateFusedGetCode();
+        }
         String result = "(*(" + port.getName() + "->get))((struct IOPort*) "
                 + port.getName() + "_X_COMA_X_ " + channelIndex + ")";
         if (type instanceof BaseType) {
@@ -135,6 +141,15 @@ public class IOPort extends
             return processCode("$new(" + typeString + "(0));");//->payload."
             //+ typeString);
         }
+        SDFReceiver fusedReceiver = _getFusedReceiver(port.getReceivers(),
+                channelIndex);
+        if (fusedReceiver != null) {
+            if (type instanceof BaseType) {
+                return processCode("$new(" + typeString + "("
+                        + fusedReceiver.generateFusedGetCode() + "))");
+            }
+            return fusedReceiver.generateFusedGetCode();
+        }
         String result = "(*(" + port.getName() + "->get))((struct IOPort*) "
                 + port.getName() + "_X_COMA_X_ " + channelIndex + ")";
 
@@ -167,6 +182,11 @@ public class IOPort extends
             return processCode("$new(" + typeString + "(0));"); //->payload."
             // + typeString);
         }
+        SDFReceiver fusedReceiver = _getFusedReceiver(port.getReceivers(),
+                channelIndex);
+        if (fusedReceiver != null) {
+            return fusedReceiver.generateFusedGetCode();
+        }
         String result = "(*(" + port.getName() + "->get" + typeString
                 + "))((struct IOPort*) " + port.getName() + "_X_COMA_X_ "
                 + channelIndex + ")";
@@ -447,6 +467,11 @@ public class IOPort extends
         int channelNumber = 0;
         channelNumber = Integer.parseInt(channel);
         TypedIOPort port = (TypedIOPort) getComponent();
+        SDFReceiver fusedReceiver = _getFusedReceiver(port.getReceivers(),
+                channelNumber);
+        if (fusedReceiver != null) {
+            return fusedReceiver.generateFusedHasTokenCode();
+        }
         String result = "(*(" + port.getName()
                 + "->hasToken))((struct IOPort*) " + port.getName() + ", "
                 + channelNumber + ")";
@@ -478,6 +503,11 @@ public class IOPort extends
         int channelIndex = Integer.parseInt(channel);
         TypedIOPort port = (TypedIOPort) getComponent();
         Type type = port.getType();
+        SDFReceiver fusedReceiver = _getFusedReceiver(port.getRemoteReceivers(),
+                channelIndex);
+        if (fusedReceiver != null) {
+            return fusedReceiver.generateFusedPutCode(dataToken);
+        }
         String typeString = getCodeGenerator().codeGenType(type);
         String tokenCode;
         if (type instanceof BaseType) {
@@ -534,4 +564,30 @@ public class IOPort extends
 
         return result;
     }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return the adapter of the receiver of the given channel if the
+     *  channel is fused into a ring buffer, or null otherwise.
+     *  @param receivers The receivers of the port, or the remote
+     *  receivers if the port is an output.
+     *  @param channel The channel.
+     *  @return The adapter of the receiver, or null.
+     *  @exception IllegalActionException If the adapter cannot be found.
+     */
+    private SDFReceiver _getFusedReceiver(Receiver[][] receivers, int channel)
+            throws IllegalActionException {
+        if (channel >= receivers.length || receivers[channel] == null
+                || receivers[channel].length != 1
+                || !(receivers[channel][0] instanceof ptolemy.domains.sdf.kernel.SDFReceiver)) {
+            return null;
+        }
+        Object adapter = getCodeGenerator().getAdapter(receivers[channel][0]);
+        if (adapter instanceof SDFReceiver
+                && ((SDFReceiver) adapter).isFused()) {
+            return (SDFReceiver) adapter;
+        }
+        return null;
+    }
 }
@@ -0,0 +1,38 @@
+/***appendPreinitBlock($width)***/
+Token* $actorSymbol(arrays)[$width];
+Token* $actorSymbol(result);
+int $actorSymbol(length);
+int $actorSymbol(position);
+/**/
+
+/***appendStartBlock***/
+$actorSymbol(length) = 0;
+/**/
+
+/***appendGetBlock($channel, $type)***/
+if ($hasToken(input#$channel)) {
+    $actorSymbol(arrays)[$channel] = $get(input#$channel);
+    $actorSymbol(length) += $actorSymbol(arrays)[$channel]->payload.$type->size;
+} else {
+    $actorSymbol(arrays)[$channel] = NULL;
+}
+/**/
+
+/***appendResultBlock($type, $elementType)***/
+$actorSymbol(result) = $new($type($actorSymbol(length), 0));
+$actorSymbol(position) = 0;
+/**/
+
+/***appendCopyBlock($channel, $type, $elementType)***/
+if ($actorSymbol(arrays)[$channel] != NULL
+        && $actorSymbol(arrays)[$channel]->payload.$type->size > 0) {
+    memcpy($actorSymbol(result)->payload.$type->elements + $actorSymbol(position),
+            $actorSymbol(arrays)[$channel]->payload.$type->elements,
+            $actorSymbol(arrays)[$channel]->payload.$type->size * sizeof($elementType));
+    $actorSymbol(position) += $actorSymbol(arrays)[$channel]->payload.$type->size;
+}
+/**/
+
+/***appendOutputBlock***/
+$put(output, $actorSymbol(result));
+/**/
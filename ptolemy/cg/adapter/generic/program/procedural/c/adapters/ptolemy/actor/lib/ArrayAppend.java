@@ -0,0 +1,148 @@
+/* A adapter class for ptolemy.actor.lib.ArrayAppend
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.c.adapters.ptolemy.actor.lib;
+
+import java.util.ArrayList;
+
+import ptolemy.cg.kernel.generic.program.CodeStream;
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.data.type.ArrayType;
+import ptolemy.data.type.BaseType;
+import ptolemy.data.type.Type;
+import ptolemy.kernel.util.IllegalActionException;
+
+//////////////////////////////////////////////////////////////////////////
+//// ArrayAppend
+
+/**
+ A C adapter class for ptolemy.actor.lib.ArrayAppend.
+
+ <p>The input and the output must be arrays of int, double or boolean.
+ The generated code allocates the output array once and copies the
+ contiguous elements of each input array into it with memcpy().</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class ArrayAppend extends NamedProgramCodeGeneratorAdapter {
+    /**
+     *  Construct an ArrayAppend adapter.
+     *  @param actor The given ptolemy.actor.lib.ArrayAppend actor.
+     */
+    public ArrayAppend(ptolemy.actor.lib.ArrayAppend actor) {
+        super(actor);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /**
+     * Generate the preinitialize code, which declares the variables
+     * that refer to the input arrays.
+     * @return The generated code.
+     * @exception IllegalActionException If the input has no channels, or
+     *  if the code stream encounters an error in processing the specified
+     *  code block.
+     */
+    @Override
+    public String generatePreinitializeCode() throws IllegalActionException {
+        super.generatePreinitializeCode();
+
+        ptolemy.actor.lib.ArrayAppend actor = (ptolemy.actor.lib.ArrayAppend) getComponent();
+        int width = actor.input.getWidth();
+        if (width == 0) {
+            throw new IllegalActionException(actor, "No input channels.");
+        }
+
+        ArrayList<String> args = new ArrayList<String>();
+        args.add(Integer.toString(width));
+
+        CodeStream codeStream = getTemplateParser().getCodeStream();
+        codeStream.clear();
+        codeStream.appendCodeBlock("appendPreinitBlock", args);
+        return processCode(codeStream.toString());
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /**
+     * Generate the fire code.
+     * @return The generated code.
+     * @exception IllegalActionException If the input and the output are
+     *  not arrays of the same primitive type, or if the code stream
+     *  encounters an error in processing the specified code block.
+     */
+    @Override
+    protected String _generateFireCode() throws IllegalActionException {
+        super._generateFireCode();
+
+        ptolemy.actor.lib.ArrayAppend actor = (ptolemy.actor.lib.ArrayAppend) getComponent();
+        Type type = actor.output.getType();
+        Type elementType = type instanceof ArrayType
+                ? ((ArrayType) type).getElementType()
+                : null;
+        if (elementType != BaseType.INT && elementType != BaseType.DOUBLE
+                && elementType != BaseType.BOOLEAN
+                || !getCodeGenerator().codeGenType(type).equals(
+                        getCodeGenerator().codeGenType(actor.input.getType()))) {
+            throw new IllegalActionException(actor,
+                    "The C code generator supports ArrayAppend only for "
+                            + "arrays of int, double or boolean of the same "
+                            + "type, but the input is " + actor.input.getType()
+                            + " and the output is " + type + ".");
+        }
+        String typeString = getCodeGenerator().codeGenType(type);
+        int width = actor.input.getWidth();
+
+        CodeStream codeStream = getTemplateParser().getCodeStream();
+        codeStream.appendCodeBlock("appendStartBlock");
+        ArrayList<String> args = new ArrayList<String>();
+        args.add("");
+        args.add(typeString);
+        for (int i = 0; i < width; i++) {
+            args.set(0, Integer.toString(i));
+            codeStream.appendCodeBlock("appendGetBlock", args);
+        }
+
+        args.set(0, typeString);
+        args.set(1, targetType(elementType));
+        codeStream.appendCodeBlock("appendResultBlock", args);
+
+        args.add(0, "");
+        for (int i = 0; i < width; i++) {
+            args.set(0, Integer.toString(i));
+            codeStream.appendCodeBlock("appendCopyBlock", args);
+        }
+        codeStream.appendCodeBlock("appendOutputBlock");
+        return processCode(codeStream.toString());
+    }
+}
@@ -35,3 +35,83 @@ if ($hasToken(divide#$channel)) {
 /***outputBlock***/
 $put(output, $actorSymbol(result));
 /**/
+
+/*** declareSharedBlock ***/
+#ifndef PTCG_RESTRICT
+#ifdef __cplusplus
+#define PTCG_RESTRICT __restrict__
+#else
+#define PTCG_RESTRICT restrict
+#endif
+#endif
+/**/
+
+/***arrayInitProduct($type, $elementType)***/
+if ($hasToken(multiply#0)) {
+    Token* $actorSymbol(operand) = $get(multiply#0);
+    $actorSymbol(result) = $new($type($actorSymbol(operand)->payload.$type->size, 0));
+    if ($actorSymbol(operand)->payload.$type->size > 0) {
+        memcpy($actorSymbol(result)->payload.$type->elements,
+                $actorSymbol(operand)->payload.$type->elements,
+                $actorSymbol(operand)->payload.$type->size * sizeof($elementType));
+    }
+}
+else {
+    $actorSymbol(result) = $new($type(1, 0));
+    $actorSymbol(result)->payload.$type->elements[0] = 1;
+}
+/**/
+
+/***arrayDivideOnlyInitProduct($type, $elementType)***/
+if ($hasToken(divide#0)) {
+    Token* $actorSymbol(operand) = $get(divide#0);
+    int $actorSymbol(length) = $actorSymbol(operand)->payload.$type->size;
+    $actorSymbol(result) = $new($type($actorSymbol(length), 0));
+    if ($actorSymbol(length) > 0) {
+        $elementType* PTCG_RESTRICT $actorSymbol(r) = $actorSymbol(result)->payload.$type->elements;
+        const $elementType* PTCG_RESTRICT $actorSymbol(x) = $actorSymbol(operand)->payload.$type->elements;
+        int $actorSymbol(i);
+        for ($actorSymbol(i) = 0; $actorSymbol(i) < $actorSymbol(length); $actorSymbol(i)++) {
+            $actorSymbol(r)[$actorSymbol(i)] = 1 / $actorSymbol(x)[$actorSymbol(i)];
+        }
+    }
+}
+else {
+    $actorSymbol(result) = $new($type(1, 0));
+    $actorSymbol(result)->payload.$type->elements[0] = 1;
+}
+/**/
+
+/***arrayMultiplyBlock($channel, $type, $elementType)***/
+if ($hasToken(multiply#$channel)) {
+    Token* $actorSymbol(operand) = $get(multiply#$channel);
+    int $actorSymbol(length) = $actorSymbol(result)->payload.$type->size;
+    if ($actorSymbol(operand)->payload.$type->size == $actorSymbol(length)) {
+        $elementType* PTCG_RESTRICT $actorSymbol(r) = $actorSymbol(result)->payload.$type->elements;
+        const $elementType* PTCG_RESTRICT $actorSymbol(x) = $actorSymbol(operand)->payload.$type->elements;
+        int $actorSymbol(i);
+        for ($actorSymbol(i) = 0; $actorSymbol(i) < $actorSymbol(length); $actorSymbol(i)++) {
+            $actorSymbol(r)[$actorSymbol(i)] *= $actorSymbol(x)[$actorSymbol(i)];
+        }
+    } else {
+        $actorSymbol(result) = $multiply_$type_$type($actorSymbol(result), $actorSymbol(operand));
+    }
+}
+/**/
+
+/***arrayDivideBlock($channel, $type, $elementType)***/
+if ($hasToken(divide#$channel)) {
+    Token* $actorSymbol(operand) = $get(divide#$channel);
+    int $actorSymbol(length) = $actorSymbol(result)->payload.$type->size;
+    if ($actorSymbol(operand)->payload.$type->size == $actorSymbol(length)) {
+        $elementType* PTCG_RESTRICT $actorSymbol(r) = $actorSymbol(result)->payload.$type->elements;
+        const $elementType* PTCG_RESTRICT $actorSymbol(x) = $actorSymbol(operand)->payload.$type->elements;
+        int $actorSymbol(i);
+        for ($actorSymbol(i) = 0; $actorSymbol(i) < $actorSymbol(length); $actorSymbol(i)++) {
+            $actorSymbol(r)[$actorSymbol(i)] /= $actorSymbol(x)[$actorSymbol(i)];
+        }
+    } else {
+        $actorSymbol(result) = $divide_$type_$type($actorSymbol(result), $actorSymbol(operand));
+    }
+}
+/**/
@@ -27,8 +27,16 @@
  */
 package ptolemy.cg.adapter.generic.program.procedural.c.adapters.ptolemy.domains.sdf.kernel;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import ptolemy.actor.Actor;
 import ptolemy.actor.CompositeActor;
@@ -69,6 +77,24 @@ import ptolemy.kernel.util.NamedObj;
  Code generator adapter associated with the SDFDirector class. This class
  is also associated with a code generator.
 
+ <p>If the <i>numberOfThreads</i> parameter of the code generator is
+ greater than one and the director is at the top level, then the
+ actors are partitioned over that many POSIX threads.  Actors that are
+ connected by a channel that is not fused, and actors without outputs,
+ such as displays, are put in the same partition, and the resulting
+ clusters are assigned to the partitions in order of decreasing number
+ of firings, each to the partition with the fewest firings so far.  Each
+ partition fires its actors in the order of the schedule.  An actor
+ that is connected by a fused channel to an actor of another partition
+ publishes the number of its firings in the current iteration, and
+ before it is fired, it waits until each such neighbor has been fired
+ as many times as it is fired before it in the schedule.  Thus, the
+ firings of the actors of a channel occur in the same order as in the
+ single threaded code, even if an actor does not produce or consume
+ tokens at the rates declared by its ports, and the output is the same.
+ The partitions synchronize at the end of each iteration.
+ See {@link SDFReceiver#isShared()}.</p>
+
  @author Ye Zhou, Gang Zhou
  @version $Id$
  @since Ptolemy II 10.0
@@ -593,13 +619,50 @@ public class SDFDirector extends
     }
 
     /** Generate the code representing the schedule statically inferred from the
-     *  Ptolemy model.
+     *  Ptolemy model.  If the schedule is partitioned over several
+     *  threads, then the code starts the other threads when it is
+     *  first executed, resets the numbers of firings published by the
+     *  actors, lets the other threads execute their partitions,
+     *  executes partition 0 and waits for the other threads to finish.
      *  @return the code representing the schedule.
      *  @exception IllegalActionException if something happens while writing the code
+     *  @see #generateScheduleThreadsCode()
      */
     public String generateSchedule() throws IllegalActionException {
         StringBuffer code = new StringBuffer();
 
+        _partition();
+        if (_numberOfPartitions > 1) {
+            String name = _getScheduleName();
+            int workers = _numberOfPartitions - 1;
+            code.append(_eol + "int i;" + _eol + "if (!" + name
+                    + "_started) {" + _eol + "pthread_t thread;" + _eol
+                    + name + "_started = true;" + _eol + "for (i = 0; i < "
+                    + workers + "; i++) {" + _eol
+                    + "if (pthread_create(&thread, NULL, " + name
+                    + "_worker, &" + name + "_workerPartitions[i]) != 0) {"
+                    + _eol + "fprintf(stderr, \"Failed to create a thread "
+                    + "to execute the schedule of "
+                    + _director.getContainer().getFullName() + ".\\n\");"
+                    + _eol
+                    + "exit(-1);" + _eol + "}" + _eol
+                    + "pthread_detach(thread);" + _eol + "}" + _eol + "}");
+            for (Actor actor : _getSharedActors()) {
+                code.append(_eol + _getFiringsName(actor) + " = 0;");
+            }
+            code.append(_eol + "pthread_mutex_lock(&" + name + "_mutex);"
+                    + _eol + name + "_running = " + workers + ";" + _eol
+                    + name + "_round++;" + _eol + "pthread_cond_broadcast(&"
+                    + name + "_start);" + _eol + "pthread_mutex_unlock(&"
+                    + name + "_mutex);" + _eol + name + "_partition0();" + _eol
+                    + "pthread_mutex_lock(&" + name + "_mutex);" + _eol
+                    + "while (" + name + "_running > 0) {" + _eol
+                    + "pthread_cond_wait(&" + name + "_done, &" + name
+                    + "_mutex);" + _eol + "}" + _eol + "pthread_mutex_unlock(&"
+                    + name + "_mutex);");
+            return code.toString();
+        }
+
         // Generate code for one iteration.
         ptolemy.actor.sched.StaticSchedulingDirector director = (ptolemy.actor.sched.StaticSchedulingDirector) getComponent();
         Schedule schedule = director.getScheduler().getSchedule();
@@ -618,6 +681,85 @@ public class SDFDirector extends
         return code.toString();
     }
 
+    /** Generate the functions and variables that execute the partitions
+     *  of the schedule in several threads.  The code defines a function
+     *  for each partition, a worker function that executes a partition
+     *  each time the thread that executes the schedule starts an
+     *  iteration, and the mutex and condition variables used to start
+     *  and finish the iterations.  The function that waits for the
+     *  firings of an actor of another partition spins, yielding the
+     *  processor, since the wait is usually short.
+     *  @return The code, or the empty string if the schedule is executed
+     *  by a single thread.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed or the receiver adapters cannot be found.
+     *  @see #generateSchedule()
+     */
+    public String generateScheduleThreadsCode() throws IllegalActionException {
+        _partition();
+        if (_numberOfPartitions <= 1) {
+            return "";
+        }
+        getCodeGenerator().addLibraryIfNecessary("-lpthread");
+
+        String name = _getScheduleName();
+        StringBuffer code = new StringBuffer();
+        code.append("#include <pthread.h>" + _eol + "#include <sched.h>"
+                + _eol);
+        code.append(_eol);
+        for (Actor actor : _getSharedActors()) {
+            code.append("static unsigned int " + _getFiringsName(actor)
+                    + " = 0;" + _eol);
+        }
+        code.append(_eol + "static inline void " + name
+                + "_await(unsigned int* firings, unsigned int count) {" + _eol
+                + "while (__atomic_load_n(firings, __ATOMIC_ACQUIRE) < count) {"
+                + _eol + "sched_yield();" + _eol + "}" + _eol + "}" + _eol);
+
+        StringBuffer partitions = new StringBuffer();
+        StringBuffer workerPartitions = new StringBuffer();
+        for (int partition = 0; partition < _numberOfPartitions; partition++) {
+            code.append(_generatePartitionCode(partition));
+            if (partition > 0) {
+                partitions.append(", ");
+                workerPartitions.append(partition == 1 ? "" : ", ");
+                workerPartitions.append(partition);
+            }
+            partitions.append(name + "_partition" + partition);
+        }
+
+        code.append(_eol + "static void (*" + name + "_partitions[])(void) = { "
+                + partitions + " };" + _eol);
+        code.append("static int " + name + "_workerPartitions[] = { "
+                + workerPartitions + " };" + _eol);
+        code.append("static pthread_mutex_t " + name
+                + "_mutex = PTHREAD_MUTEX_INITIALIZER;" + _eol);
+        code.append("static pthread_cond_t " + name
+                + "_start = PTHREAD_COND_INITIALIZER;" + _eol);
+        code.append("static pthread_cond_t " + name
+                + "_done = PTHREAD_COND_INITIALIZER;" + _eol);
+        code.append("static unsigned int " + name + "_round = 0;" + _eol);
+        code.append("static int " + name + "_running = 0;" + _eol);
+        code.append("static boolean " + name + "_started = false;" + _eol);
+
+        code.append(_eol + "static void* " + name + "_worker(void* argument) {"
+                + _eol + "int partition = *((int*) argument);" + _eol
+                + "unsigned int round = 0;" + _eol + "while (true) {" + _eol
+                + "pthread_mutex_lock(&" + name + "_mutex);" + _eol
+                + "while (" + name + "_round == round) {" + _eol
+                + "pthread_cond_wait(&" + name + "_start, &" + name
+                + "_mutex);" + _eol + "}" + _eol + "round = " + name
+                + "_round;" + _eol + "pthread_mutex_unlock(&" + name
+                + "_mutex);" + _eol + "(*" + name
+                + "_partitions[partition])();" + _eol
+                + "pthread_mutex_lock(&" + name + "_mutex);" + _eol + "if (--"
+                + name + "_running == 0) {" + _eol + "pthread_cond_signal(&"
+                + name + "_done);" + _eol + "}" + _eol
+                + "pthread_mutex_unlock(&" + name + "_mutex);" + _eol + "}"
+                + _eol + "return NULL;" + _eol + "}" + _eol);
+        return code.toString();
+    }
+
     /** Generate code for transferring enough tokens to complete an internal
      *  iteration.
      *  @param inputPort The port to transfer tokens.
@@ -1143,6 +1285,78 @@ public class SDFDirector extends
         return (CCodeGenerator) super.getCodeGenerator();
     }
 
+    /** Return the declaration shared code, which in this class adds
+     *  extern declarations of the ring buffers of the fused channels
+     *  to the shared code of the superclass.
+     *  @return A set of shared code fragments.
+     *  @exception IllegalActionException If thrown by the superclass
+     *  or if the schedule cannot be computed.
+     *  @see SDFReceiver#isFused()
+     */
+    @Override
+    public Set<String> getDeclareSharedCode() throws IllegalActionException {
+        Set<String> sharedCode = super.getDeclareSharedCode();
+        String declarations = _generateFusedBufferDeclarations(true);
+        if (declarations.length() > 0) {
+            sharedCode.add(declarations);
+        }
+        return sharedCode;
+    }
+
+    /** Return the name of the array that the ring buffer of a fused
+     *  channel shares with the buffers of other fused channels.  If the
+     *  <i>minimizeBufferSizes</i> parameter of the director is true and
+     *  the schedule is executed by a single thread, then the buffers of
+     *  channels without initial tokens whose lifetimes in an iteration
+     *  do not overlap share an array as large as the largest of them.
+     *  The lifetime of a channel extends from the first firing of its
+     *  source to the last firing of its sink, so such a channel is empty
+     *  outside of its lifetime.
+     *  @param receiver The adapter of the receiver of a fused channel.
+     *  @return The name of the array, or null if the buffer does not
+     *  share an array.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed or the parameters of the director cannot be read.
+     */
+    public String getFusedBufferPool(SDFReceiver receiver)
+            throws IllegalActionException {
+        _planFusedBufferPools();
+        return _fusedBufferPools.get(receiver.getComponent());
+    }
+
+    /** Return the partition of the schedule that fires the specified
+     *  actor.  Partition 0 is executed by the thread that executes the
+     *  schedule.
+     *  @param actor An actor governed by this director.
+     *  @return The partition, which is 0 if the schedule is executed by
+     *  a single thread.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed.
+     */
+    public int getPartition(Actor actor) throws IllegalActionException {
+        _partition();
+        Integer partition = _partitions.get(actor);
+        return partition == null ? 0 : partition;
+    }
+
+    /** Return the shared code, which in this class adds the definitions
+     *  of the ring buffers of the fused channels to the shared code of
+     *  the superclass.
+     *  @return A set of shared code fragments.
+     *  @exception IllegalActionException If thrown by the superclass
+     *  or if the schedule cannot be computed.
+     *  @see SDFReceiver#isFused()
+     */
+    @Override
+    public Set<String> getSharedCode() throws IllegalActionException {
+        Set<String> sharedCode = super.getSharedCode();
+        String definitions = _generateFusedBufferDeclarations(false);
+        if (definitions.length() > 0) {
+            sharedCode.add(definitions);
+        }
+        return sharedCode;
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         protected methods                 ////
 
@@ -1321,6 +1535,104 @@ public class SDFDirector extends
     //        return code.toString();
     //    }
 
+    /** Return the representative of the cluster of an actor.
+     *  @param representatives The map from actors to actors of the same
+     *  cluster, which is updated to shorten the paths.
+     *  @param actor The actor.
+     *  @return The representative.
+     */
+    private static Actor _find(Map<Actor, Actor> representatives,
+            Actor actor) {
+        Actor representative = representatives.get(actor);
+        if (representative == null || representative == actor) {
+            return actor;
+        }
+        representative = _find(representatives, representative);
+        representatives.put(actor, representative);
+        return representative;
+    }
+
+    /** Generate the definitions or the extern declarations of the ring
+     *  buffers of the fused channels between the actors governed by
+     *  this director.
+     *  @param extern True to generate extern declarations.
+     *  @return The code, or the empty string if no channel is fused.
+     *  @exception IllegalActionException If thrown while getting the
+     *  receiver adapters.
+     */
+    private String _generateFusedBufferDeclarations(boolean extern)
+            throws IllegalActionException {
+        StringBuffer code = new StringBuffer();
+        _planFusedBufferPools();
+        for (String pool : _fusedBufferPoolDeclarations) {
+            code.append((extern ? "extern " : "") + pool + _eol);
+        }
+        for (SDFReceiver receiver : _getFusedReceivers()) {
+            code.append(receiver.generateFusedBufferDeclaration(extern));
+        }
+        return code.toString();
+    }
+
+    /** Generate the function that fires the actors of a partition in
+     *  the order of the schedule.  Before firing an actor, the function
+     *  waits until each actor of another partition that shares a channel
+     *  with it has been fired as many times as it is fired before in the
+     *  schedule, and after firing an actor that shares a channel, it
+     *  publishes the number of firings of the actor.
+     *  @param partition The partition.
+     *  @return The code of the function.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed or the receiver adapters cannot be found.
+     */
+    private String _generatePartitionCode(int partition)
+            throws IllegalActionException {
+        String name = _getScheduleName();
+        StringBuffer code = new StringBuffer();
+        code.append(_eol + "static void " + name + "_partition" + partition
+                + "() {");
+
+        // The number of firings of each actor so far in the schedule,
+        // and the number of firings that this partition has already
+        // waited for.
+        Map<Actor, Integer> fired = new HashMap<Actor, Integer>();
+        Map<Actor, Integer> awaited = new HashMap<Actor, Integer>();
+        Schedule schedule = ((ptolemy.actor.sched.StaticSchedulingDirector) getComponent())
+                .getScheduler().getSchedule();
+        Iterator<?> firings = schedule.firingIterator();
+        while (firings.hasNext()) {
+            Firing firing = (Firing) firings.next();
+            Actor actor = firing.getActor();
+            Integer before = fired.get(actor);
+            int after = (before == null ? 0 : before)
+                    + firing.getIterationCount();
+            fired.put(actor, after);
+            if (getPartition(actor) != partition) {
+                continue;
+            }
+            Set<Actor> neighbors = _getSharedNeighbors(actor);
+            for (Actor neighbor : neighbors) {
+                Integer count = fired.get(neighbor);
+                Integer done = awaited.get(neighbor);
+                if (count != null && (done == null || done < count)) {
+                    code.append(_eol + name + "_await(&"
+                            + _getFiringsName(neighbor) + ", " + count + ");");
+                    awaited.put(neighbor, count);
+                }
+            }
+            String actorName = CodeGeneratorAdapter
+                    .generateName((NamedObj) actor);
+            code.append(_eol + "(*(" + actorName + "->iterate))(" + actorName
+                    + ", " + firing.getIterationCount() + ");");
+            if (!neighbors.isEmpty()) {
+                code.append(_eol + "__atomic_store_n(&"
+                        + _getFiringsName(actor) + ", " + after
+                        + ", __ATOMIC_RELEASE);");
+            }
+        }
+        code.append(_eol + "}" + _eol);
+        return code.toString();
+    }
+
     /** Generate referenced parameter declarations.
      *  @param target The target for which referenced parameter
      *  declarations should be generated.
@@ -1347,9 +1659,466 @@ public class SDFDirector extends
         return code.toString();
     }
 
+    /** Return the adapters of the receivers of the fused channels
+     *  between the actors governed by this director, in the order of
+     *  the actors and their input ports.
+     *  @return The adapters.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed or the receiver adapters cannot be found.
+     */
+    private List<SDFReceiver> _getFusedReceivers()
+            throws IllegalActionException {
+        List<SDFReceiver> result = new ArrayList<SDFReceiver>();
+        CompositeActor container = (CompositeActor) _director.getContainer();
+        for (Object actor : container.deepEntityList()) {
+            if (actor instanceof CompositeActor) {
+                continue;
+            }
+            for (Object port : ((Actor) actor).inputPortList()) {
+                for (Receiver[] receivers : ((IOPort) port).getReceivers()) {
+                    if (receivers == null) {
+                        continue;
+                    }
+                    for (Receiver receiver : receivers) {
+                        if (receiver instanceof ptolemy.domains.sdf.kernel.SDFReceiver) {
+                            SDFReceiver adapter = (SDFReceiver) getAdapter(
+                                    receiver);
+                            if (adapter.isFused()) {
+                                result.add(adapter);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Return the prefix of the names of the functions and variables
+     *  that execute the schedule.
+     *  @return The sanitized name of the container followed by
+     *  "_Schedule".
+     */
+    private String _getScheduleName() {
+        return CodeGeneratorAdapter.generateName(_director.getContainer())
+                + "_Schedule";
+    }
+
+    /** Return the name of the variable in which an actor publishes the
+     *  number of its firings in the current iteration.
+     *  @param actor The actor.
+     *  @return The name.
+     */
+    private String _getFiringsName(Actor actor) {
+        return CodeGeneratorAdapter.generateName((NamedObj) actor)
+                + "_firings";
+    }
+
+    /** Return the actors that share a channel with an actor of another
+     *  partition, in the order of their first firing.
+     *  @return The actors.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed or the receiver adapters cannot be found.
+     */
+    private Set<Actor> _getSharedActors() throws IllegalActionException {
+        Set<Actor> result = new LinkedHashSet<Actor>();
+        Schedule schedule = ((ptolemy.actor.sched.StaticSchedulingDirector) getComponent())
+                .getScheduler().getSchedule();
+        Iterator<?> firings = schedule.firingIterator();
+        while (firings.hasNext()) {
+            Actor actor = ((Firing) firings.next()).getActor();
+            if (!_getSharedNeighbors(actor).isEmpty()) {
+                result.add(actor);
+            }
+        }
+        return result;
+    }
+
+    /** Return the actors of other partitions with which an actor shares
+     *  a channel.
+     *  @param actor The actor.
+     *  @return The actors, in the order of the ports of the actor.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed or the receiver adapters cannot be found.
+     */
+    private Set<Actor> _getSharedNeighbors(Actor actor)
+            throws IllegalActionException {
+        Set<Actor> result = new LinkedHashSet<Actor>();
+        for (Object port : actor.inputPortList()) {
+            for (Object sourcePort : ((IOPort) port).sourcePortList()) {
+                if (_isShared((IOPort) sourcePort, (IOPort) port)) {
+                    result.add((Actor) ((IOPort) sourcePort).getContainer());
+                }
+            }
+        }
+        for (Object port : actor.outputPortList()) {
+            for (Object sinkPort : ((IOPort) port).sinkPortList()) {
+                if (_isShared((IOPort) port, (IOPort) sinkPort)) {
+                    result.add((Actor) ((IOPort) sinkPort).getContainer());
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Return true if a channel from an output port to an input port
+     *  is shared between partitions.
+     *  @param sourcePort The output port.
+     *  @param sinkPort The input port.
+     *  @return True if one of the receivers of the input port that the
+     *  output port writes is shared.
+     *  @exception IllegalActionException If the receiver adapters cannot
+     *  be found.
+     */
+    private boolean _isShared(IOPort sourcePort, IOPort sinkPort)
+            throws IllegalActionException {
+        for (Receiver[] receivers : sourcePort.getRemoteReceivers()) {
+            if (receivers == null) {
+                continue;
+            }
+            for (Receiver receiver : receivers) {
+                if (receiver.getContainer() == sinkPort
+                        && receiver instanceof ptolemy.domains.sdf.kernel.SDFReceiver
+                        && ((SDFReceiver) getAdapter(receiver)).isShared()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Return true if an interval of a list of closed intervals of
+     *  schedule elements intersects an interval of another list.
+     *  @param intervals1 A list of intervals.
+     *  @param intervals2 Another list of intervals.
+     *  @return True if the lists overlap.
+     */
+    private static boolean _overlap(List<int[]> intervals1,
+            List<int[]> intervals2) {
+        for (int[] interval1 : intervals1) {
+            for (int[] interval2 : intervals2) {
+                if (interval1[0] <= interval2[1]
+                        && interval2[0] <= interval1[1]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Partition the actors, if the code generator is to use several
+     *  threads, the director is at the top level and no actor modifies
+     *  a parameter, and set _partitions and _numberOfPartitions.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed or the parameters of the code generator cannot be read.
+     */
+    private void _partition() throws IllegalActionException {
+        if (_partitions != null) {
+            return;
+        }
+        _partitions = new HashMap<Actor, Integer>();
+        _numberOfPartitions = 1;
+        int numberOfThreads = ((IntToken) getCodeGenerator().numberOfThreads
+                .getToken()).intValue();
+        if (numberOfThreads <= 1 || _director.getContainer().getContainer() != null
+                || _director.isEmbedded()
+                || !getCodeGenerator().getModifiedVariables().isEmpty()) {
+            return;
+        }
+
+        // The number of firings of each actor in one iteration, in the
+        // order of the first firing of each actor.
+        final Map<Actor, Integer> firings = new LinkedHashMap<Actor, Integer>();
+        Schedule schedule = ((ptolemy.actor.sched.StaticSchedulingDirector) getComponent())
+                .getScheduler().getSchedule();
+        Iterator<?> firingIterator = schedule.firingIterator();
+        while (firingIterator.hasNext()) {
+            Firing firing = (Firing) firingIterator.next();
+            Integer count = firings.get(firing.getActor());
+            firings.put(firing.getActor(), (count == null ? 0 : count)
+                    + firing.getIterationCount());
+        }
+
+        // Actors connected by a channel that is not fused are fired by
+        // the same thread, and so are the actors without outputs, so
+        // that their side effects occur in the order of the schedule.
+        Map<Actor, Actor> representatives = new HashMap<Actor, Actor>();
+        Actor sink = null;
+        for (Actor actor : firings.keySet()) {
+            for (Object port : actor.inputPortList()) {
+                boolean fused = true;
+                for (Receiver[] receivers : ((IOPort) port).getReceivers()) {
+                    if (receivers == null) {
+                        continue;
+                    }
+                    for (Receiver receiver : receivers) {
+                        if (!(receiver instanceof ptolemy.domains.sdf.kernel.SDFReceiver)
+                                || !((SDFReceiver) getAdapter(receiver))
+                                        .isFused()) {
+                            fused = false;
+                        }
+                    }
+                }
+                if (!fused) {
+                    for (Object sourcePort : ((IOPort) port).sourcePortList()) {
+                        NamedObj source = ((IOPort) sourcePort).getContainer();
+                        if (firings.containsKey(source)) {
+                            _union(representatives, actor, (Actor) source);
+                        }
+                    }
+                }
+            }
+            // Some connections, such as those of publishers, are only
+            // visible from the source.
+            boolean hasOutputs = false;
+            for (Object port : actor.outputPortList()) {
+                for (Receiver[] receivers : ((IOPort) port)
+                        .getRemoteReceivers()) {
+                    if (receivers == null) {
+                        continue;
+                    }
+                    for (Receiver receiver : receivers) {
+                        hasOutputs = true;
+                        NamedObj destination = receiver.getContainer()
+                                .getContainer();
+                        if (firings.containsKey(destination)
+                                && (!(receiver instanceof ptolemy.domains.sdf.kernel.SDFReceiver)
+                                        || !((SDFReceiver) getAdapter(
+                                                receiver)).isFused())) {
+                            _union(representatives, actor,
+                                    (Actor) destination);
+                        }
+                    }
+                }
+            }
+            if (!hasOutputs) {
+                if (sink == null) {
+                    sink = actor;
+                } else {
+                    _union(representatives, sink, actor);
+                }
+            }
+        }
+
+        Map<Actor, List<Actor>> clusterMap = new LinkedHashMap<Actor, List<Actor>>();
+        for (Actor actor : firings.keySet()) {
+            Actor representative = _find(representatives, actor);
+            List<Actor> cluster = clusterMap.get(representative);
+            if (cluster == null) {
+                cluster = new ArrayList<Actor>();
+                clusterMap.put(representative, cluster);
+            }
+            cluster.add(actor);
+        }
+        if (clusterMap.size() <= 1) {
+            return;
+        }
+
+        // Assign the clusters in order of decreasing number of firings,
+        // each to the partition with the fewest firings so far.  The
+        // sort is stable, so the partitions do not depend on hashing.
+        List<List<Actor>> clusters = new ArrayList<List<Actor>>(
+                clusterMap.values());
+        final Map<List<Actor>, Integer> weights = new HashMap<List<Actor>, Integer>();
+        for (List<Actor> cluster : clusters) {
+            int weight = 0;
+            for (Actor actor : cluster) {
+                weight += firings.get(actor);
+            }
+            weights.put(cluster, weight);
+        }
+        Collections.sort(clusters, new Comparator<List<Actor>>() {
+            @Override
+            public int compare(List<Actor> cluster1, List<Actor> cluster2) {
+                return weights.get(cluster2) - weights.get(cluster1);
+            }
+        });
+        _numberOfPartitions = Math.min(numberOfThreads, clusters.size());
+        int[] loads = new int[_numberOfPartitions];
+        for (List<Actor> cluster : clusters) {
+            int lightest = 0;
+            for (int i = 1; i < _numberOfPartitions; i++) {
+                if (loads[i] < loads[lightest]) {
+                    lightest = i;
+                }
+            }
+            loads[lightest] += weights.get(cluster);
+            for (Actor actor : cluster) {
+                _partitions.put(actor, lightest);
+            }
+        }
+    }
+
+    /** Assign the ring buffers of fused channels whose lifetimes do not
+     *  overlap to shared arrays, if the <i>minimizeBufferSizes</i>
+     *  parameter of the director is true and the schedule is executed by
+     *  a single thread, and set _fusedBufferPools and
+     *  _fusedBufferPoolDeclarations.  The lifetime of a channel is the
+     *  set of intervals of the schedule during which it holds tokens.
+     *  The channels are considered in order of the start of their
+     *  lifetimes, and each is assigned to the first array of the same
+     *  element type whose channels are not live when it is.  Channels
+     *  with initial tokens are not shared, since they hold tokens
+     *  between iterations.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed or the parameters of the director cannot be read.
+     */
+    private void _planFusedBufferPools() throws IllegalActionException {
+        if (_fusedBufferPools != null) {
+            return;
+        }
+        _fusedBufferPools = new HashMap<Receiver, String>();
+        _fusedBufferPoolDeclarations = new ArrayList<String>();
+        if (!(_director instanceof ptolemy.domains.sdf.kernel.SDFDirector)
+                || !((BooleanToken) ((ptolemy.domains.sdf.kernel.SDFDirector) _director).minimizeBufferSizes
+                        .getToken()).booleanValue()) {
+            return;
+        }
+        _partition();
+        if (_numberOfPartitions > 1) {
+            return;
+        }
+
+        // The channels without initial tokens, and the number of tokens
+        // that each holds during the execution of the schedule.
+        final Map<SDFReceiver, List<int[]>> lifetimes = new HashMap<SDFReceiver, List<int[]>>();
+        Map<SDFReceiver, Integer> sizes = new HashMap<SDFReceiver, Integer>();
+        List<SDFReceiver> channels = new ArrayList<SDFReceiver>();
+        for (SDFReceiver receiver : _getFusedReceivers()) {
+            IOPort sourcePort = receiver.getFusedSourcePort();
+            IOPort sinkPort = receiver.getComponent().getContainer();
+            if (DFUtilities.getTokenInitProduction(sourcePort) == 0
+                    && DFUtilities.getTokenInitConsumption(sinkPort) == 0) {
+                lifetimes.put(receiver, new ArrayList<int[]>());
+                sizes.put(receiver, 0);
+                channels.add(receiver);
+            }
+        }
+
+        // Execute the schedule on the token counts.  A channel is live
+        // from the schedule element that writes to it while it is empty
+        // to the element that empties it, both included, since an actor
+        // may write its outputs before it reads its inputs.
+        Schedule schedule = ((ptolemy.actor.sched.StaticSchedulingDirector) getComponent())
+                .getScheduler().getSchedule();
+        Iterator<?> firings = schedule.firingIterator();
+        for (int index = 0; firings.hasNext(); index++) {
+            Firing firing = (Firing) firings.next();
+            Actor actor = firing.getActor();
+            for (SDFReceiver receiver : channels) {
+                IOPort sourcePort = receiver.getFusedSourcePort();
+                IOPort sinkPort = receiver.getComponent().getContainer();
+                List<int[]> lifetime = lifetimes.get(receiver);
+                int size = sizes.get(receiver);
+                boolean live = size > 0;
+                if (sourcePort.getContainer() == actor) {
+                    if (!live) {
+                        lifetime.add(new int[] { index, index });
+                        live = true;
+                    }
+                    size += firing.getIterationCount()
+                            * DFUtilities.getRate(sourcePort);
+                }
+                if (sinkPort.getContainer() == actor) {
+                    size -= firing.getIterationCount()
+                            * DFUtilities.getRate(sinkPort);
+                }
+                if (live) {
+                    lifetime.get(lifetime.size() - 1)[1] = index;
+                }
+                sizes.put(receiver, size);
+            }
+        }
+        Iterator<SDFReceiver> receivers = channels.iterator();
+        while (receivers.hasNext()) {
+            if (lifetimes.get(receivers.next()).isEmpty()) {
+                receivers.remove();
+            }
+        }
+        Collections.sort(channels, new Comparator<SDFReceiver>() {
+            @Override
+            public int compare(SDFReceiver receiver1, SDFReceiver receiver2) {
+                return lifetimes.get(receiver1).get(0)[0]
+                        - lifetimes.get(receiver2).get(0)[0];
+            }
+        });
+
+        // Each pool is a list of channels, the first of which determines
+        // the element type, and the intervals during which they are live.
+        List<List<SDFReceiver>> pools = new ArrayList<List<SDFReceiver>>();
+        List<List<int[]>> occupied = new ArrayList<List<int[]>>();
+        for (SDFReceiver receiver : channels) {
+            List<int[]> lifetime = lifetimes.get(receiver);
+            int pool = 0;
+            while (pool < pools.size() && (_overlap(occupied.get(pool), lifetime)
+                    || !pools.get(pool).get(0).getFusedType()
+                            .equals(receiver.getFusedType()))) {
+                pool++;
+            }
+            if (pool == pools.size()) {
+                pools.add(new ArrayList<SDFReceiver>());
+                occupied.add(new ArrayList<int[]>());
+            }
+            pools.get(pool).add(receiver);
+            occupied.get(pool).addAll(lifetime);
+        }
+
+        String prefix = CodeGeneratorAdapter.generateName(_director
+                .getContainer()) + "_fusedBuffer";
+        for (List<SDFReceiver> pool : pools) {
+            if (pool.size() < 2) {
+                continue;
+            }
+            String name = prefix + _fusedBufferPoolDeclarations.size();
+            int capacity = 0;
+            for (SDFReceiver receiver : pool) {
+                capacity = Math.max(capacity, receiver.getFusedCapacity());
+                _fusedBufferPools.put(receiver.getComponent(), name);
+            }
+            _fusedBufferPoolDeclarations.add(pool.get(0).getFusedType() + " "
+                    + name + "[" + capacity + "];");
+        }
+    }
+
+    /** Merge the clusters of two actors.
+     *  @param representatives The map from actors to actors of the same
+     *  cluster.
+     *  @param actor1 An actor.
+     *  @param actor2 Another actor.
+     */
+    private static void _union(Map<Actor, Actor> representatives,
+            Actor actor1, Actor actor2) {
+        Actor representative1 = _find(representatives, actor1);
+        Actor representative2 = _find(representatives, actor2);
+        if (representative1 != representative2) {
+            representatives.put(representative2, representative1);
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         private members                   ////
 
+    /** The definitions of the arrays that are shared by the ring
+     *  buffers of fused channels, without the extern keyword.
+     */
+    private List<String> _fusedBufferPoolDeclarations;
+
+    /** The name of the shared array of the ring buffer of each fused
+     *  channel that shares one, or null if the buffers have not been
+     *  assigned to arrays yet.
+     */
+    private Map<Receiver, String> _fusedBufferPools;
+
+    /** The number of partitions of the schedule, or 1 if it is
+     *  executed by a single thread.
+     */
+    private int _numberOfPartitions;
+
+    /** The partition of each actor, or null if the schedule has not
+     *  been partitioned yet.
+     */
+    private Map<Actor, Integer> _partitions;
+
     private int _portNumber = 0;
 
     private boolean _doubleFlag;
@@ -30,22 +30,44 @@ package ptolemy.cg.adapter.generic.program.procedural.c.adapters.ptolemy.domains
 
 import ptolemy.actor.Actor;
 import ptolemy.actor.CompositeActor;
+import ptolemy.actor.Director;
 import ptolemy.actor.IOPort;
+import ptolemy.actor.PubSubPort;
+import ptolemy.actor.Receiver;
 import ptolemy.actor.TypedIOPort;
+import ptolemy.actor.lib.hoc.MirrorPort;
+import ptolemy.actor.parameters.ParameterPort;
+import ptolemy.actor.util.DFUtilities;
 import ptolemy.cg.adapter.generic.program.procedural.adapters.ptolemy.actor.sched.StaticSchedulingDirector;
 import ptolemy.cg.kernel.generic.CodeGeneratorAdapter;
 import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
 import ptolemy.cg.kernel.generic.program.ProgramCodeGeneratorAdapter;
 import ptolemy.cg.lib.ModularCodeGenTypedCompositeActor;
+import ptolemy.data.type.ArrayType;
 import ptolemy.data.type.BaseType;
 import ptolemy.data.type.StructuredType;
 import ptolemy.data.type.Type;
+import ptolemy.domains.modal.modal.ModalBasePort;
 import ptolemy.kernel.util.IllegalActionException;
 
 ///////////////////////////////////////////////////////////////////////
 ////SDFReceiver
 
 /** The adapter for SDF receiver.
+ *
+ *  <p>A channel between two atomic actors under the same SDF director
+ *  is <i>fused</i> if its receiver is the only receiver of the
+ *  channel, both ports have the same type and that type is a
+ *  primitive scalar or an array of primitive elements.  The receiver
+ *  of a fused channel is replaced in the generated code by a static
+ *  ring buffer whose size is the buffer size computed by the SDF
+ *  scheduler, so that putting and getting a token is an indexed
+ *  store and load rather than a call through the port that allocates
+ *  a token.  See {@link #isFused()}.  If the schedule is partitioned
+ *  over several threads, then the source and the sink of a fused
+ *  channel may be fired by different threads, which take turns in the
+ *  order of the schedule.  See {@link #isShared()}.</p>
+ *
  *  @author Jia Zou, Man-Kit Leung, Isaac Liu, Bert Rodiers
  *  @version $Id$
  *  @since Ptolemy II 10.0
@@ -68,6 +90,79 @@ public class SDFReceiver extends
         }
     }
 
+    /** Generate the definition of the ring buffer that replaces this
+     *  receiver if the channel is fused, or an extern declaration of it.
+     *  If the buffer shares an array with other fused channels, then
+     *  the name of the buffer is defined as a macro for that array.
+     *  @param extern True to generate an extern declaration for a
+     *  header file, false to generate the definition.
+     *  @return The code, or the empty string if the channel is not fused.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed.
+     *  @see SDFDirector#getFusedBufferPool(SDFReceiver)
+     */
+    public String generateFusedBufferDeclaration(boolean extern)
+            throws IllegalActionException {
+        if (!isFused()) {
+            return "";
+        }
+        String name = getFusedBufferName();
+        String prefix = extern ? "extern " : "";
+        String initializer = extern ? "" : " = 0";
+        Actor sink = (Actor) getComponent().getContainer().getContainer();
+        String pool = ((SDFDirector) getAdapter(sink.getDirector()))
+                .getFusedBufferPool(this);
+        String buffer;
+        if (pool != null) {
+            buffer = "#define " + name + " " + pool + _eol;
+        } else {
+            buffer = prefix + getFusedType() + " " + name + "["
+                    + getFusedCapacity() + "];" + _eol;
+        }
+        return buffer + prefix + "unsigned int " + name + "Read" + initializer
+                + ";" + _eol + prefix + "unsigned int " + name + "Write"
+                + initializer + ";" + _eol;
+    }
+
+    /** Generate code that takes the oldest value from the ring buffer
+     *  of a fused channel.
+     *  @return The code, which is an expression of the primitive type of
+     *  the channel, or a Token* for an array.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed.
+     */
+    public String generateFusedGetCode() throws IllegalActionException {
+        String name = getFusedBufferName();
+        return "(" + name + "[(" + name + "Read++) & "
+                + (getFusedCapacity() - 1) + "])";
+    }
+
+    /** Generate code that checks whether the ring buffer of a fused
+     *  channel has a value.
+     *  @return The code.
+     *  @exception IllegalActionException If the channel of the receiver
+     *  cannot be found.
+     */
+    public String generateFusedHasTokenCode() throws IllegalActionException {
+        String name = getFusedBufferName();
+        return "(" + name + "Write != " + name + "Read)";
+    }
+
+    /** Generate code that puts a value in the ring buffer of a fused
+     *  channel.
+     *  @param token The code of the value, which has the primitive type
+     *  of the channel, or is a Token* for an array.
+     *  @return The code.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed.
+     */
+    public String generateFusedPutCode(String token)
+            throws IllegalActionException {
+        String name = getFusedBufferName();
+        return "(" + name + "[(" + name + "Write++) & "
+                + (getFusedCapacity() - 1) + "] = (" + token + "))";
+    }
+
     /** Generates code for getting tokens from the receiver.
      *  @param offset The offset of the port.
      *  @return The generated get code.
@@ -210,6 +305,144 @@ public class SDFReceiver extends
         //                + " = " + token + ";" + _eol;
     }
 
+    /** Return the name of the ring buffer of a fused channel, which
+     *  is the sanitized name of the port that contains this receiver
+     *  followed by the channel number and "_fused".
+     *  @return The name of the buffer.
+     *  @exception IllegalActionException If the channel of the receiver
+     *  cannot be found.
+     */
+    public String getFusedBufferName() throws IllegalActionException {
+        IOPort port = getComponent().getContainer();
+        return CodeGeneratorAdapter.generateName(port) + "_"
+                + port.getChannelForReceiver(getComponent()) + "_fused";
+    }
+
+    /** Return the size of the ring buffer of a fused channel, which is
+     *  the buffer size computed by the scheduler plus the initial tokens
+     *  of the source port, rounded up to a power of two.
+     *  @return The size of the buffer.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed.
+     */
+    public int getFusedCapacity() throws IllegalActionException {
+        int tokens = ((ptolemy.domains.sdf.kernel.SDFReceiver) getComponent())
+                .getCapacity()
+                + DFUtilities.getTokenInitProduction(getFusedSourcePort());
+        int capacity = 1;
+        while (capacity < tokens) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /** Return the source port of the channel if the channel is fused,
+     *  or null if it is not.
+     *  @return The source port, or null.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed.
+     */
+    public IOPort getFusedSourcePort() throws IllegalActionException {
+        ptolemy.domains.sdf.kernel.SDFReceiver receiver = (ptolemy.domains.sdf.kernel.SDFReceiver) getComponent();
+        IOPort sinkPort = receiver.getContainer();
+        if (!sinkPort.isInput() || !_isFusablePort(sinkPort)) {
+            return null;
+        }
+        Director director = ((Actor) sinkPort.getContainer()).getDirector();
+        if (!(director instanceof ptolemy.domains.sdf.kernel.SDFDirector)) {
+            return null;
+        }
+        // The scheduler sets the capacities of the receivers.
+        ((ptolemy.domains.sdf.kernel.SDFDirector) director).getScheduler()
+                .getSchedule();
+        if (receiver
+                .getCapacity() == ptolemy.domains.sdf.kernel.SDFReceiver.INFINITE_CAPACITY) {
+            return null;
+        }
+        IOPort sourcePort = null;
+        for (Object object : sinkPort.sourcePortList()) {
+            IOPort port = (IOPort) object;
+            for (Receiver[] receivers : port.getRemoteReceivers()) {
+                if (receivers == null) {
+                    continue;
+                }
+                for (Receiver remoteReceiver : receivers) {
+                    if (remoteReceiver == receiver) {
+                        if (sourcePort != null || receivers.length != 1) {
+                            // The channel is broadcast or has several writers.
+                            return null;
+                        }
+                        sourcePort = port;
+                    }
+                }
+            }
+        }
+        if (sourcePort == null || !sourcePort.isOutput()
+                || !_isFusablePort(sourcePort)
+                || ((Actor) sourcePort.getContainer()).getDirector() != director
+                || !((TypedIOPort) sourcePort).getType()
+                        .equals(((TypedIOPort) sinkPort).getType())
+                || getFusedType() == null) {
+            return null;
+        }
+        return sourcePort;
+    }
+
+    /** Return the C type of the elements of the ring buffer of a fused
+     *  channel.
+     *  @return The type, or null if the type of the port that contains
+     *  this receiver cannot be fused.
+     */
+    public String getFusedType() {
+        Type type = ((TypedIOPort) getComponent().getContainer()).getType();
+        if (type == BaseType.INT || type == BaseType.DOUBLE
+                || type == BaseType.BOOLEAN || type == BaseType.LONG) {
+            return getCodeGenerator().targetType(type).trim();
+        }
+        if (type instanceof ArrayType) {
+            String codeGenType = getCodeGenerator().codeGenType(type);
+            if (codeGenType.endsWith("Array") && !codeGenType.equals("Array")) {
+                // An array of primitive elements, passed by reference.
+                return "Token*";
+            }
+        }
+        return null;
+    }
+
+    /** Return true if the channel of this receiver is replaced by a
+     *  ring buffer in the generated code.  This is the case if the
+     *  receiver is the only receiver written by the source channel,
+     *  both ports are ordinary ports of atomic actors governed by the
+     *  same SDF director, both have the same primitive or primitive
+     *  array type, and the scheduler has bounded the buffer size.
+     *  @return True if the channel is fused.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed.
+     */
+    public boolean isFused() throws IllegalActionException {
+        return getFusedSourcePort() != null;
+    }
+
+    /** Return true if the channel of this receiver is fused and its
+     *  source and sink actors are fired by different threads.
+     *  @return True if the channel is shared between threads.
+     *  @exception IllegalActionException If the schedule cannot be
+     *  computed.
+     *  @see SDFDirector#getPartition(Actor)
+     */
+    public boolean isShared() throws IllegalActionException {
+        IOPort sourcePort = getFusedSourcePort();
+        if (sourcePort == null) {
+            return false;
+        }
+        Actor sink = (Actor) getComponent().getContainer().getContainer();
+        SDFDirector directorAdapter = (SDFDirector) getAdapter(
+                sink.getDirector());
+        return directorAdapter.getPartition(
+                (Actor) sourcePort.getContainer()) != directorAdapter
+                        .getPartition(sink);
+    }
+
     @Override
     protected String _generateTypeConvertStatement(Channel source)
             throws IllegalActionException {
@@ -301,6 +534,22 @@ public class SDFReceiver extends
                         .getExecutiveDirector());
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return true if the port is an ordinary port of an atomic actor. */
+    private static boolean _isFusablePort(IOPort port) {
+        return port instanceof TypedIOPort
+                && !(port.getContainer() instanceof CompositeActor)
+                && !(port instanceof ParameterPort)
+                && !(port instanceof PubSubPort)
+                && !(port instanceof MirrorPort)
+                && !(port instanceof ModalBasePort);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
     //$send(port#channel) ==> port_channel[writeOffset]
     //$get(port#channel) ==> port_channel[readOffset]
 
@@ -0,0 +1,35 @@
+/*** declareSharedBlock ***/
+#ifndef PTCG_RESTRICT
+#ifdef __cplusplus
+#define PTCG_RESTRICT __restrict__
+#else
+#define PTCG_RESTRICT restrict
+#endif
+#endif
+/**/
+
+/***arrayFireBlock($type, $elementType)***/
+{
+    Token* $actorSymbol(token1) = $get(input1);
+    Token* $actorSymbol(token2) = $get(input2);
+    int $actorSymbol(length) = $actorSymbol(token1)->payload.$type->size;
+    const $elementType* PTCG_RESTRICT $actorSymbol(x) = $actorSymbol(token1)->payload.$type->elements;
+    const $elementType* PTCG_RESTRICT $actorSymbol(y) = $actorSymbol(token2)->payload.$type->elements;
+    $elementType $actorSymbol(sum) = 0;
+    int $actorSymbol(i);
+
+    if ($actorSymbol(token2)->payload.$type->size != $actorSymbol(length)) {
+        fprintf(stderr, "DotProduct $actorName(): Inputs have unequal lengths: %d and %d.\n",
+                $actorSymbol(length), $actorSymbol(token2)->payload.$type->size);
+        exit(-1);
+    }
+    if ($actorSymbol(length) < 1) {
+        fprintf(stderr, "DotProduct $actorName(): Inputs have no elements.\n");
+        exit(-1);
+    }
+    for ($actorSymbol(i) = 0; $actorSymbol(i) < $actorSymbol(length); $actorSymbol(i)++) {
+        $actorSymbol(sum) += $actorSymbol(x)[$actorSymbol(i)] * $actorSymbol(y)[$actorSymbol(i)];
+    }
+    $put(output, $actorSymbol(sum));
+}
+/**/
@@ -0,0 +1,113 @@
+/* A adapter class for ptolemy.domains.sdf.lib.DotProduct
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.c.adapters.ptolemy.domains.sdf.lib;
+
+import java.util.ArrayList;
+
+import ptolemy.cg.kernel.generic.program.CodeStream;
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.data.type.ArrayType;
+import ptolemy.data.type.BaseType;
+import ptolemy.data.type.Type;
+import ptolemy.kernel.util.IllegalActionException;
+
+//////////////////////////////////////////////////////////////////////////
+//// DotProduct
+
+/**
+ A C adapter class for ptolemy.domains.sdf.lib.DotProduct.
+
+ <p>The inputs must be arrays of the same element type with int or double
+ elements.  The generated code reads the elements of the two arrays
+ in place and accumulates the products in a loop over
+ restrict-qualified pointers, which a C compiler can unroll and
+ vectorize.  Matrices are not supported, because the C matrix type
+ stores each element as a separate token.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class DotProduct extends NamedProgramCodeGeneratorAdapter {
+    /**
+     *  Construct a DotProduct adapter.
+     *  @param actor The given ptolemy.domains.sdf.lib.DotProduct actor.
+     */
+    public DotProduct(ptolemy.domains.sdf.lib.DotProduct actor) {
+        super(actor);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /**
+     * Generate the fire code.
+     * @return The generated code.
+     * @exception IllegalActionException If the inputs are not arrays of
+     *  the same element type with int or double elements, or if the
+     *  code stream encounters an error in processing the specified code
+     *  block.
+     */
+    @Override
+    protected String _generateFireCode() throws IllegalActionException {
+        super._generateFireCode();
+
+        ptolemy.domains.sdf.lib.DotProduct actor = (ptolemy.domains.sdf.lib.DotProduct) getComponent();
+
+        // The lengths of the arrays are part of the type when known,
+        // so compare the element types and check the lengths at run time.
+        Type type = actor.input1.getType();
+        Type type2 = actor.input2.getType();
+        if (!(type instanceof ArrayType) || !(type2 instanceof ArrayType)
+                || !((ArrayType) type).getElementType()
+                        .equals(((ArrayType) type2).getElementType())) {
+            throw new IllegalActionException(actor,
+                    "The C code generator supports DotProduct only for "
+                            + "two arrays of the same element type, but the "
+                            + "types are " + type + " and " + type2 + ".");
+        }
+        Type elementType = ((ArrayType) type).getElementType();
+        if (elementType != BaseType.INT && elementType != BaseType.DOUBLE) {
+            throw new IllegalActionException(actor,
+                    "The C code generator supports DotProduct only for "
+                            + "arrays of int or double, but the type is "
+                            + type + ".");
+        }
+
+        ArrayList<String> args = new ArrayList<String>();
+        args.add(getCodeGenerator().codeGenType(type));
+        args.add(targetType(elementType));
+
+        CodeStream codeStream = getTemplateParser().getCodeStream();
+        codeStream.appendCodeBlock("arrayFireBlock", args);
+
+        return processCode(codeStream.toString());
+    }
+}
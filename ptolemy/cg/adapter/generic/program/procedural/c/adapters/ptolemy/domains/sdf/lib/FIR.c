@@ -0,0 +1,58 @@
+/*** declareSharedBlock ***/
+#ifndef PTCG_RESTRICT
+#ifdef __cplusplus
+#define PTCG_RESTRICT __restrict__
+#else
+#define PTCG_RESTRICT restrict
+#endif
+#endif
+/**/
+
+/***polyphasePreinitBlock($elementType, $bufferLength, $interpolation, $phaseLength, $taps)***/
+$elementType $actorSymbol(data)[$bufferLength];
+int $actorSymbol(mostRecent);
+const $elementType $actorSymbol(taps)[$interpolation][$phaseLength] = {$taps};
+/**/
+
+/***polyphaseInitBlock($bufferLength, $phaseLength)***/
+{
+    int $actorSymbol(i);
+    for ($actorSymbol(i) = 0; $actorSymbol(i) < $bufferLength; $actorSymbol(i)++) {
+        $actorSymbol(data)[$actorSymbol(i)] = 0;
+    }
+    $actorSymbol(mostRecent) = $phaseLength;
+}
+/**/
+
+/***polyphaseFireBlock($elementType, $dataLength, $phaseLength, $interpolation, $decimation, $phaseOffset)***/
+{
+    int $actorSymbol(inC);
+    int $actorSymbol(phase) = $decimation - $phaseOffset - 1;
+
+    // Each sample is stored twice, so that the samples that are
+    // multiplied by the taps of a phase are contiguous.
+    for ($actorSymbol(inC) = 1; $actorSymbol(inC) <= $decimation; $actorSymbol(inC)++) {
+        if (--$actorSymbol(mostRecent) < 0) {
+            $actorSymbol(mostRecent) = $dataLength - 1;
+        }
+        $actorSymbol(data)[$actorSymbol(mostRecent)] = $get(input);
+        $actorSymbol(data)[$actorSymbol(mostRecent) + $dataLength] = $actorSymbol(data)[$actorSymbol(mostRecent)];
+    }
+
+    for ($actorSymbol(inC) = 1; $actorSymbol(inC) <= $decimation; $actorSymbol(inC)++) {
+        while ($actorSymbol(phase) < $interpolation) {
+            const $elementType* PTCG_RESTRICT $actorSymbol(window) = $actorSymbol(data)
+                    + ($actorSymbol(mostRecent) + $decimation - $actorSymbol(inC)) % $dataLength;
+            const $elementType* PTCG_RESTRICT $actorSymbol(coefficients) = $actorSymbol(taps)[$actorSymbol(phase)];
+            $elementType $actorSymbol(sum) = 0;
+            int $actorSymbol(i);
+            for ($actorSymbol(i) = 0; $actorSymbol(i) < $phaseLength; $actorSymbol(i)++) {
+                $actorSymbol(sum) += $actorSymbol(coefficients)[$actorSymbol(i)] * $actorSymbol(window)[$actorSymbol(i)];
+            }
+            $put(output, $actorSymbol(sum));
+            $actorSymbol(phase) += $decimation;
+        }
+        $actorSymbol(phase) -= $interpolation;
+    }
+}
+/**/
@@ -0,0 +1,241 @@
+/* A adapter class for ptolemy.domains.sdf.lib.FIR
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.c.adapters.ptolemy.domains.sdf.lib;
+
+import java.util.ArrayList;
+
+import ptolemy.cg.kernel.generic.program.CodeStream;
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.data.ArrayToken;
+import ptolemy.data.IntToken;
+import ptolemy.data.ScalarToken;
+import ptolemy.data.expr.Parameter;
+import ptolemy.data.type.BaseType;
+import ptolemy.data.type.Type;
+import ptolemy.kernel.util.IllegalActionException;
+
+//////////////////////////////////////////////////////////////////////////
+//// FIR
+
+/**
+ A C adapter class for ptolemy.domains.sdf.lib.FIR.
+
+ <p>The output must be of type int or double.  The taps are split
+ at code generation time into one row per phase of the polyphase
+ filter, padded with zeros, and the delay line is stored twice in
+ a row, so that the samples that are multiplied by the taps of a
+ phase are always contiguous.  The inner product is then a loop
+ over two restrict-qualified pointers, which a C compiler can
+ unroll and vectorize.  The terms are added in the same order as
+ in the Java actor.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class FIR extends NamedProgramCodeGeneratorAdapter {
+    /**
+     *  Construct a FIR adapter.
+     *  @param actor The given ptolemy.domains.sdf.lib.FIR actor.
+     */
+    public FIR(ptolemy.domains.sdf.lib.FIR actor) {
+        super(actor);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /**
+     * Generate the initialize code, which clears the delay line.
+     * @return The generated code.
+     * @exception IllegalActionException If the parameters of the actor
+     *  are not valid, or if the code stream encounters an error in
+     *  processing the specified code block.
+     */
+    @Override
+    public String generateInitializeCode() throws IllegalActionException {
+        super.generateInitializeCode();
+
+        ptolemy.domains.sdf.lib.FIR actor = (ptolemy.domains.sdf.lib.FIR) getComponent();
+        int phaseLength = _getPhaseLength();
+        int bufferLength = 2
+                * (phaseLength + _getIntValue(actor.decimation, 1));
+
+        ArrayList<String> args = new ArrayList<String>();
+        args.add(Integer.toString(bufferLength));
+        args.add(Integer.toString(phaseLength));
+
+        CodeStream codeStream = getTemplateParser().getCodeStream();
+        codeStream.clear();
+        codeStream.appendCodeBlock("polyphaseInitBlock", args);
+        return processCode(codeStream.toString());
+    }
+
+    /**
+     * Generate the preinitialize code, which declares the delay line
+     * and the taps of each phase.
+     * @return The generated code.
+     * @exception IllegalActionException If the parameters of the actor
+     *  are not valid, or if the code stream encounters an error in
+     *  processing the specified code block.
+     */
+    @Override
+    public String generatePreinitializeCode() throws IllegalActionException {
+        super.generatePreinitializeCode();
+
+        ptolemy.domains.sdf.lib.FIR actor = (ptolemy.domains.sdf.lib.FIR) getComponent();
+        Type type = _getOutputType();
+        int interpolation = _getIntValue(actor.interpolation, 1);
+        int phaseLength = _getPhaseLength();
+        int bufferLength = 2
+                * (phaseLength + _getIntValue(actor.decimation, 1));
+        ArrayToken taps = (ArrayToken) actor.taps.getToken();
+
+        StringBuffer initializer = new StringBuffer();
+        for (int phase = 0; phase < interpolation; phase++) {
+            initializer.append(phase == 0 ? "{" : ", {");
+            for (int i = 0; i < phaseLength; i++) {
+                if (i > 0) {
+                    initializer.append(", ");
+                }
+                int tapsIndex = i * interpolation + phase;
+                if (tapsIndex >= taps.length()) {
+                    initializer.append("0");
+                } else if (type == BaseType.INT) {
+                    initializer.append(
+                            ((ScalarToken) taps.getElement(tapsIndex))
+                                    .intValue());
+                } else {
+                    double tap = ((ScalarToken) taps.getElement(tapsIndex))
+                            .doubleValue();
+                    if (Double.isNaN(tap) || Double.isInfinite(tap)) {
+                        throw new IllegalActionException(actor,
+                                "Cannot generate code for the tap " + tap
+                                        + ".");
+                    }
+                    initializer.append(Double.toString(tap));
+                }
+            }
+            initializer.append("}");
+        }
+
+        ArrayList<String> args = new ArrayList<String>();
+        args.add(targetType(type));
+        args.add(Integer.toString(bufferLength));
+        args.add(Integer.toString(interpolation));
+        args.add(Integer.toString(phaseLength));
+        args.add(initializer.toString());
+
+        CodeStream codeStream = getTemplateParser().getCodeStream();
+        codeStream.clear();
+        codeStream.appendCodeBlock("polyphasePreinitBlock", args);
+        return processCode(codeStream.toString());
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /**
+     * Generate the fire code.
+     * @return The generated code.
+     * @exception IllegalActionException If the parameters of the actor
+     *  are not valid, or if the code stream encounters an error in
+     *  processing the specified code block.
+     */
+    @Override
+    protected String _generateFireCode() throws IllegalActionException {
+        super._generateFireCode();
+
+        ptolemy.domains.sdf.lib.FIR actor = (ptolemy.domains.sdf.lib.FIR) getComponent();
+        int decimation = _getIntValue(actor.decimation, 1);
+        int decimationPhase = _getIntValue(actor.decimationPhase, 0);
+        if (decimationPhase >= decimation) {
+            throw new IllegalActionException(actor,
+                    "Invalid decimationPhase: " + decimationPhase
+                            + ". Must be less than decimation: " + decimation
+                            + ".");
+        }
+        int phaseLength = _getPhaseLength();
+
+        ArrayList<String> args = new ArrayList<String>();
+        args.add(targetType(_getOutputType()));
+        args.add(Integer.toString(phaseLength + decimation));
+        args.add(Integer.toString(phaseLength));
+        args.add(Integer.toString(_getIntValue(actor.interpolation, 1)));
+        args.add(Integer.toString(decimation));
+        args.add(Integer.toString(decimationPhase));
+
+        CodeStream codeStream = getTemplateParser().getCodeStream();
+        codeStream.appendCodeBlock("polyphaseFireBlock", args);
+        return processCode(codeStream.toString());
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return the value of the given int parameter, which must be at
+     *  least the given minimum.
+     */
+    private int _getIntValue(Parameter parameter, int minimum)
+            throws IllegalActionException {
+        int value = ((IntToken) parameter.getToken()).intValue();
+        if (value < minimum) {
+            throw new IllegalActionException(parameter,
+                    "Invalid " + parameter.getName() + ": " + value
+                            + ". Must be at least " + minimum + ".");
+        }
+        return value;
+    }
+
+    /** Return the type of the output, which must be int or double. */
+    private Type _getOutputType() throws IllegalActionException {
+        ptolemy.domains.sdf.lib.FIR actor = (ptolemy.domains.sdf.lib.FIR) getComponent();
+        Type type = actor.output.getType();
+        if (type != BaseType.INT && type != BaseType.DOUBLE) {
+            throw new IllegalActionException(actor,
+                    "The C code generator supports FIR only for an output "
+                            + "of type int or double, but the type is " + type
+                            + ".");
+        }
+        return type;
+    }
+
+    /** Return the number of taps in each phase of the filter. */
+    private int _getPhaseLength() throws IllegalActionException {
+        ptolemy.domains.sdf.lib.FIR actor = (ptolemy.domains.sdf.lib.FIR) getComponent();
+        int length = ((ArrayToken) actor.taps.getToken()).length();
+        int interpolation = _getIntValue(actor.interpolation, 1);
+        int phaseLength = length / interpolation;
+        if (length % interpolation != 0) {
+            phaseLength++;
+        }
+        return phaseLength;
+    }
+}
@@ -27,6 +27,11 @@
  */
 package ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.actor.lib;
 
+import ptolemy.actor.Actor;
+import ptolemy.cg.kernel.generic.program.CodeStream;
+import ptolemy.domains.de.kernel.DEDirector;
+import ptolemy.kernel.util.IllegalActionException;
+
 //////////////////////////////////////////////////////////////////////////
 //// CurrentTime
 
@@ -48,4 +53,26 @@ public class CurrentTime extends
     public CurrentTime(ptolemy.actor.lib.CurrentTime actor) {
         super(actor);
     }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /** Generate the fire code.  Under a DE director, the
+     *  <code>deFireBlock</code> is used, which outputs the
+     *  model time of the generated DE event queue.  Otherwise,
+     *  the <code>fireBlock</code> is used.
+     *  @return The generated code.
+     *  @exception IllegalActionException If the code block cannot
+     *  be appended.
+     */
+    @Override
+    protected String _generateFireCode() throws IllegalActionException {
+        if (((Actor) getComponent()).getDirector() instanceof DEDirector) {
+            CodeStream codeStream = _templateParser.getCodeStream();
+            codeStream.clear();
+            codeStream.appendCodeBlock("deFireBlock");
+            return codeStream.toString();
+        }
+        return super._generateFireCode();
+    }
 }
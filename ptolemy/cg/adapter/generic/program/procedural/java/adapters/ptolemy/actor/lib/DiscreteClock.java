@@ -0,0 +1,144 @@
+/* Code generator adapter for ptolemy.actor.lib.DiscreteClock
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.actor.lib;
+
+import java.util.ArrayList;
+
+import ptolemy.actor.IOPort;
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.data.ArrayToken;
+import ptolemy.data.DoubleToken;
+import ptolemy.kernel.util.IllegalActionException;
+
+///////////////////////////////////////////////////////////////////
+//// DiscreteClock
+
+/**
+ A code generator adapter for ptolemy.actor.lib.DiscreteClock.
+
+ <p>The generated code requests firings with <code>$fireAt()</code>,
+ so it can only be used under a DE director.  The start, stop,
+ trigger and period ports are not supported and must not be
+ connected.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class DiscreteClock extends NamedProgramCodeGeneratorAdapter {
+    /** Construct a DiscreteClock adapter.
+     *  @param actor The given ptolemy.actor.lib.DiscreteClock actor.
+     */
+    public DiscreteClock(ptolemy.actor.lib.DiscreteClock actor) {
+        super(actor);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Generate the initialize code.  If the stop time of the actor
+     *  is finite, then request a firing at that time.  Then request
+     *  a firing at the time of the first output.
+     *  @return The initialize code.
+     *  @exception IllegalActionException If one of the unsupported
+     *  ports is connected, if the values and offsets do not have the
+     *  same length, or if thrown while generating the code.
+     */
+    @Override
+    public String generateInitializeCode() throws IllegalActionException {
+        ptolemy.actor.lib.DiscreteClock actor = (ptolemy.actor.lib.DiscreteClock) getComponent();
+        _checkUnconnected(actor.start);
+        _checkUnconnected(actor.stop);
+        _checkUnconnected(actor.trigger);
+        _checkUnconnected(actor.period.getPort());
+        if (((ArrayToken) actor.offsets.getToken())
+                .length() != ((ArrayToken) actor.values.getToken()).length()) {
+            throw new IllegalActionException(actor,
+                    "Values and offsets vectors do not have the same length.");
+        }
+
+        StringBuffer code = new StringBuffer();
+        double stopTime = _getStopTime();
+        if (!Double.isInfinite(stopTime)) {
+            ArrayList<String> args = new ArrayList<String>();
+            args.add(Double.toString(stopTime));
+            code.append(getTemplateParser().generateBlockCode(
+                    "stopTimeInitBlock", args));
+        }
+        code.append(super.generateInitializeCode());
+        return code.toString();
+    }
+
+    /** Generate the postfire code.  If the stop time of the actor
+     *  is finite, then the generated code returns false once that
+     *  time is reached.
+     *  @return The postfire code.
+     *  @exception IllegalActionException If thrown while generating
+     *  the code.
+     */
+    @Override
+    public String generatePostfireCode() throws IllegalActionException {
+        StringBuffer code = new StringBuffer(super.generatePostfireCode());
+        double stopTime = _getStopTime();
+        if (!Double.isInfinite(stopTime)) {
+            ArrayList<String> args = new ArrayList<String>();
+            args.add(Double.toString(stopTime));
+            code.append(getTemplateParser().generateBlockCode(
+                    "stopTimePostfireBlock", args));
+        }
+        return code.toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Throw an exception if the given port is connected.
+     *  @param port The port.
+     *  @exception IllegalActionException If the port is connected.
+     */
+    private void _checkUnconnected(IOPort port) throws IllegalActionException {
+        if (port.isOutsideConnected()) {
+            throw new IllegalActionException(port,
+                    "Code generation for a DiscreteClock with the "
+                            + port.getName() + " port connected "
+                            + "is not supported.");
+        }
+    }
+
+    /** Return the value of the stopTime parameter of the actor.
+     *  @return The stop time of the actor.
+     *  @exception IllegalActionException If the parameter cannot
+     *  be evaluated.
+     */
+    private double _getStopTime() throws IllegalActionException {
+        return ((DoubleToken) ((ptolemy.actor.lib.DiscreteClock) getComponent()).stopTime
+                .getToken()).doubleValue();
+    }
+}
@@ -132,6 +132,27 @@ public class CompiledCompositeActor extends TypedCompositeActor {
         }
     }
 
+    /** Return the class loader for the classes that were compiled in
+     *  memory by the most recent call to
+     *  {@link #generateCode(ptolemy.actor.TypedCompositeActor)}.
+     *  @param compositeActor The actor for which code was generated.
+     *  @return The class loader, or null if the code was not compiled
+     *  in memory.
+     *  @see ptolemy.cg.kernel.generic.program.procedural.java.JavaCodeGenerator#getClassLoader()
+     */
+    public static ClassLoader getClassLoader(
+            ptolemy.actor.TypedCompositeActor compositeActor) {
+        // This is static so that ptolemy.cg.lib.CompiledCompositeActor
+        // will not depend on ptolemy.codegen.
+        List<JavaCodeGenerator> codeGenerators = compositeActor
+                .attributeList(JavaCodeGenerator.class);
+        if (codeGenerators.size() == 0) {
+            return null;
+        }
+        // The last one is the one used by _getCodeGenerator().
+        return codeGenerators.get(codeGenerators.size() - 1).getClassLoader();
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         private methods                   ////
 
@@ -186,6 +207,9 @@ public class CompiledCompositeActor extends TypedCompositeActor {
             codeGenerator.overwriteFiles
                     .setExpression(actor.overwriteFiles.getExpression());
 
+            ((JavaCodeGenerator) codeGenerator).compileInMemory
+                    .setExpression(actor.compileInMemory.getExpression());
+
         } catch (NameDuplicationException ex) {
             throw new IllegalActionException(compositeActor, ex,
                     "Name duplication.");
@@ -0,0 +1,792 @@
+/* Code generator adapter class associated with the DEDirector class.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.domains.de.kernel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+import ptolemy.actor.Actor;
+import ptolemy.actor.CompositeActor;
+import ptolemy.actor.IOPort;
+import ptolemy.actor.TypedIOPort;
+import ptolemy.actor.lib.Source;
+import ptolemy.actor.util.CausalityInterfaceForComposites;
+import ptolemy.cg.adapter.generic.adapters.ptolemy.actor.Director;
+import ptolemy.cg.kernel.generic.CodeGeneratorAdapter;
+import ptolemy.cg.kernel.generic.GenericCodeGenerator;
+import ptolemy.cg.kernel.generic.program.ExecutionProfile;
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.cg.kernel.generic.program.ProgramCodeGenerator;
+import ptolemy.cg.kernel.generic.program.procedural.java.JavaCodeGenerator;
+import ptolemy.data.BooleanToken;
+import ptolemy.data.expr.Parameter;
+import ptolemy.data.type.ArrayType;
+import ptolemy.data.type.Type;
+import ptolemy.kernel.util.Attribute;
+import ptolemy.kernel.util.IllegalActionException;
+import ptolemy.kernel.util.InternalErrorException;
+import ptolemy.kernel.util.NamedObj;
+import ptolemy.util.StringUtilities;
+
+///////////////////////////////////////////////////////////////////
+//// DEDirector
+
+/**
+ Code generator adapter associated with the DEDirector class.
+
+ <p>The generated code contains its own event queue, a binary heap
+ of primitive arrays that holds the time stamp, the microstep, the
+ depth and the destination of each event.  Each actor is identified
+ by a static integer constant, so firing the next actor is a switch
+ on that constant, where each case contains the inlined fire code of
+ the actor followed by a call to a method that contains its postfire
+ code.  If the postfire code returns false, the actor is disabled,
+ as in the DE director.  Each input channel is a static instance of
+ a receiver class that is specialized to the type of the port, so
+ primitive tokens are not boxed.  Putting a token into a receiver
+ posts a trigger event for the actor that contains the receiver,
+ and the $fireAt() macro posts a pure event, see
+ {@link ptolemy.cg.kernel.generic.program.procedural.java.JavaTemplateParser}.</p>
+
+ <p>Events are ordered by time stamp, microstep and depth as in the
+ DE director, and events with the same order are processed in the
+ order in which they were posted.  Time stamps are doubles, so the
+ <i>timeResolution</i> of the director is not applied.  The generated
+ code stops when the event queue is empty or when the time stamp of
+ the next event exceeds the stop time, so <i>stopWhenQueueIsEmpty</i>
+ is treated as if it were true and <i>synchronizeToRealTime</i> is
+ ignored.  Only a DEDirector at the top level is supported.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class DEDirector extends Director {
+
+    /** Construct the code generator adapter associated with the given
+     *  DEDirector.
+     *  @param director The associated ptolemy.domains.de.kernel.DEDirector.
+     */
+    public DEDirector(ptolemy.domains.de.kernel.DEDirector director) {
+        super(director);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Generate the code that processes the events at the next tag.
+     *  This is only used for the fire function of the top level
+     *  composite actor when the firing code of the actors is not
+     *  inlined, so it simply invokes run().
+     *  @return The invocation of run().
+     *  @exception IllegalActionException If the director is not at the
+     *  top level.
+     */
+    @Override
+    public String generateFireCode() throws IllegalActionException {
+        _checkTopLevel();
+        return getCodeGenerator().comment("The firing of the DE director.")
+                + "run();" + _eol;
+    }
+
+    /** Generate the fire functions of the actors.  This method is
+     *  called when the firing code of each actor is not inlined.
+     *  As in the SDFDirector adapter, the fire functions are placed
+     *  in inner classes so that the generated classes remain small
+     *  enough to be compiled.
+     *  @return The fire function code.
+     *  @exception IllegalActionException If thrown while generating
+     *  the fire code of an actor.
+     */
+    @Override
+    public String generateFireFunctionCode() throws IllegalActionException {
+        JavaCodeGenerator codeGenerator = getCodeGenerator();
+        Map<String, StringBuffer> innerClasses = new LinkedHashMap<String, StringBuffer>();
+        for (Actor actor : _getActors()) {
+            String className = codeGenerator
+                    .generateFireFunctionVariableAndMethodName(
+                            (NamedObj) actor)[0];
+            StringBuffer innerClass = innerClasses.get(className);
+            if (innerClass == null) {
+                innerClass = new StringBuffer(codeGenerator
+                        .generateFireFunctionCompositeStart(className));
+                innerClasses.put(className, innerClass);
+            }
+            innerClass.append(((NamedProgramCodeGeneratorAdapter) codeGenerator
+                    .getAdapter(actor)).generateFireFunctionCode());
+        }
+        StringBuffer code = new StringBuffer(codeGenerator
+                .comment("DEDirector.generateFireFunctionCode()"));
+        for (StringBuffer innerClass : innerClasses.values()) {
+            code.append(innerClass);
+            code.append(codeGenerator.generateFireFunctionCompositeEnd());
+        }
+        return code.toString();
+    }
+
+    /** Generate the initialize code of the director.  The event queue
+     *  and the receivers are cleared, the current time is set to the
+     *  start time, and the initialize code of each actor is generated
+     *  while the director is initializing, so that $fireAt() at the
+     *  start time does not increment the microstep.
+     *  @return The generated initialize code.
+     *  @exception IllegalActionException If the director is not at the
+     *  top level or if the initialize code of an actor cannot be
+     *  generated.
+     */
+    @Override
+    public String generateInitializeCode() throws IllegalActionException {
+        _checkTopLevel();
+        StringBuffer code = new StringBuffer();
+        code.append(getCodeGenerator().comment(1,
+                "Initialize the event queue of the DE director."));
+        code.append("_deEventCount = 0;" + _eol);
+        code.append("_deEventSequenceNumber = 0L;" + _eol);
+        code.append("java.util.Arrays.fill(_dePendingEvents, 0);" + _eol);
+        code.append("java.util.Arrays.fill(_deDisabled, false);" + _eol);
+        code.append("_currentTime = " + _director.getModelStartTime()
+                .getDoubleValue() + ";" + _eol);
+        code.append("_currentMicrostep = 0;" + _eol);
+        for (DEReceiver receiver : _getReceivers()) {
+            code.append(receiver.getReceiverName() + ".clear();" + _eol);
+        }
+        code.append("_deInitializing = true;" + _eol);
+        code.append(super.generateInitializeCode());
+        code.append("_deInitializing = false;" + _eol);
+        return code.toString();
+    }
+
+    /** Generate the main loop.  The generated code declares the event
+     *  queue, the receivers and the actor identifiers, and defines
+     *  execute(), which calls run() until it returns false, and run(),
+     *  which takes the next event from the queue and fires its actor.
+     *  @return The code of the main loop.
+     *  @exception IllegalActionException If the director is not at the
+     *  top level, if the model contains an opaque composite actor,
+     *  or if the code of an actor cannot be generated.
+     */
+    @Override
+    public String generateMainLoop() throws IllegalActionException {
+        _checkTopLevel();
+        JavaCodeGenerator codeGenerator = getCodeGenerator();
+        List<Actor> actors = _getActors();
+        CausalityInterfaceForComposites causality = (CausalityInterfaceForComposites) ((Actor) _director
+                .getContainer()).getCausalityInterface();
+
+        // Need a leading _eol here or else the execute decl. gets stripped out.
+        StringBuffer code = new StringBuffer(_eol);
+        code.append(codeGenerator.comment("The event queue of the DE director,"
+                + " a binary heap ordered by time stamp, microstep, depth"
+                + " and sequence number."));
+        code.append("static double[] _deEventTime = new double[16];" + _eol
+                + "static int[] _deEventMicrostep = new int[16];" + _eol
+                + "static int[] _deEventDepth = new int[16];" + _eol
+                + "static int[] _deEventActor = new int[16];" + _eol
+                + "static long[] _deEventSequence = new long[16];" + _eol
+                + "static int _deEventCount = 0;" + _eol
+                + "static long _deEventSequenceNumber = 0L;" + _eol);
+        code.append("static final int[] _dePendingEvents = new int["
+                + actors.size() + "];" + _eol);
+        code.append("static final boolean[] _deDisabled = new boolean["
+                + actors.size() + "];" + _eol);
+        code.append("static final int[] _deActorDepth = {");
+        for (int i = 0; i < actors.size(); i++) {
+            code.append((i == 0 ? " " : ", ")
+                    + causality.getDepthOfActor(actors.get(i)));
+        }
+        code.append(" };" + _eol);
+        double stopTime = _director.getModelStopTime().getDoubleValue();
+        code.append("static final double _deStopTime = "
+                + (Double.isInfinite(stopTime) ? "Double.POSITIVE_INFINITY"
+                        : Double.toString(stopTime))
+                + ";" + _eol);
+        code.append("static double _currentTime = 0.0;" + _eol
+                + "static int _currentMicrostep = 0;" + _eol
+                + "static boolean _deInitializing = false;" + _eol);
+        for (int i = 0; i < actors.size(); i++) {
+            code.append("static final int " + codeGenerator
+                    .generateVariableName((NamedObj) actors.get(i))
+                    + "_actorId = " + i + ";" + _eol);
+        }
+        code.append(_eol);
+        code.append(_generateEventQueueCode());
+
+        // The receivers, one class for each type.
+        List<DEReceiver> receivers = _getReceivers();
+        TreeSet<String> types = new TreeSet<String>();
+        for (DEReceiver receiver : receivers) {
+            types.add(_getReceiverType(receiver));
+        }
+        for (String type : types) {
+            code.append(_generateReceiverClass(type));
+        }
+        for (DEReceiver receiver : receivers) {
+            IOPort port = receiver.getComponent().getContainer();
+            String className = _getReceiverClassName(
+                    _getReceiverType(receiver));
+            code.append("static final " + className + " "
+                    + receiver.getReceiverName() + " = new " + className + "("
+                    + codeGenerator.generateVariableName(port.getContainer())
+                    + "_actorId, " + causality.getDepthOfPort(port) + ", "
+                    + _getReceiverCapacity(receiver) + ");" + _eol);
+        }
+
+        code.append(_eol + codeGenerator.getMethodVisibilityString()
+                + " void execute() " + codeGenerator.getMethodExceptionString()
+                + " {" + _eol + "while (run()) {" + _eol + "}" + _eol + "}"
+                + _eol);
+
+        StringBuffer postfireMethods = new StringBuffer();
+        code.append(_eol + codeGenerator.getMethodVisibilityString()
+                + " boolean run() " + codeGenerator.getMethodExceptionString()
+                + " {" + _eol);
+        code.append("int _deActor;" + _eol + "while (true) {" + _eol
+                + "if (_deEventCount == 0) {" + _eol + "return false;" + _eol
+                + "}" + _eol + "_deActor = _deEventActor[0];" + _eol
+                + "double _deTime = _deEventTime[0];" + _eol
+                + "int _deMicrostep = _deEventMicrostep[0];" + _eol
+                + "_deRemoveFirstEvent();" + _eol
+                + "if (_deDisabled[_deActor]) {" + _eol + "continue;" + _eol
+                + "}" + _eol + "_currentTime = _deTime;" + _eol
+                + "_currentMicrostep = _deMicrostep;" + _eol
+                + "if (_currentTime > _deStopTime) {" + _eol + "return false;"
+                + _eol + "}" + _eol + "break;" + _eol + "}" + _eol);
+        code.append(codeGenerator.comment(
+                "Remove the other events of the actor with the same tag."));
+        code.append("while (_deEventCount > 0 && _deEventActor[0] == _deActor"
+                + " && _deEventTime[0] == _currentTime"
+                + " && _deEventMicrostep[0] == _currentMicrostep) {" + _eol
+                + "_deRemoveFirstEvent();" + _eol + "}" + _eol);
+        code.append("switch (_deActor) {" + _eol);
+        for (int i = 0; i < actors.size(); i++) {
+            Actor actor = actors.get(i);
+            NamedProgramCodeGeneratorAdapter adapter = (NamedProgramCodeGeneratorAdapter) codeGenerator
+                    .getAdapter(actor);
+            List<DEReceiver> inputs = _getReceivers(actor);
+            StringBuffer sizes = new StringBuffer();
+            StringBuffer hasTokens = new StringBuffer();
+            for (DEReceiver receiver : inputs) {
+                if (sizes.length() > 0) {
+                    sizes.append(" + ");
+                    hasTokens.append(" || ");
+                }
+                sizes.append(receiver.getReceiverName() + ".size()");
+                hasTokens.append(receiver.getReceiverName() + ".hasToken()");
+            }
+
+            code.append("case " + i + ": {" + _eol);
+            if (inputs.size() > 0) {
+                // As in the DE director, refire the actor while it has
+                // input tokens, but stop if a firing consumes no token.
+                code.append("int _deSize;" + _eol + "do {" + _eol
+                        + "_deSize = " + sizes + ";" + _eol);
+            }
+            if (actor instanceof Source) {
+                // The trigger input of a Source is consumed by
+                // Source.fire(), which the templates do not generate.
+                for (DEReceiver receiver : _getReceivers(
+                        ((Source) actor).trigger)) {
+                    code.append("if (" + receiver.getReceiverName()
+                            + ".hasToken()) {" + _eol
+                            + receiver.getReceiverName() + ".get();" + _eol
+                            + "}" + _eol);
+                }
+            }
+            code.append(adapter.generateFireCode());
+
+            String postfireCode = adapter.generatePostfireCode();
+            if (ProgramCodeGenerator.containsCode(postfireCode)) {
+                String postfireMethod = "_dePostfire_"
+                        + CodeGeneratorAdapter.generateName((NamedObj) actor);
+                code.append("if (!" + postfireMethod + "()) {" + _eol
+                        + "_deDisabled[" + i + "] = true;" + _eol + "break;"
+                        + _eol + "}" + _eol);
+                postfireMethods.append(_eol + "boolean " + postfireMethod
+                        + "() " + codeGenerator.getMethodExceptionString()
+                        + " {" + _eol + postfireCode + _eol + "return true;"
+                        + _eol + "}" + _eol);
+            }
+            if (inputs.size() > 0) {
+                code.append("} while ((" + hasTokens + ") && " + sizes
+                        + " < _deSize);" + _eol);
+            }
+            code.append("break;" + _eol + "}" + _eol);
+        }
+        code.append("}" + _eol + "return true;" + _eol + "}" + _eol);
+        code.append(postfireMethods);
+        return code.toString();
+    }
+
+    /** Return the code generator.
+     *  @return The Java code generator.
+     */
+    @Override
+    public JavaCodeGenerator getCodeGenerator() {
+        return (JavaCodeGenerator) super.getCodeGenerator();
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /** Generate the declarations of the referenced parameters of the
+     *  given adapter, unless variablesAsArrays is true, in which case
+     *  the parameters are declared by the code generator.
+     *  @param target The adapter for which code needs to be generated.
+     *  @return The generated code.
+     *  @exception IllegalActionException If the modified variables
+     *  cannot be determined.
+     */
+    @Override
+    protected String _generateVariableDeclaration(
+            NamedProgramCodeGeneratorAdapter target)
+            throws IllegalActionException {
+        JavaCodeGenerator codeGenerator = getCodeGenerator();
+        if (((BooleanToken) codeGenerator.variablesAsArrays.getToken())
+                .booleanValue() || !_referencedParameters.containsKey(target)) {
+            return "";
+        }
+        StringBuffer code = new StringBuffer();
+        for (Parameter parameter : _referencedParameters.get(target)) {
+            // Avoid duplicate declarations.
+            if (!codeGenerator.getModifiedVariables().contains(parameter)) {
+                code.append("public static " + targetType(parameter.getType())
+                        + " " + codeGenerator.generateVariableName(parameter)
+                        + ";" + _eol);
+            }
+        }
+        if (code.length() > 0) {
+            code.insert(0,
+                    _eol + codeGenerator.comment(CodeGeneratorAdapter
+                            .generateName(target.getComponent())
+                            + "'s referenced parameter declarations."));
+        }
+        return code.toString();
+    }
+
+    /** Generate the initialization of the referenced parameters of the
+     *  given adapter.
+     *  @param target The adapter for which code needs to be generated.
+     *  @return The generated code.
+     *  @exception IllegalActionException If the value of a parameter
+     *  cannot be generated.
+     */
+    @Override
+    protected String _generateVariableInitialization(
+            NamedProgramCodeGeneratorAdapter target)
+            throws IllegalActionException {
+        if (!_referencedParameters.containsKey(target)) {
+            return "";
+        }
+        JavaCodeGenerator codeGenerator = getCodeGenerator();
+        StringBuffer code = new StringBuffer(_eol + codeGenerator.comment(1,
+                target.getComponent().getName()
+                        + "'s parameter initialization"));
+        for (Parameter parameter : _referencedParameters.get(target)) {
+            try {
+                // Avoid duplication.
+                if (!codeGenerator.getModifiedVariables().contains(parameter)) {
+                    code.append(GenericCodeGenerator.INDENT1
+                            + codeGenerator.generateVariableName(parameter)
+                            + " = "
+                            + target.getParameterValue(parameter.getName(),
+                                    target.getComponent())
+                            + ";" + _eol);
+                }
+            } catch (Throwable throwable) {
+                throw new IllegalActionException(target.getComponent(),
+                        throwable,
+                        "Failed to generate variable initialization for \""
+                                + parameter + "\"");
+            }
+        }
+        return code.toString();
+    }
+
+    /** Return the variable that refers to the given attribute and
+     *  record that the attribute is referenced, so that it is declared
+     *  and initialized.
+     *  @param target The adapter that refers to the attribute.
+     *  @param attribute The attribute.
+     *  @param channelAndOffset The channel, which must be empty, and
+     *  the offset, which selects an element of an array parameter.
+     *  @return The reference to the attribute.
+     *  @exception IllegalActionException If a channel is given.
+     */
+    @Override
+    protected String _getParameter(NamedProgramCodeGeneratorAdapter target,
+            Attribute attribute, String[] channelAndOffset)
+            throws IllegalActionException {
+        if (attribute instanceof Parameter) {
+            if (!_referencedParameters.containsKey(target)) {
+                _referencedParameters.put(target, new HashSet<Parameter>());
+            }
+            _referencedParameters.get(target).add((Parameter) attribute);
+        }
+
+        JavaCodeGenerator codeGenerator = getCodeGenerator();
+        StringBuffer result = new StringBuffer(
+                codeGenerator.generateVariableName(attribute));
+
+        if (!channelAndOffset[0].equals("")) {
+            throw new IllegalActionException(target.getComponent(),
+                    "a parameter cannot have channel number.");
+        }
+
+        if (!channelAndOffset[1].equals("")) {
+            // Same as in the Java SDFDirector adapter.
+            if (!(attribute instanceof Parameter)) {
+                throw new InternalErrorException(attribute, null, "Attribute "
+                        + attribute.getFullName() + " is not a Parameter.");
+            }
+            Type elementType = ((ArrayType) ((Parameter) attribute).getType())
+                    .getElementType();
+            result.insert(0,
+                    "(" + codeGenerator.codeGenType(elementType)
+                            .replace("Array", "Token")
+                            .replace("Matrix", "Token")
+                            + ")(/*JCGH44*/Array_get(");
+            if (codeGenerator.isPrimitive(elementType)) {
+                result.insert(0, "(");
+            }
+            result.append(" ," + channelAndOffset[1] + ")");
+            if (codeGenerator.isPrimitive(elementType)) {
+                String cgType = codeGenerator.codeGenType(elementType)
+                        .toLowerCase(Locale.getDefault());
+                if (cgType.equals("integer")) {
+                    cgType = "int";
+                }
+                String operator = "Value()";
+                if (cgType.equals("string")) {
+                    cgType = "";
+                    operator = "toString()";
+                }
+                result.append(".payload/*jcgh2*/))." + cgType + operator);
+            } else {
+                result.append(")");
+            }
+        }
+        return result.toString();
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected variables               ////
+
+    /** The parameters referenced by each adapter. */
+    protected HashMap<NamedProgramCodeGeneratorAdapter, HashSet<Parameter>> _referencedParameters = new HashMap<NamedProgramCodeGeneratorAdapter, HashSet<Parameter>>();
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Throw an exception if the director is not at the top level.
+     *  @exception IllegalActionException If the director is embedded.
+     */
+    private void _checkTopLevel() throws IllegalActionException {
+        if (_director.isEmbedded()) {
+            throw new IllegalActionException(_director,
+                    "Java code generation is only supported for a "
+                            + "DEDirector at the top level.");
+        }
+    }
+
+    /** Generate the static methods that operate on the event queue.
+     *  @return The code of the event queue.
+     */
+    private String _generateEventQueueCode() {
+        return "static boolean _deEventBefore(int i, int j) {" + _eol
+                + "if (_deEventTime[i] != _deEventTime[j]) {" + _eol
+                + "return _deEventTime[i] < _deEventTime[j];" + _eol + "}"
+                + _eol + "if (_deEventMicrostep[i] != _deEventMicrostep[j]) {"
+                + _eol + "return _deEventMicrostep[i] < _deEventMicrostep[j];"
+                + _eol + "}" + _eol
+                + "if (_deEventDepth[i] != _deEventDepth[j]) {" + _eol
+                + "return _deEventDepth[i] < _deEventDepth[j];" + _eol + "}"
+                + _eol + "return _deEventSequence[i] < _deEventSequence[j];"
+                + _eol + "}" + _eol + _eol
+
+                + "static void _deSwapEvents(int i, int j) {" + _eol
+                + "double time = _deEventTime[i];" + _eol
+                + "_deEventTime[i] = _deEventTime[j];" + _eol
+                + "_deEventTime[j] = time;" + _eol
+                + "int value = _deEventMicrostep[i];" + _eol
+                + "_deEventMicrostep[i] = _deEventMicrostep[j];" + _eol
+                + "_deEventMicrostep[j] = value;" + _eol
+                + "value = _deEventDepth[i];" + _eol
+                + "_deEventDepth[i] = _deEventDepth[j];" + _eol
+                + "_deEventDepth[j] = value;" + _eol
+                + "value = _deEventActor[i];" + _eol
+                + "_deEventActor[i] = _deEventActor[j];" + _eol
+                + "_deEventActor[j] = value;" + _eol
+                + "long sequence = _deEventSequence[i];" + _eol
+                + "_deEventSequence[i] = _deEventSequence[j];" + _eol
+                + "_deEventSequence[j] = sequence;" + _eol + "}" + _eol + _eol
+
+                // Events for disabled actors are ignored, and so are
+                // events that are identical to a pending event.
+                + "static void _deEnqueueEvent(int actor, double time, "
+                + "int microstep, int depth) {" + _eol
+                + "if (_deDisabled[actor]) {" + _eol + "return;" + _eol + "}"
+                + _eol + "if (_dePendingEvents[actor] > 0) {" + _eol
+                + "for (int i = 0; i < _deEventCount; i++) {" + _eol
+                + "if (_deEventActor[i] == actor && _deEventTime[i] == time"
+                + " && _deEventMicrostep[i] == microstep"
+                + " && _deEventDepth[i] == depth) {" + _eol + "return;" + _eol
+                + "}" + _eol + "}" + _eol + "}" + _eol
+                + "if (_deEventCount == _deEventTime.length) {" + _eol
+                + "int length = 2 * _deEventCount;" + _eol
+                + "_deEventTime = java.util.Arrays.copyOf(_deEventTime, length);"
+                + _eol
+                + "_deEventMicrostep = java.util.Arrays.copyOf(_deEventMicrostep, length);"
+                + _eol
+                + "_deEventDepth = java.util.Arrays.copyOf(_deEventDepth, length);"
+                + _eol
+                + "_deEventActor = java.util.Arrays.copyOf(_deEventActor, length);"
+                + _eol
+                + "_deEventSequence = java.util.Arrays.copyOf(_deEventSequence, length);"
+                + _eol + "}" + _eol + "int i = _deEventCount++;" + _eol
+                + "_deEventTime[i] = time;" + _eol
+                + "_deEventMicrostep[i] = microstep;" + _eol
+                + "_deEventDepth[i] = depth;" + _eol
+                + "_deEventActor[i] = actor;" + _eol
+                + "_deEventSequence[i] = _deEventSequenceNumber++;" + _eol
+                + "_dePendingEvents[actor]++;" + _eol + "while (i > 0) {" + _eol
+                + "int parent = (i - 1) >> 1;" + _eol
+                + "if (!_deEventBefore(i, parent)) {" + _eol + "break;" + _eol
+                + "}" + _eol + "_deSwapEvents(i, parent);" + _eol
+                + "i = parent;" + _eol + "}" + _eol + "}" + _eol + _eol
+
+                // Same as DEDirector.fireAt().
+                + "static void _deFireAt(int actor, double time, int microstep) {"
+                + _eol + "if (time < _currentTime) {" + _eol
+                + "time = _currentTime;" + _eol + "}" + _eol
+                + "if (time == _currentTime && microstep <= _currentMicrostep"
+                + " && !_deInitializing) {" + _eol
+                + "microstep = _currentMicrostep + 1;" + _eol + "}" + _eol
+                + "_deEnqueueEvent(actor, time, microstep, _deActorDepth[actor]);"
+                + _eol + "}" + _eol + _eol
+
+                + "static void _deEnqueueTriggerEvent(int actor, int depth) {"
+                + _eol + "_deEnqueueEvent(actor, _currentTime, "
+                + "Math.max(_currentMicrostep, 1), depth);" + _eol + "}" + _eol
+                + _eol
+
+                + "static void _deRemoveFirstEvent() {" + _eol
+                + "_dePendingEvents[_deEventActor[0]]--;" + _eol
+                + "_deEventCount--;" + _eol + "if (_deEventCount > 0) {" + _eol
+                + "_deSwapEvents(0, _deEventCount);" + _eol + "int i = 0;"
+                + _eol + "while (true) {" + _eol + "int child = 2 * i + 1;"
+                + _eol + "if (child >= _deEventCount) {" + _eol + "break;"
+                + _eol + "}" + _eol
+                + "if (child + 1 < _deEventCount && _deEventBefore(child + 1, child)) {"
+                + _eol + "child++;" + _eol + "}" + _eol
+                + "if (!_deEventBefore(child, i)) {" + _eol + "break;" + _eol
+                + "}" + _eol + "_deSwapEvents(i, child);" + _eol + "i = child;"
+                + _eol + "}" + _eol + "}" + _eol + "}" + _eol + _eol;
+    }
+
+    /** Generate a receiver class for the given type.  The tokens are
+     *  kept in a ring buffer whose length is a power of two, which is
+     *  doubled when the buffer is full.  The initial length is given
+     *  to the constructor, see {@link #_getReceiverCapacity(DEReceiver)}.
+     *  @param type The target type of the tokens.
+     *  @return The code of the receiver class.
+     */
+    private String _generateReceiverClass(String type) {
+        String className = _getReceiverClassName(type);
+        return "static class " + className + " {" + _eol + className
+                + "(int actor, int depth, int capacity) {" + _eol
+                + "_actor = actor;" + _eol + "_depth = depth;" + _eol
+                + "_tokens = new " + type + "[capacity];" + _eol + "}" + _eol
+                + "void clear() {"
+                + _eol + "_head = 0;" + _eol + "_size = 0;" + _eol + "}" + _eol
+                + type + " get() {" + _eol + "if (_size == 0) {" + _eol
+                + "throw new RuntimeException(\"No token in the receiver.\");"
+                + _eol + "}" + _eol + type + " token = _tokens[_head];" + _eol
+                + "_head = (_head + 1) & (_tokens.length - 1);" + _eol
+                + "_size--;" + _eol + "return token;" + _eol + "}" + _eol
+                + "boolean hasToken() {" + _eol + "return _size > 0;" + _eol
+                + "}" + _eol + "void put(" + type + " token) {" + _eol
+                + "if (_size == _tokens.length) {" + _eol + type
+                + "[] tokens = new " + type + "[2 * _size];" + _eol
+                + "for (int i = 0; i < _size; i++) {" + _eol
+                + "tokens[i] = _tokens[(_head + i) & (_size - 1)];" + _eol + "}"
+                + _eol + "_tokens = tokens;" + _eol + "_head = 0;" + _eol + "}"
+                + _eol + "_tokens[(_head + _size) & (_tokens.length - 1)] = token;"
+                + _eol + "_size++;" + _eol
+                + "_deEnqueueTriggerEvent(_actor, _depth);" + _eol + "}" + _eol
+                + "int size() {" + _eol + "return _size;" + _eol + "}" + _eol
+                + "private final int _actor;" + _eol
+                + "private final int _depth;" + _eol + "private int _head;"
+                + _eol + "private int _size;" + _eol + "private " + type
+                + "[] _tokens;" + _eol + "}" + _eol + _eol;
+    }
+
+    /** Return the actors controlled by the director.  If the code
+     *  generator recorded an execution profile, then the actors that
+     *  fire most often come first, so that their identifiers, cases
+     *  and postfire methods are adjacent in the generated code.
+     *  @return The list of actors, in the order of deepEntityList()
+     *  unless there is an execution profile.
+     *  @exception IllegalActionException If an actor is an opaque
+     *  composite actor.
+     */
+    private List<Actor> _getActors() throws IllegalActionException {
+        List<Actor> actors = new ArrayList<Actor>();
+        for (Object entity : ((CompositeActor) _director.getContainer())
+                .deepEntityList()) {
+            if (entity instanceof CompositeActor) {
+                throw new IllegalActionException((NamedObj) entity,
+                        "Java code generation for DE does not support "
+                                + "opaque composite actors.");
+            }
+            actors.add((Actor) entity);
+        }
+        ExecutionProfile profile = getCodeGenerator().getExecutionProfile();
+        if (profile != null) {
+            profile.sortByFiringCount(actors);
+        }
+        return actors;
+    }
+
+    /** Return the receiver adapter of the given receiver.
+     *  @param receiver The receiver.
+     *  @return The receiver adapter.
+     *  @exception IllegalActionException If the receiver is not a
+     *  DE receiver.
+     */
+    private DEReceiver _getReceiverAdapter(ptolemy.actor.Receiver receiver)
+            throws IllegalActionException {
+        Object adapter = getCodeGenerator().getAdapter(receiver);
+        if (!(adapter instanceof DEReceiver)) {
+            throw new IllegalActionException(receiver.getContainer(),
+                    "Java code generation for DE requires DE receivers.");
+        }
+        return (DEReceiver) adapter;
+    }
+
+    /** Return the initial length of the ring buffer of the given
+     *  receiver.  If the code generator recorded an execution profile,
+     *  then this is the smallest power of two that holds the largest
+     *  number of tokens that were queued in the receiver during the
+     *  profiling run, so the buffer never needs to grow if the
+     *  generated code behaves like the profiled model.  Otherwise,
+     *  it is 4.
+     *  @param receiver The receiver adapter.
+     *  @return The initial length, which is a power of two.
+     *  @exception IllegalActionException If the channel of the
+     *  receiver cannot be determined.
+     */
+    private int _getReceiverCapacity(DEReceiver receiver)
+            throws IllegalActionException {
+        ExecutionProfile profile = getCodeGenerator().getExecutionProfile();
+        if (profile == null) {
+            return 4;
+        }
+        ptolemy.actor.Receiver component = receiver.getComponent();
+        IOPort port = component.getContainer();
+        int mark = profile.getHighWaterMark(port,
+                port.getChannelForReceiver(component));
+        int capacity = 1;
+        while (capacity < mark) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    /** Return the name of the receiver class for the given type.
+     *  @param type The target type of the tokens.
+     *  @return The name of the receiver class.
+     */
+    private String _getReceiverClassName(String type) {
+        return "_DEReceiver_" + StringUtilities.sanitizeName(type);
+    }
+
+    /** Return the adapters of the receivers of all the input ports of
+     *  the actors controlled by the director.
+     *  @return The list of receiver adapters.
+     *  @exception IllegalActionException If a receiver is not a DE
+     *  receiver.
+     */
+    private List<DEReceiver> _getReceivers() throws IllegalActionException {
+        List<DEReceiver> receivers = new ArrayList<DEReceiver>();
+        for (Actor actor : _getActors()) {
+            receivers.addAll(_getReceivers(actor));
+        }
+        return receivers;
+    }
+
+    /** Return the adapters of the receivers of the input ports of the
+     *  given actor.
+     *  @param actor The actor.
+     *  @return The list of receiver adapters.
+     *  @exception IllegalActionException If a receiver is not a DE
+     *  receiver.
+     */
+    private List<DEReceiver> _getReceivers(Actor actor)
+            throws IllegalActionException {
+        List<DEReceiver> receivers = new ArrayList<DEReceiver>();
+        for (Object port : actor.inputPortList()) {
+            receivers.addAll(_getReceivers((IOPort) port));
+        }
+        return receivers;
+    }
+
+    /** Return the adapters of the receivers of the given input port.
+     *  @param port The input port.
+     *  @return The list of receiver adapters, one for each channel.
+     *  @exception IllegalActionException If a receiver is not a DE
+     *  receiver.
+     */
+    private List<DEReceiver> _getReceivers(IOPort port)
+            throws IllegalActionException {
+        List<DEReceiver> receivers = new ArrayList<DEReceiver>();
+        for (ptolemy.actor.Receiver[] channel : port.getReceivers()) {
+            if (channel != null && channel.length > 0) {
+                receivers.add(_getReceiverAdapter(channel[0]));
+            }
+        }
+        return receivers;
+    }
+
+    /** Return the target type of the tokens in the given receiver.
+     *  @param receiver The receiver adapter.
+     *  @return The target type of the port that contains the receiver.
+     */
+    private String _getReceiverType(DEReceiver receiver) {
+        return targetType(
+                ((TypedIOPort) receiver.getComponent().getContainer())
+                        .getType());
+    }
+}
@@ -0,0 +1,142 @@
+/* Code generator adapter for the DE receiver.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.domains.de.kernel;
+
+import ptolemy.actor.IOPort;
+import ptolemy.actor.TypedIOPort;
+import ptolemy.cg.adapter.generic.program.procedural.adapters.ptolemy.actor.Receiver;
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.cg.kernel.generic.program.ProgramCodeGeneratorAdapter;
+import ptolemy.kernel.util.IllegalActionException;
+
+///////////////////////////////////////////////////////////////////
+//// DEReceiver
+
+/** The Java adapter for the DE receiver.
+ *
+ *  <p>Each DE receiver is generated as a static instance of a typed
+ *  receiver class that is declared by the Java
+ *  {@link DEDirector} adapter.  The name of the instance is the name
+ *  of this adapter followed by "_receiver".  Putting a token into
+ *  the receiver also posts a trigger event for the actor that
+ *  contains the receiver.</p>
+ *
+ *  @author agent
+ *  @version $Id$
+ *  @since Ptolemy II 11.0
+ *  @Pt.ProposedRating Red (agent)
+ *  @Pt.AcceptedRating Red (agent)
+ */
+public class DEReceiver extends Receiver {
+    /** Construct an adapter for a DE receiver.
+     *  @param receiver The DEReceiver for which an adapter is constructed.
+     *  @exception IllegalActionException If thrown by the superclass.
+     */
+    public DEReceiver(ptolemy.domains.de.kernel.DEReceiver receiver)
+            throws IllegalActionException {
+        super(receiver);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Generate code for getting a token from the receiver.
+     *  @param offset The offset, which is ignored because a DE receiver
+     *  is a FIFO queue.
+     *  @return The code that takes the oldest token from the receiver.
+     *  @exception IllegalActionException Not thrown in this class.
+     */
+    @Override
+    public String generateGetCode(String offset)
+            throws IllegalActionException {
+        return getReceiverName() + ".get()";
+    }
+
+    /** Generate code that checks whether the receiver has a token.
+     *  @param offset The offset, which is ignored.
+     *  @return The code that checks whether the receiver has a token.
+     *  @exception IllegalActionException Not thrown in this class.
+     */
+    @Override
+    public String generateHasTokenCode(String offset)
+            throws IllegalActionException {
+        return getReceiverName() + ".hasToken()";
+    }
+
+    /** Generate code for putting a token into the receiver.
+     *  @param sourcePort The port that sends the token.
+     *  @param offset The offset, which is ignored.
+     *  @param token The code of the token to put.
+     *  @return The code that puts the token, converted to the type
+     *  of the port that contains the receiver.
+     *  @exception IllegalActionException If the type conversion
+     *  statement cannot be generated.
+     */
+    @Override
+    public String generatePutCode(IOPort sourcePort, String offset,
+            String token) throws IllegalActionException {
+        TypedIOPort port = (TypedIOPort) getComponent().getContainer();
+        int channel = port.getChannelForReceiver(getComponent());
+
+        // The sink is irrelevant, since we will get rid of it below.
+        ProgramCodeGeneratorAdapter.Channel source = new Channel(sourcePort, 0);
+        ProgramCodeGeneratorAdapter.Channel sink = new Channel(port, channel);
+        token = ((NamedProgramCodeGeneratorAdapter) getAdapter(
+                port.getContainer())).getTemplateParser()
+                        .generateTypeConvertStatement(source, sink, 0, token);
+        token = _removeSink(token).trim();
+        if (token.endsWith(";")) {
+            token = token.substring(0, token.length() - 1);
+        }
+        return getReceiverName() + ".put(" + token + ");" + _eol;
+    }
+
+    /** Return the name of the variable that refers to the receiver
+     *  in the generated code.
+     *  @return The name of this adapter followed by "_receiver".
+     */
+    public String getReceiverName() {
+        return getName() + "_receiver";
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /** Return null, because the type conversion is done in
+     *  {@link #generatePutCode(IOPort, String, String)}.
+     *  @param source The source channel.
+     *  @return Null.
+     *  @exception IllegalActionException Not thrown in this class.
+     */
+    @Override
+    protected String _generateTypeConvertStatement(
+            ProgramCodeGeneratorAdapter.Channel source)
+            throws IllegalActionException {
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+/* Code generator adapter for ptolemy.domains.de.lib.Queue.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.domains.de.lib;
+
+import java.util.ArrayList;
+
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.kernel.util.IllegalActionException;
+
+///////////////////////////////////////////////////////////////////
+//// Queue
+
+/**
+ A code generator adapter for ptolemy.domains.de.lib.Queue.
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class Queue extends NamedProgramCodeGeneratorAdapter {
+    /** Construct a Queue adapter.
+     *  @param actor The given ptolemy.domains.de.lib.Queue actor.
+     */
+    public Queue(ptolemy.domains.de.lib.Queue actor) {
+        super(actor);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /** Generate the fire code, which consumes the trigger tokens,
+     *  reads the input and produces the outputs.
+     *  @return The generated code.
+     *  @exception IllegalActionException If the code stream encounters
+     *  an error in processing the specified code block(s).
+     */
+    @Override
+    protected String _generateFireCode() throws IllegalActionException {
+        ptolemy.domains.de.lib.Queue actor = (ptolemy.domains.de.lib.Queue) getComponent();
+        ArrayList<String> args = new ArrayList<String>();
+        StringBuffer code = new StringBuffer(
+                getTemplateParser().generateBlockCode("fireBeginBlock", args));
+        args.add("");
+        for (int i = 0; i < actor.trigger.getWidth(); i++) {
+            args.set(0, Integer.toString(i));
+            code.append(getTemplateParser().generateBlockCode("triggerBlock",
+                    args));
+        }
+        args.clear();
+        code.append(
+                getTemplateParser().generateBlockCode("fireEndBlock", args));
+        return code.toString();
+    }
+}
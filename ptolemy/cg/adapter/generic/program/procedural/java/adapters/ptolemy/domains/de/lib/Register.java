@@ -0,0 +1,152 @@
+/* Code generator adapter for ptolemy.domains.de.lib.Register.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.domains.de.lib;
+
+import java.util.ArrayList;
+
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.kernel.util.IllegalActionException;
+
+///////////////////////////////////////////////////////////////////
+//// Register
+
+/**
+ A code generator adapter for ptolemy.domains.de.lib.Register.
+
+ <p>The fire code consumes the trigger tokens and, if there was one,
+ sends the last input of each channel.  The postfire code reads the
+ inputs, so an output never depends on an input that arrives at the
+ same time.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class Register extends NamedProgramCodeGeneratorAdapter {
+    /** Construct a Register adapter.
+     *  @param actor The given ptolemy.domains.de.lib.Register actor.
+     */
+    public Register(ptolemy.domains.de.lib.Register actor) {
+        super(actor);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Generate the initialize code.  If the <i>initialValue</i>
+     *  parameter is set, then it is the last input of each channel.
+     *  @return The initialize code.
+     *  @exception IllegalActionException If the code stream encounters
+     *  an error in processing the specified code block(s).
+     */
+    @Override
+    public String generateInitializeCode() throws IllegalActionException {
+        ptolemy.domains.de.lib.Register actor = (ptolemy.domains.de.lib.Register) getComponent();
+        StringBuffer code = new StringBuffer(super.generateInitializeCode());
+        if (actor.initialValue.getToken() != null) {
+            ArrayList<String> args = new ArrayList<String>();
+            args.add("");
+            for (int i = 0; i < actor.input.getWidth(); i++) {
+                args.set(0, Integer.toString(i));
+                code.append(getTemplateParser()
+                        .generateBlockCode("initialValueBlock", args));
+            }
+        }
+        return code.toString();
+    }
+
+    /** Generate the postfire code, which reads the inputs.  Inputs on
+     *  channels that have no corresponding output channel are
+     *  discarded.
+     *  @return The postfire code.
+     *  @exception IllegalActionException If the code stream encounters
+     *  an error in processing the specified code block(s).
+     */
+    @Override
+    public String generatePostfireCode() throws IllegalActionException {
+        ptolemy.domains.de.lib.Register actor = (ptolemy.domains.de.lib.Register) getComponent();
+        int inputWidth = actor.input.getWidth();
+        int commonWidth = Math.min(inputWidth, actor.output.getWidth());
+        StringBuffer code = new StringBuffer();
+        ArrayList<String> args = new ArrayList<String>();
+        args.add("");
+        for (int i = 0; i < inputWidth; i++) {
+            args.set(0, Integer.toString(i));
+            code.append(getTemplateParser().generateBlockCode(
+                    i < commonWidth ? "readBlock" : "discardBlock", args));
+        }
+        return code.toString();
+    }
+
+    /** Generate the preinitialize code, which declares the last
+     *  input of each channel.
+     *  @return The preinitialize code.
+     *  @exception IllegalActionException If the code stream encounters
+     *  an error in processing the specified code block(s).
+     */
+    @Override
+    public String generatePreinitializeCode() throws IllegalActionException {
+        ptolemy.domains.de.lib.Register actor = (ptolemy.domains.de.lib.Register) getComponent();
+        ArrayList<String> args = new ArrayList<String>();
+        args.add(Integer.toString(Math.max(actor.input.getWidth(), 1)));
+        return getTemplateParser().generateBlockCode("preinitBlock", args);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /** Generate the fire code, which consumes the trigger tokens
+     *  and sends the last inputs if there was a trigger token.
+     *  @return The generated code.
+     *  @exception IllegalActionException If the code stream encounters
+     *  an error in processing the specified code block(s).
+     */
+    @Override
+    protected String _generateFireCode() throws IllegalActionException {
+        ptolemy.domains.de.lib.Register actor = (ptolemy.domains.de.lib.Register) getComponent();
+        int commonWidth = Math.min(actor.input.getWidth(),
+                actor.output.getWidth());
+        ArrayList<String> args = new ArrayList<String>();
+        StringBuffer code = new StringBuffer(
+                getTemplateParser().generateBlockCode("fireBeginBlock", args));
+        args.add("");
+        for (int i = 0; i < actor.trigger.getWidth(); i++) {
+            args.set(0, Integer.toString(i));
+            code.append(getTemplateParser().generateBlockCode("triggerBlock",
+                    args));
+        }
+        for (int i = 0; i < commonWidth; i++) {
+            args.set(0, Integer.toString(i));
+            code.append(getTemplateParser().generateBlockCode("sendBlock",
+                    args));
+        }
+        return code.toString();
+    }
+}
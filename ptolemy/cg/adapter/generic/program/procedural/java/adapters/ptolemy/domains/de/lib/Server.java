@@ -0,0 +1,78 @@
+/* Code generator adapter for ptolemy.domains.de.lib.Server.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.domains.de.lib;
+
+import ptolemy.cg.kernel.generic.program.NamedProgramCodeGeneratorAdapter;
+import ptolemy.kernel.util.IllegalActionException;
+
+///////////////////////////////////////////////////////////////////
+//// Server
+
+/**
+ A code generator adapter for ptolemy.domains.de.lib.Server.
+
+ <p>The service time and the priority are taken from the parameters,
+ so their ports must not be connected.  All jobs then have the same
+ priority, so they are served in the order in which they arrive and
+ are kept in a FIFO queue.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class Server extends NamedProgramCodeGeneratorAdapter {
+    /** Construct a Server adapter.
+     *  @param actor The given ptolemy.domains.de.lib.Server actor.
+     */
+    public Server(ptolemy.domains.de.lib.Server actor) {
+        super(actor);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Generate the initialize code.
+     *  @return The initialize code.
+     *  @exception IllegalActionException If the serviceTime or the
+     *  priority port is connected, or if the code stream encounters
+     *  an error in processing the specified code block(s).
+     */
+    @Override
+    public String generateInitializeCode() throws IllegalActionException {
+        ptolemy.domains.de.lib.Server actor = (ptolemy.domains.de.lib.Server) getComponent();
+        if (actor.serviceTime.getPort().isOutsideConnected()
+                || actor.priority.getPort().isOutsideConnected()) {
+            throw new IllegalActionException(actor,
+                    "Code generation for a Server with the serviceTime "
+                            + "or priority port connected is not supported.");
+        }
+        return super.generateInitializeCode();
+    }
+}
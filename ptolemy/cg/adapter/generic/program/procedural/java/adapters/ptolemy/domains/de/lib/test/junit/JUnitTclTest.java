@@ -0,0 +1,59 @@
+/* Run the Tcl tests in testDefs.tcl
+ Autogenerated by ptolemy/util/test/junit/updateJUnitTclTest
+
+ Copyright (c) 2010-2011 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+
+package ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.domains.de.lib.test.junit;
+
+import ptolemy.util.test.junit.JUnitTclTestBase;
+
+///////////////////////////////////////////////////////////////////
+//// JUnitTclTest
+/**
+ * Run the auto/ and Tcl tests under JUnit.
+ * <pre>
+ * (cd $PTII/ptolemy/cg/adapter/generic/program/procedural/java/adapters/ptolemy/domains/de/lib/test/junit; java -classpath ${PTII}:${PTII}/lib/ptjacl.jar:${PTII}/lib/junit-4.8.2.jar:${PTII}/lib/JUnitParams-0.3.0.jar org.junit.runner.JUnitCore ptolemy.cg.adapter.generic.program.procedural.java.adapters.ptolemy.domains.de.lib.test.junit.JUnitTclTest)
+ * </pre>
+ *
+ * <p> A copy of this file appears in each test/junit subdirectory
+ * so that it is easy for developers to run tests.  The master
+ * file is in $PTII/util/testsuite/JUnitTclTest.java.in.
+ * To update all the files, run
+ * <pre>
+ * cd $PTII
+ * ptolemy/util/test/junit/updateJUnitTclTest
+ * </pre>
+ *
+ * @author Christopher Brooks
+ * @version $Id$
+ * @since Ptolemy II 10.0
+ * @Pt.ProposedRating Green (cxh)
+ * @Pt.AcceptedRating Green (cxh)
+ */
+public class JUnitTclTest extends JUnitTclTestBase {
+    // This class is empty, all the action occurs in the parent.
+}
@@ -0,0 +1,433 @@
+/* Firing statistics of a model gathered by executing it.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.cg.kernel.generic.program;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ptolemy.actor.Actor;
+import ptolemy.actor.ActorFiringListener;
+import ptolemy.actor.CompositeActor;
+import ptolemy.actor.Director;
+import ptolemy.actor.FiringEvent;
+import ptolemy.actor.FiringsRecordable;
+import ptolemy.actor.IOPort;
+import ptolemy.actor.IOPortEvent;
+import ptolemy.actor.IOPortEventListener;
+import ptolemy.actor.Manager;
+import ptolemy.actor.Receiver;
+import ptolemy.kernel.util.DebugEvent;
+import ptolemy.kernel.util.DebugListener;
+import ptolemy.kernel.util.IllegalActionException;
+import ptolemy.kernel.util.KernelException;
+import ptolemy.kernel.util.NamedObj;
+
+///////////////////////////////////////////////////////////////////
+//// ExecutionProfile
+
+/** Firing statistics of a model gathered by executing it.
+ *
+ *  <p>{@link #record(CompositeActor)} executes the model once with
+ *  listeners attached and records, for each opaque actor, the number
+ *  of times it fired, for each port, the number of tokens it sent or
+ *  received, and for each input channel, the largest number of tokens
+ *  that were queued in its receiver just before the actor was
+ *  prefired.  The listeners are removed when the execution finishes.</p>
+ *
+ *  <p>Firings are counted from the {@link FiringEvent}s that actors
+ *  report to {@link ActorFiringListener}s while iterating.  Not every
+ *  firing is reported that way.  Directors such as the DE director
+ *  invoke prefire(), fire() and postfire() directly rather than
+ *  calling iterate(), and actors such as Ramp override iterate(int)
+ *  without reporting their firings.  So the firing events that
+ *  directors send to their debug listeners are also observed, where
+ *  an iteration event counts as many firings as its multiplicity.
+ *  Since an actor and its director may report the same firing, the
+ *  firing count of an actor is the largest of the counts from these
+ *  three sources, not their sum.  Note that listening to a director
+ *  turns on its debugging output, which slows down the profiling
+ *  run.</p>
+ *
+ *  <p>The statistics are used by the program code generators to size
+ *  buffers, to decide which actors to inline and to order the
+ *  generated firing functions.  See the <i>useProfile</i> parameter
+ *  of {@link ProgramCodeGenerator}.</p>
+ *
+ *  @author agent
+ *  @version $Id$
+ *  @since Ptolemy II 11.0
+ *  @Pt.ProposedRating Red (agent)
+ *  @Pt.AcceptedRating Red (agent)
+ */
+public class ExecutionProfile
+        implements ActorFiringListener, DebugListener, IOPortEventListener {
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Record firings that a director reports to its debug listeners.
+     *  Events other than firing events are ignored.
+     *  @param event The debug event.
+     */
+    @Override
+    public void event(DebugEvent event) {
+        if (event instanceof FiringEvent) {
+            FiringEvent firingEvent = (FiringEvent) event;
+            if (firingEvent.getType() == FiringEvent.AFTER_ITERATE) {
+                _increment(_iterations, firingEvent.getActor(),
+                        firingEvent.getMultiplicity());
+            } else {
+                _record(firingEvent, _directorFirings);
+            }
+        }
+    }
+
+    /** Record a firing event reported by an actor.
+     *  @param event The firing event.
+     */
+    @Override
+    public void firingEvent(FiringEvent event) {
+        _record(event, _actorFirings);
+    }
+
+    /** Return the number of times that the given actor fired during
+     *  the recorded execution.
+     *  @param actor The actor.
+     *  @return The number of firings, or 0 if the actor did not fire
+     *  or was not part of the recorded model.
+     */
+    public long getFiringCount(Actor actor) {
+        return Math.max(_getCount(_actorFirings, actor), Math.max(
+                _getCount(_directorFirings, actor),
+                _getCount(_iterations, actor)));
+    }
+
+    /** Return the largest number of tokens that were queued in the
+     *  receiver of the given input channel before the actor that
+     *  contains the port was prefired.
+     *  @param port The input port.
+     *  @param channel The channel.
+     *  @return The high-water mark of the channel, or 0 if it is not
+     *  known, for example because the receiver does not support
+     *  listing its tokens.
+     */
+    public int getHighWaterMark(IOPort port, int channel) {
+        int[] marks = _highWaterMarks.get(port);
+        if (marks == null || channel < 0 || channel >= marks.length) {
+            return 0;
+        }
+        return marks[channel];
+    }
+
+    /** Return the largest number of tokens that were queued in any
+     *  receiver of the given input port.
+     *  @param port The input port.
+     *  @return The largest high-water mark of the channels of the
+     *  port, or 0 if it is not known.
+     *  @see #getHighWaterMark(IOPort, int)
+     */
+    public int getHighWaterMark(IOPort port) {
+        int result = 0;
+        int[] marks = _highWaterMarks.get(port);
+        if (marks != null) {
+            for (int mark : marks) {
+                result = Math.max(result, mark);
+            }
+        }
+        return result;
+    }
+
+    /** Return the largest firing count of any actor.
+     *  @return The largest firing count, or 0 if nothing fired.
+     */
+    public long getMaximumFiringCount() {
+        long result = 0L;
+        for (long[] count : _actorFirings.values()) {
+            result = Math.max(result, count[0]);
+        }
+        for (long[] count : _directorFirings.values()) {
+            result = Math.max(result, count[0]);
+        }
+        for (long[] count : _iterations.values()) {
+            result = Math.max(result, count[0]);
+        }
+        return result;
+    }
+
+    /** Return the average number of tokens that the given port sent
+     *  or received per firing of its container.  A token broadcast
+     *  to all channels counts once, so for a port that sends on all its
+     *  channels alike this is the rate of each channel, as with the
+     *  SDF rate parameters.
+     *  @param port The port.
+     *  @return The token rate, or 0.0 if the container did not fire.
+     */
+    public double getTokenRate(IOPort port) {
+        long firings = getFiringCount((Actor) port.getContainer());
+        long[] tokens = _tokenCounts.get(port);
+        if (firings == 0L || tokens == null) {
+            return 0.0;
+        }
+        return (double) tokens[0] / firings;
+    }
+
+    /** Return true if the given actor is hot, which is to say that it
+     *  fired at least half as many times as the most frequently fired
+     *  actor.
+     *  @param actor The actor.
+     *  @return True if the actor is hot.
+     */
+    public boolean isHot(Actor actor) {
+        long firings = getFiringCount(actor);
+        return firings > 0L && 2L * firings >= getMaximumFiringCount();
+    }
+
+    /** Ignore messages from directors.
+     *  @param message The message.
+     */
+    @Override
+    public void message(String message) {
+    }
+
+    /** Record the tokens sent or received by a port.
+     *  @param event The port event.
+     */
+    @Override
+    public void portEvent(IOPortEvent event) {
+        int type = event.getEventType();
+        if (type != IOPortEvent.GET_END && type != IOPortEvent.SEND_END) {
+            return;
+        }
+        IOPort port = event.getPort();
+        long[] tokens = _tokenCounts.get(port);
+        if (tokens == null) {
+            tokens = new long[1];
+            _tokenCounts.put(port, tokens);
+        }
+        int length = event.getVectorLength();
+        if (length == IOPortEvent.SINGLETOKEN) {
+            length = 1;
+        }
+        tokens[0] += length;
+    }
+
+    /** Execute the given model and record its statistics.  Statistics
+     *  recorded previously are discarded.  If the model has no manager,
+     *  then one is created.
+     *  @param model The top-level composite actor of the model.
+     *  @exception KernelException If the execution fails.
+     */
+    public void record(CompositeActor model) throws KernelException {
+        _actorFirings.clear();
+        _directorFirings.clear();
+        _highWaterMarks.clear();
+        _iterations.clear();
+        _tokenCounts.clear();
+
+        Manager manager = model.getManager();
+        if (manager == null) {
+            manager = new Manager(model.workspace(), "Manager");
+            model.setManager(manager);
+        }
+        List<NamedObj> listenedTo = new ArrayList<NamedObj>();
+        try {
+            _addListeners(model, listenedTo);
+            manager.execute();
+        } finally {
+            for (NamedObj object : listenedTo) {
+                if (object instanceof Director) {
+                    object.removeDebugListener(this);
+                } else if (object instanceof IOPort) {
+                    ((IOPort) object).removeIOPortEventListener(this);
+                } else {
+                    ((FiringsRecordable) object)
+                            .removeActorFiringListener(this);
+                }
+            }
+        }
+    }
+
+    /** Sort the given actors so that the most frequently fired actor
+     *  is first.  The sort is stable, so actors that fired equally
+     *  often stay in the given order.
+     *  @param <T> The type of the actors.
+     *  @param actors The actors to sort.
+     */
+    public <T extends Actor> void sortByFiringCount(List<T> actors) {
+        Collections.sort(actors, new Comparator<T>() {
+            @Override
+            public int compare(T actor1, T actor2) {
+                return Long.compare(getFiringCount(actor2),
+                        getFiringCount(actor1));
+            }
+        });
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Add this profile as a listener to the director of the given
+     *  composite, to the opaque actors it contains and to their ports,
+     *  and recursively to opaque composites.
+     *  @param composite The composite.
+     *  @param listenedTo The list to which the objects that are
+     *  listened to are added.
+     */
+    private void _addListeners(CompositeActor composite,
+            List<NamedObj> listenedTo) {
+        Director director = composite.getDirector();
+        if (director != null && !listenedTo.contains(director)) {
+            director.addDebugListener(this);
+            listenedTo.add(director);
+        }
+        for (Object entity : composite.deepEntityList()) {
+            if (entity instanceof FiringsRecordable) {
+                ((FiringsRecordable) entity).addActorFiringListener(this);
+                listenedTo.add((NamedObj) entity);
+            }
+            for (Object port : ((Actor) entity).inputPortList()) {
+                ((IOPort) port).addIOPortEventListener(this);
+                listenedTo.add((IOPort) port);
+            }
+            for (Object port : ((Actor) entity).outputPortList()) {
+                if (!((IOPort) port).isInput()) {
+                    ((IOPort) port).addIOPortEventListener(this);
+                    listenedTo.add((IOPort) port);
+                }
+            }
+            if (entity instanceof CompositeActor
+                    && ((CompositeActor) entity).isOpaque()) {
+                _addListeners((CompositeActor) entity, listenedTo);
+            }
+        }
+    }
+
+    /** Return the count of the given actor in the given map.
+     *  @param counts The map of counts.
+     *  @param actor The actor.
+     *  @return The count, or 0 if the actor is not in the map.
+     */
+    private static long _getCount(Map<Actor, long[]> counts, Actor actor) {
+        long[] count = counts.get(actor);
+        return count == null ? 0L : count[0];
+    }
+
+    /** Add to the count of the given actor in the given map.
+     *  @param counts The map of counts.
+     *  @param actor The actor, which is ignored if it is null.
+     *  @param increment The amount to add.
+     */
+    private static void _increment(Map<Actor, long[]> counts, Actor actor,
+            int increment) {
+        if (actor == null) {
+            return;
+        }
+        long[] count = counts.get(actor);
+        if (count == null) {
+            count = new long[1];
+            counts.put(actor, count);
+        }
+        count[0] += increment;
+    }
+
+    /** Record a firing event.  Firings are counted after the actor
+     *  fires, and the receivers of the actor are sampled before it
+     *  is prefired or iterated.
+     *  @param event The firing event.
+     *  @param firings The firing counts to update.
+     */
+    private void _record(FiringEvent event, Map<Actor, long[]> firings) {
+        Actor actor = event.getActor();
+        if (actor == null) {
+            return;
+        }
+        FiringEvent.FiringEventType type = event.getType();
+        if (type == FiringEvent.AFTER_FIRE) {
+            _increment(firings, actor, 1);
+        } else if (type == FiringEvent.BEFORE_PREFIRE
+                || type == FiringEvent.BEFORE_ITERATE) {
+            for (Object port : actor.inputPortList()) {
+                _sampleReceivers((IOPort) port);
+            }
+        }
+    }
+
+    /** Update the high-water marks of the channels of an input port.
+     *  Receivers that do not support listing their tokens are skipped.
+     *  @param port The input port.
+     */
+    private void _sampleReceivers(IOPort port) {
+        Receiver[][] receivers = port.getReceivers();
+        if (receivers == null || receivers.length == 0) {
+            return;
+        }
+        int[] marks = _highWaterMarks.get(port);
+        if (marks == null || marks.length < receivers.length) {
+            int[] newMarks = new int[receivers.length];
+            if (marks != null) {
+                System.arraycopy(marks, 0, newMarks, 0, marks.length);
+            }
+            marks = newMarks;
+            _highWaterMarks.put(port, marks);
+        }
+        for (int channel = 0; channel < receivers.length; channel++) {
+            if (receivers[channel] == null
+                    || receivers[channel].length == 0) {
+                continue;
+            }
+            try {
+                int size = receivers[channel][0].elementList().size();
+                marks[channel] = Math.max(marks[channel], size);
+            } catch (IllegalActionException ex) {
+                // The receiver does not list its tokens.
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The firing counts reported by the actors. */
+    private Map<Actor, long[]> _actorFirings = new HashMap<Actor, long[]>();
+
+    /** The firing counts reported by the directors. */
+    private Map<Actor, long[]> _directorFirings = new HashMap<Actor, long[]>();
+
+    /** The high-water marks of the input channels. */
+    private Map<IOPort, int[]> _highWaterMarks = new HashMap<IOPort, int[]>();
+
+    /** The number of iterations reported by the directors. */
+    private Map<Actor, long[]> _iterations = new HashMap<Actor, long[]>();
+
+    /** The number of tokens sent or received by each port. */
+    private Map<IOPort, long[]> _tokenCounts = new HashMap<IOPort, long[]>();
+}
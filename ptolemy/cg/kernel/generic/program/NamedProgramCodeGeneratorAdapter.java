@@ -391,7 +391,10 @@ public class NamedProgramCodeGeneratorAdapter
      * of the code generator. If the value is true, it generates the actor
      * fire code and the necessary type conversion code. Otherwise, it
      * generate an invocation to the actor function that is generated by
-     * generateFireFunctionCode.
+     * generateFireFunctionCode, unless the code generator recorded an
+     * {@link ExecutionProfile} in which the associated component is an
+     * atomic actor that is hot, in which case its fire code is inlined
+     * anyway to avoid the cost of the invocation.
      * @return The generated code.
      * @exception IllegalActionException Not thrown in this base class.
      */
@@ -415,6 +418,8 @@ public class NamedProgramCodeGeneratorAdapter
             // is at the toplevel. In it is embedded we don't need to generateTypeConvertFireCode.
             // Needed for jni and embeddedJava.
             code.append(_generateFireCode());
+        } else if (_isHot()) {
+            code.append(_generateFireCode());
         } else {
             code.append(_generateFireInvocation(getComponent()) + ";" + _eol);
         }
@@ -1395,6 +1400,19 @@ public class NamedProgramCodeGeneratorAdapter
     //        return null;
     //    }
     //
+
+    /**
+     * Return true if the associated component is an atomic actor that
+     * is hot according to the execution profile of the code generator.
+     * @return True if the fire code of the component should be inlined.
+     */
+    private boolean _isHot() {
+        ExecutionProfile profile = getCodeGenerator().getExecutionProfile();
+        return profile != null && getComponent() instanceof Actor
+                && !(getComponent() instanceof CompositeActor)
+                && profile.isHot((Actor) getComponent());
+    }
+
     /**
      * Mark the given connection between the source and the sink channels
      * as type conversion required.
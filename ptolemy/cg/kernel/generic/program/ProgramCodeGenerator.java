@@ -133,6 +133,10 @@ public class ProgramCodeGenerator extends RunnableCodeGenerator {
         useMake.setTypeEquals(BaseType.BOOLEAN);
         useMake.setExpression("true");
 
+        useProfile = new Parameter(this, "useProfile");
+        useProfile.setTypeEquals(BaseType.BOOLEAN);
+        useProfile.setExpression("false");
+
         variablesAsArrays = new Parameter(this, "variablesAsArrays");
         variablesAsArrays.setTypeEquals(BaseType.BOOLEAN);
         variablesAsArrays.setExpression("false");
@@ -187,6 +191,14 @@ public class ProgramCodeGenerator extends RunnableCodeGenerator {
      */
     public Parameter useMake;
 
+    /** If true, then execute the model once before generating code
+     *  and use the recorded {@link ExecutionProfile} to size buffers,
+     *  to inline the actors that fire most often and to order the
+     *  generated firing functions so that the hottest actors come
+     *  first.  The default value is a parameter with the value false.
+     */
+    public Parameter useProfile;
+
     /** If true, then generate code that puts variables into arrays;
      *  otherwise, use standalone variables.  This parameter is used
      *  for very large models that would otherwise generate code that
@@ -365,6 +377,31 @@ public class ProgramCodeGenerator extends RunnableCodeGenerator {
         return "";
     }
 
+    /** Generate code.  If the <i>useProfile</i> parameter is true and
+     *  code is being generated for the whole model, then first execute
+     *  the model to record an {@link ExecutionProfile}, which is then
+     *  available to the adapters through {@link #getExecutionProfile()}.
+     *  @param code The code buffer into which to generate the code.
+     *  @return The return value of the last subprocess that was executed.
+     *  or -1 if no commands were executed.
+     *  @exception KernelException If the profiling run fails, a type
+     *  conflict occurs or the model is running.
+     */
+    @Override
+    public int generateCode(StringBuffer code) throws KernelException {
+        _executionProfile = null;
+        if (_isTopLevel()
+                && ((BooleanToken) useProfile.getToken()).booleanValue()) {
+            long startTime = new Date().getTime();
+            ExecutionProfile profile = new ExecutionProfile();
+            profile.record((CompositeActor) getContainer());
+            _printTimeAndMemory(startTime,
+                    "CodeGenerator: profiling run consumed: ");
+            _executionProfile = profile;
+        }
+        return super.generateCode(code);
+    }
+
     /** Generate code that defines a constant.  In C, generate a
      *  #define, in Java, generate a static final.
      *  @param constant The name of the constant to be defined
@@ -930,6 +967,15 @@ public class ProgramCodeGenerator extends RunnableCodeGenerator {
         return "";
     }
 
+    /** Return the execution profile recorded before the most recent
+     *  code generation.
+     *  @return The execution profile, or null if the <i>useProfile</i>
+     *  parameter was false.
+     */
+    public ExecutionProfile getExecutionProfile() {
+        return _executionProfile;
+    }
+
     /** Return the set of modified variables.
      *  @return The set of modified variables.
      *  @exception IllegalActionException Not thrown in this base class.
@@ -2267,6 +2313,9 @@ public class ProgramCodeGenerator extends RunnableCodeGenerator {
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
 
+    /** The execution profile, or null if none was recorded. */
+    private ExecutionProfile _executionProfile;
+
     /** The current indent level when pretty printing code. */
     private int _indent;
 
@@ -119,6 +119,10 @@ public class CCodeGenerator extends ProceduralCodeGenerator {
         generateCpp.setTypeEquals(BaseType.BOOLEAN);
         generateCpp.setExpression("false");
 
+        numberOfThreads = new Parameter(this, "numberOfThreads");
+        numberOfThreads.setTypeEquals(BaseType.INT);
+        numberOfThreads.setExpression("1");
+
         // sourceLineBinding is used in CodeStream,
         // so it defind in ProgramCodeGenerator.
         sourceLineBinding.setVisibility(Settable.FULL);
@@ -143,6 +147,15 @@ public class CCodeGenerator extends ProceduralCodeGenerator {
      */
     public Parameter generateCpp;
 
+    /** The maximum number of threads that execute the schedule of a
+     *  top-level SDF model.  If this is greater than 1, then the actors
+     *  are partitioned over at most that many POSIX threads that
+     *  communicate through the ring buffers of the fused channels.
+     *  This is an int that defaults to 1, meaning that the generated
+     *  code is single threaded.
+     */
+    public Parameter numberOfThreads;
+
     ///////////////////////////////////////////////////////////////////
     ////                         public methods                    ////
 
@@ -2562,6 +2575,7 @@ public class CCodeGenerator extends ProceduralCodeGenerator {
                     ((CompositeActor) container).getDirector());
 
             CCode.append("#include \"" + sanitizedContainerName + ".h\"" + _eol
+                    + directorAdapter.generateScheduleThreadsCode()
                     + "void " + sanitizedContainerName + "_Schedule_iterate() {"
                     + _eol + "#ifdef _debugging" + _eol
                     + "    fprintf(stderr, \"%s, line: %d:"
@@ -0,0 +1,263 @@
+/* Compile generated Java code in memory using the JDK compiler API.
+
+Copyright (c) 2026 The Regents of the University of California.
+All rights reserved.
+Permission is hereby granted, without written agreement and without
+license or royalty fees, to use, copy, modify, and distribute this
+software and its documentation for any purpose, provided that the above
+copyright notice and the following two paragraphs appear in all copies
+of this software.
+
+IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+SUCH DAMAGE.
+
+THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ENHANCEMENTS, OR MODIFICATIONS.
+
+PT_COPYRIGHT_VERSION_2
+COPYRIGHTENDKEY
+
+ */
+
+package ptolemy.cg.kernel.generic.program.procedural.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import ptolemy.kernel.util.IllegalActionException;
+
+///////////////////////////////////////////////////////////////////
+//// InMemoryJavaCompiler
+
+/** Compile generated Java code in memory using the JDK compiler API.
+ *
+ *  <p>Sources are added with {@link #addSource(File, String)}, where
+ *  the file only names the source, it need not exist. {@link #compile(List)}
+ *  compiles all the sources in this process, keeping the resulting class
+ *  files in memory, and {@link #getClassLoader(ClassLoader)} returns a
+ *  new class loader that defines the compiled classes.  Each
+ *  compilation produces its own class loader, so classes regenerated
+ *  after a model change are loaded afresh and the previous versions
+ *  may be garbage collected once they are no longer referenced.</p>
+ *
+ *  <p>Referenced classes that are not among the added sources are
+ *  looked up on the classpath given in the options, as with
+ *  <code>javac</code>.  Class files for such classes that are
+ *  compiled from source files on the classpath are also kept in
+ *  memory.</p>
+ *
+ *  @author agent
+ *  @version $Id$
+ *  @since Ptolemy II 11.0
+ *  @Pt.ProposedRating Red (agent)
+ *  @Pt.AcceptedRating Red (agent)
+ */
+public class InMemoryJavaCompiler {
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Add a source to be compiled.
+     *  @param file The file that names the source.  The name of the
+     *  file is checked against the name of the public class in the
+     *  source.
+     *  @param code The Java source.
+     */
+    public void addSource(File file, String code) {
+        _sources.add(new _Source(file.toURI(), code));
+    }
+
+    /** Compile the sources that have been added.
+     *  @param options The compiler options, for example
+     *  <code>-classpath</code> and its value.
+     *  @return The diagnostics reported by the compiler, one per line.
+     *  @exception IllegalActionException If the JDK compiler is not
+     *  available, for example because this process is running in a
+     *  JRE, or if the compilation fails.  The message of the exception
+     *  includes the diagnostics.
+     */
+    public String compile(List<String> options) throws IllegalActionException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalActionException(
+                    "No Java compiler is available, "
+                            + "perhaps this is a JRE and not a JDK?");
+        }
+        _classFiles.clear();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager standardFileManager = compiler
+                .getStandardFileManager(diagnostics, null, null);
+        _ClassFileManager fileManager = new _ClassFileManager(
+                standardFileManager);
+        boolean succeeded = false;
+        try {
+            succeeded = compiler.getTask(null, fileManager, diagnostics,
+                    options, null, _sources).call();
+        } finally {
+            try {
+                fileManager.close();
+            } catch (IOException ex) {
+                // Ignore, the class files are in memory.
+            }
+        }
+        StringBuffer messages = new StringBuffer();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics
+                .getDiagnostics()) {
+            messages.append(diagnostic.toString());
+            messages.append(_eol);
+        }
+        if (!succeeded) {
+            throw new IllegalActionException(
+                    "Failed to compile " + _sources.size() + " source(s):"
+                            + _eol + messages);
+        }
+        return messages.toString();
+    }
+
+    /** Return a new class loader that defines the classes produced by
+     *  the last successful compilation.  Other classes are delegated
+     *  to the parent class loader.
+     *  @param parent The parent class loader.
+     *  @return A new class loader.
+     */
+    public ClassLoader getClassLoader(ClassLoader parent) {
+        return new _MemoryClassLoader(parent,
+                new HashMap<String, byte[]>(_classFiles));
+    }
+
+    /** Return the names of the classes produced by the last
+     *  successful compilation.
+     *  @return An unmodifiable set of binary class names.
+     */
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(_classFiles.keySet());
+    }
+
+    /** Return true if a Java compiler is available in this process.
+     *  @return True if the JDK compiler can be used.
+     */
+    public static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The class files of the last compilation, indexed by class name. */
+    private Map<String, byte[]> _classFiles = new HashMap<String, byte[]>();
+
+    /** End of line character. */
+    private static final String _eol = System.getProperty("line.separator");
+
+    /** The sources to compile. */
+    private List<JavaFileObject> _sources = new LinkedList<JavaFileObject>();
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         inner classes                     ////
+
+    /** A class file held in memory. */
+    private class _ClassFile extends SimpleJavaFileObject {
+        public _ClassFile(String className) {
+            super(URI.create(
+                    "memory:///" + className.replace('.', '/') + ".class"),
+                    Kind.CLASS);
+            _className = className;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    _classFiles.put(_className, toByteArray());
+                }
+            };
+        }
+
+        private String _className;
+    }
+
+    /** A file manager that keeps the class files in memory. */
+    private class _ClassFileManager
+            extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        public _ClassFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(
+                JavaFileManager.Location location, String className,
+                JavaFileObject.Kind kind, FileObject sibling)
+                throws IOException {
+            if (kind == JavaFileObject.Kind.CLASS) {
+                return new _ClassFile(className);
+            }
+            return super.getJavaFileForOutput(location, className, kind,
+                    sibling);
+        }
+    }
+
+    /** A class loader that defines classes from class files in memory. */
+    private static class _MemoryClassLoader extends ClassLoader {
+        public _MemoryClassLoader(ClassLoader parent,
+                Map<String, byte[]> classFiles) {
+            super(parent);
+            _classFiles = classFiles;
+        }
+
+        @Override
+        protected Class<?> findClass(String name)
+                throws ClassNotFoundException {
+            byte[] bytes = _classFiles.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+        private Map<String, byte[]> _classFiles;
+    }
+
+    /** A source held in memory. */
+    private static class _Source extends SimpleJavaFileObject {
+        public _Source(URI uri, String code) {
+            super(uri, Kind.SOURCE);
+            _code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return _code;
+        }
+
+        private String _code;
+    }
+}
@@ -35,9 +35,11 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +60,7 @@ import ptolemy.cg.kernel.generic.program.TemplateParser;
 import ptolemy.cg.kernel.generic.program.procedural.ProceduralCodeGenerator;
 import ptolemy.cg.lib.PointerToken;
 import ptolemy.data.BooleanToken;
+import ptolemy.data.expr.Parameter;
 import ptolemy.data.expr.Variable;
 import ptolemy.data.type.ArrayType;
 import ptolemy.data.type.BaseType;
@@ -66,6 +69,7 @@ import ptolemy.data.type.Type;
 import ptolemy.kernel.CompositeEntity;
 import ptolemy.kernel.util.IllegalActionException;
 import ptolemy.kernel.util.InternalErrorException;
+import ptolemy.kernel.util.KernelException;
 import ptolemy.kernel.util.NameDuplicationException;
 import ptolemy.kernel.util.NamedObj;
 import ptolemy.util.StringUtilities;
@@ -107,6 +111,10 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
                     "java -classpath \"@PTCGLibraries@\" -Xmx1500M @MODELCLASS@");
         }
 
+        compileInMemory = new Parameter(this, "compileInMemory");
+        compileInMemory.setTypeEquals(BaseType.BOOLEAN);
+        compileInMemory.setExpression("false");
+
         generatorPackageList.setExpression("generic.program.procedural.java");
         // A list of the primitive types supported by the code generator.
         // FIXME: we should not have to set these each time, but
@@ -116,6 +124,20 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
                         "UnsignedByte", /*"Complex",*/"Pointer", "Object" });
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                     parameters                            ////
+
+    /** If true, and the generated code is not to be run as a separate
+     *  program, then compile the generated code in this process using
+     *  the JDK compiler API instead of executing <i>compileCommand</i>
+     *  or make.  The class files are kept in memory and the compiled
+     *  classes are available from {@link #getClassLoader()}.
+     *  If no compiler is available, for example because this is a JRE,
+     *  then the external commands are used.  The default value is
+     *  false.  CompiledCompositeActor sets this parameter.
+     */
+    public Parameter compileInMemory;
+
     ///////////////////////////////////////////////////////////////////
     ////                         public methods                    ////
 
@@ -1369,6 +1391,18 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
         return "wrapup();" + _eol;
     }
 
+    /** Return the class loader for the classes that were compiled in
+     *  memory by the most recent call to generateCode().
+     *  Each compilation creates a new class loader, so classes that
+     *  are regenerated after the model changes are loaded afresh.
+     *  @return The class loader, or null if the most recent code
+     *  generation did not compile the code in memory.
+     *  @see #compileInMemory
+     */
+    public ClassLoader getClassLoader() {
+        return _classLoader;
+    }
+
     /**
      * Return the return signature for run() and execute().
      * @return The visibility signature.
@@ -1387,6 +1421,17 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
         return " throws Exception";
     }
 
+    /** Return the time in milliseconds spent in each phase of the
+     *  most recent call to generateCode(). The keys are "generate",
+     *  which is the time spent generating and writing the code, and
+     *  "compile", which is the time spent compiling the code, either
+     *  in memory or by executing the compile and run commands.
+     *  @return An unmodifiable map from phase names to elapsed times.
+     */
+    public Map<String, Long> getPhaseTimes() {
+        return Collections.unmodifiableMap(_phaseTimes);
+    }
+
     /** Add called functions to the set of overloaded functions for
      *  later use.
      *  If the function starts with "Array_", add everything after the
@@ -1925,6 +1970,34 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
         return buffer.toString();
     }
 
+    /** Compile the generated code and, if this is the top level, run it.
+     *  If <i>compileInMemory</i> and <i>compile</i> are true, if the
+     *  generated code is not to be run as a separate program and if a
+     *  Java compiler is available in this process, then compile the
+     *  generated sources in memory, see {@link #getClassLoader()}.
+     *  Otherwise, execute the compile and run commands as in the base
+     *  class.  The time spent is recorded as the "compile" phase.
+     *  @return The return value of the last subprocess that was executed,
+     *  0 if the code was compiled in memory, 1 if the in memory
+     *  compilation failed or -1 if no commands were executed.
+     *  @exception IllegalActionException If there are problems reading
+     *  parameters or executing the commands.
+     */
+    @Override
+    protected int _executeCommands() throws IllegalActionException {
+        long start = System.currentTimeMillis();
+        _recordPhaseTime("generate", _generateStartTime, start);
+        _classLoader = null;
+        int returnCode;
+        if (_isCompiledInMemory()) {
+            returnCode = _compileInMemory();
+        } else {
+            returnCode = super._executeCommands();
+        }
+        _recordPhaseTime("compile", start, System.currentTimeMillis());
+        return returnCode;
+    }
+
     /** Make a final pass over the generated code. Subclass may extend
      * this method to do extra processing to format the output code. If
      * sourceLineBinding is set to true, it will check and insert the
@@ -1997,6 +2070,23 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
         return code;
     }
 
+    /** Generate code and append it to the given string buffer, then
+     *  compile it.  This method records the time at which code generation
+     *  started so that the time spent in each phase can be reported by
+     *  {@link #getPhaseTimes()}.
+     *  @param code The given string buffer.
+     *  @return The return value of the last subprocess that was executed.
+     *  or -1 if no commands were executed.
+     *  @exception KernelException If the target file cannot be overwritten
+     *   or write-to-file throw any exception.
+     */
+    @Override
+    protected int _generateCode(StringBuffer code) throws KernelException {
+        _phaseTimes = new LinkedHashMap<String, Long>();
+        _generateStartTime = System.currentTimeMillis();
+        return super._generateCode(code);
+    }
+
     /** Generate include files. FIXME: State what is included.
      *  @return The #include statements, surrounded by #ifndef to ensure
      *   that the files are included only once.
@@ -2159,6 +2249,7 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
             _overloadedFunctionSet.clear();
         }
         _typeDeclarations = null;
+        _javaSources = new LinkedHashMap<String, String>();
         if (_variableTypeMap != null) {
             _variableTypeMap.clear();
         }
@@ -2179,6 +2270,30 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
         return JavaTemplateParser.class;
     }
 
+    /** Write the code to a file with the given name and, if it is a
+     *  Java source, remember the code so that it can be compiled in memory.
+     *  @param code The StringBuffer containing the code.
+     *  @param codeFileName The name of the output file.
+     *  @param overwriteFile The overwrite flag.
+     *  @param dontShowDialog When true the confirmation dialog won't be shown.
+     *  @return The name of the file that was written.
+     *  @exception IllegalActionException  If there is a problem reading
+     *  a parameter, if there is a problem creating the codeDirectory directory
+     *  or if there is a problem writing the code to a file.
+     */
+    @Override
+    protected String _writeCodeFileName(StringBuffer code, String codeFileName,
+            boolean overwriteFile, boolean dontShowDialog)
+            throws IllegalActionException {
+        String fileName = super._writeCodeFileName(code, codeFileName,
+                overwriteFile, dontShowDialog);
+        if (_javaSources != null && fileName != null
+                && fileName.endsWith(".java")) {
+            _javaSources.put(fileName, code.toString());
+        }
+        return fileName;
+    }
+
     /** Read in a template makefile, substitute variables and write
      *  the resulting makefile.
      *
@@ -2531,6 +2646,63 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
     ///////////////////////////////////////////////////////////////////
     ////                         private methods                   ////
 
+    /** Compile the Java sources written by the most recent code
+     *  generation in memory and create a class loader for the classes.
+     *  The classpath is the value of @PTCGLibraries@, with relative
+     *  elements resolved against the code directory.  Diagnostics are
+     *  reported to the execute commands.
+     *  @return 0 if the compilation succeeded, 1 otherwise.
+     *  @exception IllegalActionException If the code directory cannot
+     *  be read.
+     */
+    private int _compileInMemory() throws IllegalActionException {
+        InMemoryJavaCompiler compiler = new InMemoryJavaCompiler();
+        for (Map.Entry<String, String> source : _javaSources.entrySet()) {
+            File file = new File(source.getKey());
+            // Files at the top level are deleted if the type
+            // declarations were moved to a subdirectory.
+            if (file.exists()) {
+                compiler.addSource(file, source.getValue());
+            }
+        }
+
+        File directory = codeDirectory.asFile();
+        StringBuffer classpath = new StringBuffer(directory.getPath());
+        String libraries = _substituteMap.get("@PTCGLibraries@");
+        if (libraries != null) {
+            for (String library : libraries.split(File.pathSeparator)) {
+                if (library.length() == 0) {
+                    continue;
+                }
+                File libraryFile = new File(library);
+                if (!libraryFile.isAbsolute()) {
+                    libraryFile = new File(directory, library);
+                }
+                classpath.append(File.pathSeparator);
+                classpath.append(libraryFile.getPath());
+            }
+        }
+        List<String> options = new LinkedList<String>();
+        // The generated code uses no annotations, so do not look for
+        // annotation processors on the classpath.
+        options.add("-proc:none");
+        options.add("-classpath");
+        options.add(classpath.toString());
+
+        String messages;
+        try {
+            messages = compiler.compile(options);
+        } catch (IllegalActionException ex) {
+            _executeCommands.stderr(ex.getMessage());
+            return 1;
+        }
+        if (messages.length() > 0) {
+            _executeCommands.stdout(messages);
+        }
+        _classLoader = compiler.getClassLoader(getClass().getClassLoader());
+        return 0;
+    }
+
     /** Return the set of referenced functions.
      * @return The set of referenced functions.
      */
@@ -2579,6 +2751,30 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
         return types;
     }
 
+    /** Return true if the generated code should be compiled in memory.
+     *  @return True if <i>compileInMemory</i> and <i>compile</i> are
+     *  true, if the generated code is not to be run and if a Java
+     *  compiler is available.
+     *  @exception IllegalActionException If a parameter cannot be read.
+     */
+    private boolean _isCompiledInMemory() throws IllegalActionException {
+        if (!((BooleanToken) compileInMemory.getToken()).booleanValue()
+                || !((BooleanToken) compile.getToken()).booleanValue()) {
+            return false;
+        }
+        if (_isTopLevel() && ((BooleanToken) run.getToken()).booleanValue()) {
+            // The generated code runs as a separate program.
+            return false;
+        }
+        if (!InMemoryJavaCompiler.isAvailable()) {
+            System.out.println("JavaCodeGenerator: no Java compiler is "
+                    + "available in this process, executing the compile "
+                    + "command instead.");
+            return false;
+        }
+        return true;
+    }
+
     /** If the word argument is a Java keyword, return a sanitized version.
      *  This method is used when inline is false so that if we have
      *  an actor with the same name as a Java keyword, we don't end
@@ -2596,6 +2792,20 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
         return word;
     }
 
+    /** Record the time between the given start and end times as the
+     *  duration of the given phase, and report it to debug listeners.
+     *  @param phase The name of the phase.
+     *  @param start The time at which the phase started.
+     *  @param end The time at which the phase ended.
+     */
+    private void _recordPhaseTime(String phase, long start, long end) {
+        _phaseTimes.put(phase, end - start);
+        if (_debugging) {
+            _debug(getName() + ": " + phase + " took " + (end - start)
+                    + " ms.");
+        }
+    }
+
     /** Return the base name of the file that defines methods for the type
      *
      *  @param typeName The name of the type to be checked.
@@ -2614,10 +2824,24 @@ public class JavaCodeGenerator extends ProceduralCodeGenerator {
     ///////////////////////////////////////////////////////////////////
     ////                         private members                   ////
 
+    /** The class loader for the classes compiled in memory, or null. */
+    private ClassLoader _classLoader;
+
+    /** The time at which the most recent code generation started. */
+    private long _generateStartTime;
+
+    /** The Java sources written by the most recent code generation,
+     *  indexed by the canonical name of the file.
+     */
+    private Map<String, String> _javaSources;
+
     private CodeStream _overloadedFunctions;
 
     private Set<String> _overloadedFunctionSet;
 
+    /** The elapsed time of each phase of the most recent code generation. */
+    private Map<String, Long> _phaseTimes = new LinkedHashMap<String, Long>();
+
     /** Java import statements for Token, Array, etc.
      */
     private StringBuffer _typeDeclarations;
@@ -28,13 +28,16 @@ COPYRIGHTENDKEY
 
 package ptolemy.cg.kernel.generic.program.procedural.java;
 
+import java.util.List;
 import java.util.Locale;
 
+import ptolemy.actor.Actor;
 import ptolemy.actor.TypedIOPort;
 import ptolemy.cg.kernel.generic.ParseTreeCodeGenerator;
 import ptolemy.cg.kernel.generic.program.ProgramCodeGenerator;
 import ptolemy.cg.kernel.generic.program.procedural.ProceduralTemplateParser;
 import ptolemy.kernel.util.IllegalActionException;
+import ptolemy.kernel.util.NamedObj;
 
 ///////////////////////////////////////////////////////////////////
 ////Java TemplateParser
@@ -207,6 +210,10 @@ public class JavaTemplateParser extends ProceduralTemplateParser {
     protected String _replaceMacro(String macro, String parameter)
             throws IllegalActionException {
         ProgramCodeGenerator codeGenerator = _getCodeGenerator();
+        if (macro.equals("fireAt")) {
+            // The base class generates C code for $fireAt().
+            return _replaceFireAtMacro(parameter);
+        }
         String result = super._replaceMacro(macro, parameter);
 
         if (result != null) {
@@ -250,4 +257,35 @@ public class JavaTemplateParser extends ProceduralTemplateParser {
         return result;
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return the replacement of the $fireAt() macro, which requests
+     *  a firing of the actor of this template parser from the event
+     *  queue generated by the Java DEDirector adapter.
+     *  @param parameter The parameters of the macro, which are the actor,
+     *  the time stamp and the microstep.  The actor is ignored, the firing
+     *  is always requested for the actor of this template parser.
+     *  @return The call to _deFireAt().
+     *  @exception IllegalActionException If the number of parameters is
+     *  not three or if the component is not an actor.
+     */
+    private String _replaceFireAtMacro(String parameter)
+            throws IllegalActionException {
+        List<String> parameters = parseList(parameter);
+        if (parameters.size() != 3) {
+            throw new IllegalActionException("\"" + parameter
+                    + "\" is not acceptable by $fireAt(). "
+                    + "$fireAt could be used in the following way: "
+                    + "$fireAt(actor, timestamp, microstep);");
+        }
+        if (!(_component instanceof Actor)) {
+            throw new IllegalActionException((NamedObj) _component,
+                    "$fireAt() is only supported for actors.");
+        }
+        return "_deFireAt("
+                + _getCodeGenerator().generateVariableName((NamedObj) _component)
+                + "_actorId, " + parameters.get(1).trim() + ", "
+                + parameters.get(2).trim() + ")";
+    }
 }
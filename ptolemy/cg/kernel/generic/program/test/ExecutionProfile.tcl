@@ -0,0 +1,102 @@
+# Test ExecutionProfile
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+# 						COPYRIGHTENDKEY
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+if {[info procs sdfModel] == "" } then {
+    source [file join $PTII util testsuite models.tcl]
+}
+
+#####
+test ExecutionProfile-1.1 {Record an SDF model with a downsampler} {
+    set e1 [sdfModel 3]
+    set ramp [java::new ptolemy.actor.lib.Ramp $e1 ramp]
+    set down [java::new ptolemy.domains.sdf.lib.DownSample $e1 down]
+    [getParameter $down factor] setExpression 3
+    set rec [java::new ptolemy.actor.lib.Recorder $e1 rec]
+    $e1 connect \
+            [java::field [java::cast ptolemy.actor.lib.Source $ramp] output] \
+            [java::field [java::cast ptolemy.domains.sdf.lib.SDFTransformer $down] input]
+    $e1 connect \
+            [java::field [java::cast ptolemy.domains.sdf.lib.SDFTransformer $down] output] \
+            [java::field [java::cast ptolemy.actor.lib.Sink $rec] input]
+
+    set profile [java::new ptolemy.cg.kernel.generic.program.ExecutionProfile]
+    $profile record $e1
+    set downInput [java::field [java::cast ptolemy.domains.sdf.lib.SDFTransformer $down] input]
+    list [$profile getFiringCount $ramp] \
+            [$profile getFiringCount $down] \
+            [$profile getFiringCount $rec] \
+            [$profile getMaximumFiringCount] \
+            [$profile getTokenRate $downInput] \
+            [$profile getHighWaterMark $downInput 0] \
+            [$profile isHot $ramp] \
+            [$profile isHot $rec] \
+            [enumToTokenValues [$rec getRecord 0]]
+} {9 3 3 9 3.0 3 1 0 {2 5 8}}
+
+#####
+test ExecutionProfile-1.2 {Record again, the listeners of the first run are gone} {
+    # Uses 1.1 above
+    $profile record $e1
+    set actors [java::new java.util.ArrayList [$e1 deepEntityList]]
+    $profile sortByFiringCount $actors
+    set names {}
+    for {set i 0} {$i < [$actors size]} {incr i} {
+        lappend names [[java::cast ptolemy.kernel.util.NamedObj [$actors get $i]] getName]
+    }
+    list [$profile getFiringCount $ramp] [$profile getFiringCount $rec] $names
+} {9 3 {ramp down rec}}
+
+#####
+test ExecutionProfile-2.1 {Record a DE model, whose director fires the actors} {
+    set e2 [deModel 4.0]
+    set clock [java::new ptolemy.actor.lib.DiscreteClock $e2 clock]
+    set rec2 [java::new ptolemy.actor.lib.Recorder $e2 rec2]
+    $e2 connect \
+            [java::field [java::cast ptolemy.actor.lib.Source $clock] output] \
+            [java::field [java::cast ptolemy.actor.lib.Sink $rec2] input]
+
+    set profile2 [java::new ptolemy.cg.kernel.generic.program.ExecutionProfile]
+    $profile2 record $e2
+    set recInput [java::field [java::cast ptolemy.actor.lib.Sink $rec2] input]
+    list [$profile2 getFiringCount $clock] \
+            [$profile2 getFiringCount $rec2] \
+            [$profile2 getTokenRate $recInput] \
+            [$profile2 getHighWaterMark $recInput] \
+            [$profile2 isHot $rec2]
+} {5 5 1.0 1 1}
@@ -37,9 +37,12 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import ptolemy.actor.IOPort;
 import ptolemy.actor.NoTokenException;
@@ -144,6 +147,17 @@ public class CompiledCompositeActor extends TypedCompositeActor {
      */
     public FileParameter codeDirectory;
 
+    /** If true, and the <i>generatorPackage</i> is Java, then compile
+     *  the generated code in this process and load the compiled
+     *  classes from memory rather than running <code>javac</code>
+     *  and loading the class files from the <i>codeDirectory</i>.
+     *  The generated sources are still written to the
+     *  <i>codeDirectory</i>.  If no Java compiler is available in this
+     *  process, then <code>javac</code> is used.  The default value is
+     *  a parameter with the value true.
+     */
+    public Parameter compileInMemory;
+
     /** The name of the package in which to look for adapter class
      *  code generators. This is a string that defaults to
      *  "generic.program.procedural.java"
@@ -267,6 +281,20 @@ public class CompiledCompositeActor extends TypedCompositeActor {
         return _sanitizedActorName;
     }
 
+    /** Return the time in milliseconds spent in each phase of the most
+     *  recent generation and loading of the code by {@link #initialize()}.
+     *  The keys are "generateAndCompile", which is the time spent
+     *  generating and compiling the code, and "load", which is the time
+     *  spent loading and instantiating the compiled class.  If the code
+     *  was not regenerated, then only "load" is present.  The
+     *  code generator reports the time spent generating and compiling
+     *  separately.
+     *  @return An unmodifiable map from phase names to elapsed times.
+     */
+    public Map<String, Long> getPhaseTimes() {
+        return Collections.unmodifiableMap(_phaseTimes);
+    }
+
     /** If <i>executeEmbeddedCode</i> is true, then generate and compile the
      *  code (if necessary), and then execute the initialize() method
      *  of the generated code. Otherwise, delegate to the
@@ -285,6 +313,8 @@ public class CompiledCompositeActor extends TypedCompositeActor {
                 .booleanValue();
         if (invoked) {
             if (_generatedCodeVersion != _workspace.getVersion()) {
+                _phaseTimes = new LinkedHashMap<String, Long>();
+                long start = System.currentTimeMillis();
 
                 _updateSanitizedActorName();
 
@@ -310,6 +340,7 @@ public class CompiledCompositeActor extends TypedCompositeActor {
                     }
                     _generateAndCompileEmbeddedCode();
                     _generatedCodeVersion = _workspace.getVersion();
+                    start = _recordPhaseTime("generateAndCompile", start);
                 }
                 if (_generatedCodeVersion == -1) {
                     // We did not build the shared object, we
@@ -331,10 +362,18 @@ public class CompiledCompositeActor extends TypedCompositeActor {
                     try {
                         try {
                             url = codeDirectory.asFile().toURI().toURL();
-                            URL[] urls = new URL[] { url };
+                            if (_generatedClassLoader != null) {
+                                // The code was compiled in memory, so
+                                // there may be no class file.
+                                classInstance = _generatedClassLoader
+                                        .loadClass(className);
+                            } else {
+                                URL[] urls = new URL[] { url };
 
-                            classLoader = new URLClassLoader(urls);
-                            classInstance = classLoader.loadClass(className);
+                                classLoader = new URLClassLoader(urls);
+                                classInstance = classLoader
+                                        .loadClass(className);
+                            }
 
                         } catch (ClassNotFoundException ex) {
                             throw new IllegalActionException(this, ex,
@@ -405,6 +444,7 @@ public class CompiledCompositeActor extends TypedCompositeActor {
                                             + "method in the wrapper class.");
                         }
                         _loadedCodeVersion = _workspace.getVersion();
+                        _recordPhaseTime("load", start);
                         //java.net.URLClassLoader is not present in Java 1.6.
                     } finally {
                         if (classLoader != null) {
@@ -514,7 +554,9 @@ public class CompiledCompositeActor extends TypedCompositeActor {
         }
     }
 
-    /** Generate and compile Java code.
+    /** Generate and compile Java code.  If the code was compiled in
+     *  memory, then remember the class loader for the compiled classes
+     *  so that initialize() loads the classes from it.
      *  @exception IllegalActionException If the adapter class cannot
      *  be found, or if the static generateCode(TypedCompositeActor)
      *  method in the adapter class cannot be found or invoked.
@@ -522,6 +564,15 @@ public class CompiledCompositeActor extends TypedCompositeActor {
     protected void _generateAndCompileEmbeddedCode()
             throws IllegalActionException {
         _invokeAdapterMethod("generateCode");
+        _generatedClassLoader = null;
+        if (generatorPackage.getExpression()
+                .equals("generic.program.procedural.java")
+                && ((BooleanToken) compileInMemory.getToken())
+                        .booleanValue()) {
+            // Null if the code generator fell back to javac.
+            _generatedClassLoader = (ClassLoader) _invokeAdapterMethod(
+                    "getClassLoader");
+        }
     }
 
     /** Generate and compile the JNI code.
@@ -919,6 +970,10 @@ public class CompiledCompositeActor extends TypedCompositeActor {
             // Hide the executeEmbeddedCode parameter from the user.
             // executeEmbeddedCode.setVisibility(Settable.NONE);
 
+            compileInMemory = new Parameter(this, "compileInMemory");
+            compileInMemory.setTypeEquals(BaseType.BOOLEAN);
+            compileInMemory.setExpression("true");
+
             overwriteFiles = new Parameter(this, "overwriteFiles");
             overwriteFiles.setTypeEquals(BaseType.BOOLEAN);
             overwriteFiles.setExpression("true");
@@ -929,6 +984,22 @@ public class CompiledCompositeActor extends TypedCompositeActor {
         }
     }
 
+    /** Record the time elapsed since the given start time as the duration
+     *  of the given phase, and report it to debug listeners.
+     *  @param phase The name of the phase that has just completed.
+     *  @param start The time at which the phase started.
+     *  @return The current time, which is the start of the next phase.
+     */
+    private long _recordPhaseTime(String phase, long start) {
+        long now = System.currentTimeMillis();
+        _phaseTimes.put(phase, now - start);
+        if (_debugging) {
+            _debug(getName() + ": " + phase + " took " + (now - start)
+                    + " ms.");
+        }
+        return now;
+    }
+
     /** Get the name of the shared object.
      *  @param sanitizedActorName The sanitized actor name on
      *  which to base the name of the shared object.
@@ -1094,6 +1165,12 @@ public class CompiledCompositeActor extends TypedCompositeActor {
 
     }
 
+    /** The class loader for the classes compiled in memory by the most
+     *  recent code generation, or null if the class files were written
+     *  to the code directory.
+     */
+    private transient ClassLoader _generatedClassLoader;
+
     private Object _objectWrapper;
 
     private transient Method _fireMethod;
@@ -1102,6 +1179,9 @@ public class CompiledCompositeActor extends TypedCompositeActor {
 
     private transient Method _wrapupMethod;
 
+    /** The elapsed time of each phase of the most recent initialization. */
+    private Map<String, Long> _phaseTimes = new LinkedHashMap<String, Long>();
+
     /** The sanitized actor name.  The name has the underscores
      *  removed and the value of the _version variable appended.  Call
      *  _updateSanitizedActorName() to properly set this variable.
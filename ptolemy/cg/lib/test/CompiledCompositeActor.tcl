@@ -0,0 +1,97 @@
+# Test CompiledCompositeActor
+#
+# @Author: agent
+#
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+# 						COPYRIGHTENDKEY
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+if {[info procs sdfModel] == "" } then {
+    source [file join $PTII util testsuite models.tcl]
+}
+
+if {[info procs jdkCapture] == "" } then {
+    source [file join $PTII util testsuite jdktools.tcl]
+}
+#####
+test CompiledCompositeActor-1.1 {Compile the embedded code in memory, verify that no .class file is written} {
+    if {[catch {file delete -force $env(HOME)/cg} errMsg]} {
+	puts "Warning: failed to delete $env(HOME)/cg: $errMsg"
+    }
+    set parser [java::new ptolemy.moml.MoMLParser]
+    $parser reset
+    java::call ptolemy.moml.MoMLParser setMoMLFilters [java::null]
+    java::call ptolemy.moml.MoMLParser addMoMLFilters \
+	    [java::call ptolemy.moml.filter.BackwardCompatibility allFilters]
+    java::call ptolemy.moml.MoMLParser addMoMLFilter [java::new \
+	    ptolemy.moml.filter.RemoveGraphicalClasses]
+
+    set toplevel [java::cast ptolemy.actor.TypedCompositeActor \
+		      [$parser parseFile auto/ScaleJava.xml]]
+    set manager [java::new ptolemy.actor.Manager \
+            [$toplevel workspace] "manager"]
+    $toplevel setManager $manager
+    $manager execute
+
+    set actor [java::cast ptolemy.cg.lib.CompiledCompositeActor \
+		   [$toplevel getEntity "EmbeddedActor"]]
+    set codeGenerator [java::cast \
+	    ptolemy.cg.kernel.generic.program.procedural.java.JavaCodeGenerator \
+	    [$actor getAttribute "CodeGenerator_AutoAdded"]]
+    set classLoader1 [$codeGenerator getClassLoader]
+    list \
+	[file exists $env(HOME)/cg/ScaleJava_EmbeddedActor.java] \
+	[file exists $env(HOME)/cg/ScaleJava_EmbeddedActor.class] \
+	[java::isnull $classLoader1] \
+	[listToStrings [[$actor getPhaseTimes] keySet]] \
+	[listToStrings [[$codeGenerator getPhaseTimes] keySet]]
+} {1 0 0 {generateAndCompile load} {generate compile}}
+
+test CompiledCompositeActor-1.2 {After a change, the code is regenerated and loaded from a new class loader} {
+    [$toplevel workspace] incrVersion
+    $manager execute
+    set classLoader2 [$codeGenerator getClassLoader]
+    list \
+	[java::isnull $classLoader2] \
+	[$classLoader1 equals $classLoader2] \
+	[listToStrings [[$actor getPhaseTimes] keySet]]
+} {0 0 {generateAndCompile load}}
+
+test CompiledCompositeActor-1.3 {Without compileInMemory, javac writes the .class file} {
+    [getParameter $actor compileInMemory] setExpression false
+    [$toplevel workspace] incrVersion
+    $manager execute
+    list \
+	[file exists $env(HOME)/cg/ScaleJava_EmbeddedActor.class] \
+	[java::isnull [$codeGenerator getClassLoader]]
+} {1 1}
@@ -22,6 +22,8 @@
  */
 package ptolemy.data.ontologies;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -37,6 +39,14 @@ import ptolemy.kernel.util.IllegalActionException;
  *  inputs and outputs need not necessarily be from the same ontology.
  *  Derived classes must implement the protected _evaluateFunction method
  *  to provide the output concept given an input array of concepts.
+ *  <p>
+ *  Evaluations whose arguments are all {@link FiniteConcept}s are cached,
+ *  so that the fixed point iteration of an ontology solver, which
+ *  evaluates the same function on the same concepts many times, only
+ *  invokes _evaluateFunction() once per argument tuple. Derived classes
+ *  whose output depends on state other than the arguments should
+ *  override {@link #isCacheable()} to return false, or call
+ *  {@link #clearCache()} when that state changes.
  *
  *  @author Charles Shelton
  *  @version $Id$
@@ -108,6 +118,13 @@ public abstract class ConceptFunction {
     ///////////////////////////////////////////////////////////////////
     ////                         public methods                    ////
 
+    /** Discard all cached evaluations of this concept function.
+     *  @see #isCacheable()
+     */
+    public void clearCache() {
+        _cache.clear();
+    }
+
     /** Return the output of the concept function based on the concept inputs.
      *  @param argValues The list of concept inputs to the function.
      *  @return The concept output result of the function.
@@ -116,6 +133,15 @@ public abstract class ConceptFunction {
      */
     public Concept evaluateFunction(List<Concept> argValues)
             throws IllegalActionException {
+        List<Concept> cacheKey = null;
+        if (argValues != null && _isFiniteTuple(argValues)
+                && isCacheable()) {
+            cacheKey = new ArrayList<Concept>(argValues);
+            if (_cache.containsKey(cacheKey)) {
+                return _cache.get(cacheKey);
+            }
+        }
+
         if (argValues == null) {
             throw new IllegalActionException(
                     "The input array to the ConceptFunction " + this
@@ -166,6 +192,9 @@ public abstract class ConceptFunction {
                     + " which is not in the expected ontology range "
                     + _outputRangeOntology + ".");
         } else {
+            if (cacheKey != null) {
+                _cache.put(cacheKey, outputValue);
+            }
             return outputValue;
         }
     }
@@ -209,6 +238,16 @@ public abstract class ConceptFunction {
         return _outputRangeOntology;
     }
 
+    /** Return true if the output of this concept function depends only
+     *  on its arguments, so that evaluations on tuples of finite concepts
+     *  may be cached. This base class returns true.
+     *  @return True if evaluations of this function may be cached.
+     *  @see #clearCache()
+     */
+    public boolean isCacheable() {
+        return true;
+    }
+
     /** Determine whether the concept function is monotonic over the
      *  ontology for the output range and all the inputs that are also
      *  in that same ontology. Some of the input arguments to the
@@ -275,4 +314,30 @@ public abstract class ConceptFunction {
      *  by this concept function.
      */
     protected Ontology _outputRangeOntology;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return true if every argument in the given list is a finite concept.
+     *  Infinite concepts are not cached, since there is no bound on the
+     *  number of distinct argument tuples they can form.
+     *  @param argValues The list of concept inputs to the function.
+     *  @return True if all arguments are non-null finite concepts.
+     */
+    private static boolean _isFiniteTuple(List<Concept> argValues) {
+        for (Concept argument : argValues) {
+            if (!(argument instanceof FiniteConcept)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** Cached outputs of this function, indexed by argument tuples
+     *  of finite concepts.
+     */
+    private HashMap<List<Concept>, Concept> _cache = new HashMap<List<Concept>, Concept>();
 }
@@ -132,6 +132,20 @@ public class ExpressionConceptFunction extends ConceptFunction {
         }
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Return true if the function expression is evaluated without
+     *  reference to a model element scope. Expressions that refer to
+     *  the parameters of a model element may evaluate differently when
+     *  those parameters change, so their evaluations are not cached.
+     *  @return True if this function has no model element scope.
+     */
+    @Override
+    public boolean isCacheable() {
+        return _functionScope == null;
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         protected methods                 ////
 
@@ -146,12 +160,12 @@ public class ExpressionConceptFunction extends ConceptFunction {
     @Override
     protected Concept _evaluateFunction(List<Concept> inputConceptValues)
             throws IllegalActionException {
-        // Get the shared parser.
-        PtParser parser = new PtParser();
-
-        // Create the parse tree.
-        ASTPtRootNode parseTree = parser
-                .generateParseTree(_conceptFunctionExpression);
+        // Create the parse tree the first time the function is evaluated.
+        if (_parseTree == null) {
+            PtParser parser = new PtParser();
+            _parseTree = parser.generateParseTree(_conceptFunctionExpression);
+        }
+        ASTPtRootNode parseTree = _parseTree;
 
         // Evaluate the concept function expression.
         ExpressionConceptFunctionParseTreeEvaluator evaluator = new ExpressionConceptFunctionParseTreeEvaluator(
@@ -189,6 +203,11 @@ public class ExpressionConceptFunction extends ConceptFunction {
      */
     private String _conceptFunctionExpression;
 
+    /** The parse tree of the concept function expression, or null if
+     *  it has not been parsed yet.
+     */
+    private ASTPtRootNode _parseTree;
+
     /** The ontology solver model that contains definitions of other
      *  concept functions that could be called in this expression.
      */
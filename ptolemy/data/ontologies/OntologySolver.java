@@ -25,7 +25,9 @@ package ptolemy.data.ontologies;
 
 import java.net.URL;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import ptolemy.domains.tester.lib.Testable;
 import ptolemy.kernel.util.IllegalActionException;
@@ -114,6 +116,7 @@ public abstract class OntologySolver extends OntologySolverBase
     public Object clone(Workspace workspace) throws CloneNotSupportedException {
         OntologySolver newObject = (OntologySolver) super.clone(workspace);
         newObject._momlHandler = null;
+        newObject._phaseTimes = new LinkedHashMap<String, Long>();
         return newObject;
     }
 
@@ -168,6 +171,17 @@ public abstract class OntologySolver extends OntologySolverBase
         return _momlHandler;
     }
 
+    /** Return the time in milliseconds spent in each phase of the most
+     *  recent call to {@link #invokeSolver(boolean)}. The keys are
+     *  "initialize" (collecting the constraints), "resolveConcepts",
+     *  "checkErrors" and, if the concepts were displayed,
+     *  "displayConcepts", in the order in which the phases ran.
+     *  @return An unmodifiable map from phase names to elapsed times.
+     */
+    public Map<String, Long> getPhaseTimes() {
+        return Collections.unmodifiableMap(_phaseTimes);
+    }
+
     /** Invoke the solver directly, and display any concepts resolved by this
      *  solver.
      *  @exception IllegalActionException If there is no ontology.
@@ -191,12 +205,18 @@ public abstract class OntologySolver extends OntologySolverBase
             throw new IllegalActionException(this,
                     "No ontology has been given.");
         }
+        _phaseTimes.clear();
+        long start = System.currentTimeMillis();
         initialize();
+        start = _recordPhaseTime("initialize", start);
         resolveConcepts();
+        start = _recordPhaseTime("resolveConcepts", start);
         checkErrors();
+        start = _recordPhaseTime("checkErrors", start);
 
         if (displayProperties) {
             displayConcepts();
+            _recordPhaseTime("displayConcepts", start);
         }
     }
 
@@ -239,6 +259,22 @@ public abstract class OntologySolver extends OntologySolverBase
     ///////////////////////////////////////////////////////////////////
     ////                         private methods                   ////
 
+    /** Record the time elapsed since the given start time as the duration
+     *  of the given phase, and report it to debug listeners.
+     *  @param phase The name of the phase that has just completed.
+     *  @param start The time at which the phase started.
+     *  @return The current time, which is the start of the next phase.
+     */
+    private long _recordPhaseTime(String phase, long start) {
+        long now = System.currentTimeMillis();
+        _phaseTimes.put(phase, now - start);
+        if (_debugging) {
+            _debug(getName() + ": " + phase + " took " + (now - start)
+                    + " ms.");
+        }
+        return now;
+    }
+
     /**
      * Record as an error for the given property-able object and its resolved
      * property. If the given property is null, it does nothing. If the given
@@ -259,4 +295,9 @@ public abstract class OntologySolver extends OntologySolverBase
         }
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The elapsed time of each phase of the most recent invocation. */
+    private Map<String, Long> _phaseTimes = new LinkedHashMap<String, Long>();
 }
@@ -75,6 +75,19 @@ public class ApplyBinaryFunctionToMultipleArguments extends ConceptFunction {
         _binaryFunction = binaryFunction;
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Return true if the evaluations of the binary concept function may be
+     *  cached, since the output of this function depends only on
+     *  the outputs of that function.
+     *  @return True if evaluations of this function may be cached.
+     */
+    @Override
+    public boolean isCacheable() {
+        return _binaryFunction.isCacheable();
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         protected methods                 ////
 
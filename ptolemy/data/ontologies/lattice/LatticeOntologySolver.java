@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Set;
 
 import ptolemy.data.ArrayToken;
+import ptolemy.data.BooleanToken;
 import ptolemy.data.RecordToken;
 import ptolemy.data.StringToken;
 import ptolemy.data.Token;
@@ -106,6 +107,10 @@ public class LatticeOntologySolver extends OntologySolver {
         solvingFixedPoint = new StringParameter(this, "solvingFixedPoint");
         solvingFixedPoint.setExpression("least");
 
+        incrementalResolution = new Parameter(this, "incrementalResolution");
+        incrementalResolution.setTypeEquals(BaseType.BOOLEAN);
+        incrementalResolution.setExpression("false");
+
         _trainedConceptRecordArray = new Parameter(this,
                 "_trainedConceptRecordArray");
         _trainedConceptRecordArray.setVisibility(Settable.NONE);
@@ -126,6 +131,19 @@ public class LatticeOntologySolver extends OntologySolver {
     ///////////////////////////////////////////////////////////////////
     ////                     ports and parameters                  ////
 
+    /**
+     * If true, reuse the constraints collected by the previous invocation
+     * of the solver when neither the model structure (as indicated by the
+     * workspace version) nor the solver strategy has changed since then,
+     * and only re-solve them. Constraint collection visits the adapter of
+     * every model element, and is usually the most expensive phase for
+     * large models. Changes to parameter values do not change the
+     * workspace version, so call {@link #reset()} after changing a value
+     * that affects the constraints. This is a boolean that defaults to
+     * false.
+     */
+    public Parameter incrementalResolution;
+
     /**
      * Indicate whether to compute the least or greatest fixed point solution.
      * <ul>
@@ -202,6 +220,7 @@ public class LatticeOntologySolver extends OntologySolver {
         LatticeOntologySolver newObject = (LatticeOntologySolver) super.clone(
                 workspace);
         newObject._annotatedObjects = new HashSet<Object>();
+        newObject._collectedVersion = -1;
         newObject._constraintManager = new ConstraintManager(newObject);
         newObject._trainedConceptRecordArray = (Parameter) newObject
                 .getAttribute("_trainedConceptRecordArray");
@@ -392,6 +411,16 @@ public class LatticeOntologySolver extends OntologySolver {
      */
     @Override
     public void initialize() throws IllegalActionException {
+        if (_isCollectedConstraintListValid()) {
+            // Solve the previously collected constraints again.  The
+            // concepts resolved by the previous invocation are discarded,
+            // as reset() would do, since they may no longer hold.
+            _resolvedProperties.clear();
+            _resolvedConstraintList = null;
+            _resolvedUnacceptableList = new ArrayList<InequalityTerm>();
+            return;
+        }
+
         super.initialize();
 
         NamedObj toplevel = _toplevel();
@@ -411,6 +440,8 @@ public class LatticeOntologySolver extends OntologySolver {
         toplevelAdapter._addDefaultConstraints(_getConstraintType());
 
         _initialConstraintList = toplevelAdapter.constraintList();
+        _collectedConstraintType = _getConstraintType();
+        _collectedVersion = workspace().getVersion();
     }
 
     /**
@@ -986,6 +1017,23 @@ public class LatticeOntologySolver extends OntologySolver {
         return output.toString();
     }
 
+    /** Return true if incremental resolution is enabled and the constraint
+     *  list collected by the previous call to initialize() is still valid,
+     *  that is, neither the workspace version nor the constraint type has
+     *  changed since it was collected.
+     *  @return True if the collected constraint list can be reused.
+     *  @exception IllegalActionException If the incrementalResolution
+     *   parameter or the solver strategy cannot be evaluated.
+     */
+    private boolean _isCollectedConstraintListValid()
+            throws IllegalActionException {
+        return _initialConstraintList != null
+                && ((BooleanToken) incrementalResolution.getToken())
+                        .booleanValue()
+                && _collectedVersion == workspace().getVersion()
+                && _collectedConstraintType == _getConstraintType();
+    }
+
     /** Set the type constraint for the _trainedConceptRecordArray parameter.
      *  @exception IllegalActionException Thrown if there is a problem setting
      *   the type constraint.
@@ -1007,6 +1055,12 @@ public class LatticeOntologySolver extends OntologySolver {
     /** The set of Objects that have been manually annotated. */
     private/*final*/HashSet<Object> _annotatedObjects = new HashSet<Object>();
 
+    /** The constraint type used when the constraint list was collected. */
+    private ConstraintType _collectedConstraintType;
+
+    /** The workspace version when the constraint list was collected. */
+    private long _collectedVersion = -1;
+
     /** The constraint manager that keeps track of all the constraints in the model for the LatticeOntologySolver. */
     private/*final*/ConstraintManager _constraintManager = new ConstraintManager(
             this);
@@ -66,6 +66,19 @@ public class ProductLatticeWrapperConceptFunction extends ConceptFunction {
         _originalFunction = originalFunction;
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Return true if the evaluations of the original concept function may be
+     *  cached, since the output of this function depends only on
+     *  the outputs of that function.
+     *  @return True if evaluations of this function may be cached.
+     */
+    @Override
+    public boolean isCacheable() {
+        return _originalFunction.isCacheable();
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         protected methods                 ////
 
@@ -0,0 +1,105 @@
+# Tests for the LatticeOntologySolver class
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+# Uncomment this to get a full report, or set in your Tcl shell window.
+# set VERBOSE 1
+
+# Return the identity of the constraint list collected by a solver.
+proc constraintListIdentity {solver} {
+    set field [[java::call Class forName \
+		    ptolemy.data.ontologies.lattice.LatticeOntologySolver] \
+		   getDeclaredField _initialConstraintList]
+    $field setAccessible true
+    return [java::call System identityHashCode [$field get $solver]]
+}
+
+# Return the resolved concept of an object, or null.
+proc conceptOf {solver object} {
+    set concept [$solver getConcept $object]
+    if {[java::isnull $concept]} {
+	return null
+    }
+    return [$concept toString]
+}
+
+set parser [java::new ptolemy.moml.MoMLParser]
+$parser resetAll
+set toplevel [java::cast ptolemy.actor.TypedCompositeActor \
+		  [$parser parseFile \
+		       "$PTII/ptolemy/data/ontologies/test/auto/BackwardResolutionShouldInferBackwards.xml"]]
+set solver [java::cast ptolemy.data.ontologies.lattice.LatticeOntologySolver \
+		[$toplevel getAttribute ObservabilityAnalysis]]
+set constOutput [[$toplevel getEntity Const] getPort output]
+
+######################################################################
+####
+#
+test LatticeOntologySolver-1.1 {getPhaseTimes lists the phases of the last invocation} {
+    set before [[$solver getPhaseTimes] size]
+    $solver invokeSolver false
+    list $before [listToStrings [[$solver getPhaseTimes] keySet]] \
+	[conceptOf $solver $constOutput]
+} {0 {initialize resolveConcepts checkErrors} Observable}
+
+######################################################################
+####
+#
+test LatticeOntologySolver-2.1 {Without incrementalResolution, constraints are collected again} {
+    set first [constraintListIdentity $solver]
+    $solver invokeSolver false
+    expr {$first == [constraintListIdentity $solver]}
+} {0}
+
+test LatticeOntologySolver-2.2 {With incrementalResolution, constraints are reused and stale concepts discarded} {
+    [java::field $solver incrementalResolution] setExpression true
+    $solver invokeSolver false
+    set first [constraintListIdentity $solver]
+    set stale [java::new ptolemy.kernel.util.NamedObj stale]
+    $solver setConcept $stale [$solver getConcept $constOutput]
+    $solver invokeSolver false
+    list [expr {$first == [constraintListIdentity $solver]}] \
+	[conceptOf $solver $stale] [conceptOf $solver $constOutput]
+} {1 null Observable}
+
+test LatticeOntologySolver-2.3 {With incrementalResolution, a change to the model collects the constraints again} {
+    set first [constraintListIdentity $solver]
+    java::new ptolemy.actor.lib.Ramp $toplevel ramp
+    $solver invokeSolver false
+    list [expr {$first == [constraintListIdentity $solver]}] \
+	[conceptOf $solver $constOutput]
+} {0 Observable}
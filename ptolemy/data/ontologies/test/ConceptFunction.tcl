@@ -0,0 +1,214 @@
+# Tests for the caching of ConceptFunction evaluations
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+# Uncomment this to get a full report, or set in your Tcl shell window.
+# set VERBOSE 1
+
+proc link {a b link} {
+  [java::field $a abovePort] link $link
+  [java::field $b belowPort] link $link
+}
+
+# Return the value of a private field of an object.
+proc privateField {className object fieldName} {
+    set field [[java::call Class forName $className] \
+		   getDeclaredField $fieldName]
+    $field setAccessible true
+    return [$field get $object]
+}
+
+# Return the number of cached evaluations of a concept function.
+proc cacheSize {function} {
+    return [[java::cast java.util.Map [privateField \
+	ptolemy.data.ontologies.ConceptFunction $function _cache]] size]
+}
+
+# Return a function from the ontology to itself that maps A to B and
+# every other concept to A.
+proc swapFunction {ontology {scope {}}} {
+    if {$scope == {}} {
+	set scope [java::null]
+    }
+    set domains [java::new java.util.LinkedList]
+    $domains add $ontology
+    set names [java::new java.util.LinkedList]
+    $names add x
+    return [java::new ptolemy.data.ontologies.ExpressionConceptFunction \
+		swap true $domains $ontology $names {x == A ? B : A} \
+		[java::null] $scope]
+}
+
+# Return the result of a concept function on one argument.
+proc evaluate {function concept} {
+    set arguments [java::new java.util.LinkedList]
+    $arguments add $concept
+    return [[$function evaluateFunction $arguments] toString]
+}
+
+set ontology [java::new ptolemy.data.ontologies.Ontology [java::null]]
+set conceptA [java::new ptolemy.data.ontologies.FiniteConcept $ontology A]
+set conceptB [java::new ptolemy.data.ontologies.FiniteConcept $ontology B]
+link $conceptA $conceptB \
+    [java::new ptolemy.data.ontologies.ConceptRelation $ontology ab]
+
+######################################################################
+####
+#
+test ConceptFunction-1.1 {Evaluations on finite concepts are cached} {
+    set swap [swapFunction $ontology]
+    set results [list [$swap isCacheable] [cacheSize $swap] \
+		     [evaluate $swap $conceptA]]
+    lappend results [cacheSize $swap] [evaluate $swap $conceptA] \
+	[cacheSize $swap] [evaluate $swap $conceptB] [cacheSize $swap]
+} {1 0 B 1 B 1 A 2}
+
+test ConceptFunction-1.2 {clearCache discards the cached evaluations} {
+    $swap clearCache
+    set results [list [cacheSize $swap]]
+    lappend results [evaluate $swap $conceptB] [cacheSize $swap]
+} {0 A 1}
+
+test ConceptFunction-1.3 {Functions scoped to a model element are not cached} {
+    set scope [java::new ptolemy.kernel.util.NamedObj scope]
+    set scopedSwap [swapFunction $ontology $scope]
+    list [$scopedSwap isCacheable] [evaluate $scopedSwap $conceptA] \
+	[evaluate $scopedSwap $conceptA] [cacheSize $scopedSwap]
+} {0 B B 0}
+
+######################################################################
+####
+#
+test ExpressionConceptFunction-1.1 {The expression is parsed once} {
+    set scopedSwap [swapFunction $ontology $scope]
+    set before [privateField ptolemy.data.ontologies.ExpressionConceptFunction \
+		    $scopedSwap _parseTree]
+    evaluate $scopedSwap $conceptA
+    set parseTree [privateField \
+		       ptolemy.data.ontologies.ExpressionConceptFunction \
+		       $scopedSwap _parseTree]
+    evaluate $scopedSwap $conceptB
+    set after [privateField ptolemy.data.ontologies.ExpressionConceptFunction \
+		   $scopedSwap _parseTree]
+    list [java::isnull $before] [java::isnull $parseTree] \
+	[expr {[java::call System identityHashCode $parseTree] \
+		   == [java::call System identityHashCode $after]}]
+} {1 0 1}
+
+######################################################################
+####
+#
+
+# Return a function from the ontology to itself that maps A to the
+# concept held by the parameter p of the scope, and every other
+# concept to A.  The number of arguments is 1 or 2: with 2 arguments,
+# the second one is returned instead of A.
+proc scopedFunction {ontology scope numberOfArguments} {
+    set domains [java::new java.util.LinkedList]
+    set names [java::new java.util.LinkedList]
+    foreach name [lrange {x y} 0 [expr {$numberOfArguments - 1}]] {
+	$domains add $ontology
+	$names add $name
+    }
+    if {$numberOfArguments == 1} {
+	set expression {x == A ? p.getToken() : A}
+    } else {
+	set expression {x == A ? p.getToken() : y}
+    }
+    return [java::new ptolemy.data.ontologies.ExpressionConceptFunction \
+		scoped true $domains $ontology $names $expression \
+		[java::null] $scope]
+}
+
+# Return the result of a concept function on two arguments.
+proc evaluate2 {function concept1 concept2} {
+    set arguments [java::new java.util.LinkedList]
+    $arguments add $concept1
+    $arguments add $concept2
+    return [[$function evaluateFunction $arguments] toString]
+}
+
+set scope [java::new ptolemy.kernel.util.NamedObj scope]
+set p [java::new ptolemy.data.expr.Parameter $scope p]
+$p setToken [java::new ptolemy.data.ontologies.ConceptToken $conceptB]
+
+test ConceptFunction-2.1 {Wrappers of a scoped function are not cached} {
+    set binary [java::new \
+		    ptolemy.data.ontologies.lattice.ApplyBinaryFunctionToMultipleArguments \
+		    apply $ontology [scopedFunction $ontology $scope 2]]
+    set results [list [$binary isCacheable] \
+		     [evaluate2 $binary $conceptA $conceptA]]
+    # Changing the parameter of the scope changes the result.
+    $p setToken [java::new ptolemy.data.ontologies.ConceptToken $conceptA]
+    lappend results [evaluate2 $binary $conceptA $conceptA] \
+	[cacheSize $binary]
+    $p setToken [java::new ptolemy.data.ontologies.ConceptToken $conceptB]
+    set unscoped [java::new \
+		      ptolemy.data.ontologies.lattice.ApplyBinaryFunctionToMultipleArguments \
+		      apply $ontology [scopedFunction $ontology [java::null] 2]]
+    lappend results [$unscoped isCacheable]
+} {0 B A 0 1}
+
+test ConceptFunction-2.2 {Product lattice wrappers of a scoped function are not cached} {
+    set top [java::new ptolemy.kernel.CompositeEntity]
+    set base [java::new ptolemy.data.ontologies.Ontology $top base]
+    set baseA [java::new ptolemy.data.ontologies.FiniteConcept $base A]
+    set baseB [java::new ptolemy.data.ontologies.FiniteConcept $base B]
+    link $baseA $baseB \
+	[java::new ptolemy.data.ontologies.ConceptRelation $base ab]
+    set product [java::new ptolemy.data.ontologies.lattice.ProductLatticeOntology \
+		     $top product]
+    [java::field $product latticeOntologies] setToken \
+	[java::new ptolemy.data.ArrayToken [java::new {ptolemy.data.Token[]} 1 \
+		[list [java::new ptolemy.data.ObjectToken $base \
+			   [java::call Class forName \
+				ptolemy.data.ontologies.Ontology]]]]]
+    set productA [java::call \
+		      ptolemy.data.ontologies.lattice.ProductLatticeOntologyAdapter \
+		      getDerivedConceptForProductLattice $baseA $product]
+    set wrapper [java::new \
+		     ptolemy.data.ontologies.lattice.ProductLatticeWrapperConceptFunction \
+		     wrapper $product $base [scopedFunction $base $scope 1]]
+    $p setToken [java::new ptolemy.data.ontologies.ConceptToken $baseB]
+    set results [list [$wrapper isCacheable] [evaluate $wrapper $productA]]
+    $p setToken [java::new ptolemy.data.ontologies.ConceptToken $baseA]
+    lappend results [evaluate $wrapper $productA] [cacheSize $wrapper]
+    set unscoped [java::new \
+		      ptolemy.data.ontologies.lattice.ProductLatticeWrapperConceptFunction \
+		      wrapper $product $base [swapFunction $base]]
+    lappend results [$unscoped isCacheable]
+} {0 B A 0 1}
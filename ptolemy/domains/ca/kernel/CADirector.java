@@ -30,8 +30,18 @@
 
 package ptolemy.domains.ca.kernel;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import ptolemy.actor.Actor;
 import ptolemy.actor.Director;
@@ -43,9 +53,21 @@ import ptolemy.data.BooleanToken;
 import ptolemy.data.DoubleMatrixToken;
 import ptolemy.data.DoubleToken;
 import ptolemy.data.IntToken;
+import ptolemy.data.StringToken;
+import ptolemy.data.Token;
+import ptolemy.data.expr.ASTPtRootNode;
+import ptolemy.data.expr.ModelScope;
 import ptolemy.data.expr.Parameter;
+import ptolemy.data.expr.ParseTreeEvaluator;
+import ptolemy.data.expr.ParseTreeFreeVariableCollector;
+import ptolemy.data.expr.ParserScope;
+import ptolemy.data.expr.PtParser;
+import ptolemy.data.expr.StringParameter;
 import ptolemy.data.expr.Variable;
 import ptolemy.data.type.BaseType;
+import ptolemy.data.type.Type;
+import ptolemy.data.type.TypeConstant;
+import ptolemy.graph.InequalityTerm;
 import ptolemy.domains.ca.lib.CA2DConvolution;
 import ptolemy.domains.ca.lib.gui.CAViewer;
 import ptolemy.kernel.CompositeEntity;
@@ -123,6 +145,26 @@ import ptolemy.kernel.util.Workspace;
  * the dimension of the square matrix; and <i>initial values</i>, the initial
  * values of the matrix with all values not explicitly defined set to 0.0.
  * </p>
+ * <p>
+ * If the <i>updateExpression</i> parameter is given, then the actors on
+ * the canvas are not used to compute new values. Instead, the expression
+ * is evaluated for every cell of the matrix, and its value becomes the
+ * new value of the cell. The expression can refer to <i>xLocation</i>,
+ * <i>yLocation</i>, <i>currentValue</i> and <i>neighbor1</i> through
+ * <i>neighbor8</i>, which have the meanings given above, and to the
+ * parameters in scope of this director, which are read once when the
+ * model is initialized. The expression is parsed once per execution,
+ * and each firing of the director computes an entire iteration.
+ * The rows of the matrix are divided among <i>parallelism</i> threads.
+ * Since every new value depends only on the values of the previous
+ * iteration, the results do not depend on the number of threads.
+ * </p>
+ * <p>
+ * If the <i>toroidal</i> parameter is true (the default), then the
+ * matrix wraps around at its borders, so that, for example, the left
+ * neighbor of a cell in the first column is in the last column.
+ * If it is false, then the neighbors outside of the matrix have value 0.0.
+ * </p>
  *
  * <p>
  * See also the documentation on the {@link ptolemy.domains.ca.lib.CA2DConvolution} actor
@@ -174,6 +216,14 @@ public class CADirector extends Director {
      */
     protected Parameter iterations;
 
+    /**
+     * The number of threads used to evaluate the <i>updateExpression</i>.
+     * This is an integer that defaults to 0, which means to use as many
+     * threads as there are available processors. This parameter is
+     * ignored if <i>updateExpression</i> is empty.
+     */
+    protected Parameter parallelism;
+
     /**
      *  True if the matrix will be populated with random data.  The default
      *  value is false, indicating that all values in the matrix will be
@@ -187,6 +237,22 @@ public class CADirector extends Director {
      */
     protected Parameter size;
 
+    /**
+     * True if the matrix wraps around at its borders. The default value
+     * is true. If it is false, then neighbors outside of the matrix
+     * have value 0.0.
+     */
+    protected Parameter toroidal;
+
+    /**
+     * An expression that gives the new value of a cell in terms of
+     * <i>xLocation</i>, <i>yLocation</i>, <i>currentValue</i> and
+     * <i>neighbor1</i> through <i>neighbor8</i>. The default value
+     * is the empty string, which means that the actors on the canvas
+     * compute the new values.
+     */
+    protected StringParameter updateExpression;
+
     ///////////////////////////////////////////////////////////////////
     ////                         public methods                    ////
 
@@ -205,8 +271,16 @@ public class CADirector extends Director {
         newObject.initialMatrix = (Parameter) newObject
                 .getAttribute("initialMatrix");
         newObject.iterations = (Parameter) newObject.getAttribute("iterations");
+        newObject.parallelism = (Parameter) newObject
+                .getAttribute("parallelism");
         newObject.random = (Parameter) newObject.getAttribute("random");
         newObject.size = (Parameter) newObject.getAttribute("size");
+        newObject.toroidal = (Parameter) newObject.getAttribute("toroidal");
+        newObject.updateExpression = (StringParameter) newObject
+                .getAttribute("updateExpression");
+        newObject._blocks = null;
+        newObject._constants = null;
+        newObject._pool = null;
         return newObject;
     }
 
@@ -220,10 +294,18 @@ public class CADirector extends Director {
      * iterates the appropriate actors (e.g., the CA2DConvolution actor) and
      * updates grid values accordingly.</p>
      *
-     * @exception IllegalActionException If an actor is unable to iterate().
+     * <p>If <i>updateExpression</i> is given, then instead compute
+     * the new values of all the locations in the matrix.</p>
+     *
+     * @exception IllegalActionException If an actor is unable to iterate(),
+     * or if the update expression cannot be evaluated.
      */
     @Override
     public void fire() throws IllegalActionException {
+        if (_blocks != null) {
+            _updateAllCells();
+            return;
+        }
         Nameable container = getContainer();
         if (container instanceof TypedCompositeActor) {
             TypedCompositeActor composite = (TypedCompositeActor) container;
@@ -246,36 +328,16 @@ public class CADirector extends Director {
             vyl.setToken(new IntToken(j));
             vcv.setToken(new DoubleToken(_cells[i][j]));
 
-            int previousRow = i - 1;
-            if (previousRow < 0) {
-                previousRow = _matrixSize - 1;
-            }
+            vn1.setToken(new DoubleToken(_neighbor(i, j, 1)));
+            vn2.setToken(new DoubleToken(_neighbor(i, j, 2)));
+            vn3.setToken(new DoubleToken(_neighbor(i, j, 3)));
 
-            int nextRow = i + 1;
-            if (nextRow >= _matrixSize) {
-                nextRow = 0;
-            }
-
-            int previousColumn = j - 1;
-            if (previousColumn < 0) {
-                previousColumn = _matrixSize - 1;
-            }
-
-            int nextColumn = j + 1;
-            if (nextColumn >= _matrixSize) {
-                nextColumn = 0;
-            }
-
-            vn1.setToken(new DoubleToken(_cells[previousRow][previousColumn]));
-            vn2.setToken(new DoubleToken(_cells[previousRow][j]));
-            vn3.setToken(new DoubleToken(_cells[previousRow][nextColumn]));
+            vn4.setToken(new DoubleToken(_neighbor(i, j, 4)));
+            vn5.setToken(new DoubleToken(_neighbor(i, j, 5)));
 
-            vn4.setToken(new DoubleToken(_cells[i][previousColumn]));
-            vn5.setToken(new DoubleToken(_cells[i][nextColumn]));
-
-            vn6.setToken(new DoubleToken(_cells[nextRow][previousColumn]));
-            vn7.setToken(new DoubleToken(_cells[nextRow][j]));
-            vn8.setToken(new DoubleToken(_cells[nextRow][nextColumn]));
+            vn6.setToken(new DoubleToken(_neighbor(i, j, 6)));
+            vn7.setToken(new DoubleToken(_neighbor(i, j, 7)));
+            vn8.setToken(new DoubleToken(_neighbor(i, j, 8)));
 
             Actor actorCA2DConvolution = null;
             Actor actorSetVariable = null;
@@ -301,6 +363,65 @@ public class CADirector extends Director {
         }
     }
 
+    /**
+     * Initialize the actors and, if <i>updateExpression</i> is given,
+     * parse it and prepare the threads that evaluate it.
+     *
+     * @exception IllegalActionException If the base class throws it,
+     * or if the update expression cannot be parsed.
+     */
+    @Override
+    public void initialize() throws IllegalActionException {
+        super.initialize();
+        _shutdownPool();
+        _blocks = null;
+        _constants = null;
+
+        String expression = ((StringToken) updateExpression.getToken())
+                .stringValue().trim();
+        if (expression.length() == 0) {
+            return;
+        }
+
+        // Read the values of the other variables in the expression
+        // once, so that the threads do not evaluate parameters.
+        ASTPtRootNode tree = new PtParser().generateParseTree(expression);
+        Set<?> names = new ParseTreeFreeVariableCollector()
+                .collectFreeVariables(tree);
+        _constants = new HashMap<String, Token>();
+        for (Object name : names) {
+            if (_CELL_VARIABLES.containsKey(name)) {
+                continue;
+            }
+            Variable variable = ModelScope.getScopedVariable(null, this,
+                    (String) name);
+            if (variable != null) {
+                _constants.put((String) name, variable.getToken());
+            }
+        }
+
+        int threads = ((IntToken) parallelism.getToken()).intValue();
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        threads = Math.max(1, Math.min(threads, _matrixSize));
+
+        // Each block of rows has its own parse tree, because evaluating
+        // a parse tree stores values in its nodes.
+        _blocks = new ArrayList<RowBlock>(threads);
+        for (int block = 0; block < threads; block++) {
+            int firstRow = (int) ((long) _matrixSize * block / threads);
+            int lastRow = (int) ((long) _matrixSize * (block + 1) / threads);
+            _blocks.add(new RowBlock(
+                    block == 0 ? tree
+                            : new PtParser().generateParseTree(expression),
+                    firstRow, lastRow));
+        }
+        if (threads > 1) {
+            _pool = new ForkJoinPool(threads);
+        }
+    }
+
     /**
      * This method performs the initialization step.  This includes
      * creating the matrix according to the user-defined parameters.
@@ -365,6 +486,7 @@ public class CADirector extends Director {
 
         _currentX = 0;
         _currentY = 0;
+        _toroidal = ((BooleanToken) toroidal.getToken()).booleanValue();
 
         _setInitMatrix();
         super.preinitialize();
@@ -386,6 +508,11 @@ public class CADirector extends Director {
         Variable matrixVar = (Variable) container.getAttribute("matrix");
         matrixVar.setToken(new DoubleMatrixToken(_cells));
 
+        if (_blocks != null) {
+            // All the new values were computed by fire().
+            return _iterate();
+        }
+
         Variable vnv = (Variable) container.getAttribute("newValue");
         DoubleToken dt = (DoubleToken) vnv.getToken();
         _newCells[_currentY][_currentX] = dt.doubleValue();
@@ -399,6 +526,17 @@ public class CADirector extends Director {
         return true;
     }
 
+    /**
+     * Stop the threads that evaluate the update expression, if any.
+     *
+     * @exception IllegalActionException If the base class throws it.
+     */
+    @Override
+    public void wrapup() throws IllegalActionException {
+        _shutdownPool();
+        super.wrapup();
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         protected methods                 ////
 
@@ -436,6 +574,17 @@ public class CADirector extends Director {
         size.setTypeEquals(BaseType.INT);
         size.setExpression("10");
 
+        toroidal = new Parameter(this, "toroidal");
+        toroidal.setTypeEquals(BaseType.BOOLEAN);
+        toroidal.setExpression("true");
+
+        updateExpression = new StringParameter(this, "updateExpression");
+        updateExpression.setExpression("");
+
+        parallelism = new Parameter(this, "parallelism");
+        parallelism.setTypeEquals(BaseType.INT);
+        parallelism.setExpression("0");
+
         // Sample matrix values
         double[][] doubleArray = new double[1][3];
         doubleArray[0][0] = 0;
@@ -543,14 +692,122 @@ public class CADirector extends Director {
         }
     }
 
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /**
+     * Return the value of a neighbor of the cell at the given row and
+     * column of the current matrix.
+     *
+     * @param row The row of the cell.
+     * @param column The column of the cell.
+     * @param neighbor The number of the neighbor, from 1 (top left)
+     * to 8 (bottom right).
+     * @return The value of the neighbor, or 0.0 if the neighbor is
+     * outside of the matrix and the matrix is not toroidal.
+     */
+    private double _neighbor(int row, int column, int neighbor) {
+        // Neighbors 1 to 3 are in the previous row, 4 and 5 in the same
+        // row, and 6 to 8 in the next row.
+        if (neighbor <= 3) {
+            row--;
+        } else if (neighbor >= 6) {
+            row++;
+        }
+        if (neighbor == 1 || neighbor == 4 || neighbor == 6) {
+            column--;
+        } else if (neighbor == 3 || neighbor == 5 || neighbor == 8) {
+            column++;
+        }
+        if (row < 0 || row >= _matrixSize || column < 0
+                || column >= _matrixSize) {
+            if (!_toroidal) {
+                return 0.0;
+            }
+            row = (row + _matrixSize) % _matrixSize;
+            column = (column + _matrixSize) % _matrixSize;
+        }
+        return _cells[row][column];
+    }
+
+    /**
+     * Stop the threads that evaluate the update expression, if any.
+     */
+    private void _shutdownPool() {
+        if (_pool != null) {
+            _pool.shutdown();
+            _pool = null;
+        }
+    }
+
+    /**
+     * Evaluate the update expression for every cell of the matrix,
+     * storing the results in the matrix of new values.
+     *
+     * @exception IllegalActionException If the expression cannot be
+     * evaluated or its value cannot be converted to a double.
+     */
+    private void _updateAllCells() throws IllegalActionException {
+        if (_pool == null) {
+            for (RowBlock block : _blocks) {
+                block.call();
+            }
+            return;
+        }
+        List<Future<Object>> futures = _pool.invokeAll(_blocks);
+        try {
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            throw new IllegalActionException(this, ex,
+                    "Interrupted while updating the matrix.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IllegalActionException) {
+                throw (IllegalActionException) ex.getCause();
+            }
+            throw new IllegalActionException(this, ex.getCause(),
+                    "Failed to update the matrix.");
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
 
+    /**
+     * The names of the variables that the update expression can use to
+     * refer to a cell, mapped to 0 for currentValue, to 1 through 8 for
+     * the neighbors, and to -1 and -2 for xLocation and yLocation.
+     */
+    private static final Map<String, Integer> _CELL_VARIABLES = new HashMap<String, Integer>();
+
+    static {
+        _CELL_VARIABLES.put("xLocation", Integer.valueOf(-1));
+        _CELL_VARIABLES.put("yLocation", Integer.valueOf(-2));
+        _CELL_VARIABLES.put("currentValue", Integer.valueOf(0));
+        for (int neighbor = 1; neighbor <= 8; neighbor++) {
+            _CELL_VARIABLES.put("neighbor" + neighbor,
+                    Integer.valueOf(neighbor));
+        }
+    }
+
+    /**
+     * The blocks of rows in which the update expression is evaluated,
+     * or null if there is no update expression.
+     */
+    private List<RowBlock> _blocks;
+
     /**
      * The current matrix.
      */
     private double[][] _cells;
 
+    /**
+     * The values of the variables other than the cell variables that
+     * are referred to by the update expression.
+     */
+    private Map<String, Token> _constants;
+
     /**
      * The current iteration of the director.
      */
@@ -575,4 +832,140 @@ public class CADirector extends Director {
      *  A temporary matrix to hold the updated values.
      */
     private double[][] _newCells;
+
+    /**
+     * The threads that evaluate the update expression, or null if it
+     * is evaluated in the director thread.
+     */
+    private ForkJoinPool _pool;
+
+    /**
+     * The value of the toroidal parameter when the model was preinitialized.
+     */
+    private boolean _toroidal = true;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         inner classes                     ////
+
+    /**
+     * A block of consecutive rows of the matrix, together with a scope
+     * that gives the update expression the values of the cell that is
+     * being updated.
+     */
+    private class RowBlock implements Callable<Object>, ParserScope {
+
+        /**
+         * Construct a block of rows.
+         *
+         * @param tree The parse tree of the update expression, which
+         * must not be used by any other block.
+         * @param firstRow The first row of the block.
+         * @param lastRow The row after the last row of the block.
+         */
+        public RowBlock(ASTPtRootNode tree, int firstRow, int lastRow) {
+            _tree = tree;
+            _firstRow = firstRow;
+            _lastRow = lastRow;
+        }
+
+        /**
+         * Compute the new values of the cells in this block.
+         *
+         * @return Null.
+         * @exception IllegalActionException If the expression cannot be
+         * evaluated or its value cannot be converted to a double.
+         */
+        @Override
+        public Object call() throws IllegalActionException {
+            for (_row = _firstRow; _row < _lastRow; _row++) {
+                for (_column = 0; _column < _matrixSize; _column++) {
+                    Token result = _evaluator.evaluateParseTree(_tree, this);
+                    _newCells[_row][_column] = DoubleToken.convert(result)
+                            .doubleValue();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Return the value of the given variable for the cell that is
+         * being updated.
+         *
+         * @param name The name of the variable.
+         * @return The value, or null if there is no such variable.
+         */
+        @Override
+        public Token get(String name) {
+            Integer index = _CELL_VARIABLES.get(name);
+            if (index == null) {
+                return _constants.get(name);
+            }
+            switch (index.intValue()) {
+            case -1:
+                // As in fire(), the xLocation is the row.
+                return new IntToken(_row);
+            case -2:
+                return new IntToken(_column);
+            case 0:
+                return new DoubleToken(_cells[_row][_column]);
+            default:
+                return new DoubleToken(
+                        _neighbor(_row, _column, index.intValue()));
+            }
+        }
+
+        /**
+         * Return the type of the given variable.
+         *
+         * @param name The name of the variable.
+         * @return The type, or null if there is no such variable.
+         */
+        @Override
+        public Type getType(String name) {
+            Token token = get(name);
+            return token == null ? null : token.getType();
+        }
+
+        /**
+         * Return a type term for the given variable.
+         *
+         * @param name The name of the variable.
+         * @return A constant type term, or null if there is no such variable.
+         */
+        @Override
+        public InequalityTerm getTypeTerm(String name) {
+            Type type = getType(name);
+            return type == null ? null : new TypeConstant(type);
+        }
+
+        /**
+         * Return the names of the variables in this scope.
+         *
+         * @return A set of variable names.
+         */
+        @Override
+        public Set<String> identifierSet() {
+            Set<String> result = new HashSet<String>(_CELL_VARIABLES.keySet());
+            result.addAll(_constants.keySet());
+            return result;
+        }
+
+        /** The column of the cell that is being updated. */
+        private int _column;
+
+        /** The evaluator used by this block. */
+        private ParseTreeEvaluator _evaluator = new ParseTreeEvaluator();
+
+        /** The first row of the block. */
+        private int _firstRow;
+
+        /** The row after the last row of the block. */
+        private int _lastRow;
+
+        /** The row of the cell that is being updated. */
+        private int _row;
+
+        /** The parse tree of the update expression. */
+        private ASTPtRootNode _tree;
+    }
 }
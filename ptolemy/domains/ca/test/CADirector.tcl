@@ -0,0 +1,96 @@
+# Test CADirector
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+# 						COPYRIGHTENDKEY
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load the required packages
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+# The rules of Conway's game of life, as implemented by the
+# CA2DConvolution actor in auto/Conway.xml.
+set lifeRule {(neighbor1 + neighbor2 + neighbor3 + neighbor4 + neighbor5 + neighbor6 + neighbor7 + neighbor8 == 3.0 || (currentValue == 1.0 && neighbor1 + neighbor2 + neighbor3 + neighbor4 + neighbor5 + neighbor6 + neighbor7 + neighbor8 == 2.0)) ? 1.0 : 0.0}
+
+# Run auto/Conway.xml with the given director parameters and
+# return the final value of the matrix parameter.
+proc runConway {settings} {
+    set parser [java::new ptolemy.moml.MoMLParser]
+    $parser resetAll
+    java::call ptolemy.moml.MoMLParser setMoMLFilters \
+	[java::call ptolemy.moml.filter.BackwardCompatibility allFilters]
+    java::call ptolemy.moml.MoMLParser addMoMLFilter \
+	[java::new ptolemy.moml.filter.RemoveGraphicalClasses]
+    set toplevel [java::cast ptolemy.actor.CompositeActor \
+	[$parser parseFile auto/Conway.xml]]
+    set director [$toplevel getDirector]
+    $director setName {Cellular Automata Director}
+    [java::cast ptolemy.data.expr.Variable [$director getAttribute delay]] \
+	setExpression 0.0
+    foreach {name value} $settings {
+	[java::cast ptolemy.kernel.util.Settable [$director getAttribute $name]] \
+	    setExpression $value
+    }
+    set manager [java::new ptolemy.actor.Manager [$toplevel workspace] manager]
+    $toplevel setManager $manager
+    $manager execute
+    set matrix [java::cast ptolemy.data.expr.Variable [$toplevel getAttribute matrix]]
+    return [[$matrix getToken] toString]
+}
+
+######################################################################
+####
+#
+test CADirector-1.1 {update expression in one thread matches the actors} {
+    set expected [runConway {}]
+    set result [runConway [list updateExpression $lifeRule parallelism 1]]
+    list [string compare $expected $result] [regexp {1\.0} $result]
+} {0 1}
+
+######################################################################
+####
+#
+test CADirector-1.2 {update expression in several threads matches the actors} {
+    # Uses $expected from 1.1 above
+    set result [runConway [list updateExpression $lifeRule parallelism 4]]
+    string compare $expected $result
+} {0}
+
+######################################################################
+####
+#
+test CADirector-1.3 {update expression using a parameter of the model} {
+    # The newValue parameter of the model is 0.0. The matrix parameter
+    # is updated before each iteration, so after two iterations it
+    # shows the result of the first.
+    runConway [list updateExpression {xLocation * 10 + yLocation + newValue} parallelism 3 iterations 2]
+} {[0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0; 10.0, 11.0, 12.0, 13.0, 14.0, 15.0, 16.0, 17.0, 18.0, 19.0; 20.0, 21.0, 22.0, 23.0, 24.0, 25.0, 26.0, 27.0, 28.0, 29.0; 30.0, 31.0, 32.0, 33.0, 34.0, 35.0, 36.0, 37.0, 38.0, 39.0; 40.0, 41.0, 42.0, 43.0, 44.0, 45.0, 46.0, 47.0, 48.0, 49.0; 50.0, 51.0, 52.0, 53.0, 54.0, 55.0, 56.0, 57.0, 58.0, 59.0; 60.0, 61.0, 62.0, 63.0, 64.0, 65.0, 66.0, 67.0, 68.0, 69.0; 70.0, 71.0, 72.0, 73.0, 74.0, 75.0, 76.0, 77.0, 78.0, 79.0; 80.0, 81.0, 82.0, 83.0, 84.0, 85.0, 86.0, 87.0, 88.0, 89.0; 90.0, 91.0, 92.0, 93.0, 94.0, 95.0, 96.0, 97.0, 98.0, 99.0]}
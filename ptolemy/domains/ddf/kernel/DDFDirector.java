@@ -27,12 +27,16 @@
  */
 package ptolemy.domains.ddf.kernel;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import ptolemy.actor.Actor;
@@ -269,9 +273,16 @@ public class DDFDirector extends Director {
     @Override
     public Object clone(Workspace workspace) throws CloneNotSupportedException {
         DDFDirector newObject = (DDFDirector) super.clone(workspace);
+        newObject._actorIndex = new HashMap<Actor, Integer>();
+        newObject._actors = new ArrayList<Actor>();
         newObject._actorsInfo = new HashMap();
         newObject._actorsToCheckNumberOfFirings = new LinkedList();
+        newObject._actorsVersion = -1L;
+        newObject._connectedActors = new HashMap<Actor, Actor[]>();
+        newObject._connectedActorsVersion = -1L;
+        newObject._deferrableActors = new BitSet();
         newObject._disabledActors = new HashSet();
+        newObject._enabledActors = new BitSet();
         return newObject;
     }
 
@@ -310,43 +321,38 @@ public class DDFDirector extends Director {
             _debug("DDFDirector.fire()");
         }
         do {
+            // The enabling status of each actor is updated whenever
+            // it or an actor connected to it fires, and the actors that
+            // are enabled are tracked in bit sets indexed by the position
+            // of the actors in deepEntityList(), so there is no need to
+            // scan all the actors.
+            _indexActors();
+
             // The List to store actors that are enabled and not deferrable.
             List toBeFiredActors = new LinkedList();
 
+            for (int i = _enabledActors.nextSetBit(0); i >= 0; i = _enabledActors
+                    .nextSetBit(i + 1)) {
+                toBeFiredActors.add(_actors.get(i));
+            }
+
             // The list to store minimax actors.
             List minimaxActors = new LinkedList();
             int minimaxSize = Integer.MAX_VALUE;
 
-            Iterator actors = ((TypedCompositeActor) getContainer())
-                    .deepEntityList().iterator();
-
-            while (actors.hasNext()) {
-                // Scan all actors to find all enabled and not
-                // deferrable actors.
-                Actor actor = (Actor) actors.next();
-
-                if (_disabledActors.contains(actor)) {
-                    continue;
-                }
-
-                ActorInfo actorInfo = (ActorInfo) _actorsInfo.get(actor);
-                ActorEnablingStatus status = actorInfo.status;
-
-                if (status == ActorEnablingStatus.ENABLED_NOT_DEFERRABLE) {
-                    toBeFiredActors.add(actor);
-                }
-
+            for (int i = _deferrableActors.nextSetBit(0); i >= 0; i = _deferrableActors
+                    .nextSetBit(i + 1)) {
                 // Find set of minimax actors.
-                if (status == ActorEnablingStatus.ENABLED_DEFERRABLE) {
-                    int newSize = actorInfo.maximumNumberOfTokens;
-
-                    if (newSize < minimaxSize) {
-                        minimaxActors.clear();
-                        minimaxActors.add(actor);
-                        minimaxSize = newSize;
-                    } else if (newSize == minimaxSize) {
-                        minimaxActors.add(actor);
-                    }
+                Actor actor = _actors.get(i);
+                ActorInfo actorInfo = (ActorInfo) _actorsInfo.get(actor);
+                int newSize = actorInfo.maximumNumberOfTokens;
+
+                if (newSize < minimaxSize) {
+                    minimaxActors.clear();
+                    minimaxActors.add(actor);
+                    minimaxSize = newSize;
+                } else if (newSize == minimaxSize) {
+                    minimaxActors.add(actor);
                 }
             }
 
@@ -381,10 +387,9 @@ public class DDFDirector extends Director {
             } else if (_firedOne) {
                 // Check to see if we need to repeat basic iteration to
                 // satisfy requiredFiringsPerIteration for some actors.
-                actors = _actorsToCheckNumberOfFirings.iterator();
-
                 repeatBasicIteration = false;
 
+                Iterator actors = _actorsToCheckNumberOfFirings.iterator();
                 while (actors.hasNext()) {
                     Actor actor = (Actor) actors.next();
 
@@ -536,6 +541,8 @@ public class DDFDirector extends Director {
         _actorsToCheckNumberOfFirings
                 .addAll(insideDirector._actorsToCheckNumberOfFirings);
         _actorsInfo.putAll(insideDirector._actorsInfo);
+        // Rebuild the bit sets of enabled actors on the next iteration.
+        _actorsVersion = -1L;
     }
 
     /** Return a new QueueReceiver. Set the capacity of the FIFO queue
@@ -808,7 +815,7 @@ public class DDFDirector extends Director {
                     actorInfo = new ActorInfo();
                     _actorsInfo.put(actor, actorInfo);
                 }
-                actorInfo.status = _getActorStatus(actor);
+                _setStatus(actor, actorInfo, _getActorStatus(actor));
             }
         }
 
@@ -930,6 +937,12 @@ public class DDFDirector extends Director {
 
             _disabledActors.add(actor);
             _actorsToCheckNumberOfFirings.remove(actor);
+
+            Integer index = _actorIndex.get(actor);
+            if (index != null) {
+                _enabledActors.clear(index);
+                _deferrableActors.clear(index);
+            }
         }
 
         // If the returnValue is NOT_READY, this method returns false.
@@ -1093,52 +1106,75 @@ public class DDFDirector extends Director {
     protected void _updateConnectedActorsStatus(Actor actor)
             throws IllegalActionException {
         // Update enabling status for each connected actor.
-        Iterator ports = ((Entity) actor).portList().iterator();
-
-        while (ports.hasNext()) {
-            ComponentPort port = (ComponentPort) ports.next();
-            Iterator deepConnectedPorts = port.deepConnectedPortList()
-                    .iterator();
-
-            while (deepConnectedPorts.hasNext()) {
-                Port deepConnectedPort = (Port) deepConnectedPorts.next();
-                Actor connectedActor = (Actor) deepConnectedPort.getContainer();
-
-                // Skip it if the connectedActor to be checked contains
-                // this director.
-                if (getContainer() != connectedActor) {
-                    // Get an array of actor flags from HashMap.
-                    // Create it if none found.
-                    ActorInfo actorInfo;
-
-                    if (_actorsInfo.containsKey(connectedActor)) {
-                        actorInfo = (ActorInfo) _actorsInfo.get(connectedActor);
-                    } else {
-                        actorInfo = new ActorInfo();
-                        _actorsInfo.put(connectedActor, actorInfo);
-                    }
-
-                    actorInfo.status = _getActorStatus(connectedActor);
-                }
+        for (Actor connectedActor : _getConnectedActors(actor)) {
+            // Get an array of actor flags from HashMap.
+            // Create it if none found.
+            ActorInfo actorInfo = (ActorInfo) _actorsInfo.get(connectedActor);
+
+            if (actorInfo == null) {
+                actorInfo = new ActorInfo();
+                _actorsInfo.put(connectedActor, actorInfo);
             }
+
+            _setStatus(connectedActor, actorInfo,
+                    _getActorStatus(connectedActor));
         }
 
         // Update enabling status for this actor.
-        ActorInfo actorInfo;
+        ActorInfo actorInfo = (ActorInfo) _actorsInfo.get(actor);
 
-        if (_actorsInfo.containsKey(actor)) {
-            actorInfo = (ActorInfo) _actorsInfo.get(actor);
-        } else {
+        if (actorInfo == null) {
             actorInfo = new ActorInfo();
             _actorsInfo.put(actor, actorInfo);
         }
 
-        actorInfo.status = _getActorStatus(actor);
+        _setStatus(actor, actorInfo, _getActorStatus(actor));
     }
 
     ///////////////////////////////////////////////////////////////////
     ////                         private methods                   ////
 
+    /** Return the actors other than the container of this director that
+     *  are deep connected to the ports of the given actor, without
+     *  duplicates. The result is cached until the workspace version
+     *  changes.
+     *  @param actor The actor.
+     *  @return An array of connected actors.
+     */
+    private Actor[] _getConnectedActors(Actor actor) {
+        long version = workspace().getVersion();
+        if (_connectedActorsVersion != version) {
+            _connectedActors.clear();
+            _connectedActorsVersion = version;
+        }
+        Actor[] result = _connectedActors.get(actor);
+        if (result == null) {
+            Set<Actor> connectedActors = new LinkedHashSet<Actor>();
+            Iterator ports = ((Entity) actor).portList().iterator();
+
+            while (ports.hasNext()) {
+                ComponentPort port = (ComponentPort) ports.next();
+                Iterator deepConnectedPorts = port.deepConnectedPortList()
+                        .iterator();
+
+                while (deepConnectedPorts.hasNext()) {
+                    Port deepConnectedPort = (Port) deepConnectedPorts.next();
+                    Actor connectedActor = (Actor) deepConnectedPort
+                            .getContainer();
+
+                    // Skip it if the connectedActor to be checked contains
+                    // this director.
+                    if (getContainer() != connectedActor) {
+                        connectedActors.add(connectedActor);
+                    }
+                }
+            }
+            result = connectedActors.toArray(new Actor[connectedActors.size()]);
+            _connectedActors.put(actor, result);
+        }
+        return result;
+    }
+
     /** Get token consumption rate for the given port. If the port is an
      *  input port of an actor controlled by this director, the default
      *  rate is 1 unless explicitly specified by a <i>tokenConsumptionRate</i>
@@ -1353,9 +1389,79 @@ public class DDFDirector extends Director {
         runUntilDeadlockInOneIteration.setToken(new BooleanToken(false));
     }
 
+    /** If the workspace version has changed, record the position of each
+     *  actor in deepEntityList() of the container and rebuild the bit sets
+     *  of enabled actors from the recorded enabling status of each actor.
+     */
+    private void _indexActors() {
+        long version = workspace().getVersion();
+        if (_actorsVersion == version) {
+            return;
+        }
+        _actors = new ArrayList<Actor>();
+        for (Object actor : ((TypedCompositeActor) getContainer())
+                .deepEntityList()) {
+            _actors.add((Actor) actor);
+        }
+        _actorIndex.clear();
+        _enabledActors.clear();
+        _deferrableActors.clear();
+        for (int i = 0; i < _actors.size(); i++) {
+            Actor actor = _actors.get(i);
+            _actorIndex.put(actor, i);
+            ActorInfo actorInfo = (ActorInfo) _actorsInfo.get(actor);
+            if (actorInfo != null && !_disabledActors.contains(actor)) {
+                _enabledActors.set(i,
+                        actorInfo.status == ActorEnablingStatus.ENABLED_NOT_DEFERRABLE);
+                _deferrableActors.set(i,
+                        actorInfo.status == ActorEnablingStatus.ENABLED_DEFERRABLE);
+            }
+        }
+        _actorsVersion = version;
+    }
+
+    /** Set the enabling status of the given actor, and update the bit sets
+     *  of enabled actors.
+     *  @param actor The actor.
+     *  @param actorInfo The information of the actor.
+     *  @param status The enabling status.
+     */
+    private void _setStatus(Actor actor, ActorInfo actorInfo,
+            ActorEnablingStatus status) {
+        actorInfo.status = status;
+        Integer index = _actorIndex.get(actor);
+        if (index != null && !_disabledActors.contains(actor)) {
+            _enabledActors.set(index,
+                    status == ActorEnablingStatus.ENABLED_NOT_DEFERRABLE);
+            _deferrableActors.set(index,
+                    status == ActorEnablingStatus.ENABLED_DEFERRABLE);
+        }
+    }
+
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
 
+    /** The position of each actor in the list of actors. */
+    private Map<Actor, Integer> _actorIndex = new HashMap<Actor, Integer>();
+
+    /** The actors in the container, in the order of deepEntityList(). */
+    private List<Actor> _actors = new ArrayList<Actor>();
+
+    /** The workspace version when the list of actors was built. */
+    private long _actorsVersion = -1L;
+
+    /** The actors connected to each actor. */
+    private Map<Actor, Actor[]> _connectedActors = new HashMap<Actor, Actor[]>();
+
+    /** The workspace version when the connected actors were found. */
+    private long _connectedActorsVersion = -1L;
+
+    /** The positions of the actors that are enabled and deferrable. */
+    private BitSet _deferrableActors = new BitSet();
+
+    /** The positions of the actors that are enabled and not deferrable. */
+    private BitSet _enabledActors = new BitSet();
+
     /** A flag indicating whether type resolution is disabled.
      */
     private boolean _isTypeResolutionDisabled = false;
@@ -28,6 +28,7 @@ package ptolemy.domains.modal.kernel;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -457,7 +458,10 @@ public class FSMActor extends CompositeEntity
         // newObject._initializables = null;
 
         newObject._currentState = null;
+        newObject._defaultTransitions = new ArrayList<Transition>();
         newObject._disabledRefinements = new HashSet<Actor>();
+        newObject._enabledTransitionsBuffer = new ArrayList<Transition>();
+        newObject._guardReferences = new HashMap<Transition, GuardReferences>();
         newObject._inputTokenMap = new HashMap();
         newObject._lastChosenTransitions = new HashMap<State, Transition>();
         newObject._lastChosenTransition = null;
@@ -545,72 +549,10 @@ public class FSMActor extends CompositeEntity
      */
     public List enabledTransitions(List transitionList, boolean preemptive,
             boolean immediateOnly) throws IllegalActionException {
-        LinkedList enabledTransitions = new LinkedList();
-        LinkedList defaultTransitions = new LinkedList();
-
-        Iterator transitionRelations = transitionList.iterator();
-
-        _foundUnknown = false;
-        while (transitionRelations.hasNext() && !_stopRequested) {
-            Transition transition = (Transition) transitionRelations.next();
-            if (immediateOnly) {
-                boolean isImmediate = transition.isImmediate();
-                if (!isImmediate) {
-                    continue;
-                }
-            }
-            if (preemptive && !transition.isPreemptive()
-                    || !preemptive && transition.isPreemptive()) {
-                continue;
-            }
-            boolean transitionRefersToUnknownInputs = !_referencedInputPortsByGuardKnown(
-                    transition);
-            _foundUnknown = _foundUnknown || transitionRefersToUnknownInputs;
-            if (transition.isDefault()) {
-                if (_isTransitionEnabled(transition)) {
-                    defaultTransitions.add(transition);
-                }
-            } else {
-                if (_isTransitionEnabled(transition)) {
-                    enabledTransitions.add(transition);
-                }
-            }
-        }
-
-        // NOTE: It is the chooseTransition method that decides which
-        // enabled transition is actually taken. This method simply returns
-        // all enabled transitions.
-        if (enabledTransitions.size() > 0) {
-            if (_debugging) {
-                _debug("Enabled transitions: " + enabledTransitions);
-            }
-            return enabledTransitions;
-        } else {
-            // No enabled regular transitions. Check for default transitions.
-            // Default transitions cannot become enabled until all
-            // guard expressions can be evaluated.
-            if (!_foundUnknown) {
-                if (_debugging) {
-                    if (defaultTransitions.size() > 0) {
-                        _debug("Enabled default transitions: "
-                                + defaultTransitions);
-                    } else {
-                        _debug("No enabled transitions.");
-                    }
-                }
-                return defaultTransitions;
-            }
-        }
-        // No enabled transitions were found, but some are not yet
-        // known to disabled, so we cannot return a transition (even the
-        // default transition).
-        if (_debugging) {
-            _debug("No enabled transitions.");
-            if (_foundUnknown) {
-                _debug("(some are not known to be disabled).");
-            }
-        }
-        return new LinkedList();
+        List<Transition> enabledTransitions = new LinkedList<Transition>();
+        _enabledTransitions(transitionList, preemptive, immediateOnly,
+                enabledTransitions);
+        return enabledTransitions;
     }
 
     /** Write this FSMActor into the output writer as a submodel. All
@@ -2194,6 +2136,93 @@ public class FSMActor extends CompositeEntity
         }
     }
 
+    /** Add to the specified list the enabled transitions among the given
+     *  list of transitions, as described for
+     *  {@link #enabledTransitions(List, boolean, boolean)}.  The list is
+     *  supplied by the caller so that it can be reused across firings.
+     *  @param transitionList A list of transitions.
+     *  @param preemptive True to consider only preemptive transitions,
+     *   false to consider only non-preemptive transitions.
+     *  @param immediateOnly True to consider only immediate transitions,
+     *   false to consider both immediate and non-immediate transitions.
+     *  @param result The list to which to add the enabled transitions.
+     *  @exception IllegalActionException If the guard expression of any
+     *  transition can not be evaluated.
+     */
+    private void _enabledTransitions(List transitionList, boolean preemptive,
+            boolean immediateOnly, List<Transition> result)
+            throws IllegalActionException {
+        List<Transition> defaultTransitions = _defaultTransitions;
+        defaultTransitions.clear();
+
+        Iterator transitionRelations = transitionList.iterator();
+
+        _foundUnknown = false;
+        while (transitionRelations.hasNext() && !_stopRequested) {
+            Transition transition = (Transition) transitionRelations.next();
+            if (immediateOnly) {
+                boolean isImmediate = transition.isImmediate();
+                if (!isImmediate) {
+                    continue;
+                }
+            }
+            if (preemptive && !transition.isPreemptive()
+                    || !preemptive && transition.isPreemptive()) {
+                continue;
+            }
+            boolean transitionRefersToUnknownInputs = !_referencedInputPortsByGuardKnown(
+                    transition);
+            _foundUnknown = _foundUnknown || transitionRefersToUnknownInputs;
+            if (transition.isDefault()) {
+                if (_isTransitionEnabled(transition)) {
+                    defaultTransitions.add(transition);
+                }
+            } else {
+                if (_isTransitionEnabled(transition)) {
+                    result.add(transition);
+                }
+            }
+        }
+
+        // NOTE: It is the chooseTransition method that decides which
+        // enabled transition is actually taken. This method simply returns
+        // all enabled transitions.
+        if (result.size() > 0) {
+            if (_debugging) {
+                _debug("Enabled transitions: " + result);
+            }
+            defaultTransitions.clear();
+            return;
+        } else {
+            // No enabled regular transitions. Check for default transitions.
+            // Default transitions cannot become enabled until all
+            // guard expressions can be evaluated.
+            if (!_foundUnknown) {
+                if (_debugging) {
+                    if (defaultTransitions.size() > 0) {
+                        _debug("Enabled default transitions: "
+                                + defaultTransitions);
+                    } else {
+                        _debug("No enabled transitions.");
+                    }
+                }
+                result.addAll(defaultTransitions);
+                defaultTransitions.clear();
+                return;
+            }
+        }
+        defaultTransitions.clear();
+        // No enabled transitions were found, but some are not yet
+        // known to disabled, so we cannot return a transition (even the
+        // default transition).
+        if (_debugging) {
+            _debug("No enabled transitions.");
+            if (_foundUnknown) {
+                _debug("(some are not known to be disabled).");
+            }
+        }
+    }
+
     /** Fire all refinements of the state if it has any refinements.
      *  @exception IllegalActionException If any commit action throws it,
      *   or the last chosen transition does not have a destination state.
@@ -3115,8 +3144,10 @@ public class FSMActor extends CompositeEntity
             throws IllegalActionException {
 
         // Get the transitions enabled from the current state.
-        List<Transition> enabledTransitions = enabledTransitions(transitionList,
-                preemptive, immediateOnly);
+        List<Transition> enabledTransitions = _enabledTransitionsBuffer;
+        enabledTransitions.clear();
+        _enabledTransitions(transitionList, preemptive, immediateOnly,
+                enabledTransitions);
         int numberOfEnabledTransitions = enabledTransitions.size();
 
         Transition chosenTransition = null;
@@ -3912,30 +3943,23 @@ public class FSMActor extends CompositeEntity
             throws IllegalActionException {
 
         String string = transition.getGuardExpression();
-        if (string.trim().equals("")) {
-            return true;
-        }
-        PtParser parser = new PtParser();
-        ASTPtRootNode parseTree = parser.generateParseTree(string);
-        ParseTreeFreeVariableCollector variableCollector = new ParseTreeFreeVariableCollector();
-        ParserScope scope = getPortScope();
-        // Get a set of free variable names.
-        Set<String> nameSet = variableCollector.collectFreeVariables(parseTree,
-                scope);
-
-        for (String name : nameSet) {
-            Port port = _getPortForIdentifier(name);
-            if (port instanceof IOPort) {
-                int channel = _getChannelForIdentifier(name);
-                if (channel >= 0) {
-                    if (!((IOPort) port).isKnown(channel)) {
-                        return false;
-                    }
-                } else {
-                    // No specified channel.
-                    if (!((IOPort) port).isKnown()) {
-                        return false;
-                    }
+        GuardReferences references = _guardReferences.get(transition);
+        long version = workspace().getVersion();
+        if (references == null || references.version != version
+                || !references.expression.equals(string)) {
+            references = new GuardReferences(string, version);
+            _guardReferences.put(transition, references);
+        }
+        for (int i = 0; i < references.ports.length; i++) {
+            int channel = references.channels[i];
+            if (channel >= 0) {
+                if (!references.ports[i].isKnown(channel)) {
+                    return false;
+                }
+            } else {
+                // No specified channel.
+                if (!references.ports[i].isKnown()) {
+                    return false;
                 }
             }
         }
@@ -4130,6 +4154,15 @@ public class FSMActor extends CompositeEntity
 
     private transient LinkedList _cachedInputPorts;
 
+    /** Scratch list of enabled default transitions. */
+    private List<Transition> _defaultTransitions = new ArrayList<Transition>();
+
+    /** The list of enabled transitions reused by _chooseTransition(). */
+    private List<Transition> _enabledTransitionsBuffer = new ArrayList<Transition>();
+
+    /** The input ports referenced by the guard of each transition. */
+    private Map<Transition, GuardReferences> _guardReferences = new HashMap<Transition, GuardReferences>();
+
     private transient LinkedList _cachedOutputPorts;
 
     /** The causality interface, if it has been created,
@@ -4266,6 +4299,60 @@ public class FSMActor extends CompositeEntity
     ///////////////////////////////////////////////////////////////////
     ////                         inner classes                     ////
 
+    /** The input ports and channels referenced by a guard expression,
+     *  which are the ports whose status must be known to evaluate it.
+     *  Finding them requires parsing the guard, so they are computed
+     *  once for each guard expression and workspace version.
+     */
+    private class GuardReferences {
+        /** Parse the guard expression and find the references.
+         *  @param expression The guard expression.
+         *  @param version The workspace version.
+         *  @exception IllegalActionException If the guard expression
+         *   cannot be parsed.
+         */
+        public GuardReferences(String expression, long version)
+                throws IllegalActionException {
+            this.expression = expression;
+            this.version = version;
+            List<IOPort> portList = new LinkedList<IOPort>();
+            List<Integer> channelList = new LinkedList<Integer>();
+            if (!expression.trim().equals("")) {
+                PtParser parser = new PtParser();
+                ASTPtRootNode parseTree = parser.generateParseTree(expression);
+                ParseTreeFreeVariableCollector variableCollector = new ParseTreeFreeVariableCollector();
+                ParserScope scope = getPortScope();
+                // Get a set of free variable names.
+                Set<String> nameSet = variableCollector
+                        .collectFreeVariables(parseTree, scope);
+                for (String name : nameSet) {
+                    Port port = _getPortForIdentifier(name);
+                    if (port instanceof IOPort) {
+                        portList.add((IOPort) port);
+                        channelList.add(_getChannelForIdentifier(name));
+                    }
+                }
+            }
+            ports = portList.toArray(new IOPort[portList.size()]);
+            channels = new int[ports.length];
+            for (int i = 0; i < channels.length; i++) {
+                channels[i] = channelList.get(i);
+            }
+        }
+
+        /** The channel referenced for each port, or -1 for all channels. */
+        public final int[] channels;
+
+        /** The guard expression. */
+        public final String expression;
+
+        /** The referenced input ports. */
+        public final IOPort[] ports;
+
+        /** The workspace version when the references were found. */
+        public final long version;
+    }
+
     /** This class implements a scope, which is used to evaluate the
      *  parsed expressions.  This class is currently rather simple,
      *  but in the future should allow the values of input ports to
@@ -36,13 +36,18 @@ import ptolemy.actor.Director;
 import ptolemy.actor.TypedActor;
 import ptolemy.actor.TypedCompositeActor;
 import ptolemy.data.BooleanToken;
+import ptolemy.data.ObjectToken;
 import ptolemy.data.StringToken;
 import ptolemy.data.Token;
+import ptolemy.data.expr.ASTPtLeafNode;
+import ptolemy.data.expr.ASTPtLogicalNode;
+import ptolemy.data.expr.ASTPtRelationalNode;
 import ptolemy.data.expr.ASTPtRootNode;
 import ptolemy.data.expr.Parameter;
 import ptolemy.data.expr.ParseTreeEvaluator;
 import ptolemy.data.expr.ParserScope;
 import ptolemy.data.expr.PtParser;
+import ptolemy.data.expr.PtParserConstants;
 import ptolemy.data.expr.StringParameter;
 import ptolemy.data.expr.Variable;
 import ptolemy.data.type.BaseType;
@@ -264,6 +269,7 @@ public class Transition extends ComponentRelation {
             // _guard is the variable that does the evaluation.
             _guardParseTree = null;
             _guardParseTreeVersion = -1;
+            _guardNames = null;
             _parseTreeEvaluatorVersion = -1;
         } else if (attribute == refinementName) {
             _refinementVersion = -1;
@@ -344,6 +350,7 @@ public class Transition extends ComponentRelation {
         newObject._commitActionList = new LinkedList();
         newObject._destinationState = null;
         newObject._fsmTransitionParameter = null;
+        newObject._guardNames = null;
         newObject._guardParseTree = null;
         newObject._guardParseTreeVersion = -1;
         // newObject._historySet = false;
@@ -594,9 +601,21 @@ public class Transition extends ComponentRelation {
                 throw new IllegalActionException(this, ex,
                         "Failed to parse guard expression \"" + expr + "\"");
             }
+            _compileGuard();
+        }
+        Token token = null;
+        // The compiled form gives the same result as the plain evaluator.
+        // Subclasses of ParseTreeEvaluator, such as the one used for
+        // continuous-time guards, record state while evaluating, so
+        // they always get the parse tree.
+        if (_guardNames != null
+                && parseTreeEvaluator.getClass() == ParseTreeEvaluator.class) {
+            token = _evaluateCompiledGuard(scope);
+        }
+        if (token == null) {
+            token = parseTreeEvaluator.evaluateParseTree(_guardParseTree,
+                    scope);
         }
-        Token token = parseTreeEvaluator.evaluateParseTree(_guardParseTree,
-                scope);
         if (!(token instanceof BooleanToken)) {
             throw new IllegalActionException(this,
                     "Guard expression does not evaluate to a boolean!"
@@ -1022,6 +1041,112 @@ public class Transition extends ComponentRelation {
         }
     }
 
+    // Recognize guards that are a conjunction of terms of the form
+    // "name", "name == constant" or "name != constant", where name is
+    // an identifier such as in_isPresent or in.  Such guards, which are
+    // by far the most common, are evaluated by looking up the names in
+    // the scope rather than by visiting the parse tree.  If the guard
+    // has any other form, set _guardNames to null.
+    private void _compileGuard() {
+        _guardNames = null;
+        ASTPtRootNode root = _guardParseTree;
+        ASTPtRootNode[] terms;
+        if (root instanceof ASTPtLogicalNode
+                && ((ASTPtLogicalNode) root).isLogicalAnd()) {
+            terms = new ASTPtRootNode[root.jjtGetNumChildren()];
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = (ASTPtRootNode) root.jjtGetChild(i);
+            }
+        } else {
+            terms = new ASTPtRootNode[] { root };
+        }
+        String[] names = new String[terms.length];
+        Token[] constants = new Token[terms.length];
+        int[] relations = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            ASTPtRootNode term = terms[i];
+            if (_isIdentifier(term)) {
+                names[i] = ((ASTPtLeafNode) term).getName();
+            } else if (term instanceof ASTPtRelationalNode
+                    && term.jjtGetNumChildren() == 2) {
+                int kind = ((ASTPtRelationalNode) term).getOperator().kind;
+                if (kind != PtParserConstants.EQUALS
+                        && kind != PtParserConstants.NOTEQUALS) {
+                    return;
+                }
+                ASTPtRootNode left = (ASTPtRootNode) term.jjtGetChild(0);
+                ASTPtRootNode right = (ASTPtRootNode) term.jjtGetChild(1);
+                if (_isIdentifier(left) && right.isConstant()
+                        && right.isEvaluated()) {
+                    names[i] = ((ASTPtLeafNode) left).getName();
+                    constants[i] = right.getToken();
+                    relations[i] = kind == PtParserConstants.EQUALS
+                            ? _NAME_EQUALS
+                            : _NAME_NOT_EQUALS;
+                } else if (_isIdentifier(right) && left.isConstant()
+                        && left.isEvaluated()) {
+                    names[i] = ((ASTPtLeafNode) right).getName();
+                    constants[i] = left.getToken();
+                    relations[i] = kind == PtParserConstants.EQUALS
+                            ? _CONSTANT_EQUALS
+                            : _CONSTANT_NOT_EQUALS;
+                } else {
+                    return;
+                }
+            } else {
+                return;
+            }
+        }
+        _guardConstants = constants;
+        _guardRelations = relations;
+        _guardNames = names;
+    }
+
+    // Evaluate the guard compiled by _compileGuard() in the specified
+    // scope.  Return null if the result cannot be determined without the
+    // parse tree evaluator, for example because a name is undefined or
+    // a term is not boolean.  The evaluator then produces the result or
+    // the appropriate exception.
+    private Token _evaluateCompiledGuard(ParserScope scope)
+            throws IllegalActionException {
+        for (int i = 0; i < _guardNames.length; i++) {
+            Token value = scope.get(_guardNames[i]);
+            if (value == null || value instanceof ObjectToken) {
+                return null;
+            }
+            Token constant = _guardConstants[i];
+            if (constant != null) {
+                try {
+                    switch (_guardRelations[i]) {
+                    case _NAME_EQUALS:
+                        value = value.isEqualTo(constant);
+                        break;
+                    case _NAME_NOT_EQUALS:
+                        value = value.isEqualTo(constant).not();
+                        break;
+                    case _CONSTANT_EQUALS:
+                        value = constant.isEqualTo(value);
+                        break;
+                    default:
+                        value = constant.isEqualTo(value).not();
+                    }
+                } catch (IllegalActionException ex) {
+                    return null;
+                }
+            }
+            if (!(value instanceof BooleanToken)) {
+                return null;
+            }
+            if (_guardNames.length == 1) {
+                return value;
+            }
+            if (!((BooleanToken) value).booleanValue()) {
+                return BooleanToken.FALSE;
+            }
+        }
+        return BooleanToken.TRUE;
+    }
+
     /** Return the FSMDirector in charge of this transition,
      *  or null if there is none.
      *  @return The director in charge of this transition.
@@ -1192,6 +1317,12 @@ public class Transition extends ComponentRelation {
 
     }
 
+    // Return true if the node is a leaf that names a variable.
+    private static boolean _isIdentifier(ASTPtRootNode node) {
+        return node instanceof ASTPtLeafNode
+                && ((ASTPtLeafNode) node).isIdentifier() && !node.isConstant();
+    }
+
     // Update the cached lists of actions.
     // This method is read-synchronized on the workspace.
     private void _updateActionLists() {
@@ -1223,6 +1354,15 @@ public class Transition extends ComponentRelation {
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
 
+    // Relations between a name and a constant in a compiled guard.
+    private static final int _NAME_EQUALS = 1;
+
+    private static final int _NAME_NOT_EQUALS = 2;
+
+    private static final int _CONSTANT_EQUALS = 3;
+
+    private static final int _CONSTANT_NOT_EQUALS = 4;
+
     // Version of cached lists of actions.
     private long _actionListsVersion = -1;
 
@@ -1237,12 +1377,24 @@ public class Transition extends ComponentRelation {
 
     private FSMTransitionParameter _fsmTransitionParameter;
 
+    // For each term of a compiled guard, the constant it is compared
+    // to, or null if the term is just a name.
+    private Token[] _guardConstants;
+
+    // The names referenced by the terms of the compiled guard, or null
+    // if the guard could not be compiled.
+    private String[] _guardNames;
+
     // The parse tree for the guard expression.
     private ASTPtRootNode _guardParseTree;
 
     // Version of the cached guard parse tree
     private long _guardParseTreeVersion = -1;
 
+    // For each term of a compiled guard, one of _NAME_EQUALS,
+    // _NAME_NOT_EQUALS, _CONSTANT_EQUALS or _CONSTANT_NOT_EQUALS.
+    private int[] _guardRelations;
+
     // Flag to ensure that the corrections below for older version compatibility
     // are performed only once.
     private boolean _historySet = false;
@@ -0,0 +1,513 @@
+/* A compiled representation of a Petri net.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.domains.petrinet.kernel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ptolemy.actor.TypedCompositeActor;
+import ptolemy.data.IntToken;
+import ptolemy.kernel.util.IllegalActionException;
+
+///////////////////////////////////////////////////////////////////
+//// IncidenceMatrix
+
+/**
+ A Petri net compiled into sparse pre and post incidence matrices over
+ an integer marking vector.
+
+ <p>The transitions and the total arc weights between each transition
+ and its input and output places are given to the constructor, which
+ numbers the places in the order in which they are first encountered.
+ The matrix then keeps a current marking, and for each transition the
+ number of its input places that hold fewer tokens than the transition
+ consumes from them. A transition is enabled when that number is zero.
+ Firing a transition updates only the places that it changes, and
+ the counts of only the transitions that consume from those places,
+ so the set of enabled transitions is maintained incrementally rather
+ than recomputed by traversing the model. The markings of the Place
+ actors are kept equal to the current marking.</p>
+
+ <p>The matrix can also explore the state space of the net, that is,
+ the set of markings reachable from a given marking by firing one
+ enabled transition at a time. Markings are stored in a hash set.
+ The contents of opaque transitions are not executed during this
+ exploration.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class IncidenceMatrix {
+
+    /** Construct an incidence matrix.
+     *  @param transitions The transitions of the net.
+     *  @param inputWeights For each transition, the total weight of the
+     *   arcs from each of its input places. Weights must not be negative.
+     *  @param outputWeights For each transition, the total weight of the
+     *   arcs to each of its output places. Weights must not be negative.
+     */
+    public IncidenceMatrix(List<TypedCompositeActor> transitions,
+            List<Map<Place, Integer>> inputWeights,
+            List<Map<Place, Integer>> outputWeights) {
+        _transitions = new ArrayList<TypedCompositeActor>(transitions);
+        int transitionCount = _transitions.size();
+
+        Map<Place, Integer> placeIndex = new LinkedHashMap<Place, Integer>();
+        for (int t = 0; t < transitionCount; t++) {
+            _index(placeIndex, inputWeights.get(t));
+            _index(placeIndex, outputWeights.get(t));
+        }
+        _places = new ArrayList<Place>(placeIndex.keySet());
+        int placeCount = _places.size();
+
+        _inputIndex = new int[transitionCount][];
+        _inputWeight = new int[transitionCount][];
+        _changeIndex = new int[transitionCount][];
+        _changeAmount = new int[transitionCount][];
+        int[] consumerCount = new int[placeCount];
+
+        for (int t = 0; t < transitionCount; t++) {
+            int[] change = new int[placeCount];
+            List<Integer> inputs = new ArrayList<Integer>();
+            for (Map.Entry<Place, Integer> entry : inputWeights.get(t)
+                    .entrySet()) {
+                int place = placeIndex.get(entry.getKey()).intValue();
+                int weight = entry.getValue().intValue();
+                change[place] -= weight;
+                if (weight > 0) {
+                    inputs.add(Integer.valueOf(place));
+                    consumerCount[place]++;
+                }
+            }
+            for (Map.Entry<Place, Integer> entry : outputWeights.get(t)
+                    .entrySet()) {
+                int place = placeIndex.get(entry.getKey()).intValue();
+                change[place] += entry.getValue().intValue();
+            }
+
+            _inputIndex[t] = new int[inputs.size()];
+            _inputWeight[t] = new int[inputs.size()];
+            for (int i = 0; i < inputs.size(); i++) {
+                int place = inputs.get(i).intValue();
+                _inputIndex[t][i] = place;
+                _inputWeight[t][i] = inputWeights.get(t)
+                        .get(_places.get(place)).intValue();
+            }
+
+            int changed = 0;
+            for (int p = 0; p < placeCount; p++) {
+                if (change[p] != 0) {
+                    changed++;
+                }
+            }
+            _changeIndex[t] = new int[changed];
+            _changeAmount[t] = new int[changed];
+            changed = 0;
+            for (int p = 0; p < placeCount; p++) {
+                if (change[p] != 0) {
+                    _changeIndex[t][changed] = p;
+                    _changeAmount[t][changed] = change[p];
+                    changed++;
+                }
+            }
+        }
+
+        // For each place, the transitions that consume from it.
+        _consumers = new int[placeCount][];
+        _consumerWeights = new int[placeCount][];
+        for (int p = 0; p < placeCount; p++) {
+            _consumers[p] = new int[consumerCount[p]];
+            _consumerWeights[p] = new int[consumerCount[p]];
+            consumerCount[p] = 0;
+        }
+        for (int t = 0; t < transitionCount; t++) {
+            for (int i = 0; i < _inputIndex[t].length; i++) {
+                int place = _inputIndex[t][i];
+                _consumers[place][consumerCount[place]] = t;
+                _consumerWeights[place][consumerCount[place]] = _inputWeight[t][i];
+                consumerCount[place]++;
+            }
+        }
+
+        _marking = new int[placeCount];
+        _unsatisfied = new int[transitionCount];
+        _enabled = new BitSet(transitionCount);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Return the indices of the transitions that are enabled in the
+     *  current marking, in increasing order.
+     *  @return A new list of transition indices.
+     */
+    public List<Integer> enabledTransitions() {
+        List<Integer> result = new ArrayList<Integer>(_enabled.cardinality());
+        for (int t = _enabled.nextSetBit(0); t >= 0; t = _enabled
+                .nextSetBit(t + 1)) {
+            result.add(Integer.valueOf(t));
+        }
+        return result;
+    }
+
+    /** Explore the markings that are reachable from the given marking.
+     *  The exploration is breadth first and stops after the given
+     *  number of distinct markings has been found.
+     *  @param initialMarking The marking from which to start, with one
+     *   entry per place, in the order of {@link #getPlaces()}.
+     *  @param maximumMarkings The maximum number of markings to find.
+     *  @return The result of the exploration.
+     */
+    public StateSpace exploreStateSpace(int[] initialMarking,
+            int maximumMarkings) {
+        StateSpace result = new StateSpace();
+        Set<Marking> visited = new HashSet<Marking>();
+        ArrayDeque<int[]> queue = new ArrayDeque<int[]>();
+
+        int[] start = initialMarking.clone();
+        visited.add(new Marking(start));
+        queue.add(start);
+        result._complete = true;
+
+        while (!queue.isEmpty()) {
+            int[] marking = queue.poll();
+            boolean deadlock = true;
+            for (int t = 0; t < _transitions.size(); t++) {
+                if (!isEnabled(t, marking)) {
+                    continue;
+                }
+                deadlock = false;
+                result._edgeCount++;
+                int[] next = marking.clone();
+                _apply(t, next);
+                Marking key = new Marking(next);
+                if (!visited.contains(key)) {
+                    if (visited.size() >= maximumMarkings) {
+                        result._complete = false;
+                        continue;
+                    }
+                    visited.add(key);
+                    queue.add(next);
+                }
+            }
+            if (deadlock) {
+                result._deadlocks.add(marking);
+            }
+        }
+        result._markingCount = visited.size();
+        return result;
+    }
+
+    /** Fire the given transition in the current marking, update the
+     *  markings of the affected places and the set of enabled transitions.
+     *  The transition is assumed to be enabled.
+     *  @param transition The index of the transition.
+     */
+    public void fire(int transition) {
+        int[] places = _changeIndex[transition];
+        int[] amounts = _changeAmount[transition];
+        for (int i = 0; i < places.length; i++) {
+            int place = places[i];
+            int oldMarking = _marking[place];
+            int newMarking = oldMarking + amounts[i];
+            _marking[place] = newMarking;
+            _places.get(place).increaseMarking(amounts[i]);
+            _updateConsumers(place, oldMarking, newMarking);
+        }
+    }
+
+    /** Return the initial markings of the places, as given by their
+     *  <i>initialMarking</i> parameters.
+     *  @return A new marking vector.
+     *  @exception IllegalActionException If a parameter cannot be evaluated.
+     */
+    public int[] getInitialMarking() throws IllegalActionException {
+        int[] result = new int[_places.size()];
+        for (int p = 0; p < result.length; p++) {
+            result[p] = ((IntToken) _places.get(p).initialMarking.getToken())
+                    .intValue();
+        }
+        return result;
+    }
+
+    /** Return a copy of the current marking.
+     *  @return A new marking vector.
+     */
+    public int[] getMarking() {
+        return _marking.clone();
+    }
+
+    /** Return the places of the net, in the order of the entries of
+     *  marking vectors.
+     *  @return An unmodifiable list of places.
+     */
+    public List<Place> getPlaces() {
+        return Collections.unmodifiableList(_places);
+    }
+
+    /** Return the transition with the given index.
+     *  @param transition The index of the transition.
+     *  @return The transition.
+     */
+    public TypedCompositeActor getTransition(int transition) {
+        return _transitions.get(transition);
+    }
+
+    /** Return true if the given transition is enabled in the current
+     *  marking.
+     *  @param transition The index of the transition.
+     *  @return True if the transition is enabled.
+     */
+    public boolean isEnabled(int transition) {
+        return _enabled.get(transition);
+    }
+
+    /** Return true if the given transition is enabled in the given
+     *  marking.
+     *  @param transition The index of the transition.
+     *  @param marking The marking.
+     *  @return True if the transition is enabled.
+     */
+    public boolean isEnabled(int transition, int[] marking) {
+        int[] places = _inputIndex[transition];
+        int[] weights = _inputWeight[transition];
+        for (int i = 0; i < places.length; i++) {
+            if (marking[places[i]] < weights[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Set the current marking to the markings of the places, and
+     *  recompute the set of enabled transitions.
+     */
+    public void readMarking() {
+        for (int p = 0; p < _places.size(); p++) {
+            _marking[p] = _places.get(p).getMarking();
+        }
+        _enabled.clear();
+        for (int t = 0; t < _transitions.size(); t++) {
+            int unsatisfied = 0;
+            for (int i = 0; i < _inputIndex[t].length; i++) {
+                if (_marking[_inputIndex[t][i]] < _inputWeight[t][i]) {
+                    unsatisfied++;
+                }
+            }
+            _unsatisfied[t] = unsatisfied;
+            if (unsatisfied == 0) {
+                _enabled.set(t);
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         inner classes                     ////
+
+    /** The result of exploring the state space of a net.
+     */
+    public static class StateSpace {
+        /** Return the markings in which no transition is enabled.
+         *  @return A list of markings.
+         */
+        public List<int[]> getDeadlocks() {
+            return Collections.unmodifiableList(_deadlocks);
+        }
+
+        /** Return the number of transition firings that were explored,
+         *  that is, the number of edges of the reachability graph.
+         *  @return The number of edges.
+         */
+        public long getEdgeCount() {
+            return _edgeCount;
+        }
+
+        /** Return the number of distinct markings that were found.
+         *  @return The number of markings.
+         */
+        public int getMarkingCount() {
+            return _markingCount;
+        }
+
+        /** Return true if all the reachable markings were found, and
+         *  false if the exploration stopped at the maximum number of
+         *  markings.
+         *  @return True if the exploration is complete.
+         */
+        public boolean isComplete() {
+            return _complete;
+        }
+
+        private boolean _complete;
+
+        private List<int[]> _deadlocks = new ArrayList<int[]>();
+
+        private long _edgeCount;
+
+        private int _markingCount;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Fire the given transition in the given marking, without
+     *  updating the places or the set of enabled transitions.
+     *  @param transition The index of the transition.
+     *  @param marking The marking to update.
+     */
+    private void _apply(int transition, int[] marking) {
+        int[] places = _changeIndex[transition];
+        int[] amounts = _changeAmount[transition];
+        for (int i = 0; i < places.length; i++) {
+            marking[places[i]] += amounts[i];
+        }
+    }
+
+    /** Assign an index to each place of the given map that does not
+     *  yet have one.
+     *  @param placeIndex The map from places to indices.
+     *  @param weights The places to index.
+     */
+    private static void _index(Map<Place, Integer> placeIndex,
+            Map<Place, Integer> weights) {
+        for (Place place : weights.keySet()) {
+            if (!placeIndex.containsKey(place)) {
+                placeIndex.put(place, Integer.valueOf(placeIndex.size()));
+            }
+        }
+    }
+
+    /** Update the counts of unsatisfied input places of the transitions
+     *  that consume from the given place after its marking changed.
+     *  @param place The index of the place.
+     *  @param oldMarking The marking of the place before the change.
+     *  @param newMarking The marking of the place after the change.
+     */
+    private void _updateConsumers(int place, int oldMarking, int newMarking) {
+        int[] consumers = _consumers[place];
+        int[] weights = _consumerWeights[place];
+        for (int i = 0; i < consumers.length; i++) {
+            boolean wasSatisfied = oldMarking >= weights[i];
+            boolean isSatisfied = newMarking >= weights[i];
+            if (wasSatisfied == isSatisfied) {
+                continue;
+            }
+            int transition = consumers[i];
+            if (isSatisfied) {
+                if (--_unsatisfied[transition] == 0) {
+                    _enabled.set(transition);
+                }
+            } else {
+                if (_unsatisfied[transition]++ == 0) {
+                    _enabled.clear(transition);
+                }
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** For each transition, the amounts by which it changes the
+     *  markings of the places in _changeIndex.
+     */
+    private int[][] _changeAmount;
+
+    /** For each transition, the places whose markings it changes. */
+    private int[][] _changeIndex;
+
+    /** For each place, the transitions that consume from it. */
+    private int[][] _consumers;
+
+    /** For each place, the weights with which the transitions in
+     *  _consumers consume from it.
+     */
+    private int[][] _consumerWeights;
+
+    /** The transitions that are enabled in the current marking. */
+    private BitSet _enabled;
+
+    /** For each transition, its input places. */
+    private int[][] _inputIndex;
+
+    /** For each transition, the total weights of the arcs from the
+     *  places in _inputIndex.
+     */
+    private int[][] _inputWeight;
+
+    /** The current marking. */
+    private int[] _marking;
+
+    /** The places, in the order of the entries of marking vectors. */
+    private List<Place> _places;
+
+    /** The transitions, in the order of their indices. */
+    private List<TypedCompositeActor> _transitions;
+
+    /** For each transition, the number of its input places that hold
+     *  fewer tokens than it consumes.
+     */
+    private int[] _unsatisfied;
+
+    /** A marking with a cached hash code, used as a key in the set of
+     *  visited markings.
+     */
+    private static class Marking {
+        public Marking(int[] marking) {
+            _value = marking;
+            _hashCode = Arrays.hashCode(marking);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof Marking
+                    && _hashCode == ((Marking) object)._hashCode
+                    && Arrays.equals(_value, ((Marking) object)._value);
+        }
+
+        @Override
+        public int hashCode() {
+            return _hashCode;
+        }
+
+        private final int _hashCode;
+
+        private final int[] _value;
+    }
+}
@@ -54,10 +54,13 @@
 
 package ptolemy.domains.petrinet.kernel;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 import ptolemy.actor.Director;
@@ -284,6 +287,19 @@ import ptolemy.kernel.util.Workspace;
  * all the deeply contained Transitions. We could randomly fire the components
  * in each hierarchy.
  *
+ * <p>
+ * If all the arcs have non-negative weights, then at the start of
+ * fire() the director compiles the net into an {@link IncidenceMatrix},
+ * which records for each Transition the total weights of the arcs from
+ * and to each Place, and which keeps the set of enabled Transitions up to
+ * date as Transitions fire. Each firing step then tests and fires
+ * Transitions using the matrix rather than traversing the relations of
+ * the model. The Transitions that are enabled are fired in the same
+ * random order as without the matrix, so for a given seed the sequence
+ * of markings is the same. The matrix is also used by
+ * exploreStateSpace(), which computes the markings that are reachable
+ * from the initial marking.
+ *
  * [1] T. Murata, "Petri nets: properties, analysis and applications",
  * Proceedings of the IEEE, VOl. 77, NO. 4, April 1989, pp. 541-579. [2] J. L.
  * Peterson, "Petri Net Theory and the modeling of systems", Prentice Hall,
@@ -407,10 +423,43 @@ public class PetriNetDirector extends Director {
         // all clones will have the same actor name, which results
         // in the same seed.
         newObject._needNewGenerator = true;
+        newObject._incidenceMatrix = null;
 
         return newObject;
     }
 
+    /**
+     * Explore the markings that are reachable from the initial marking
+     * of the Places of the container. The net is compiled into an
+     * {@link IncidenceMatrix}, and its markings are explored breadth first
+     * by firing one enabled Transition at a time. The contents of opaque
+     * Transitions are not executed.
+     *
+     * @param maximumMarkings
+     *            The maximum number of distinct markings to find.
+     * @return The result of the exploration.
+     * @exception IllegalActionException
+     *                If the container is not a TypedCompositeActor, if an
+     *                arc has a negative weight, or if a weight or an initial
+     *                marking cannot be evaluated.
+     */
+    public IncidenceMatrix.StateSpace exploreStateSpace(int maximumMarkings)
+            throws IllegalActionException {
+        Nameable container = getContainer();
+        if (!(container instanceof TypedCompositeActor)) {
+            throw new IllegalActionException(this,
+                    "The container is not a TypedCompositeActor.");
+        }
+        IncidenceMatrix matrix = _compile((TypedCompositeActor) container);
+        if (matrix == null) {
+            throw new IllegalActionException(this,
+                    "Cannot explore the state space of a net"
+                            + " with an arc of negative weight.");
+        }
+        return matrix.exploreStateSpace(matrix.getInitialMarking(),
+                maximumMarkings);
+    }
+
     /**
      * Find all Transitions of the given container, i.e., the
      * Transition set of the container, which is supposed to be a
@@ -455,6 +504,10 @@ public class PetriNetDirector extends Director {
      * the {@link PetriNetDisplayer} interface.  If this director has a debug
      * listener, then the description is also sent to those listeners.</p>
      *
+     * <p>If all the arcs have non-negative weights, then the net is
+     * first compiled into an {@link IncidenceMatrix}, and the enabled
+     * Transitions are found and fired using the matrix.</p>
+     *
      * @exception IllegalActionException If the method
      * _fireHierarchicalPetriNetOnce() throws exceptions, which can
      * happen if the method isTransitionReady() or fireTransition()
@@ -508,7 +561,11 @@ public class PetriNetDirector extends Director {
                 i++;
             }
             description.append("\n");
-            boolean test = _fireHierarchicalPetriNetOnce(petriContainer);
+            _incidenceMatrix = _compile(petriContainer);
+            if (_incidenceMatrix != null) {
+                _incidenceMatrix.readMarking();
+            }
+            boolean test = _fireOnce(petriContainer);
             time++;
             int iter = ((IntToken) iterations.getToken()).intValue();
             if (iter >= 0) {
@@ -525,7 +582,7 @@ public class PetriNetDirector extends Director {
                             i++;
                         }
                         description.append("\n");
-                        test = _fireHierarchicalPetriNetOnce(petriContainer);
+                        test = _fireOnce(petriContainer);
                         time++;
                     } else {
                         test = false;
@@ -856,6 +913,44 @@ public class PetriNetDirector extends Director {
         }
     }
 
+    /**
+     * Append the given relations to the given list of relations.
+     *
+     * @param relationList
+     *            The list of relations.
+     * @param relations
+     *            The relations to append, which are IORelations.
+     */
+    private static void _addRelations(List<IORelation> relationList,
+            List<?> relations) {
+        for (Object relation : relations) {
+            relationList.add((IORelation) relation);
+        }
+    }
+
+    /**
+     * Add the given weight to the total weight of each of the given
+     * Places. A Place that occurs more than once in the list has the
+     * weight added once for each occurrence.
+     *
+     * @param totals
+     *            The map from Places to total weights.
+     * @param places
+     *            The Places.
+     * @param weight
+     *            The weight to add.
+     */
+    private static void _addWeight(Map<Place, Integer> totals,
+            LinkedList places, int weight) {
+        Iterator placeIterator = places.iterator();
+        while (placeIterator.hasNext()) {
+            Place place = (Place) placeIterator.next();
+            Integer total = totals.get(place);
+            totals.put(place, Integer.valueOf(
+                    (total == null ? 0 : total.intValue()) + weight));
+        }
+    }
+
     //    /**
     //     * This method is a helper method that adds white space to a string
     //     *
@@ -872,6 +967,44 @@ public class PetriNetDirector extends Director {
     //        return output;
     //    }
     //
+    /**
+     * Compile the Petri net in the given container into an incidence
+     * matrix. The Transitions of the matrix are the TypedCompositeActors
+     * in the entity list of the container, in that order, and the weights
+     * of their arcs are found by the same traversal of the relations as in
+     * isTransitionReady() and fireTransition().
+     *
+     * @param container
+     *            The container of the Petri net.
+     * @return The incidence matrix, or null if an arc has a negative
+     *         weight, in which case the net is fired by traversing the
+     *         relations.
+     * @exception IllegalActionException
+     *                If the method _getWeightNumber() throws an exception.
+     */
+    private IncidenceMatrix _compile(TypedCompositeActor container)
+            throws IllegalActionException {
+        List<TypedCompositeActor> transitions = new ArrayList<TypedCompositeActor>();
+        List<Map<Place, Integer>> inputWeights = new ArrayList<Map<Place, Integer>>();
+        List<Map<Place, Integer>> outputWeights = new ArrayList<Map<Place, Integer>>();
+        Iterator actors = container.entityList().iterator();
+        while (actors.hasNext()) {
+            Nameable component = (Nameable) actors.next();
+            if (component instanceof TypedCompositeActor) {
+                TypedCompositeActor transition = (TypedCompositeActor) component;
+                Map<Place, Integer> inputs = _inputWeights(transition);
+                Map<Place, Integer> outputs = _outputWeights(transition);
+                if (inputs == null || outputs == null) {
+                    return null;
+                }
+                transitions.add(transition);
+                inputWeights.add(inputs);
+                outputWeights.add(outputs);
+            }
+        }
+        return new IncidenceMatrix(transitions, inputWeights, outputWeights);
+    }
+
     /** Create the random number generator using current parameter values.
      *  @exception IllegalActionException If thrown while reading the
      *  seed Token.
@@ -1046,6 +1179,47 @@ public class PetriNetDirector extends Director {
         return temporaryPlaceList;
     }
 
+    /**
+     * Fire the enabled Transitions of the compiled Petri net once.
+     * This does the same as _fireHierarchicalPetriNetOnce(), but finds
+     * and tests the enabled Transitions using the incidence matrix.
+     *
+     * @return true or false The Petri net can be fired or not.
+     * @exception IllegalActionException
+     *                If firing an opaque Transition throws an exception.
+     */
+    private boolean _fireCompiledOnce() throws IllegalActionException {
+        List<Integer> components = _incidenceMatrix.enabledTransitions();
+        int componentCount = components.size();
+        if (componentCount == 0) {
+            return false;
+        }
+        if (_debugging) {
+            _debug(componentCount + " transitions ready");
+        }
+        if (_needNewGenerator) {
+            _createGenerator();
+        }
+        // Shuffling a list of the same size with the same generator
+        // gives the same order as _fireHierarchicalPetriNetOnce().
+        Collections.shuffle(components, _random);
+        for (Integer component : components) {
+            int index = component.intValue();
+            if (_incidenceMatrix.isEnabled(index)) {
+                TypedCompositeActor transition = _incidenceMatrix
+                        .getTransition(index);
+                if (_debugging) {
+                    _debug(transition.getFullName() + " is firing");
+                }
+                if (transition.isOpaque()) {
+                    transition.fire();
+                }
+                _incidenceMatrix.fire(index);
+            }
+        }
+        return true;
+    }
+
     /**
      * Test whether a PetriNetActor can be fired or not, and
      * fires the PetriNetActor once if it can be fired. The method
@@ -1093,6 +1267,24 @@ public class PetriNetDirector extends Director {
         }
     }
 
+    /**
+     * Fire the Petri net in the given container once, using the
+     * incidence matrix if the net has been compiled.
+     *
+     * @param container
+     *            The container of the hierarchical Petri net.
+     * @return true or false The Petri net can be fired or not.
+     * @exception IllegalActionException
+     *                If firing the net throws an exception.
+     */
+    private boolean _fireOnce(TypedCompositeActor container)
+            throws IllegalActionException {
+        if (_incidenceMatrix != null) {
+            return _fireCompiledOnce();
+        }
+        return _fireHierarchicalPetriNetOnce(container);
+    }
+
     /**
      * Initialize the Director parameters.
      *
@@ -1118,6 +1310,114 @@ public class PetriNetDirector extends Director {
 
     }
 
+    /**
+     * Return the total weights of the arcs from each input Place of the
+     * given Transition. The arcs are traversed in the same way as in
+     * isTransitionReady().
+     *
+     * @param transition
+     *            A Transition of concern.
+     * @return A map from input Places to total weights, or null if an arc
+     *         has a negative weight.
+     * @exception IllegalActionException
+     *                If the method _getWeightNumber() throws an exception.
+     */
+    private Map<Place, Integer> _inputWeights(TypedCompositeActor transition)
+            throws IllegalActionException {
+        Map<Place, Integer> result = new LinkedHashMap<Place, Integer>();
+        LinkedList<IORelation> newRelationList = new LinkedList<IORelation>();
+        for (Object inPort : transition.inputPortList()) {
+            _addRelations(newRelationList,
+                    ((IOPort) inPort).linkedRelationList());
+        }
+        List<IOPort> temporarySourcePortList = new LinkedList<IOPort>();
+        while (newRelationList.size() > 0) {
+            IORelation weights = newRelationList.getFirst();
+            if (weights != null) {
+                Iterator<IOPort> weightPorts = weights.linkedSourcePortList()
+                        .iterator();
+                while (weightPorts.hasNext()) {
+                    IOPort weightPort = weightPorts.next();
+                    if (!temporarySourcePortList.contains(weightPort)) {
+                        temporarySourcePortList.add(weightPort);
+                        Nameable weightPlace = weightPort.getContainer();
+                        if (weightPlace instanceof PetriNetActor) {
+                            if (weightPort.isOutput()) {
+                                _addRelations(newRelationList,
+                                        weightPort.insideRelationList());
+                            } else if (weightPort.isInput()) {
+                                _addRelations(newRelationList,
+                                        weightPort.linkedRelationList());
+                            }
+                        }
+                    }
+                }
+                int weightNumber = _getWeightNumber(weights);
+                if (weightNumber < 0) {
+                    return null;
+                }
+                _addWeight(result, _findBackwardConnectedPlaces(weights),
+                        weightNumber);
+            }
+            newRelationList.remove(weights);
+        }
+        return result;
+    }
+
+    /**
+     * Return the total weights of the arcs to each output Place of the
+     * given Transition. The arcs are traversed in the same way as in
+     * fireTransition().
+     *
+     * @param transition
+     *            A Transition of concern.
+     * @return A map from output Places to total weights, or null if an arc
+     *         has a negative weight.
+     * @exception IllegalActionException
+     *                If the method _getWeightNumber() throws an exception.
+     */
+    private Map<Place, Integer> _outputWeights(TypedCompositeActor transition)
+            throws IllegalActionException {
+        Map<Place, Integer> result = new LinkedHashMap<Place, Integer>();
+        LinkedList<IORelation> newRelationList = new LinkedList<IORelation>();
+        for (Object outPort : transition.outputPortList()) {
+            _addRelations(newRelationList,
+                    ((IOPort) outPort).linkedRelationList());
+        }
+        List<IOPort> temporaryDestinationPortList = new LinkedList<IOPort>();
+        while (newRelationList.size() > 0) {
+            IORelation weights = newRelationList.getFirst();
+            if (weights != null) {
+                Iterator<IOPort> weightPorts = weights
+                        .linkedDestinationPortList().iterator();
+                while (weightPorts.hasNext()) {
+                    IOPort weightPort = weightPorts.next();
+                    if (!temporaryDestinationPortList.contains(weightPort)) {
+                        temporaryDestinationPortList.add(weightPort);
+                        Nameable weightPlace = weightPort.getContainer();
+                        if (weightPlace instanceof PetriNetActor) {
+                            if (weightPort.isOutput()) {
+                                _addRelations(newRelationList,
+                                        weightPort.linkedRelationList());
+                            } else if (weightPort.isInput()) {
+                                _addRelations(newRelationList,
+                                        weightPort.insideRelationList());
+                            }
+                        }
+                    }
+                }
+                int weightNumber = _getWeightNumber(weights);
+                if (weightNumber < 0) {
+                    return null;
+                }
+                _addWeight(result, _findForwardConnectedPlaces(weights),
+                        weightNumber);
+            }
+            newRelationList.remove(weights);
+        }
+        return result;
+    }
+
     /**
      * Return all the enabled components in a container.
      *
@@ -1157,6 +1457,11 @@ public class PetriNetDirector extends Director {
     /** The current value of the seed parameter. */
     private long _generatorSeed = 0L;
 
+    /** The compiled net, or null if the net is fired by traversing
+     *  its relations.
+     */
+    private IncidenceMatrix _incidenceMatrix;
+
     /** Indicator that a new generator is needed. */
     private boolean _needNewGenerator = true;
 
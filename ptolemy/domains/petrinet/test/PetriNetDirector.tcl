@@ -116,3 +116,37 @@ test PetriNetDirector-2.0 {Read PetriNetDiningPhilosophers, listen to the direct
 1   1   1   1   1   0   0   0   0   0   
 0   0   1   0   0   1   0   0   1   0   
 }
+
+proc exploreStateSpace {model maximumMarkings} {
+    set parser [java::new ptolemy.moml.MoMLParser]
+    $parser setMoMLFilters [java::null]
+    $parser addMoMLFilters \
+	    [java::call ptolemy.moml.filter.BackwardCompatibility allFilters]
+    $parser addMoMLFilter [java::new \
+	    ptolemy.moml.filter.RemoveGraphicalClasses]
+    $parser purgeAllModelRecords
+    set toplevel [java::cast ptolemy.actor.TypedCompositeActor [$parser parseFile $model]]
+    set director [java::cast ptolemy.domains.petrinet.kernel.PetriNetDirector \
+		      [$toplevel getAttribute {PetriNet Director}]]
+    set stateSpace [$director exploreStateSpace $maximumMarkings]
+    return [list [$stateSpace getMarkingCount] \
+		[$stateSpace isComplete] \
+		[[$stateSpace getDeadlocks] size] \
+		[$stateSpace getEdgeCount]]
+}
+
+######################################################################
+####
+#
+test PetriNetDirector-3.0 {Explore the state space of PetriNetSimple} {
+    list \
+	[exploreStateSpace "../demo/PetriNetSimple/PetriNetSimple.xml" 100] \
+	[exploreStateSpace "../demo/PetriNetSimple/PetriNetSimple.xml" 3]
+} {{7 1 1 6} {3 0 0 3}}
+
+######################################################################
+####
+#
+test PetriNetDirector-3.1 {Explore the state space of PetriNetDiningPhilosophers} {
+    exploreStateSpace "../demo/PetriNetDiningPhilosophers/PetriNetDiningPhilosophers.xml" 1000
+} {11 1 0 30}
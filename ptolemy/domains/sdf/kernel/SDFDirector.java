@@ -280,6 +280,16 @@ public class SDFDirector extends StaticSchedulingDirector
      */
     public Parameter iterations;
 
+    /** If true, then the schedule is constructed so as to minimize the
+     *  sizes of the buffers of the receivers, which, if
+     *  <i>constrainBufferSizes</i> is true, are then the capacities of
+     *  the receivers.  The code generators use these capacities to size
+     *  the buffers of the generated code.  See the
+     *  {@link SDFScheduler} class.  This parameter is a boolean that
+     *  defaults to false.
+     */
+    public Parameter minimizeBufferSizes;
+
     /** The time period of each iteration.  This parameter has type double
      *  and default value 0.0, which means that this director does not
      *  increment model time and does not request firings by calling
@@ -353,6 +363,13 @@ public class SDFDirector extends StaticSchedulingDirector
                 _allowDisconnectedGraphs = newValue;
                 invalidateSchedule();
             }
+        } else if (attribute == minimizeBufferSizes) {
+            Token token = minimizeBufferSizes.getToken();
+            boolean newValue = ((BooleanToken) token).booleanValue();
+            if (newValue != _minimizeBufferSizes) {
+                _minimizeBufferSizes = newValue;
+                invalidateSchedule();
+            }
         } else if (attribute == vectorizationFactor) {
             Token token = vectorizationFactor.getToken();
             int newValue = ((IntToken) token).intValue();
@@ -1016,6 +1033,10 @@ public class SDFDirector extends StaticSchedulingDirector
         constrainBufferSizes.setTypeEquals(BaseType.BOOLEAN);
         constrainBufferSizes.setExpression("true");
 
+        minimizeBufferSizes = new Parameter(this, "minimizeBufferSizes");
+        minimizeBufferSizes.setTypeEquals(BaseType.BOOLEAN);
+        minimizeBufferSizes.setExpression("false");
+
         period = new Parameter(this, "period", new DoubleToken(1.0));
         period.setTypeEquals(BaseType.DOUBLE);
         period.setExpression("0.0");
@@ -1030,6 +1051,7 @@ public class SDFDirector extends StaticSchedulingDirector
         SDFScheduler scheduler = new SDFScheduler(this,
                 uniqueName("Scheduler"));
         scheduler.constrainBufferSizes.setExpression("constrainBufferSizes");
+        scheduler.minimizeBufferSizes.setExpression("minimizeBufferSizes");
         setScheduler(scheduler);
 
         // Subclasses may set this to null and handle this themselves.
@@ -1045,6 +1067,9 @@ public class SDFDirector extends StaticSchedulingDirector
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
 
+    /** Cache of the most recent value of minimizeBufferSizes. */
+    private boolean _minimizeBufferSizes = false;
+
     /** Cache of the most recent value of vectorizationFactor. */
     private int _vectorizationFactor = 1;
 
@@ -102,8 +102,16 @@ import ptolemy.math.Fraction;
  input port.
  <p>
  Note that this scheduler only ensures that the number of firings is
- minimal.  Most notably, it does not attempt to minimize the size of
- the buffers that are associated with each relation.  The resulting
+ minimal.  By default, it does not attempt to minimize the size of
+ the buffers that are associated with each relation.  If the
+ <i>minimizeBufferSizes</i> parameter is true, then the actors are
+ fired one at a time, each time choosing among the actors that can
+ fire one that adds the fewest tokens to the buffers, which for most
+ multirate graphs yields much smaller buffers.  In both cases, the
+ capacity of each receiver is set to the maximum number of tokens that
+ it holds during the schedule if <i>constrainBufferSizes</i> is true,
+ so that the director and the code generators use these sizes.
+ The resulting
  schedule is a linear schedule (as opposed to a looped schedule) and is
  not suitable for multiprocessing environments.
  <p>
@@ -189,6 +197,15 @@ public class SDFScheduler extends BaseSDFScheduler implements ValueListener {
      */
     public Parameter constrainBufferSizes;
 
+    /** If true, then the schedule is constructed so as to minimize the
+     *  number of tokens that the receivers hold, at the expense of
+     *  firing the actors one at a time rather than as many times as
+     *  possible in succession.  Consecutive firings of the same actor
+     *  are still grouped.  This parameter is a boolean that defaults
+     *  to false.
+     */
+    public Parameter minimizeBufferSizes;
+
     ///////////////////////////////////////////////////////////////////
     ////                         public methods                    ////
 
@@ -1035,14 +1052,41 @@ public class SDFScheduler extends BaseSDFScheduler implements ValueListener {
         }
     }
 
-    /** Create the parameter constrainBufferSizes and set its default
-     *  value and type constraints.
+    /** Return the number of SDF receivers in an array of receivers.
+     *  @param receivers The receivers, indexed by channel.
+     *  @return The number of receivers that are instances of SDFReceiver.
+     */
+    private static int _countSDFReceivers(Receiver[][] receivers) {
+        int result = 0;
+        if (receivers == null) {
+            return result;
+        }
+        for (int channel = 0; channel < receivers.length; channel++) {
+            if (receivers[channel] == null) {
+                continue;
+            }
+            for (int copy = 0; copy < receivers[channel].length; copy++) {
+                if (receivers[channel][copy] instanceof SDFReceiver) {
+                    result++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Create the parameters constrainBufferSizes and
+     *  minimizeBufferSizes and set their default values and type
+     *  constraints.
      */
     private void _init() {
         try {
             constrainBufferSizes = new Parameter(this, "constrainBufferSizes");
             constrainBufferSizes.setTypeEquals(BaseType.BOOLEAN);
             constrainBufferSizes.setExpression("true");
+
+            minimizeBufferSizes = new Parameter(this, "minimizeBufferSizes");
+            minimizeBufferSizes.setTypeEquals(BaseType.BOOLEAN);
+            minimizeBufferSizes.setExpression("false");
         } catch (KernelException e) {
             throw new InternalErrorException(e);
         }
@@ -1068,6 +1112,45 @@ public class SDFScheduler extends BaseSDFScheduler implements ValueListener {
         }
     }
 
+    /** Return the actor among the actors that are ready to fire whose
+     *  firing adds the fewest tokens to the receivers, counting the
+     *  tokens produced into each receiver that an output port writes
+     *  and subtracting the tokens consumed from each receiver of an
+     *  input port.  If several actors add the same number of tokens,
+     *  return the first one in the list.
+     *  @param readyToScheduleActorList The actors that are ready to fire.
+     *  @return The actor.
+     *  @exception IllegalActionException If the rate parameters are
+     *  invalid.
+     */
+    private Actor _pickActorWithLeastBuffering(List readyToScheduleActorList)
+            throws IllegalActionException {
+        Actor result = null;
+        int fewestTokens = Integer.MAX_VALUE;
+        for (Iterator actors = readyToScheduleActorList.iterator(); actors
+                .hasNext();) {
+            Actor actor = (Actor) actors.next();
+            int tokens = 0;
+            for (Iterator ports = actor.outputPortList().iterator(); ports
+                    .hasNext();) {
+                IOPort port = (IOPort) ports.next();
+                tokens += DFUtilities.getTokenProductionRate(port)
+                        * _countSDFReceivers(port.getRemoteReceivers());
+            }
+            for (Iterator ports = actor.inputPortList().iterator(); ports
+                    .hasNext();) {
+                IOPort port = (IOPort) ports.next();
+                tokens -= DFUtilities.getTokenConsumptionRate(port)
+                        * _countSDFReceivers(port.getReceivers());
+            }
+            if (tokens < fewestTokens) {
+                fewestTokens = tokens;
+                result = actor;
+            }
+        }
+        return result;
+    }
+
     /** Search the given list of actors for one that contains at least
      *  one port that has zero rate.
      *
@@ -1478,6 +1561,8 @@ public class SDFScheduler extends BaseSDFScheduler implements ValueListener {
         unscheduledActorList.addAll(actorList);
 
         try {
+            boolean minimize = ((BooleanToken) minimizeBufferSizes.getToken())
+                    .booleanValue();
 
             // Initializing waitingTokens at all the input ports of actors and
             // output ports of the model to zero is not necessary because
@@ -1660,6 +1745,10 @@ public class SDFScheduler extends BaseSDFScheduler implements ValueListener {
                 // Pick an actor that is ready to fire.
                 Actor currentActor = (Actor) readyToScheduleActorList
                         .getFirst();
+                if (minimize) {
+                    currentActor = _pickActorWithLeastBuffering(
+                            readyToScheduleActorList);
+                }
 
                 // Remove it from the list of actors we are waiting to fire.
                 while (readyToScheduleActorList.remove(currentActor)) {
@@ -1667,6 +1756,9 @@ public class SDFScheduler extends BaseSDFScheduler implements ValueListener {
 
                 // Determine the number of times currentActor can fire.
                 int numberOfFirings = _computeMaximumFirings(currentActor);
+                if (minimize) {
+                    numberOfFirings = 1;
+                }
 
                 // We should never schedule something more than the number
                 // of times expected by the balance equations.  This might
@@ -1699,10 +1791,21 @@ public class SDFScheduler extends BaseSDFScheduler implements ValueListener {
                 _simulateInputConsumption(currentActor, numberOfFirings);
 
                 // Add it to the schedule numberOfFirings times.
-                Firing firing = new Firing();
-                firing.setActor(currentActor);
-                firing.setIterationCount(numberOfFirings);
-                newSchedule.add(firing);
+                Firing lastFiring = null;
+                if (minimize && newSchedule.size() > 0) {
+                    lastFiring = (Firing) newSchedule
+                            .get(newSchedule.size() - 1);
+                }
+                if (lastFiring != null
+                        && lastFiring.getActor() == currentActor) {
+                    lastFiring.setIterationCount(
+                            lastFiring.getIterationCount() + numberOfFirings);
+                } else {
+                    Firing firing = new Firing();
+                    firing.setActor(currentActor);
+                    firing.setIterationCount(numberOfFirings);
+                    newSchedule.add(firing);
+                }
 
                 // Get all its outputPorts
                 // and simulate the proper production of tokens.
@@ -1591,3 +1591,55 @@ Unreached Actors:
 Reached Actors:
 .PortParameterTransparent.CompositeActor.Test .PortParameterTransparent.CompositeActor.Expression 
   in .PortParameterTransparent.SDF Director.Scheduler}}
+
+######################################################################
+####
+#
+# Tests 16.* test the minimization of the buffer sizes.
+proc _getCapacity {port} {
+    set receiver [[[$port getReceivers] get 0] get 0]
+    [java::cast ptolemy.domains.sdf.kernel.SDFReceiver $receiver] getCapacity
+}
+
+test SDFScheduler-16.1 {Minimize buffer sizes} {
+    set manager [java::new ptolemy.actor.Manager $w Manager]
+    set toplevel [java::new ptolemy.actor.TypedCompositeActor $w]
+    set director [java::new ptolemy.domains.sdf.kernel.SDFDirector $toplevel Director]
+    $toplevel setName Toplevel
+    $toplevel setManager $manager
+    $toplevel setDirector $director
+    set scheduler [java::cast ptolemy.domains.sdf.kernel.SDFScheduler [$director getScheduler]]
+
+    set a1 [java::new ptolemy.domains.sdf.kernel.test.SDFTestRamp $toplevel Ramp]
+    set a2 [java::new ptolemy.domains.sdf.kernel.test.SDFTestDelay $toplevel Delay]
+    set a3 [java::new ptolemy.domains.sdf.kernel.test.SDFTestConsumer $toplevel Consumer]
+    [java::cast ptolemy.actor.IORelation [$toplevel connect [java::field $a1 output] [java::field $a2 input] R1]] setWidth 1
+    [java::cast ptolemy.actor.IORelation [$toplevel connect [java::field $a2 output] [java::field $a3 input] R4]] setWidth 1
+    setTokenProductionRate [java::field $a1 output] 2
+    setTokenConsumptionRate [java::field $a2 input] 3
+
+    $scheduler setValid false
+    _initialize $toplevel
+    set sched1 [_getSchedule $scheduler]
+    set capacities1 [list [_getCapacity [java::field $a2 input]] \
+            [_getCapacity [java::field $a3 input]]]
+
+    [java::field $director minimizeBufferSizes] setExpression true
+    _initialize $toplevel
+    set sched2 [_getSchedule $scheduler]
+    set capacities2 [list [_getCapacity [java::field $a2 input]] \
+            [_getCapacity [java::field $a3 input]]]
+    list $sched1 $capacities1 $sched2 $capacities2
+} {{{Ramp Ramp Ramp Delay Delay Consumer Consumer}} {6 2} {{Ramp Ramp Delay Consumer Ramp Delay Consumer}} {4 1}}
+
+test SDFScheduler-16.2 {Consecutive firings are grouped} {
+    # Uses 16.1 above
+    set firings [[$scheduler getSchedule] iterator]
+    set counts {}
+    while {[$firings hasNext]} {
+        set firing [java::cast ptolemy.actor.sched.Firing [$firings next]]
+        lappend counts [$firing getIterationCount]
+    }
+    [java::field $director minimizeBufferSizes] setExpression false
+    list $counts
+} {{2 1 1 1 1 1}}
@@ -37,7 +37,7 @@ import ptolemy.kernel.util.Attribute;
 import ptolemy.kernel.util.IllegalActionException;
 import ptolemy.kernel.util.NameDuplicationException;
 import ptolemy.math.Complex;
-import ptolemy.math.SignalProcessing;
+import ptolemy.math.FFTPlan;
 
 ///////////////////////////////////////////////////////////////////
 //// IFFT
@@ -112,7 +112,8 @@ public class IFFT extends SDFTransformer {
 
             _transformSize = (int) Math.pow(2, _orderValue);
 
-            _inComplexArray = new Complex[_transformSize];
+            _plan = FFTPlan.forOrder(_orderValue);
+            _data = new double[2 * _transformSize];
             _outTokenArray = new ComplexToken[_transformSize];
         } else {
             super.attributeChanged(attribute);
@@ -128,16 +129,18 @@ public class IFFT extends SDFTransformer {
 
         Token[] inTokenArray = input.get(0, _transformSize);
 
+        // Transform interleaved real and imaginary parts in place.
         for (int i = 0; i < _transformSize; i++) {
-            _inComplexArray[i] = ((ComplexToken) inTokenArray[i])
-                    .complexValue();
+            Complex value = ((ComplexToken) inTokenArray[i]).complexValue();
+            _data[2 * i] = value.real;
+            _data[2 * i + 1] = value.imag;
         }
 
-        Complex[] outComplexArray = SignalProcessing
-                .IFFTComplexOut(_inComplexArray, _orderValue);
+        _plan.inverseTransform(_data);
 
         for (int i = 0; i < _transformSize; i++) {
-            _outTokenArray[i] = new ComplexToken(outComplexArray[i]);
+            _outTokenArray[i] = new ComplexToken(
+                    new Complex(_data[2 * i], _data[2 * i + 1]));
         }
 
         output.send(0, _outTokenArray, _transformSize);
@@ -149,7 +152,9 @@ public class IFFT extends SDFTransformer {
 
     private int _orderValue;
 
-    private ComplexToken[] _outTokenArray;
+    private double[] _data;
+
+    private FFTPlan _plan;
 
-    private Complex[] _inComplexArray;
+    private ComplexToken[] _outTokenArray;
 }
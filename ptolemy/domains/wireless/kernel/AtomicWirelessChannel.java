@@ -27,11 +27,15 @@
  */
 package ptolemy.domains.wireless.kernel;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import ptolemy.actor.IOPort;
@@ -203,6 +207,7 @@ public class AtomicWirelessChannel extends TypedAtomicActor
         newObject._receiversInRangeCacheValid = false;
         newObject._listeningInputPorts = null;
         newObject._listeningInputPortsVersion = -1L;
+        newObject._locationIndex = null;
         newObject._listeningOutputPorts = null;
         newObject._listeningOutputPortsVersion = -1L;
         newObject._propertyTransformers = null;
@@ -772,6 +777,30 @@ public class AtomicWirelessChannel extends TypedAtomicActor
         return location.getLocation();
     }
 
+    /** Return an upper bound on the distance between the specified source
+     *  port and any port that is in range of it, assuming the source port
+     *  transmits with the specified properties. If the bound is finite,
+     *  then {@link #_receiversInRange(WirelessIOPort, RecordToken)} uses a
+     *  grid of the locations of the listening ports to find the candidate
+     *  ports, and calls {@link #_isInRange(WirelessIOPort, WirelessIOPort,
+     *  RecordToken)} only for those within the bound, where distances are
+     *  measured as in {@link #_distanceBetween(WirelessIOPort,
+     *  WirelessIOPort)}. In this base class, every port is in range, so
+     *  this method returns infinity. Subclasses that override
+     *  _distanceBetween() or _locationOf() should override this method to
+     *  be consistent with them.
+     *  @param source The source port.
+     *  @param properties The transmission properties (ignored in this base
+     *   class).
+     *  @return The maximum range of the transmission.
+     *  @exception IllegalActionException If the range cannot be determined
+     *   (not thrown in this base class).
+     */
+    protected double _maximumRange(WirelessIOPort source,
+            RecordToken properties) throws IllegalActionException {
+        return Double.POSITIVE_INFINITY;
+    }
+
     /** Return the list of receivers that can receive from the specified
      *  port with the specified transmission properties. Ports that are contained
      *  by the same container as the specified <i>sourcePort</i> are
@@ -804,6 +833,12 @@ public class AtomicWirelessChannel extends TypedAtomicActor
         //     invalidate the cache if it changes.
         //  Use the performance.xml test to determine whether/how much
         //  this helps.
+        if (!_receiversInRangeCacheValid && _receiversInRangeCache != null) {
+            // The flag applies to the lists cached for all the source
+            // ports, so discard them all before it is set again below.
+            _receiversInRangeCache.clear();
+            _receiversInRangeCacheVersion.clear();
+        }
         if (_receiversInRangeCache != null
                 && _receiversInRangeCache.containsKey(sourcePort)
                 && ((Long) _receiversInRangeCacheVersion.get(sourcePort))
@@ -813,39 +848,71 @@ public class AtomicWirelessChannel extends TypedAtomicActor
             return (List) _receiversInRangeCache.get(sourcePort);
         }
 
-        List receiversInRangeList = new LinkedList();
-        Iterator ports = listeningInputPorts().iterator();
-
-        while (ports.hasNext()) {
-            WirelessIOPort port = (WirelessIOPort) ports.next();
+        List<Receiver> receiversInRangeList = new LinkedList<Receiver>();
+        double range = _maximumRange(sourcePort, properties);
 
-            // Skip ports contained by the same container as the source.
-            if (port.getContainer() == sourcePort.getContainer()) {
-                continue;
+        if (range < Double.POSITIVE_INFINITY) {
+            // Only the ports in the cells of the location grid that
+            // overlap the range need to be checked.
+            if (_locationIndex == null
+                    || _locationIndex.version != workspace().getVersion()) {
+                if (_locationIndex != null) {
+                    _locationIndex.dispose();
+                }
+                _locationIndex = new LocationIndex(range);
             }
+            for (LocationIndex.Entry entry : _locationIndex
+                    .candidates(_locationOf(sourcePort), range)) {
+                WirelessIOPort port = entry.port;
+                if (!entry.inside
+                        && port.getContainer() == sourcePort.getContainer()) {
+                    continue;
+                }
+                if (_isInRange(sourcePort, port, properties)) {
+                    Receiver[][] receivers = entry.inside
+                            ? port.getInsideReceivers()
+                            : port.getReceivers();
+                    for (Receiver[] receiver : receivers) {
+                        for (int j = 0; j < receiver.length; j++) {
+                            receiversInRangeList.add(receiver[j]);
+                        }
+                    }
+                }
+            }
+        } else {
+            Iterator ports = listeningInputPorts().iterator();
+
+            while (ports.hasNext()) {
+                WirelessIOPort port = (WirelessIOPort) ports.next();
+
+                // Skip ports contained by the same container as the source.
+                if (port.getContainer() == sourcePort.getContainer()) {
+                    continue;
+                }
 
-            if (_isInRange(sourcePort, port, properties)) {
-                Receiver[][] receivers = port.getReceivers();
+                if (_isInRange(sourcePort, port, properties)) {
+                    Receiver[][] receivers = port.getReceivers();
 
-                for (Receiver[] receiver : receivers) {
-                    for (int j = 0; j < receiver.length; j++) {
-                        receiversInRangeList.add(receiver[j]);
+                    for (Receiver[] receiver : receivers) {
+                        for (int j = 0; j < receiver.length; j++) {
+                            receiversInRangeList.add(receiver[j]);
+                        }
                     }
                 }
             }
-        }
 
-        ports = listeningOutputPorts().iterator();
+            ports = listeningOutputPorts().iterator();
 
-        while (ports.hasNext()) {
-            WirelessIOPort port = (WirelessIOPort) ports.next();
+            while (ports.hasNext()) {
+                WirelessIOPort port = (WirelessIOPort) ports.next();
 
-            if (_isInRange(sourcePort, port, properties)) {
-                Receiver[][] receivers = port.getInsideReceivers();
+                if (_isInRange(sourcePort, port, properties)) {
+                    Receiver[][] receivers = port.getInsideReceivers();
 
-                for (Receiver[] receiver : receivers) {
-                    for (int j = 0; j < receiver.length; j++) {
-                        receiversInRangeList.add(receiver[j]);
+                    for (Receiver[] receiver : receivers) {
+                        for (int j = 0; j < receiver.length; j++) {
+                            receiversInRangeList.add(receiver[j]);
+                        }
                     }
                 }
             }
@@ -926,6 +993,11 @@ public class AtomicWirelessChannel extends TypedAtomicActor
 
     private long _listeningOutputPortsVersion = -1L;
 
+    /** The grid of the locations of the listening ports, or null if it
+     *  has not been built.
+     */
+    private LocationIndex _locationIndex;
+
     /** The property transformers that have been registered without
      *  specifying a port.
      */
@@ -963,4 +1035,182 @@ public class AtomicWirelessChannel extends TypedAtomicActor
      *  method.
      */
     private ChannelPort _channelPort;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         inner classes                     ////
+
+    /** A uniform grid of the locations of the listening ports of this
+     *  channel. The grid listens to the location attributes of the ports
+     *  and moves a port to another cell when its location changes, so
+     *  that mobile nodes do not require the grid to be rebuilt. The grid
+     *  is rebuilt when the workspace version changes.
+     */
+    private class LocationIndex implements ValueListener {
+
+        /** Build a grid of the listening ports with the specified cell
+         *  size.
+         *  @param cellSize The width and height of the cells.
+         *  @exception IllegalActionException If the location of a
+         *   listening port cannot be determined.
+         */
+        public LocationIndex(double cellSize) throws IllegalActionException {
+            version = workspace().getVersion();
+            _cellSize = cellSize > 0.0 ? cellSize : 1.0;
+            int index = 0;
+            for (Object port : listeningInputPorts()) {
+                _add((WirelessIOPort) port, false, index++);
+            }
+            for (Object port : listeningOutputPorts()) {
+                _add((WirelessIOPort) port, true, index++);
+            }
+        }
+
+        /** Return the ports within the cells that overlap the square of
+         *  the specified half width around the specified location, in
+         *  the order of listeningInputPorts() followed by
+         *  listeningOutputPorts().
+         *  @param location The center of the square.
+         *  @param range The half width of the square.
+         *  @return A list of entries of the grid.
+         */
+        public synchronized List<Entry> candidates(double[] location,
+                double range) {
+            List<Entry> result;
+            if (range < 0.0) {
+                return Collections.emptyList();
+            }
+            long minX = _cell(location[0] - range);
+            long maxX = _cell(location[0] + range);
+            long minY = _cell(location[1] - range);
+            long maxY = _cell(location[1] + range);
+            if ((maxX - minX + 1) * (maxY - minY + 1) > _entries.size()) {
+                // Visiting the cells would cost more than checking all
+                // the ports.
+                result = new ArrayList<Entry>(_entries);
+            } else {
+                result = new ArrayList<Entry>();
+                for (long x = minX; x <= maxX; x++) {
+                    for (long y = minY; y <= maxY; y++) {
+                        List<Entry> cell = _cells.get(_key(x, y));
+                        if (cell != null) {
+                            result.addAll(cell);
+                        }
+                    }
+                }
+                Collections.sort(result, _indexComparator);
+            }
+            return result;
+        }
+
+        /** Stop listening to the location attributes of the ports.
+         */
+        public synchronized void dispose() {
+            for (Locatable location : _entriesByLocation.keySet()) {
+                location.removeValueListener(this);
+            }
+            _entriesByLocation.clear();
+        }
+
+        /** Move the ports with the specified location attribute to the
+         *  cell of their new location.
+         *  @param settable The location attribute that has changed.
+         */
+        @Override
+        public synchronized void valueChanged(Settable settable) {
+            List<Entry> entries = _entriesByLocation.get(settable);
+            if (entries == null) {
+                return;
+            }
+            double[] location = ((Locatable) settable).getLocation();
+            long key = _key(_cell(location[0]), _cell(location[1]));
+            for (Entry entry : entries) {
+                if (entry.cell != key) {
+                    _cells.get(entry.cell).remove(entry);
+                    entry.cell = key;
+                    _addToCell(entry);
+                }
+            }
+        }
+
+        /** The workspace version when the grid was built. */
+        public final long version;
+
+        /** A port in the grid. */
+        public class Entry {
+            /** True if the port is a listening output port. */
+            public boolean inside;
+
+            /** The position of the port in the listening port lists. */
+            public int index;
+
+            /** The port. */
+            public WirelessIOPort port;
+
+            /** The key of the cell containing the port. */
+            public long cell;
+        }
+
+        private void _add(WirelessIOPort port, boolean inside, int index)
+                throws IllegalActionException {
+            double[] location = _locationOf(port);
+            Entry entry = new Entry();
+            entry.inside = inside;
+            entry.index = index;
+            entry.port = port;
+            entry.cell = _key(_cell(location[0]), _cell(location[1]));
+            _entries.add(entry);
+            _addToCell(entry);
+
+            Entity container = (Entity) port.getContainer();
+            Locatable locatable;
+            if (container == getContainer()) {
+                locatable = (Locatable) port
+                        .getAttribute(LOCATION_ATTRIBUTE_NAME, Locatable.class);
+            } else {
+                locatable = (Locatable) container
+                        .getAttribute(LOCATION_ATTRIBUTE_NAME, Locatable.class);
+            }
+            if (locatable != null) {
+                List<Entry> entries = _entriesByLocation.get(locatable);
+                if (entries == null) {
+                    entries = new LinkedList<Entry>();
+                    _entriesByLocation.put(locatable, entries);
+                    locatable.addValueListener(this);
+                }
+                entries.add(entry);
+            }
+        }
+
+        private void _addToCell(Entry entry) {
+            List<Entry> cell = _cells.get(entry.cell);
+            if (cell == null) {
+                cell = new LinkedList<Entry>();
+                _cells.put(entry.cell, cell);
+            }
+            cell.add(entry);
+        }
+
+        private long _cell(double coordinate) {
+            return (long) Math.floor(coordinate / _cellSize);
+        }
+
+        private long _key(long x, long y) {
+            return x << 32 ^ y & 0xffffffffL;
+        }
+
+        private Map<Long, List<Entry>> _cells = new HashMap<Long, List<Entry>>();
+
+        private double _cellSize;
+
+        private List<Entry> _entries = new ArrayList<Entry>();
+
+        private Map<Locatable, List<Entry>> _entriesByLocation = new HashMap<Locatable, List<Entry>>();
+
+        private final Comparator<Entry> _indexComparator = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry entry1, Entry entry2) {
+                return entry1.index - entry2.index;
+            }
+        };
+    }
 }
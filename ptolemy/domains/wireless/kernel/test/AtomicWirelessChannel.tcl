@@ -0,0 +1,114 @@
+# Tests for the AtomicWirelessChannel class
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+# Uncomment this to get a full report, or set in your Tcl shell window.
+# set VERBOSE 1
+
+# Create a node at the specified location with a wireless port that
+# uses the channel named "channel", and return the port.
+proc wirelessNode {container name x y isInput} {
+    set node [java::new ptolemy.actor.TypedAtomicActor $container $name]
+    set location [java::new ptolemy.kernel.util.Location $node _location]
+    $location setLocation [java::new {double[]} 2 [list $x $y]]
+    set port [java::new ptolemy.domains.wireless.kernel.WirelessIOPort \
+            $node port $isInput [expr {!$isInput}]]
+    [java::field $port outsideChannel] setExpression channel
+    return $port
+}
+
+# Move the node that contains the specified port.
+proc moveNode {port x y} {
+    set location [java::cast ptolemy.kernel.util.Location \
+            [[$port getContainer] getAttribute _location]]
+    $location setLocation [java::new {double[]} 2 [list $x $y]]
+}
+
+# Return the sorted names of the nodes whose receivers are in range of
+# the specified port.
+proc nodesInRange {channel port} {
+    set method [[java::call Class forName \
+            ptolemy.domains.wireless.kernel.AtomicWirelessChannel] \
+            getDeclaredMethod _receiversInRange \
+            [java::new {Class[]} 2 [list \
+            [java::call Class forName \
+            ptolemy.domains.wireless.kernel.WirelessIOPort] \
+            [java::call Class forName ptolemy.data.RecordToken]]]]
+    $method setAccessible true
+    set receivers [java::cast java.util.List [$method invoke $channel \
+            [java::new {Object[]} 2 [list $port [java::null]]]]]
+    set names {}
+    for {set i 0} {$i < [$receivers size]} {incr i} {
+        set receiver [java::cast ptolemy.actor.Receiver [$receivers get $i]]
+        lappend names [[[$receiver getContainer] getContainer] getName]
+    }
+    return [lsort $names]
+}
+
+######################################################################
+#### Test the cache of the receivers in range
+#
+test AtomicWirelessChannel-1.1 {moving a node changes the receivers in range} {
+    set w [java::new ptolemy.kernel.util.Workspace W]
+    set manager [java::new ptolemy.actor.Manager $w Manager]
+    set e0 [java::new ptolemy.actor.TypedCompositeActor $w]
+    $e0 setName E0
+    $e0 setManager $manager
+    set director [java::new ptolemy.domains.wireless.kernel.WirelessDirector \
+            $e0 WirelessDirector]
+    set channel [java::new ptolemy.domains.wireless.lib.LimitedRangeChannel \
+            $e0 channel]
+    [java::field [java::cast ptolemy.domains.wireless.kernel.AtomicWirelessChannel \
+            $channel] defaultProperties] setExpression "{range = 100.0}"
+    set senderA [wirelessNode $e0 A 0.0 0.0 0]
+    set senderB [wirelessNode $e0 B 500.0 0.0 0]
+    set receiverC [wirelessNode $e0 C 50.0 0.0 1]
+    set receiverD [wirelessNode $e0 D 450.0 0.0 1]
+    $manager initialize
+    $manager iterate
+    set before [list [nodesInRange $channel $senderA] \
+            [nodesInRange $channel $senderB]]
+    # Move C next to B, between two iterations.  The lists cached for
+    # both senders have to be discarded, not only the first one that
+    # is recomputed.
+    moveNode $receiverC 520.0 0.0
+    $manager iterate
+    set after [list [nodesInRange $channel $senderA] \
+            [nodesInRange $channel $senderB]]
+    $manager wrapup
+    list $before $after
+} {{C D} {{} {C D}}}
@@ -140,6 +140,23 @@ public class LimitedRangeChannel extends DelayChannel {
     protected boolean _isInRange(WirelessIOPort source,
             WirelessIOPort destination, RecordToken properties)
             throws IllegalActionException {
+        double range = _maximumRange(source, properties);
+        return _distanceBetween(source, destination) <= range;
+    }
+
+    /** Return the range of the transmission from the specified source
+     *  port with the specified properties, which is the "range" field of
+     *  the properties if it is present, and the "range" field of the
+     *  <i>defaultProperties</i> otherwise.
+     *  @param source The source port.
+     *  @param properties Properties of the transmission.
+     *  @return The range of the transmission.
+     *  @exception IllegalActionException If the default properties
+     *   cannot be evaluated.
+     */
+    @Override
+    protected double _maximumRange(WirelessIOPort source,
+            RecordToken properties) throws IllegalActionException {
         double range = Double.POSITIVE_INFINITY;
         boolean rangeIsSet = false;
 
@@ -166,8 +183,6 @@ public class LimitedRangeChannel extends DelayChannel {
             range = field.doubleValue();
         }
 
-        boolean result = _distanceBetween(source, destination) <= range;
-
         // Whether a port is in range depends on the
         // transmit properties of this sender, so we set up
         // a listener to be notified of any changes in those
@@ -181,6 +196,6 @@ public class LimitedRangeChannel extends DelayChannel {
             source.insideTransmitProperties.addValueListener(this);
         }
 
-        return result;
+        return range;
     }
 }
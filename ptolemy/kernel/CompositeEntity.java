@@ -29,6 +29,7 @@ package ptolemy.kernel;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -291,6 +292,8 @@ public class CompositeEntity extends ComponentEntity {
 
             newEntity._containedEntities = new NamedList(newEntity);
             newEntity._containedRelations = new NamedList(newEntity);
+            newEntity._deepEntityListCache = null;
+            newEntity._deepEntityListVersion = -1L;
 
             // Clone the contained relations.
             Iterator relations = relationList().iterator();
@@ -688,6 +691,10 @@ public class CompositeEntity extends ComponentEntity {
      *  contained by this entity.  The list will be empty if there
      *  are no such contained entities. This list does not include
      *  class definitions nor anything contained by them.
+     *  The list is cached until the workspace version changes,
+     *  so repeated calls on an unchanged model do not traverse
+     *  the hierarchy. Each call returns a new copy of the cached
+     *  list, which the caller may modify.
      *  This method is read-synchronized on the workspace.
      *  @return A list of opaque ComponentEntity objects.
      *  @see #classDefinitionList()
@@ -697,7 +704,14 @@ public class CompositeEntity extends ComponentEntity {
         try {
             _workspace.getReadAccess();
 
-            LinkedList result = new LinkedList();
+            if (_workspace.getVersion() == _deepEntityListVersion) {
+                List deepEntityList = _deepEntityListCache.get();
+                if (deepEntityList != null) {
+                    return new ArrayList(deepEntityList);
+                }
+            }
+
+            List result = new ArrayList();
 
             // This might be called from within a superclass constructor,
             // in which case there are no contained entities yet.
@@ -717,6 +731,12 @@ public class CompositeEntity extends ComponentEntity {
                 }
             }
 
+            // The version is read after the traversal because
+            // populating a lazy composite during the traversal
+            // increments it.
+            _deepEntityListCache = new SoftReference<List>(
+                    Collections.unmodifiableList(new ArrayList(result)));
+            _deepEntityListVersion = _workspace.getVersion();
             return result;
         } finally {
             _workspace.doneReading();
@@ -2811,6 +2831,12 @@ public class CompositeEntity extends ComponentEntity {
     /** Workspace version for cache. */
     private transient long _classDefinitionListVersion = -1L;
 
+    /** Cache of deep entity list. */
+    private transient SoftReference<List> _deepEntityListCache;
+
+    /** Workspace version for cache. */
+    private transient volatile long _deepEntityListVersion = -1L;
+
     /** The default value icon.  This is static so that we avoid doing
      *  string concatenation each time we construct this object.
      */
@@ -1467,6 +1467,25 @@ test CompositeEntity-23.1 {compare deepEntityList and deepOpaqueEntityList} {
 	[listToNames [$e0 deepOpaqueEntityList]]
 } {{E1 E2 E5 E6 E8 E9} {E1 E2 E5 E6 E8 E9}}
 
+test CompositeEntity-23.2 {deepEntityList reflects changes to the hierarchy} {
+    set a [java::new ptolemy.kernel.CompositeEntity]
+    $a setName A
+    set b [java::new ptolemy.kernel.CompositeEntity $a B]
+    set c [java::new ptolemy.kernel.ComponentEntity $b C]
+    set r1 [listToNames [$a deepEntityList]]
+    set d [java::new ptolemy.kernel.ComponentEntity $b D]
+    set r2 [listToNames [$a deepEntityList]]
+    $c setClassDefinition true
+    set r3 [listToNames [$a deepEntityList]]
+    $d setContainer [java::null]
+    set r4 [listToNames [$a deepEntityList]]
+    # Modifying the returned list does not modify the cached list.
+    set e [java::new ptolemy.kernel.ComponentEntity $b E]
+    [$a deepEntityList] clear
+    set r5 [listToNames [$a deepEntityList]]
+    list $r1 $r2 $r3 $r4 $r5
+} {C {C D} D {} E}
+
 ######################################################################
 ####
 #
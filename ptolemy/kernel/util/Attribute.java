@@ -119,6 +119,9 @@ public class Attribute extends NamedObj {
                     container._attributes = new NamedList();
                 }
                 container._attributes.append(this);
+                // The workspace version does not change, so
+                // discard the index of the container's attributes.
+                container._attributeIndex = null;
 
                 _container = container;
                 // Make sure even the debugging messages are unchanged.
@@ -392,6 +392,10 @@ public class NamedObj implements Changeable, Cloneable, Debuggable,
     /** Return a list of the attributes contained by this object that
      *  are instances of the specified class.  If there are no such
      *  instances, then return an empty list.
+     *  The attributes of each class are indexed until the workspace
+     *  version changes, so repeated calls on an unchanged model do not
+     *  test every attribute. The returned list is a new list that the
+     *  caller may modify.
      *  This method is read-synchronized on the workspace.
      *  @param filter The class of attribute of interest.
      *  @param <T> The type of that class.
@@ -405,19 +409,37 @@ public class NamedObj implements Changeable, Cloneable, Debuggable,
                 _attributes = new NamedList();
             }
 
-            List<T> result = new LinkedList<T>();
-            Iterator<?> attributes = _attributes.elementList().iterator();
+            long version = _workspace.getVersion();
+            AttributeIndex index = _attributeIndex;
+            if (index != null && index.version != version) {
+                index = null;
+            }
+            List<?> matches = index == null ? null : index.lists.get(filter);
 
-            while (attributes.hasNext()) {
-                Object attribute = attributes.next();
+            if (matches == null) {
+                List<Object> newMatches = new ArrayList<Object>();
+                Iterator<?> attributes = _attributes.elementList().iterator();
+
+                while (attributes.hasNext()) {
+                    Object attribute = attributes.next();
 
-                if (filter.isInstance(attribute)) {
-                    @SuppressWarnings("unchecked")
-                    T tAttribute = (T) attribute;
-                    result.add(tAttribute);
+                    if (filter.isInstance(attribute)) {
+                        newMatches.add(attribute);
+                    }
                 }
+
+                // Replace rather than update the index so that
+                // concurrent readers never see a partially built map.
+                Map<Class<?>, List<?>> lists = index == null
+                        ? new HashMap<Class<?>, List<?>>()
+                        : new HashMap<Class<?>, List<?>>(index.lists);
+                lists.put(filter, newMatches);
+                _attributeIndex = new AttributeIndex(version, lists);
+                matches = newMatches;
             }
 
+            @SuppressWarnings("unchecked")
+            List<T> result = new LinkedList<T>((List<T>) matches);
             return result;
         } finally {
             _workspace.doneReading();
@@ -512,6 +534,7 @@ public class NamedObj implements Changeable, Cloneable, Debuggable,
             // workspace because this only affects its directory, and methods
             // to access the directory are synchronized.
             newObject._attributes = null;
+            newObject._attributeIndex = null;
 
             newObject._decoratorAttributes = new HashMap<Decorator, DecoratorAttributes>();
             newObject._decoratorAttributesVersion = -1L;
@@ -3524,6 +3547,11 @@ public class NamedObj implements Changeable, Cloneable, Debuggable,
     /** The Attributes attached to this object. */
     NamedList _attributes;
 
+    /** The index of the attributes by class, used by
+     *  attributeList(Class), or null if there is none.
+     */
+    transient volatile AttributeIndex _attributeIndex;
+
     ///////////////////////////////////////////////////////////////////
     ////                         private variables                 ////
 
@@ -3577,6 +3605,26 @@ public class NamedObj implements Changeable, Cloneable, Debuggable,
     ///////////////////////////////////////////////////////////////////
     ////                         inner classes                     ////
 
+    /** The attributes of an object that are instances of each of
+     *  a number of classes, for one version of the workspace.
+     */
+    static class AttributeIndex {
+        /** Construct an index.
+         *  @param version The workspace version.
+         *  @param lists The attributes of each class.
+         */
+        AttributeIndex(long version, Map<Class<?>, List<?>> lists) {
+            this.version = version;
+            this.lists = lists;
+        }
+
+        /** The attributes of each class. */
+        final Map<Class<?>, List<?>> lists;
+
+        /** The workspace version for which the index is valid. */
+        final long version;
+    }
+
     /** This class is an iterator over all the contained objects
      *  (all instances of NamedObj). In this base class, the contained
      *  objects are attributes.  In derived classes, they include
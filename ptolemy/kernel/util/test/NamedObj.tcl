@@ -663,6 +663,23 @@ test NamedObj-13.2 {Test attributeList with filter} {
     listToNames [$a attributeList [$a1 getClass]]
 } {A0 A2}
 
+test NamedObj-13.3 {Test attributeList with filter after changes} {
+    set n [java::new ptolemy.kernel.util.Workspace]
+    set a [java::new ptolemy.kernel.util.NamedObj $n "A"]
+    set a1 [java::new ptolemy.kernel.util.Attribute $a "A0"]
+    set a2 [java::new ptolemy.kernel.util.StringAttribute $a "A1"]
+    set filter [$a2 getClass]
+    set r1 [listToNames [$a attributeList $filter]]
+    set a3 [java::new ptolemy.kernel.util.StringAttribute $a "A2"]
+    set r2 [listToNames [$a attributeList $filter]]
+    $a2 setContainer [java::null]
+    set r3 [listToNames [$a attributeList $filter]]
+    # The returned list may be modified by the caller.
+    [$a attributeList $filter] clear
+    set r4 [listToNames [$a attributeList $filter]]
+    list $r1 $r2 $r3 $r4
+} {A1 {A1 A2} A2 A2}
+
 test NamedObj-13.4 {Test getAttributes, which is deprecated } {
     set n [java::new ptolemy.kernel.util.Workspace]
     set a [java::new ptolemy.kernel.util.NamedObj $n "A"]
@@ -0,0 +1,357 @@
+/* A precomputed plan for fast Fourier transforms of a fixed size.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+
+ */
+package ptolemy.math;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+///////////////////////////////////////////////////////////////////
+//// FFTPlan
+
+/**
+ A precomputed plan for radix-2 fast Fourier transforms of size
+ 2<sup><i>order</i></sup>.  A plan holds the bit-reversal permutation and
+ the twiddle factors for its size, so repeated transforms of the same
+ size do not recompute them.  Plans are immutable and shared; obtain one
+ with {@link #forOrder(int)}.
+
+ <p>Data is exchanged as interleaved arrays of doubles, where element
+ 2<i>k</i> is the real part and element 2<i>k</i>+1 the imaginary part of
+ the <i>k</i>-th complex value.  This avoids allocating a
+ {@link Complex} object per bin.  The transforms operate in place on the
+ first 2<sup><i>order</i>+1</sup> elements of the array.</p>
+
+ <p>The forward transform computes
+ <i>X</i>[<i>k</i>] = sum<sub><i>n</i></sub> <i>x</i>[<i>n</i>]
+ exp(-2&pi;<i>jkn</i>/<i>N</i>), which matches
+ {@link SignalProcessing#FFTComplexOut(Complex[], int)}.  The inverse
+ transform includes the 1/<i>N</i> scale factor.
+ {@link #realTransform(double[], double[])} computes the transform of a
+ real sequence of length <i>N</i> with a complex transform of length
+ <i>N</i>/2.</p>
+
+ <p>Transforms of order {@link #PARALLEL_ORDER} or more split the
+ butterflies of each stage across the common fork-join pool.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ @see SignalProcessing
+ */
+public final class FFTPlan {
+
+    // The constructor is private; use forOrder().
+    private FFTPlan(int order) {
+        _order = order;
+        _size = 1 << order;
+
+        int half = _size >> 1;
+        _cos = new double[half];
+        _sin = new double[half];
+        for (int k = 0; k < half; k++) {
+            double arg = 2.0 * Math.PI * k / _size;
+            _cos[k] = Math.cos(arg);
+            _sin[k] = Math.sin(arg);
+        }
+        if (_size >= 4) {
+            // Make the quarter-turn twiddle exact.
+            _cos[_size >> 2] = 0.0;
+            _sin[_size >> 2] = 1.0;
+        }
+
+        _bitReverse = new int[_size];
+        for (int i = 1; i < _size; i++) {
+            _bitReverse[i] = (_bitReverse[i >> 1] >> 1)
+                    | ((i & 1) << (order - 1));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public variables                  ////
+
+    /** The smallest order for which the butterflies of a stage are
+     *  computed in parallel.  Smaller transforms are not worth the
+     *  cost of dispatching tasks.
+     */
+    public static final int PARALLEL_ORDER = 16;
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Return the shared plan for transforms of size 2<sup>order</sup>,
+     *  creating it if necessary.
+     *  @param order The base-2 logarithm of the size of the transform.
+     *  @return The plan.
+     *  @exception IllegalArgumentException If the order is negative or
+     *   greater than 30.
+     */
+    public static FFTPlan forOrder(int order) {
+        if (order < 0 || order > 30) {
+            throw new IllegalArgumentException(
+                    "ptolemy.math.FFTPlan: order of transform must be "
+                            + "between 0 and 30, but was " + order + ".");
+        }
+        FFTPlan plan = _plans[order];
+        if (plan == null) {
+            synchronized (_plans) {
+                plan = _plans[order];
+                if (plan == null) {
+                    plan = new FFTPlan(order);
+                    _plans[order] = plan;
+                }
+            }
+        }
+        return plan;
+    }
+
+    /** Compute the real sequence whose transform is the given half
+     *  spectrum, in the format produced by
+     *  {@link #realTransform(double[], double[])}.
+     *  The spectrum is used as scratch space and is overwritten.
+     *  @param spectrum The interleaved bins 0 through <i>N</i>/2, of
+     *   length at least <i>N</i>+2.
+     *  @param result The array of length at least <i>N</i> in which to
+     *   store the real sequence.
+     */
+    public void inverseRealTransform(double[] spectrum, double[] result) {
+        if (_order == 0) {
+            result[0] = spectrum[0];
+            return;
+        }
+        int half = _size >> 1;
+        double re0 = spectrum[0];
+        double reHalf = spectrum[_size];
+        spectrum[0] = 0.5 * (re0 + reHalf);
+        spectrum[1] = 0.5 * (re0 - reHalf);
+        for (int k = 1; k <= half >> 1; k++) {
+            int m = half - k;
+            double xr = spectrum[2 * k];
+            double xi = spectrum[2 * k + 1];
+            double yr = spectrum[2 * m];
+            double yi = spectrum[2 * m + 1];
+
+            // Even and odd parts, as in realTransform().
+            double er = 0.5 * (xr + yr);
+            double ei = 0.5 * (xi - yi);
+            double dr = 0.5 * (xr - yr);
+            double di = 0.5 * (xi + yi);
+
+            // Odd part is the difference times exp(+2 pi j k / N).
+            double c = _cos[k];
+            double s = _sin[k];
+            double or = dr * c - di * s;
+            double oi = dr * s + di * c;
+
+            // Z[k] = E + j O, and Z[M-k] = conj(E) + j conj(O).
+            spectrum[2 * k] = er - oi;
+            spectrum[2 * k + 1] = ei + or;
+            spectrum[2 * m] = er + oi;
+            spectrum[2 * m + 1] = or - ei;
+        }
+        FFTPlan halfPlan = forOrder(_order - 1);
+        halfPlan.inverseTransform(spectrum);
+        System.arraycopy(spectrum, 0, result, 0, _size);
+    }
+
+    /** Compute the inverse transform, including the 1/<i>N</i> scale
+     *  factor, of the interleaved complex data in place.
+     *  @param data The interleaved data, of length at least 2<i>N</i>.
+     */
+    public void inverseTransform(double[] data) {
+        _transform(data, true);
+        double scale = 1.0 / _size;
+        int length = _size << 1;
+        for (int i = 0; i < length; i++) {
+            data[i] *= scale;
+        }
+    }
+
+    /** Return the base-2 logarithm of the size of this plan.
+     *  @return The order.
+     */
+    public int order() {
+        return _order;
+    }
+
+    /** Compute the transform of a real sequence of length <i>N</i>.
+     *  Only bins 0 through <i>N</i>/2 are produced; the remaining bins
+     *  are the complex conjugates of these.  This is about half as
+     *  expensive as transforming a complex sequence of the same length.
+     *  @param x The real sequence.  If it is shorter than <i>N</i>, it
+     *   is zero padded; if it is longer, only the first <i>N</i>
+     *   elements are used.
+     *  @param spectrum The array of length at least <i>N</i>+2 in which
+     *   to store the interleaved bins 0 through <i>N</i>/2.
+     */
+    public void realTransform(double[] x, double[] spectrum) {
+        int length = Math.min(x.length, _size);
+        System.arraycopy(x, 0, spectrum, 0, length);
+        Arrays.fill(spectrum, length, _size + 2, 0.0);
+        if (_order == 0) {
+            return;
+        }
+        FFTPlan halfPlan = forOrder(_order - 1);
+        halfPlan.transform(spectrum);
+
+        // Split Z, the transform of the even samples plus j times the
+        // odd samples, into the transforms E and O of the even and odd
+        // samples; then X[k] = E[k] + exp(-2 pi j k / N) O[k].
+        int half = _size >> 1;
+        double zr = spectrum[0];
+        double zi = spectrum[1];
+        spectrum[0] = zr + zi;
+        spectrum[1] = 0.0;
+        spectrum[_size] = zr - zi;
+        spectrum[_size + 1] = 0.0;
+        for (int k = 1; k <= half >> 1; k++) {
+            int m = half - k;
+            double xr = spectrum[2 * k];
+            double xi = spectrum[2 * k + 1];
+            double yr = spectrum[2 * m];
+            double yi = spectrum[2 * m + 1];
+
+            double er = 0.5 * (xr + yr);
+            double ei = 0.5 * (xi - yi);
+            double or = 0.5 * (xi + yi);
+            double oi = 0.5 * (yr - xr);
+
+            double c = _cos[k];
+            double s = _sin[k];
+            double tr = or * c + oi * s;
+            double ti = oi * c - or * s;
+
+            spectrum[2 * k] = er + tr;
+            spectrum[2 * k + 1] = ei + ti;
+            spectrum[2 * m] = er - tr;
+            spectrum[2 * m + 1] = ti - ei;
+        }
+    }
+
+    /** Return the size of the transforms computed by this plan.
+     *  @return The size, 2<sup>order</sup>.
+     */
+    public int size() {
+        return _size;
+    }
+
+    /** Compute the forward transform of the interleaved complex data
+     *  in place.
+     *  @param data The interleaved data, of length at least 2<i>N</i>.
+     */
+    public void transform(double[] data) {
+        _transform(data, false);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Compute the butterflies with indices from (inclusive) to to
+     *  (exclusive) of the stage whose butterflies span 2^halfLog
+     *  elements.
+     */
+    private void _butterflies(double[] data, int halfLog, int from, int to,
+            boolean inverse) {
+        int half = 1 << halfLog;
+        int mask = half - 1;
+        int stride = _order - halfLog - 1;
+        for (int b = from; b < to; b++) {
+            int j = b & mask;
+            int a = ((b >> halfLog) << (halfLog + 1)) + j;
+            int w = j << stride;
+            double c = _cos[w];
+            double s = inverse ? -_sin[w] : _sin[w];
+
+            int ia = a << 1;
+            int ib = (a + half) << 1;
+            double br = data[ib];
+            double bi = data[ib + 1];
+            double tr = c * br + s * bi;
+            double ti = c * bi - s * br;
+            double ar = data[ia];
+            double ai = data[ia + 1];
+            data[ib] = ar - tr;
+            data[ib + 1] = ai - ti;
+            data[ia] = ar + tr;
+            data[ia + 1] = ai + ti;
+        }
+    }
+
+    /** Permute the data into bit-reversed order and run the stages. */
+    private void _transform(final double[] data, final boolean inverse) {
+        for (int i = 0; i < _size; i++) {
+            int j = _bitReverse[i];
+            if (i < j) {
+                int ii = i << 1;
+                int jj = j << 1;
+                double tmp = data[ii];
+                data[ii] = data[jj];
+                data[jj] = tmp;
+                tmp = data[ii + 1];
+                data[ii + 1] = data[jj + 1];
+                data[jj + 1] = tmp;
+            }
+        }
+        final int butterflies = _size >> 1;
+        for (int halfLog = 0; halfLog < _order; halfLog++) {
+            if (_order < PARALLEL_ORDER) {
+                _butterflies(data, halfLog, 0, butterflies, inverse);
+            } else {
+                final int stage = halfLog;
+                final int chunk = 1 << (PARALLEL_ORDER - 2);
+                IntStream.range(0, butterflies / chunk).parallel()
+                        .forEach(i -> _butterflies(data, stage, i * chunk,
+                                (i + 1) * chunk, inverse));
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The bit-reversal permutation. */
+    private final int[] _bitReverse;
+
+    /** cos(2 pi k / N) for k less than N/2. */
+    private final double[] _cos;
+
+    /** The base-2 logarithm of the size. */
+    private final int _order;
+
+    /** The shared plans, indexed by order. */
+    private static final FFTPlan[] _plans = new FFTPlan[31];
+
+    /** sin(2 pi k / N) for k less than N/2. */
+    private final double[] _sin;
+
+    /** The size of the transform. */
+    private final int _size;
+}
@@ -35,6 +35,8 @@
  */
 package ptolemy.math;
 
+import java.util.Arrays;
+
 ///////////////////////////////////////////////////////////////////
 //// SignalProcessing
 
@@ -149,6 +151,76 @@ public class SignalProcessing {
         return result;
     }
 
+    /** Return a new array that is the convolution of the two argument
+     *  arrays, computed by overlap-add fast convolution.  The shorter
+     *  array is transformed once, and the longer one is processed in
+     *  blocks using real-input FFTs of a fixed size, so the cost grows
+     *  as <i>N</i> log <i>M</i> rather than <i>NM</i> for arrays of
+     *  lengths <i>N</i> and <i>M</i>.  The result agrees with
+     *  {@link #convolve(double[], double[])}, which computes the sums
+     *  directly, only up to rounding error, so callers that need the
+     *  exact sums should use that method instead.
+     *  @param array1 The first array.
+     *  @param array2 The second array.
+     *  @return A new array of doubles whose length is the sum of the
+     *   lengths of the arguments minus one.
+     */
+    public static final double[] convolveOverlapAdd(double[] array1,
+            double[] array2) {
+        int resultSize = array1.length + array2.length - 1;
+        if (resultSize < 0) {
+            return new double[0];
+        }
+        double[] signal = array1;
+        double[] filter = array2;
+        if (filter.length > signal.length) {
+            signal = array2;
+            filter = array1;
+        }
+        double[] result = new double[resultSize];
+        if (filter.length == 0) {
+            return result;
+        }
+
+        // Use a transform at least twice as long as the filter, and up
+        // to eight times as long when the signal is long enough, which
+        // keeps the per-block overhead small.
+        int transformOrder = order(2 * filter.length);
+        while (transformOrder < 30 && (1 << transformOrder) < 8 * filter.length
+                && (1 << transformOrder) < resultSize) {
+            transformOrder++;
+        }
+        FFTPlan plan = FFTPlan.forOrder(transformOrder);
+        int size = plan.size();
+        int blockLength = size - filter.length + 1;
+
+        double[] filterSpectrum = new double[size + 2];
+        plan.realTransform(filter, filterSpectrum);
+
+        double[] block = new double[size];
+        double[] spectrum = new double[size + 2];
+        for (int start = 0; start < signal.length; start += blockLength) {
+            int length = Math.min(blockLength, signal.length - start);
+            System.arraycopy(signal, start, block, 0, length);
+            Arrays.fill(block, length, size, 0.0);
+            plan.realTransform(block, spectrum);
+            for (int k = 0; k <= size; k += 2) {
+                double re = spectrum[k];
+                double im = spectrum[k + 1];
+                double hr = filterSpectrum[k];
+                double hi = filterSpectrum[k + 1];
+                spectrum[k] = re * hr - im * hi;
+                spectrum[k + 1] = re * hi + im * hr;
+            }
+            plan.inverseRealTransform(spectrum, block);
+            int end = Math.min(start + size, resultSize);
+            for (int i = start; i < end; i++) {
+                result[i] += block[i - start];
+            }
+        }
+        return result;
+    }
+
     /** Return a new array of doubles that is the forward, normalized
      *  DCT of the input array of doubles.
      *  This method automatically computes the order of the transform
@@ -352,18 +424,9 @@ public class SignalProcessing {
     public static final Complex[] FFTComplexOut(Complex[] x, int order) {
         x = _checkTransformArgs(x, order, _FORWARD_TRANSFORM);
 
-        double[] realx = ComplexArrayMath.realParts(x);
-        double[] realrealX = FFTRealOut(realx, order);
-        double[] imagrealX = FFTImagOut(realx, order);
-
-        double[] imagx = ComplexArrayMath.imagParts(x);
-        double[] realimagX = FFTRealOut(imagx, order);
-        double[] imagimagX = FFTImagOut(imagx, order);
-
-        realrealX = DoubleArrayMath.subtract(realrealX, imagimagX);
-        imagrealX = DoubleArrayMath.add(imagrealX, realimagX);
-
-        return ComplexArrayMath.formComplexArray(realrealX, imagrealX);
+        double[] data = _interleave(x, 1 << order);
+        FFTPlan.forOrder(order).transform(data);
+        return _deinterleave(data, 1 << order);
     }
 
     /** Return a new array of Complex's which is the forward FFT
@@ -387,11 +450,21 @@ public class SignalProcessing {
      *  @return A new array of Complex's.
      */
     public static final Complex[] FFTComplexOut(double[] x, int order) {
-        // Argument checking is done inside FFTRealOut() and FFTImagOut()
-        double[] realPart = FFTRealOut(x, order);
-        double[] imagPart = FFTImagOut(x, order);
+        x = _checkTransformArgs(x, order, _FORWARD_TRANSFORM);
 
-        return ComplexArrayMath.formComplexArray(realPart, imagPart);
+        int size = 1 << order;
+        double[] spectrum = new double[size + 2];
+        FFTPlan.forOrder(order).realTransform(x, spectrum);
+
+        // The upper half of the spectrum is the conjugate of the lower.
+        Complex[] returnValue = new Complex[size];
+        for (int k = 0; k <= size >> 1; k++) {
+            returnValue[k] = new Complex(spectrum[2 * k], spectrum[2 * k + 1]);
+        }
+        for (int k = (size >> 1) + 1; k < size; k++) {
+            returnValue[k] = returnValue[size - k].conjugate();
+        }
+        return returnValue;
     }
 
     /** Return a new array of doubles which is the imaginary part of the
@@ -709,13 +782,9 @@ public class SignalProcessing {
     public static final Complex[] IFFTComplexOut(Complex[] x, int order) {
         x = _checkTransformArgs(x, order, _INVERSE_TRANSFORM);
 
-        Complex[] conjX = ComplexArrayMath.conjugate(x);
-        Complex[] yConj = FFTComplexOut(conjX, order);
-        Complex[] y = ComplexArrayMath.conjugate(yConj);
-
-        // scale by 1/N
-        double oneOverN = 1.0 / (1 << order);
-        return ComplexArrayMath.scale(y, oneOverN);
+        double[] data = _interleave(x, 1 << order);
+        FFTPlan.forOrder(order).inverseTransform(data);
+        return _deinterleave(data, 1 << order);
     }
 
     /** Return a new array of doubles which is the real part of the inverse
@@ -2020,6 +2089,17 @@ public class SignalProcessing {
         return returnValue;
     }
 
+    // Return a new interleaved array of the real and imaginary parts
+    // of the first size elements of x.
+    private static double[] _interleave(Complex[] x, int size) {
+        double[] data = new double[2 * size];
+        for (int k = 0; k < size; k++) {
+            data[2 * k] = x[k].real;
+            data[2 * k + 1] = x[k].imag;
+        }
+        return data;
+    }
+
     // Returns an array with half the size because of the symmetry
     // of the sinDFT function.
     private static double[] _sinDFT(double[] x, int size, int order) {
@@ -2077,6 +2157,16 @@ public class SignalProcessing {
         return returnValue;
     }
 
+    // Return a new array of Complex's from the first size values of
+    // the interleaved array.
+    private static Complex[] _deinterleave(double[] data, int size) {
+        Complex[] returnValue = new Complex[size];
+        for (int k = 0; k < size; k++) {
+            returnValue[k] = new Complex(data[2 * k], data[2 * k + 1]);
+        }
+        return returnValue;
+    }
+
     private static double[] _DCT(double[] x, int size, int order) {
         double[] returnValue;
 
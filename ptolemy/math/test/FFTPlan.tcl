@@ -0,0 +1,146 @@
+# Tests for the FFTPlan class
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# 
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+# 
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+# 
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+# 
+# 						PT_COPYRIGHT_VERSION_2
+# 						COPYRIGHTENDKEY
+#######################################################################
+
+# Ptolemy II test bed, see $PTII/doc/coding/testing.html for more information.
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then { 
+    source testDefs.tcl
+} {}
+
+# Uncomment this to get a full report, or set in your Tcl shell window.
+
+####################################################################
+test FFTPlan-1.1 {forOrder returns shared plans} {
+    set p3 [java::call ptolemy.math.FFTPlan forOrder 3]
+    set p3b [java::call ptolemy.math.FFTPlan forOrder 3]
+    list [$p3 size] [$p3 order] [$p3 equals $p3b]
+} {8 3 1}
+
+####################################################################
+test FFTPlan-1.2 {forOrder with a bad order} {
+    catch {java::call ptolemy.math.FFTPlan forOrder -1} errMsg
+    list $errMsg
+} {{java.lang.IllegalArgumentException: ptolemy.math.FFTPlan: order of transform must be between 0 and 30, but was -1.}}
+
+####################################################################
+test FFTPlan-2.1 {transform and inverseTransform of interleaved data} {
+    set p2 [java::call ptolemy.math.FFTPlan forOrder 2]
+    set data [java::new {double[]} 8 [list 1.0 0.0 2.0 0.0 3.0 0.0 4.0 0.0]]
+    $p2 transform $data
+    set forward [$data getrange]
+    $p2 inverseTransform $data
+    list $forward [$data getrange]
+} {{10.0 0.0 -2.0 2.0 -2.0 0.0 -2.0 -2.0} {1.0 0.0 2.0 0.0 3.0 0.0 4.0 0.0}}
+
+####################################################################
+test FFTPlan-2.2 {realTransform produces the lower half spectrum} {
+    set x [java::new {double[]} 4 [list 1.0 2.0 3.0 4.0]]
+    set spectrum [java::new {double[]} 6]
+    $p2 realTransform $x $spectrum
+    set forward [$spectrum getrange]
+    set result [java::new {double[]} 4]
+    $p2 inverseRealTransform $spectrum $result
+    list $forward [$result getrange]
+} {{10.0 0.0 -2.0 2.0 -2.0 0.0} {1.0 2.0 3.0 4.0}}
+
+####################################################################
+test FFTPlan-3.1 {FFTComplexOut agrees with the FFCT based real transforms} {
+    set x [java::new {double[]} 16 [list \
+	    0.3 -1.2 2.5 0.7 -0.4 1.9 -2.2 0.1 \
+	    1.4 -0.6 0.8 -1.7 2.0 0.2 -0.9 1.1]]
+    set complex [java::call ptolemy.math.SignalProcessing \
+	    {FFTComplexOut double[] int} $x 4]
+    set real [java::call ptolemy.math.SignalProcessing \
+	    {FFTRealOut double[] int} $x 4]
+    set imag [java::call ptolemy.math.SignalProcessing \
+	    {FFTImagOut double[] int} $x 4]
+    list [epsilonDiff [[java::call ptolemy.math.ComplexArrayMath \
+	    realParts $complex] getrange] [$real getrange]] \
+	    [epsilonDiff [[java::call ptolemy.math.ComplexArrayMath \
+	    imagParts $complex] getrange] [$imag getrange]]
+} {{} {}}
+
+####################################################################
+test FFTPlan-4.1 {convolveOverlapAdd agrees with direct convolution} {
+    set a [java::new {double[]} 70]
+    set b [java::new {double[]} 65]
+    for {set i 0} {$i < 70} {incr i} {
+	$a set $i [expr {sin($i * 0.3)}]
+    }
+    for {set i 0} {$i < 65} {incr i} {
+	$b set $i [expr {cos($i * 0.7)}]
+    }
+    set fast [java::call ptolemy.math.SignalProcessing \
+	    convolveOverlapAdd $a $b]
+    set direct [java::new {double[]} 134]
+    for {set i 0} {$i < 70} {incr i} {
+	for {set j 0} {$j < 65} {incr j} {
+	    set k [expr {$i + $j}]
+	    $direct set $k [expr {[$direct get $k] \
+		    + [$a get $i] * [$b get $j]}]
+	}
+    }
+    list [$fast length] [epsilonDiff [$fast getrange] [$direct getrange]]
+} {134 {}}
+
+####################################################################
+test FFTPlan-4.2 {convolve computes the sums directly for long arrays} {
+    # With integer inputs the direct sums are exact, while overlap-add
+    # convolution returns them only up to rounding error.
+    set a [java::new {double[]} 100]
+    set b [java::new {double[]} 100]
+    for {set i 0} {$i < 100} {incr i} {
+	$a set $i [expr {$i % 7 + 0.0}]
+	$b set $i [expr {$i % 5 + 1.0}]
+    }
+    set exact [java::call ptolemy.math.SignalProcessing convolve $a $b]
+    set fast [java::call ptolemy.math.SignalProcessing \
+	    convolveOverlapAdd $a $b]
+    set mismatches 0
+    set inexact 0
+    for {set k 0} {$k < 199} {incr k} {
+	set sum 0
+	for {set i 0} {$i < 100} {incr i} {
+	    set j [expr {$k - $i}]
+	    if {$j >= 0 && $j < 100} {
+		incr sum [expr {($i % 7) * ($j % 5 + 1)}]
+	    }
+	}
+	if {[$exact get $k] != $sum} {
+	    incr mismatches
+	}
+	if {[$fast get $k] != $sum} {
+	    incr inexact
+	}
+    }
+    list [$exact length] $mismatches [expr {$inexact > 0}]
+} {199 0 1}
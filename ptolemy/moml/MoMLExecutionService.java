@@ -0,0 +1,529 @@
+/* A service that executes many instances of a model concurrently.
+
+ Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the above
+ copyright notice and the following two paragraphs appear in all copies
+ of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+
+ */
+package ptolemy.moml;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import ptolemy.actor.CompositeActor;
+import ptolemy.actor.Director;
+import ptolemy.actor.Manager;
+import ptolemy.actor.injection.ActorModuleInitializer;
+import ptolemy.kernel.util.Attribute;
+import ptolemy.kernel.util.BasicModelErrorHandler;
+import ptolemy.kernel.util.IllegalActionException;
+import ptolemy.kernel.util.Settable;
+import ptolemy.kernel.util.Workspace;
+import ptolemy.moml.filter.BackwardCompatibility;
+import ptolemy.moml.filter.RemoveGraphicalClasses;
+import ptolemy.util.MessageHandler;
+import ptolemy.util.SimpleMessageHandler;
+import ptolemy.util.StringUtilities;
+
+///////////////////////////////////////////////////////////////////
+//// MoMLExecutionService
+
+/** A service that parses a model once and executes many instances of
+ it concurrently, each with its own parameter values.
+
+ <p>Unlike {@link MoMLSimpleApplication} and
+ {@link MoMLCommandLineApplication}, which parse and run one model, this
+ class keeps the parsed model as a template.  Each run clones the template
+ into a fresh {@link Workspace}, so that runs share neither the workspace
+ lock nor any state, sets the parameters given by its overrides, and
+ executes the clone with its own {@link Manager} on a thread of a pool of
+ fixed size.  Since the classes of the actors are loaded and the MoML is
+ parsed only once, a run costs little more than the execution of the
+ model.  Graphical classes are removed from the template when it is parsed,
+ so the service runs without a display.</p>
+
+ <p>The name of an overridden parameter is relative to the top level of
+ the model or to its director, as in {@link MoMLCommandLineApplication}.
+ After a run finishes, the values of the attributes named by
+ {@link #addResultName(String)} are collected in the {@link Run}, which
+ also reports the time taken by the run, the CPU time of the thread that
+ executed it, and, if the virtual machine supports it, the memory that
+ this thread allocated.  A run that fails reports its exception instead
+ of stopping the other runs.</p>
+
+ For example, to run a model three times on two threads, try:
+ <pre>
+ java -classpath $PTII ptolemy.moml.MoMLExecutionService -threads 2 -result result model.xml "factor=1" "factor=2" "factor=3;init=0.5"
+ </pre>
+ where each argument after the model file gives the overrides of one run,
+ separated by semicolons.
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+public class MoMLExecutionService {
+
+    /** Parse a model and create a pool of threads to run its instances.
+     *  @param xmlFileName A string that refers to an MoML file that
+     *  contains a Ptolemy II model.
+     *  @param threads The number of runs that may execute at the same
+     *  time.
+     *  @exception Exception If the file cannot be parsed or does not
+     *  contain a composite actor, or if the number of threads is not
+     *  positive.
+     */
+    public MoMLExecutionService(String xmlFileName, int threads)
+            throws Exception {
+        if (threads < 1) {
+            throw new IllegalActionException(
+                    "The number of threads must be positive, not " + threads
+                            + ".");
+        }
+        ActorModuleInitializer.initializeInjector();
+        Workspace workspace = new Workspace("MoMLExecutionServiceWorkspace");
+        MoMLParser parser = new MoMLParser(workspace);
+
+        // The list of filters is static, so we reset it here
+        // so as to avoid adding filters every time a service is created.
+        MoMLParser.setMoMLFilters(BackwardCompatibility.allFilters(),
+                workspace);
+        MoMLParser.addMoMLFilter(new RemoveGraphicalClasses());
+
+        Object toplevel = parser.parse(null,
+                new File(xmlFileName).toURI().toURL());
+        if (!(toplevel instanceof CompositeActor)) {
+            throw new IllegalActionException(
+                    xmlFileName + " does not contain a composite actor.");
+        }
+        _template = (CompositeActor) toplevel;
+        _executor = Executors.newFixedThreadPool(threads);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Add the name of an attribute whose value is collected after each
+     *  run.  The name is relative to the top level of the model or to
+     *  its director.
+     *  @param name The name of the attribute.
+     *  @see Run#getResults()
+     */
+    public void addResultName(String name) {
+        synchronized (_resultNames) {
+            _resultNames.add(name);
+        }
+    }
+
+    /** Run instances of a model concurrently and report their
+     *  time and memory.  The arguments are zero or more options
+     *  "-threads <i>n</i>", which gives the number of threads, and
+     *  "-result <i>name</i>", which names an attribute whose value is
+     *  reported, followed by the MoML file of the model and the
+     *  overrides of each run.  The overrides of a run are
+     *  <i>name</i>=<i>value</i> pairs separated by semicolons.  If no
+     *  overrides are given, then the model is run once.
+     *  @param args The command-line arguments.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        MessageHandler.setMessageHandler(new SimpleMessageHandler());
+        MoMLExecutionService service = null;
+        try {
+            int threads = Runtime.getRuntime().availableProcessors();
+            List<String> resultNames = new ArrayList<String>();
+            int i = 0;
+            while (i < args.length - 1 && args[i].startsWith("-")) {
+                if (args[i].equals("-threads")) {
+                    threads = Integer.parseInt(args[i + 1]);
+                } else if (args[i].equals("-result")) {
+                    resultNames.add(args[i + 1]);
+                } else {
+                    throw new IllegalActionException(
+                            "Unrecognized option: " + args[i]);
+                }
+                i += 2;
+            }
+            if (i >= args.length) {
+                throw new IllegalActionException("No model file was given.");
+            }
+            service = new MoMLExecutionService(args[i++], threads);
+            for (String name : resultNames) {
+                service.addResultName(name);
+            }
+
+            List<Map<String, String>> runs = new ArrayList<Map<String, String>>();
+            for (; i < args.length; i++) {
+                Map<String, String> overrides = new LinkedHashMap<String, String>();
+                for (String assignment : args[i].split(";")) {
+                    int equals = assignment.indexOf('=');
+                    if (equals < 0) {
+                        throw new IllegalActionException(
+                                "Expected name=value, not " + assignment);
+                    }
+                    overrides.put(assignment.substring(0, equals).trim(),
+                            assignment.substring(equals + 1).trim());
+                }
+                runs.add(overrides);
+            }
+            if (runs.isEmpty()) {
+                runs.add(new LinkedHashMap<String, String>());
+            }
+
+            boolean failed = false;
+            for (Run run : service.runAll(runs)) {
+                System.out.println(run);
+                failed |= run.getThrowable() != null;
+            }
+            if (failed) {
+                StringUtilities.exit(1);
+            }
+        } catch (Throwable ex) {
+            System.err.println("Command failed: " + ex);
+            ex.printStackTrace();
+            StringUtilities.exit(1);
+        } finally {
+            if (service != null) {
+                service.shutdown();
+            }
+        }
+        MoMLSimpleApplication.closeVertx();
+    }
+
+    /** Run one instance of the model for each map of overrides and
+     *  wait for all of them to finish.
+     *  @param overrides A list of maps from parameter names to
+     *  expressions.
+     *  @return The runs, in the order of the overrides.
+     *  @exception InterruptedException If the calling thread is
+     *  interrupted while waiting.
+     *  @exception ExecutionException If a run throws an error that is not
+     *  caught by the run.
+     */
+    public List<Run> runAll(List<Map<String, String>> overrides)
+            throws InterruptedException, ExecutionException {
+        List<Future<Run>> futures = new ArrayList<Future<Run>>();
+        for (Map<String, String> map : overrides) {
+            futures.add(submit(map));
+        }
+        List<Run> runs = new ArrayList<Run>();
+        for (Future<Run> future : futures) {
+            runs.add(future.get());
+        }
+        return runs;
+    }
+
+    /** Stop accepting runs and release the threads once the submitted
+     *  runs have finished.
+     */
+    public void shutdown() {
+        _executor.shutdown();
+    }
+
+    /** Submit a run of an instance of the model with the given
+     *  parameter values.
+     *  @param overrides A map from parameter names to expressions, which
+     *  is copied.
+     *  @return The future result of the run.
+     */
+    public Future<Run> submit(Map<String, String> overrides) {
+        final Run run;
+        synchronized (this) {
+            run = new Run("run" + _runCount++, overrides);
+        }
+        return _executor.submit(new Callable<Run>() {
+            @Override
+            public Run call() {
+                run._execute();
+                return run;
+            }
+        });
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         inner classes                     ////
+
+    /** A run of an instance of the model.
+     */
+    public class Run {
+
+        /** Create a run.
+         *  @param name The name of the run, which names its workspace
+         *  and its manager.
+         *  @param overrides A map from parameter names to expressions.
+         */
+        private Run(String name, Map<String, String> overrides) {
+            _name = name;
+            _overrides = Collections.unmodifiableMap(
+                    new LinkedHashMap<String, String>(overrides));
+        }
+
+        /** Return the CPU time used by the thread that executed the run,
+         *  or -1 if the virtual machine does not measure it.
+         *  @return The CPU time in milliseconds.
+         */
+        public long getCPUTime() {
+            return _cpuTime;
+        }
+
+        /** Return the number of bytes allocated by the thread that
+         *  executed the run, or -1 if the virtual machine does not
+         *  measure it.  Memory allocated by threads that the model
+         *  creates, such as those of process networks, is not counted.
+         *  @return The allocated memory in bytes.
+         */
+        public long getMemory() {
+            return _memory;
+        }
+
+        /** Return the name of the run.
+         *  @return The name.
+         */
+        public String getName() {
+            return _name;
+        }
+
+        /** Return the overrides of the run.
+         *  @return An unmodifiable map from parameter names to
+         *  expressions.
+         */
+        public Map<String, String> getOverrides() {
+            return _overrides;
+        }
+
+        /** Return the values of the attributes named by
+         *  {@link MoMLExecutionService#addResultName(String)} at the end
+         *  of the run.  An attribute that is not found is omitted.
+         *  @return An unmodifiable map from attribute names to values.
+         */
+        public Map<String, String> getResults() {
+            return Collections.unmodifiableMap(_results);
+        }
+
+        /** Return the exception thrown by the run, or null if it
+         *  finished normally.
+         *  @return The exception or null.
+         */
+        public Throwable getThrowable() {
+            return _throwable;
+        }
+
+        /** Return the time between the start of the run and its end,
+         *  including the time to clone the model.
+         *  @return The elapsed time in milliseconds.
+         */
+        public long getTime() {
+            return _time;
+        }
+
+        /** Return a description of the run that gives its name, its
+         *  time and memory, and its results or its exception.
+         *  @return A description of the run.
+         */
+        @Override
+        public String toString() {
+            StringBuffer result = new StringBuffer(_name + " " + _overrides
+                    + ": " + _time + " ms, " + _cpuTime + " ms CPU");
+            if (_memory >= 0) {
+                result.append(", " + _memory / 1024 + "K allocated");
+            }
+            if (_throwable != null) {
+                result.append(", failed: " + _throwable);
+            } else if (!_results.isEmpty()) {
+                result.append(", " + _results);
+            }
+            return result.toString();
+        }
+
+        ///////////////////////////////////////////////////////////////
+        ////                     private methods                   ////
+
+        /** Clone the template, set the overrides, execute the clone and
+         *  collect the results, recording any exception.
+         */
+        private void _execute() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            long start = System.currentTimeMillis();
+            long startCPUTime = _getCPUTime(bean);
+            long startMemory = _getAllocatedBytes(bean);
+            try {
+                CompositeActor toplevel;
+                // Cloning reads the template, which is not otherwise
+                // protected against concurrent access.
+                synchronized (_template) {
+                    toplevel = (CompositeActor) _template
+                            .clone(new Workspace(_name));
+                }
+                if (toplevel.getModelErrorHandler() == null) {
+                    toplevel.setModelErrorHandler(
+                            new BasicModelErrorHandler());
+                }
+                for (Map.Entry<String, String> override : _overrides
+                        .entrySet()) {
+                    Settable settable = _getSettable(toplevel,
+                            override.getKey());
+                    if (settable == null) {
+                        throw new IllegalActionException(toplevel,
+                                "Cannot find a parameter named "
+                                        + override.getKey() + ".");
+                    }
+                    settable.setExpression(override.getValue());
+                    settable.validate();
+                }
+                Manager manager = new Manager(toplevel.workspace(), _name);
+                toplevel.setManager(manager);
+                manager.execute();
+
+                List<String> names;
+                synchronized (_resultNames) {
+                    names = new ArrayList<String>(_resultNames);
+                }
+                for (String name : names) {
+                    Settable settable = _getSettable(toplevel, name);
+                    if (settable != null) {
+                        _results.put(name, settable.getValueAsString());
+                    }
+                }
+            } catch (Throwable throwable) {
+                _throwable = throwable;
+            }
+            _time = System.currentTimeMillis() - start;
+            long cpuTime = _getCPUTime(bean);
+            _cpuTime = cpuTime < 0 ? -1 : cpuTime - startCPUTime;
+            long memory = _getAllocatedBytes(bean);
+            _memory = memory < 0 ? -1 : memory - startMemory;
+        }
+
+        ///////////////////////////////////////////////////////////////
+        ////                     private variables                 ////
+
+        /** The CPU time of the run in milliseconds, or -1. */
+        private long _cpuTime = -1;
+
+        /** The memory allocated by the run in bytes, or -1. */
+        private long _memory = -1;
+
+        /** The name of the run. */
+        private String _name;
+
+        /** The overrides of the run. */
+        private Map<String, String> _overrides;
+
+        /** The values of the result attributes. */
+        private Map<String, String> _results = new LinkedHashMap<String, String>();
+
+        /** The exception thrown by the run, or null. */
+        private volatile Throwable _throwable;
+
+        /** The elapsed time of the run in milliseconds. */
+        private long _time;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Return the number of bytes allocated by the current thread, or
+     *  -1 if the virtual machine does not measure it.
+     *  @param bean The thread management bean.
+     *  @return The number of bytes.
+     */
+    private static long _getAllocatedBytes(ThreadMXBean bean) {
+        try {
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported()
+                        && sunBean.isThreadAllocatedMemoryEnabled()) {
+                    return sunBean.getThreadAllocatedBytes(
+                            Thread.currentThread().getId());
+                }
+            }
+        } catch (LinkageError error) {
+            // The com.sun.management package is not present, so
+            // the memory is not measured.
+        }
+        return -1;
+    }
+
+    /** Return the CPU time of the current thread in milliseconds, or -1
+     *  if the virtual machine does not measure it.
+     *  @param bean The thread management bean.
+     *  @return The CPU time.
+     */
+    private static long _getCPUTime(ThreadMXBean bean) {
+        if (bean.isCurrentThreadCpuTimeSupported()
+                && bean.isThreadCpuTimeEnabled()) {
+            return bean.getCurrentThreadCpuTime() / 1000000L;
+        }
+        return -1;
+    }
+
+    /** Return the settable attribute of the top level or of its director
+     *  with the given name, or null if there is none.
+     *  @param toplevel The top level of the model.
+     *  @param name The name of the attribute relative to the top level
+     *  or to the director.
+     *  @return The attribute, or null.
+     */
+    private static Settable _getSettable(CompositeActor toplevel,
+            String name) {
+        Attribute attribute = toplevel.getAttribute(name);
+        if (!(attribute instanceof Settable)) {
+            Director director = toplevel.getDirector();
+            if (director != null) {
+                attribute = director.getAttribute(name);
+            }
+        }
+        if (attribute instanceof Settable) {
+            return (Settable) attribute;
+        }
+        return null;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The pool of threads that execute the runs. */
+    private ExecutorService _executor;
+
+    /** The names of the attributes whose values are collected. */
+    private List<String> _resultNames = new ArrayList<String>();
+
+    /** The number of runs submitted, which numbers the runs. */
+    private int _runCount = 0;
+
+    /** The model that is cloned for each run. */
+    private CompositeActor _template;
+}
@@ -0,0 +1,84 @@
+# Tests for the MoMLExecutionService class
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+# 						COPYRIGHTENDKEY
+#######################################################################
+
+# Load the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+# Uncomment this to get a full report, or set in your Tcl shell window.
+# set VERBOSE 1
+
+# Return the results of a list of runs, or their exceptions.
+proc runResults {runs} {
+    set results {}
+    for {set i 0} {$i < [$runs size]} {incr i} {
+	set run [java::cast {ptolemy.moml.MoMLExecutionService$Run} \
+		[$runs get $i]]
+	if {[java::isnull [$run getThrowable]]} {
+	    lappend results [[$run getResults] get result]
+	} else {
+	    lappend results [[$run getThrowable] getMessage]
+	}
+    }
+    return $results
+}
+
+######################################################################
+####
+#
+test MoMLExecutionService-1.1 {Run several instances concurrently} {
+    set service [java::new ptolemy.moml.MoMLExecutionService \
+	    MoMLExecutionServiceTest.xml 2]
+    $service addResultName result
+    set overrides [java::new java.util.ArrayList]
+    foreach factor {1 2 3 4 5} {
+	set map [java::new java.util.HashMap]
+	$map put factor $factor
+	$overrides add $map
+    }
+    set map [java::new java.util.HashMap]
+    $map put iterations 5
+    $overrides add $map
+    runResults [$service runAll $overrides]
+} {2 4 6 8 10 4}
+
+test MoMLExecutionService-1.2 {An unknown parameter fails only its run} {
+    set overrides [java::new java.util.ArrayList]
+    set map [java::new java.util.HashMap]
+    $map put nonexistent 2
+    $overrides add $map
+    $overrides add [java::new java.util.HashMap]
+    set results [runResults [$service runAll $overrides]]
+    $service shutdown
+    list [string range [lindex $results 0] 0 34] [lindex $results 1]
+} {{Cannot find a parameter named nonex} 2}
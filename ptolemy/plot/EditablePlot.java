@@ -35,8 +35,8 @@ import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
-import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Stack;
 import java.util.Vector;
 
@@ -123,7 +123,7 @@ public class EditablePlot extends Plot {
     public double[][] getData(int dataset) {
         _checkDatasetIndex(dataset);
 
-        ArrayList<PlotPoint> pts = _points.get(dataset);
+        List<PlotPoint> pts = _points.get(dataset);
         int size = pts.size();
         double[][] result = new double[2][size];
 
@@ -250,7 +250,7 @@ public class EditablePlot extends Plot {
         _editPoint(x, y);
 
         // Edit the points in the signal.
-        ArrayList<PlotPoint> pts = _points.get(_dataset);
+        List<PlotPoint> pts = _points.get(_dataset);
 
         for (int i = 0; i < pts.size(); i++) {
             PlotPoint pt = pts.get(i);
@@ -272,6 +272,9 @@ public class EditablePlot extends Plot {
                         if (pt.y > _yTop) {
                             _yTop = pt.y;
                         }
+
+                        // The point may be a copy, so store it again.
+                        pts.set(i, pt);
                     }
                 }
             }
@@ -413,7 +416,7 @@ public class EditablePlot extends Plot {
     private void _setData(int dataset, double[][] data) {
         _checkDatasetIndex(dataset);
 
-        ArrayList<PlotPoint> pts = _points.get(dataset);
+        List<PlotPoint> pts = _points.get(dataset);
         int size = pts.size();
 
         if (data[0].length < size) {
@@ -424,6 +427,7 @@ public class EditablePlot extends Plot {
             PlotPoint pt = pts.get(i);
             pt.x = data[0][i];
             pt.y = data[1][i];
+            pts.set(i, pt);
         }
     }
 
@@ -42,6 +42,7 @@ package ptolemy.plot;
 // get better, this program may need to be adjusted.
 import java.awt.BasicStroke;
 import java.awt.Component;
+import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
@@ -53,8 +54,10 @@ import java.io.PrintWriter;
 import java.io.Serializable;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Formatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 
 import javax.swing.JComponent;
@@ -208,6 +211,15 @@ import ptolemy.util.RunnableExceptionCatcher;
  </pre>
  Note that deferIfNecessary() is not synchronized, but the caller of
  deferIfNecessary() should be synchronized on the Plot object.
+ <p>Subclasses that access the points through the protected
+ <code>_points</code> field should note that, since the points
+ persistence was made to use ring buffers, the elements of that field
+ are lists of points rather than ArrayLists.  If a points persistence
+ is set, then each of these lists is a {@link PlotPointBuffer}, whose
+ get() method returns a new copy of the point on each call.  Changing
+ the fields of such a copy does not change the plot, so a subclass
+ that modifies a point must write it back with set(), as
+ {@link EditablePlot} does.
  <p>
  This plotter has some <a name="ptplotLimitations">limitations</a>:
  <ul>
@@ -271,6 +283,12 @@ public class Plot extends PlotBox implements PlotInterface {
      *  the event dispatch thread). All the methods that do this deferring
      *  coordinate so that they are executed in the order that you
      *  called them.
+     *  <p>
+     *  Consecutive calls from a thread other than the event dispatch
+     *  thread that do not give derivatives are collected into a single
+     *  batch of points, which is stored in primitive arrays and added
+     *  by one deferred action.  This avoids creating objects for every
+     *  point when a plotter produces many points between repaints.
      *
      *  @param dataset The data set index.
      *  @param x The X position of the new point.
@@ -283,6 +301,17 @@ public class Plot extends PlotBox implements PlotInterface {
     public synchronized void addPoint(final int dataset, final double x,
             final double y, final double[] derivatives,
             final boolean connected) {
+        if (derivatives == null && !EventQueue.isDispatchThread()) {
+            if (_pendingPoints == null) {
+                PointBatch batch = new PointBatch();
+                // Note that deferIfNecessary() resets _pendingPoints,
+                // so set it after the call.
+                deferIfNecessary(new RunnableExceptionCatcher(batch));
+                _pendingPoints = batch;
+            }
+            _pendingPoints.add(dataset, x, y, connected);
+            return;
+        }
         Runnable doAddPoint = new RunnableExceptionCatcher(new Runnable() {
             @Override
             public void run() {
@@ -389,6 +418,20 @@ public class Plot extends PlotBox implements PlotInterface {
         deferIfNecessary(doClear);
     }
 
+    /** If this method is called in the event thread, then simply
+     *  execute the specified action.  Otherwise, defer it as in the
+     *  base class.  Any batch of points that is being collected by
+     *  addPoint() is closed, so that points added after this action
+     *  are added after this action is executed.
+     *  This method is not synchronized, so the caller should be.
+     *  @param action The Runnable object to execute.
+     */
+    @Override
+    public void deferIfNecessary(Runnable action) {
+        _pendingPoints = null;
+        super.deferIfNecessary(action);
+    }
+
     /** Erase the point at the given index in the given dataset.  If
      * lines are being drawn, these lines are erased and if necessary new
      * ones will be drawn. The point is not checked to
@@ -936,7 +979,7 @@ public class Plot extends PlotBox implements PlotInterface {
         _lastPointWithExtraDot.clear();
 
         for (int i = 0; i < numSets; i++) {
-            _points.add(new ArrayList<PlotPoint>());
+            _points.add(_newPointList());
             _formats.add(new Format());
             _prevxpos.add(_INITIAL_PREVIOUS_VALUE);
             _prevypos.add(_INITIAL_PREVIOUS_VALUE);
@@ -970,6 +1013,17 @@ public class Plot extends PlotBox implements PlotInterface {
 
         // NOTE: No file format.  It's not clear it makes sense to have one.
         _pointsPersistence = persistence;
+
+        // With a points persistence, the oldest points are removed as
+        // new points are added, so store the points in ring buffers.
+        if (persistence > 0) {
+            for (int dataset = 0; dataset < _points.size(); dataset++) {
+                if (!(_points.get(dataset) instanceof PlotPointBuffer)) {
+                    _points.set(dataset,
+                            new PlotPointBuffer(_points.get(dataset)));
+                }
+            }
+        }
     }
 
     /** If the argument is true, then datasets with the same name
@@ -1053,7 +1107,7 @@ public class Plot extends PlotBox implements PlotInterface {
             output.println("<dataset" + options.toString() + ">");
 
             // Write the data
-            ArrayList<PlotPoint> pts = _points.get(dataset);
+            List<PlotPoint> pts = _points.get(dataset);
 
             for (int pointnum = 0; pointnum < pts.size(); pointnum++) {
                 PlotPoint pt = pts.get(pointnum);
@@ -1161,7 +1215,7 @@ public class Plot extends PlotBox implements PlotInterface {
         }
 
         while (dataset >= _points.size()) {
-            _points.add(new ArrayList<PlotPoint>());
+            _points.add(_newPointList());
             _bins.add(new ArrayList<Bin>());
             _pointInBinOffset.add(0);
             _formats.add(new Format());
@@ -1500,7 +1554,7 @@ public class Plot extends PlotBox implements PlotInterface {
                 // case the mark has to be removed again.
 
                 boolean connectedFlag = getConnected();
-                ArrayList<PlotPoint> points = _points.get(dataset);
+                List<PlotPoint> points = _points.get(dataset);
 
                 int currentPointPosition = points.size() - 1;
                 PlotPoint lastPoint = points.get(currentPointPosition);
@@ -1515,7 +1569,8 @@ public class Plot extends PlotBox implements PlotInterface {
 
                     // We keep track of the last dot that has been add to be able to
                     // remove the dot again in case an extra point was added afterwards.
-                    _lastPointWithExtraDot.put(dataset, lastPoint);
+                    _lastPointWithExtraDot.put(dataset, currentPointPosition
+                            + _pointInBinOffset.get(dataset));
                 }
             }
         }
@@ -1562,7 +1617,7 @@ public class Plot extends PlotBox implements PlotInterface {
 
             for (int i = 0; i < _points.size(); i++) {
                 result.append("\\pscurve[showpoints=true]{-}");
-                ArrayList<PlotPoint> pts = _points.get(i);
+                List<PlotPoint> pts = _points.get(i);
                 for (int pointnum = 0; pointnum < pts.size(); pointnum++) {
                     PlotPoint pt = pts.get(pointnum);
                     if (!pt.connected) {
@@ -2070,7 +2125,7 @@ public class Plot extends PlotBox implements PlotInterface {
             }
 
             // Write the data
-            ArrayList<PlotPoint> pts = _points.get(dataset);
+            List<PlotPoint> pts = _points.get(dataset);
 
             for (int pointnum = 0; pointnum < pts.size(); pointnum++) {
                 PlotPoint pt = pts.get(pointnum);
@@ -2100,8 +2155,12 @@ public class Plot extends PlotBox implements PlotInterface {
      */
     protected volatile int _marks;
 
-    /** A vector of datasets. */
-    protected ArrayList<ArrayList<PlotPoint>> _points = new ArrayList<ArrayList<PlotPoint>>();
+    /** A vector of datasets.  If a points persistence is set, then
+     *  each dataset is a {@link PlotPointBuffer}, whose get() method
+     *  returns a copy of the point, so a modified point has to be
+     *  written back with set().
+     */
+    protected ArrayList<List<PlotPoint>> _points = new ArrayList<List<PlotPoint>>();
 
     ///////////////////////////////////////////////////////////////////
     ////                         private methods                   ////
@@ -2193,7 +2252,7 @@ public class Plot extends PlotBox implements PlotInterface {
         }
 
         ArrayList<Bin> bins = _bins.get(dataset);
-        ArrayList<PlotPoint> points = _points.get(dataset);
+        List<PlotPoint> points = _points.get(dataset);
 
         // If X persistence has been set, then delete any old points.
         if (_xPersistence > 0.0) {
@@ -2521,7 +2580,7 @@ public class Plot extends PlotBox implements PlotInterface {
         _checkDatasetIndex(dataset);
         _xyInvalid = true;
 
-        ArrayList<PlotPoint> points = _points.get(dataset);
+        List<PlotPoint> points = _points.get(dataset);
 
         points.clear();
 
@@ -2545,6 +2604,16 @@ public class Plot extends PlotBox implements PlotInterface {
         }
         _needBinRedraw = false;
 
+        // The points are indexed from the start of their list again, so
+        // translate the index of the last points with an extra dot.
+        for (int dataset = 0; dataset < _pointInBinOffset.size(); dataset++) {
+            Integer index = _lastPointWithExtraDot.get(dataset);
+            if (index != null) {
+                index -= _pointInBinOffset.get(dataset);
+                _lastPointWithExtraDot.put(dataset, index >= 0 ? index : null);
+            }
+        }
+
         _bins.clear();
         _pointInBinOffset.clear();
         int nbrOfDataSets = _points.size();
@@ -2554,7 +2623,7 @@ public class Plot extends PlotBox implements PlotInterface {
         }
 
         for (int dataset = 0; dataset < nbrOfDataSets; ++dataset) {
-            ArrayList<PlotPoint> points = _points.get(dataset);
+            List<PlotPoint> points = _points.get(dataset);
             int numberOfPoints = points.size();
             for (int pointIndex = 0; pointIndex < numberOfPoints; ++pointIndex) {
                 _addPointToBin(dataset, points.get(pointIndex), pointIndex);
@@ -2597,7 +2666,7 @@ public class Plot extends PlotBox implements PlotInterface {
         int startPosition = bin.nextPointToPlot();
         int endPosition = bin.afterLastPointIndex();
 
-        ArrayList<PlotPoint> points = _points.get(dataset);
+        List<PlotPoint> points = _points.get(dataset);
 
         // Check to see whether the dataset has a marks directive
         int marks = _marks;
@@ -2612,6 +2681,8 @@ public class Plot extends PlotBox implements PlotInterface {
         if (_markDisconnections && marks == 0 && endPosition > startPosition
                 && startPosition > 0) {
             PlotPoint previousPoint = points.get(startPosition - 1);
+            Integer previousPointIndex = startPosition - 1
+                    + _pointInBinOffset.get(dataset);
             if (!(connectedFlag && points.get(startPosition).connected)) {
 
                 // This point is not connected with the previous one.
@@ -2620,7 +2691,8 @@ public class Plot extends PlotBox implements PlotInterface {
                 // We will now add this extra dot for the previous point.
 
                 if (connectedFlag && previousPoint.connected) {
-                    if (_lastPointWithExtraDot.get(dataset) != previousPoint) {
+                    if (!previousPointIndex
+                            .equals(_lastPointWithExtraDot.get(dataset))) {
                         long prevypos = _prevypos.get(dataset);
                         long prevxpos = _prevxpos.get(dataset);
                         // BRDebug System.out.println("Plotting point:" + prevxpos + ", " + prevypos +  ", position :" + (startPosition-1) + ", previous");
@@ -2636,7 +2708,8 @@ public class Plot extends PlotBox implements PlotInterface {
                     }
                 }
             } else {
-                if (_lastPointWithExtraDot.get(dataset) == previousPoint) {
+                if (previousPointIndex
+                        .equals(_lastPointWithExtraDot.get(dataset))) {
                     long prevypos = _prevypos.get(dataset);
                     long prevxpos = _prevxpos.get(dataset);
                     // BRDebug System.err.println("Erasing point:" + prevxpos + ", " + prevypos +  ", position :" + (startPosition-1) + ", previous");
@@ -3016,7 +3089,7 @@ public class Plot extends PlotBox implements PlotInterface {
         // Plot has probably been dismissed.  Return.
         Graphics graphics = getGraphics();
 
-        ArrayList<PlotPoint> points = _points.get(dataset);
+        List<PlotPoint> points = _points.get(dataset);
         ArrayList<Bin> bins = _bins.get(dataset);
         Bin bin = bins.get(0);
         int nbrOfBins = bins.size();
@@ -3185,9 +3258,10 @@ public class Plot extends PlotBox implements PlotInterface {
 
         //Delete points and bin
         assert startPosition == 0; //No actually necessary in this code, but it should be valid
-        for (int i = startPosition; i < endPosition; ++i) {
-            points.remove(startPosition);
-        }
+        // Remove the points of the bin with one shift of the list rather
+        // than one shift per point, since with a points persistence set
+        // this is called for nearly every point that is added.
+        points.subList(startPosition, endPosition).clear();
         assert bin.firstPointIndex() >= 0;
 
         _pointInBinOffset.set(dataset, _pointInBinOffset.get(dataset)
@@ -3224,6 +3298,17 @@ public class Plot extends PlotBox implements PlotInterface {
      */
     private void _erasePoint(int dataset, int index) {
         _points.get(dataset).remove(index);
+
+        // The points after the erased point move down by one.
+        Integer lastPointWithExtraDot = _lastPointWithExtraDot.get(dataset);
+        if (lastPointWithExtraDot != null) {
+            int erased = index + _pointInBinOffset.get(dataset);
+            if (lastPointWithExtraDot == erased) {
+                _lastPointWithExtraDot.put(dataset, null);
+            } else if (lastPointWithExtraDot > erased) {
+                _lastPointWithExtraDot.put(dataset, lastPointWithExtraDot - 1);
+            }
+        }
         repaint();
     }
 
@@ -3246,7 +3331,7 @@ public class Plot extends PlotBox implements PlotInterface {
             _yTop = -Double.MAX_VALUE;
 
             for (int dataset = 0; dataset < _points.size(); dataset++) {
-                ArrayList<PlotPoint> points = _points.get(dataset);
+                List<PlotPoint> points = _points.get(dataset);
 
                 for (int index = 0; index < points.size(); index++) {
                     PlotPoint pt = points.get(index);
@@ -3303,6 +3388,20 @@ public class Plot extends PlotBox implements PlotInterface {
         }
     }
 
+    /** Return a new list for the points of a dataset.  If a points
+     *  persistence is set, then the list is a {@link PlotPointBuffer},
+     *  which removes the oldest points in constant time and, once the
+     *  plot holds as many points as the persistence, adds points
+     *  without allocating memory.
+     *  @return A new list of points.
+     */
+    private List<PlotPoint> _newPointList() {
+        if (_pointsPersistence > 0) {
+            return new PlotPointBuffer();
+        }
+        return new ArrayList<PlotPoint>();
+    }
+
     /** Reset the color for drawing. This typically needs to happen after having drawn
      *  a bin or erasing one.
      *  @param graphics The graphics context.
@@ -3434,7 +3533,9 @@ public class Plot extends PlotBox implements PlotInterface {
 
     // We keep track of the last dot that has been add to be able to
     // remove the dot again in case an extra point was added afterwards.
-    private HashMap<Integer, PlotPoint> _lastPointWithExtraDot = new HashMap<Integer, PlotPoint>();
+    // The points are identified by their index plus the offset of their
+    // dataset, since the lists of points may return copies of the points.
+    private HashMap<Integer, Integer> _lastPointWithExtraDot = new HashMap<Integer, Integer>();
 
     // A stroke of width 1.
     private static final BasicStroke _LINE_STROKE1 = new BasicStroke(1f,
@@ -3512,6 +3613,11 @@ public class Plot extends PlotBox implements PlotInterface {
     /** @serial Set by _drawPlot(), and reset by clear(). */
     private boolean _showing = false;
 
+    /** The batch of points that addPoint() is adding to, or null if
+     *  the next point starts a new batch.
+     */
+    private transient PointBatch _pendingPoints;
+
     /** @serial Persistence in units of the horizontal axis. */
     private double _xPersistence = 0.0;
 
@@ -3529,6 +3635,58 @@ public class Plot extends PlotBox implements PlotInterface {
     ///////////////////////////////////////////////////////////////////
     ////                         inner classes                     ////
 
+    /**
+     * A batch of points that were added from outside the event dispatch
+     * thread and are to be added to the plot by a single deferred action.
+     * The points are stored in columns of primitive arrays.
+     */
+    private class PointBatch implements Runnable {
+        /** Append a point to the batch.
+         *  @param dataset The data set index.
+         *  @param x The X position of the point.
+         *  @param y The Y position of the point.
+         *  @param connected If true, connect the point to the previous point.
+         */
+        public void add(int dataset, double x, double y, boolean connected) {
+            if (_count == _x.length) {
+                int capacity = _count * 2;
+                _datasets = Arrays.copyOf(_datasets, capacity);
+                _x = Arrays.copyOf(_x, capacity);
+                _y = Arrays.copyOf(_y, capacity);
+                _connected = Arrays.copyOf(_connected, capacity);
+            }
+            _datasets[_count] = dataset;
+            _x[_count] = x;
+            _y[_count] = y;
+            _connected[_count] = connected;
+            _count++;
+        }
+
+        /** Add the points of the batch to the plot.  This is invoked
+         *  in the event dispatch thread while holding the lock on the plot.
+         */
+        @Override
+        public void run() {
+            if (_pendingPoints == this) {
+                _pendingPoints = null;
+            }
+            for (int i = 0; i < _count; i++) {
+                _addPoint(_datasets[i], _x[i], _y[i], null, 0, 0,
+                        _connected[i], false);
+            }
+        }
+
+        private int _count = 0;
+
+        private int[] _datasets = new int[16];
+
+        private double[] _x = new double[16];
+
+        private double[] _y = new double[16];
+
+        private boolean[] _connected = new boolean[16];
+    }
+
     /**
      * A bin is represents a number of points that are all displayed on the same x position.
      * A bin is meant to avoid superfluous drawings of lines. So instead of having to draw
@@ -3710,8 +3868,12 @@ public class Plot extends PlotBox implements PlotInterface {
         public void setNotConnectedWithPreviousBin() {
             _needConnectionWithPreviousBin = false;
             _isConnectedWithPreviousBin = false;
-            _points.get(_dataset).get(_firstPointIndex
-                    - _pointInBinOffset.get(_dataset)).connected = false;
+            // The points may be copies, so store the point again.
+            List<PlotPoint> points = _points.get(_dataset);
+            int index = _firstPointIndex - _pointInBinOffset.get(_dataset);
+            PlotPoint point = points.get(index);
+            point.connected = false;
+            points.set(index, point);
         }
 
         public final long xpos;
@@ -31,6 +31,7 @@ import java.awt.Container;
 import java.awt.Frame;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Vector;
 
 import javax.swing.JPanel;
@@ -410,12 +411,12 @@ public class PlotFormatter extends JPanel {
     // the Plot class, taking advantage of the fact that this class is
     // in the same package.
     private void _saveConnected() {
-        ArrayList<ArrayList<PlotPoint>> points = ((Plot) _plot)._points;
+        ArrayList<List<PlotPoint>> points = ((Plot) _plot)._points;
         _originalConnected = new boolean[points.size()][];
         _originalPoints = new PlotPoint[points.size()][];
 
         for (int dataset = 0; dataset < points.size(); dataset++) {
-            ArrayList<PlotPoint> pts = points.get(dataset);
+            List<PlotPoint> pts = points.get(dataset);
             _originalConnected[dataset] = new boolean[pts.size()];
             _originalPoints[dataset] = new PlotPoint[pts.size()];
 
@@ -432,7 +433,7 @@ public class PlotFormatter extends JPanel {
     // the Plot class, taking advantage of the fact that this class is
     // in the same package.
     private void _setConnected(boolean value) {
-        //ArrayList<ArrayList<PlotPoint>> points = ((Plot) _plot)._points;
+        //ArrayList<List<PlotPoint>> points = ((Plot) _plot)._points;
 
         // Make sure the default matches.
         ((Plot) _plot).setConnected(value);
@@ -444,7 +445,7 @@ public class PlotFormatter extends JPanel {
         boolean[][] result = new boolean[points.size()][];
 
         for (int dataset = 0; dataset < points.size(); dataset++) {
-            ArrayList<PlotPoint> pts = points.get(dataset);
+            List<PlotPoint> pts = points.get(dataset);
             result[dataset] = new boolean[pts.size()];
 
             boolean first = true;
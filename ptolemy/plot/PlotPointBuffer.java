@@ -0,0 +1,412 @@
+/* A list of plot points stored in primitive arrays used as a ring buffer.
+
+ @Copyright (c) 2026 The Regents of the University of California.
+ All rights reserved.
+
+ Permission is hereby granted, without written agreement and without
+ license or royalty fees, to use, copy, modify, and distribute this
+ software and its documentation for any purpose, provided that the
+ above copyright notice and the following two paragraphs appear in all
+ copies of this software.
+
+ IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+ FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+ ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+ THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+ INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+ PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+ CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+ ENHANCEMENTS, OR MODIFICATIONS.
+
+ PT_COPYRIGHT_VERSION_2
+ COPYRIGHTENDKEY
+ */
+package ptolemy.plot;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+///////////////////////////////////////////////////////////////////
+//// PlotPointBuffer
+
+/**
+ A list of plot points that stores the fields of the points in
+ primitive arrays, one per field, used as a ring buffer.
+
+ <p>{@link Plot} uses this list for the datasets of a plot that has a
+ points persistence, which removes the oldest points each time new
+ points are added.  Removing points from the beginning of the list
+ only advances the start of the ring, and the arrays grow only while
+ the number of points grows, so that once the plot has filled its
+ persistence, adding points allocates no memory.  Each point takes
+ 17 bytes, plus 8 bytes if the point was wrapped, 16 bytes if it has
+ an error bar and a reference if it has derivatives; the arrays for
+ these fields are created only when a point needs them.</p>
+
+ <p>The points returned by {@link #get(int)} are copies, so a point
+ that is modified must be stored again with {@link #set(int, PlotPoint)}.
+ The x, y and connected fields can be read without a copy with
+ {@link #getX(int)}, {@link #getY(int)} and {@link #isConnected(int)}.
+ This list is not synchronized.</p>
+
+ @author agent
+ @version $Id$
+ @since Ptolemy II 11.0
+ @Pt.ProposedRating Red (agent)
+ @Pt.AcceptedRating Red (agent)
+ */
+@SuppressWarnings("serial")
+public class PlotPointBuffer extends AbstractList<PlotPoint>
+        implements RandomAccess, Serializable {
+
+    /** Construct an empty list.
+     */
+    public PlotPointBuffer() {
+        this(16);
+    }
+
+    /** Construct an empty list with room for the specified number of
+     *  points.
+     *  @param capacity The initial number of points that the list can
+     *   hold without growing.
+     */
+    public PlotPointBuffer(int capacity) {
+        int size = 16;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        _x = new double[size];
+        _y = new double[size];
+        _flags = new byte[size];
+    }
+
+    /** Construct a list with the points of the specified collection.
+     *  @param points The points.
+     */
+    public PlotPointBuffer(Collection<? extends PlotPoint> points) {
+        this(points.size());
+        addAll(points);
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         public methods                    ////
+
+    /** Insert a copy of the specified point at the specified position.
+     *  Inserting at the end of the list takes constant time.
+     *  @param index The position.
+     *  @param point The point.
+     */
+    @Override
+    public void add(int index, PlotPoint point) {
+        if (index < 0 || index > _size) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", Size: " + _size);
+        }
+        if (_size == _x.length) {
+            _grow();
+        }
+        _size++;
+        for (int i = _size - 1; i > index; i--) {
+            _copy(i - 1, i);
+        }
+        _store(index, point);
+        modCount++;
+    }
+
+    /** Return the number of points that the list can hold without
+     *  growing.
+     *  @return The capacity.
+     */
+    public int capacity() {
+        return _x.length;
+    }
+
+    /** Remove all the points, keeping the arrays.
+     */
+    @Override
+    public void clear() {
+        if (_derivatives != null) {
+            Arrays.fill(_derivatives, null);
+        }
+        _first = 0;
+        _size = 0;
+        modCount++;
+    }
+
+    /** Return a copy of the point at the specified position.
+     *  @param index The position.
+     *  @return A new point.
+     */
+    @Override
+    public PlotPoint get(int index) {
+        int slot = _slot(index);
+        PlotPoint point = new PlotPoint();
+        point.x = _x[slot];
+        point.y = _y[slot];
+        point.originalx = _originalx == null ? _x[slot] : _originalx[slot];
+        point.connected = (_flags[slot] & _CONNECTED) != 0;
+        point.errorBar = (_flags[slot] & _ERROR_BAR) != 0;
+        if (point.errorBar) {
+            point.yLowEB = _yLowEB[slot];
+            point.yHighEB = _yHighEB[slot];
+        }
+        if (_derivatives != null) {
+            point.derivatives = _derivatives[slot];
+        }
+        return point;
+    }
+
+    /** Return the x value of the point at the specified position.
+     *  @param index The position.
+     *  @return The x value.
+     */
+    public double getX(int index) {
+        return _x[_slot(index)];
+    }
+
+    /** Return the y value of the point at the specified position.
+     *  @param index The position.
+     *  @return The y value.
+     */
+    public double getY(int index) {
+        return _y[_slot(index)];
+    }
+
+    /** Return true if the point at the specified position is
+     *  connected to the previous point.
+     *  @param index The position.
+     *  @return The connected field of the point.
+     */
+    public boolean isConnected(int index) {
+        return (_flags[_slot(index)] & _CONNECTED) != 0;
+    }
+
+    /** Remove the point at the specified position and return it.
+     *  Removing the first or the last point takes constant time.
+     *  @param index The position.
+     *  @return The removed point.
+     */
+    @Override
+    public PlotPoint remove(int index) {
+        PlotPoint point = get(index);
+        removeRange(index, index + 1);
+        return point;
+    }
+
+    /** Store a copy of the specified point at the specified position.
+     *  @param index The position.
+     *  @param point The point.
+     *  @return A copy of the point that was at that position.
+     */
+    @Override
+    public PlotPoint set(int index, PlotPoint point) {
+        PlotPoint previous = get(index);
+        _store(index, point);
+        return previous;
+    }
+
+    /** Return the number of points.
+     *  @return The number of points.
+     */
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         protected methods                 ////
+
+    /** Remove the points from position <i>fromIndex</i>, inclusive, to
+     *  position <i>toIndex</i>, exclusive.  If the range starts at the
+     *  beginning or ends at the end of the list, this takes constant
+     *  time.  This is called by <code>subList(from, to).clear()</code>.
+     *  @param fromIndex The position of the first point to remove.
+     *  @param toIndex The position after the last point to remove.
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > _size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex
+                    + ", To: " + toIndex + ", Size: " + _size);
+        }
+        int count = toIndex - fromIndex;
+        if (count == 0) {
+            return;
+        }
+        if (fromIndex == 0) {
+            if (_derivatives != null) {
+                for (int i = 0; i < count; i++) {
+                    _derivatives[_slot(i)] = null;
+                }
+            }
+            _first = (_first + count) & (_x.length - 1);
+        } else {
+            for (int i = toIndex; i < _size; i++) {
+                _copy(i, i - count);
+            }
+            if (_derivatives != null) {
+                for (int i = _size - count; i < _size; i++) {
+                    _derivatives[_slot(i)] = null;
+                }
+            }
+        }
+        _size -= count;
+        modCount++;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private methods                   ////
+
+    /** Copy the point at position <i>from</i> to position <i>to</i>. */
+    private void _copy(int from, int to) {
+        int source = _slot(from);
+        int destination = _slot(to);
+        _x[destination] = _x[source];
+        _y[destination] = _y[source];
+        _flags[destination] = _flags[source];
+        if (_originalx != null) {
+            _originalx[destination] = _originalx[source];
+        }
+        if (_yLowEB != null) {
+            _yLowEB[destination] = _yLowEB[source];
+            _yHighEB[destination] = _yHighEB[source];
+        }
+        if (_derivatives != null) {
+            _derivatives[destination] = _derivatives[source];
+        }
+    }
+
+    /** Double the size of the arrays, moving the points to the start
+     *  of the new arrays.
+     */
+    private void _grow() {
+        int length = _x.length;
+        _x = _unwrap(_x, 2 * length);
+        _y = _unwrap(_y, 2 * length);
+        byte[] flags = new byte[2 * length];
+        int head = length - _first;
+        System.arraycopy(_flags, _first, flags, 0, head);
+        System.arraycopy(_flags, 0, flags, head, _first);
+        _flags = flags;
+        if (_originalx != null) {
+            _originalx = _unwrap(_originalx, 2 * length);
+        }
+        if (_yLowEB != null) {
+            _yLowEB = _unwrap(_yLowEB, 2 * length);
+            _yHighEB = _unwrap(_yHighEB, 2 * length);
+        }
+        if (_derivatives != null) {
+            double[][] derivatives = new double[2 * length][];
+            System.arraycopy(_derivatives, _first, derivatives, 0, head);
+            System.arraycopy(_derivatives, 0, derivatives, head, _first);
+            _derivatives = derivatives;
+        }
+        _first = 0;
+    }
+
+    /** Return the position in the arrays of the point at the specified
+     *  position in the list.
+     */
+    private int _slot(int index) {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", Size: " + _size);
+        }
+        return (_first + index) & (_x.length - 1);
+    }
+
+    /** Store the fields of the point at the specified position, creating
+     *  the arrays of the optional fields if the point needs them.
+     */
+    private void _store(int index, PlotPoint point) {
+        int slot = _slot(index);
+        _x[slot] = point.x;
+        _y[slot] = point.y;
+        byte flags = 0;
+        if (point.connected) {
+            flags |= _CONNECTED;
+        }
+        if (point.errorBar) {
+            flags |= _ERROR_BAR;
+            if (_yLowEB == null) {
+                _yLowEB = new double[_x.length];
+                _yHighEB = new double[_x.length];
+            }
+            _yLowEB[slot] = point.yLowEB;
+            _yHighEB[slot] = point.yHighEB;
+        }
+        _flags[slot] = flags;
+        if (_originalx == null && point.originalx != point.x) {
+            _originalx = new double[_x.length];
+            for (int i = 0; i < _size; i++) {
+                int other = _slot(i);
+                _originalx[other] = _x[other];
+            }
+        }
+        if (_originalx != null) {
+            _originalx[slot] = point.originalx;
+        }
+        if (_derivatives == null && point.derivatives != null) {
+            _derivatives = new double[_x.length][];
+        }
+        if (_derivatives != null) {
+            _derivatives[slot] = point.derivatives;
+        }
+    }
+
+    /** Return a copy of the specified ring with the specified length, in
+     *  which the points start at index 0.
+     */
+    private double[] _unwrap(double[] values, int length) {
+        double[] result = new double[length];
+        int head = values.length - _first;
+        System.arraycopy(values, _first, result, 0, head);
+        System.arraycopy(values, 0, result, head, _first);
+        return result;
+    }
+
+    ///////////////////////////////////////////////////////////////////
+    ////                         private variables                 ////
+
+    /** The bit of _flags that is set if a point is connected. */
+    private static final byte _CONNECTED = 1;
+
+    /** The bit of _flags that is set if a point has an error bar. */
+    private static final byte _ERROR_BAR = 2;
+
+    /** The derivatives of the points, or null if no point has any. */
+    private double[][] _derivatives;
+
+    /** The position in the arrays of the first point. */
+    private int _first;
+
+    /** The connected and error bar flags of the points. */
+    private byte[] _flags;
+
+    /** The x values of the points before wrapping, or null if no point
+     *  was wrapped.
+     */
+    private double[] _originalx;
+
+    /** The number of points. */
+    private int _size;
+
+    /** The x values of the points. */
+    private double[] _x;
+
+    /** The y values of the points. */
+    private double[] _y;
+
+    /** The upper ends of the error bars, or null if no point has one. */
+    private double[] _yHighEB;
+
+    /** The lower ends of the error bars, or null if no point has one. */
+    private double[] _yLowEB;
+}
@@ -0,0 +1,216 @@
+# Tests for the PlotPointBuffer class
+#
+# @Author: agent
+#
+# @Version: $Id$
+#
+# @Copyright (c) 2026 The Regents of the University of California.
+# All rights reserved.
+#
+# Permission is hereby granted, without written agreement and without
+# license or royalty fees, to use, copy, modify, and distribute this
+# software and its documentation for any purpose, provided that the
+# above copyright notice and the following two paragraphs appear in all
+# copies of this software.
+#
+# IN NO EVENT SHALL THE UNIVERSITY OF CALIFORNIA BE LIABLE TO ANY PARTY
+# FOR DIRECT, INDIRECT, SPECIAL, INCIDENTAL, OR CONSEQUENTIAL DAMAGES
+# ARISING OUT OF THE USE OF THIS SOFTWARE AND ITS DOCUMENTATION, EVEN IF
+# THE UNIVERSITY OF CALIFORNIA HAS BEEN ADVISED OF THE POSSIBILITY OF
+# SUCH DAMAGE.
+#
+# THE UNIVERSITY OF CALIFORNIA SPECIFICALLY DISCLAIMS ANY WARRANTIES,
+# INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+# MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE. THE SOFTWARE
+# PROVIDED HEREUNDER IS ON AN "AS IS" BASIS, AND THE UNIVERSITY OF
+# CALIFORNIA HAS NO OBLIGATION TO PROVIDE MAINTENANCE, SUPPORT, UPDATES,
+# ENHANCEMENTS, OR MODIFICATIONS.
+#
+# 						PT_COPYRIGHT_VERSION_2
+#######################################################################
+
+# Load up the test definitions.
+if {[string compare test [info procs test]] == 1} then {
+    source testDefs.tcl
+} {}
+
+# Uncomment this to get a full report, or set in your Tcl shell window.
+#set VERBOSE 1
+
+# Return a point with the specified x and y values.
+proc plotPoint {x y {connected true}} {
+    set point [java::new ptolemy.plot.PlotPoint]
+    java::field $point x $x
+    java::field $point originalx $x
+    java::field $point y $y
+    java::field $point connected $connected
+    return $point
+}
+
+# Return the x values, y values and connected flags of a list of points.
+proc listPoints {buffer} {
+    set results {}
+    for {set i 0} {$i < [$buffer size]} {incr i} {
+        set point [java::cast ptolemy.plot.PlotPoint [$buffer get $i]]
+        lappend results [list [java::field $point x] [java::field $point y] \
+                [java::field $point connected]]
+    }
+    return $results
+}
+
+######################################################################
+####
+#
+test PlotPointBuffer-1.1 {add, get, size} {
+    set buffer [java::new ptolemy.plot.PlotPointBuffer]
+    $buffer add [plotPoint 0.0 1.0 false]
+    $buffer add [plotPoint 1.0 2.0]
+    $buffer add [plotPoint 2.0 3.0]
+    list [$buffer size] [listPoints $buffer]
+} {3 {{0.0 1.0 0} {1.0 2.0 1} {2.0 3.0 1}}}
+
+test PlotPointBuffer-1.2 {get returns copies that set stores again} {
+    set point [java::cast ptolemy.plot.PlotPoint [$buffer get 1]]
+    java::field $point y 5.0
+    set before [$buffer getY 1]
+    $buffer {set int ptolemy.plot.PlotPoint} 1 $point
+    list $before [$buffer getY 1] [$buffer getX 1] [$buffer isConnected 0]
+} {2.0 5.0 1.0 0}
+
+test PlotPointBuffer-1.3 {optional fields} {
+    set point [plotPoint 3.0 4.0]
+    java::field $point originalx 13.0
+    java::field $point errorBar true
+    java::field $point yLowEB 3.5
+    java::field $point yHighEB 4.5
+    $buffer add $point
+    set copy [java::cast ptolemy.plot.PlotPoint [$buffer get 3]]
+    set first [java::cast ptolemy.plot.PlotPoint [$buffer get 0]]
+    list [java::field $copy originalx] [java::field $copy errorBar] \
+            [java::field $copy yLowEB] [java::field $copy yHighEB] \
+            [java::field $first originalx] [java::field $first errorBar]
+} {13.0 1 3.5 4.5 0.0 0}
+
+######################################################################
+####
+#
+test PlotPointBuffer-2.1 {removing the first points does not grow the buffer} {
+    set buffer [java::new ptolemy.plot.PlotPointBuffer]
+    for {set i 0} {$i < 10} {incr i} {
+        $buffer add [plotPoint $i $i]
+    }
+    # Keep at most 10 points, removing the first 3 when full, as the
+    # points persistence of a Plot does.
+    for {set i 10} {$i < 100} {incr i} {
+        if {[$buffer size] == 10} {
+            [$buffer subList 0 3] clear
+        }
+        $buffer add [plotPoint $i $i]
+    }
+    list [$buffer size] [$buffer capacity] [$buffer getX 0] [$buffer getX 9]
+} {10 16 90.0 99.0}
+
+test PlotPointBuffer-2.2 {remove in the middle of a wrapped buffer} {
+    $buffer {remove int} 4
+    $buffer {add int ptolemy.plot.PlotPoint} 0 [plotPoint -1.0 -1.0 false]
+    listPoints $buffer
+} {{-1.0 -1.0 0} {90.0 90.0 1} {91.0 91.0 1} {92.0 92.0 1} {93.0 93.0 1} {95.0 95.0 1} {96.0 96.0 1} {97.0 97.0 1} {98.0 98.0 1} {99.0 99.0 1}}
+
+test PlotPointBuffer-2.3 {grow a wrapped buffer} {
+    for {set i 100} {$i < 110} {incr i} {
+        $buffer add [plotPoint $i $i]
+    }
+    list [$buffer size] [$buffer capacity] [$buffer getX 0] [$buffer getX 10] \
+            [$buffer getX 19]
+} {20 32 -1.0 100.0 109.0}
+
+test PlotPointBuffer-2.4 {clear} {
+    $buffer clear
+    $buffer add [plotPoint 7.0 8.0]
+    list [$buffer size] [$buffer capacity] [listPoints $buffer]
+} {1 32 {{7.0 8.0 1}}}
+
+test PlotPointBuffer-2.5 {index out of bounds} {
+    catch {$buffer get 1} errMsg
+    list $errMsg
+} {{java.lang.IndexOutOfBoundsException: Index: 1, Size: 1}}
+
+######################################################################
+####
+#
+test PlotPointBuffer-3.1 {a Plot with a points persistence keeps its last points} {
+    set plot [java::new ptolemy.plot.EditablePlot]
+    $plot setPointsPersistence 5
+    $plot setSize 400 300
+    for {set i 0} {$i < 50} {incr i} {
+        $plot addPoint 0 $i [expr {$i * 2.0}] true
+    }
+    # Wait for the points to be added in the event thread.
+    java::call java.awt.EventQueue invokeAndWait [java::new Thread]
+    set data [$plot getData 0]
+    list [[$data get 0] getrange] [[$data get 1] getrange]
+} {{44.0 45.0 46.0 47.0 48.0 49.0} {88.0 90.0 92.0 94.0 96.0 98.0}}
+
+# Return the value of the protected _points field of a Plot.
+proc plotPoints {plot} {
+    set field [[java::call Class forName ptolemy.plot.Plot] \
+            getDeclaredField _points]
+    $field setAccessible true
+    return [java::cast java.util.ArrayList [$field get $plot]]
+}
+
+######################################################################
+####
+#
+test PlotPointBuffer-4.1 {points added outside the event thread keep their order} {
+    set plot [java::new ptolemy.plot.EditablePlot]
+    $plot setSize 400 300
+    set inEventThread [java::call java.awt.EventQueue isDispatchThread]
+    # These points are collected into batches, except the points with
+    # error bars or derivatives, which are deferred one by one and
+    # close the batch being collected.
+    for {set i 0} {$i < 100} {incr i} {
+        $plot addPoint 0 $i $i true
+        $plot addPoint 1 $i [expr {-$i}] true
+        if {$i % 25 == 0} {
+            $plot addPointWithErrorBars 1 $i.5 0.0 [java::null] -1.0 1.0 true
+            $plot {addPoint int double double double[] boolean} 0 $i.5 0.0 \
+                    [java::new {double[]} 1 {1.0}] true
+        }
+    }
+    java::call java.awt.EventQueue invokeAndWait [java::new Thread]
+    set data0 [$plot getData 0]
+    set data1 [$plot getData 1]
+    list $inEventThread \
+            [[$data0 get 0] length] [[$data1 get 0] length] \
+            [lrange [[$data0 get 0] getrange] 0 4] \
+            [lrange [[$data1 get 0] getrange] 0 4] \
+            [lrange [[$data1 get 1] getrange] 0 4] \
+            [lrange [[$data0 get 0] getrange] 102 103]
+} {0 104 104 {0.0 0.5 1.0 2.0 3.0} {0.0 0.5 1.0 2.0 3.0} {0.0 0.0 -1.0 -2.0 -3.0} {98.0 99.0}}
+
+test PlotPointBuffer-4.2 {the points persistence evicts points from a ring buffer} {
+    set plot [java::new ptolemy.plot.EditablePlot]
+    $plot setSize 400 300
+    for {set i 0} {$i < 20} {incr i} {
+        $plot addPoint 0 $i $i true
+    }
+    java::call java.awt.EventQueue invokeAndWait [java::new Thread]
+    set before [java::instanceof [[plotPoints $plot] get 0] \
+            ptolemy.plot.PlotPointBuffer]
+    # The points added before the persistence is set are moved to a
+    # ring buffer.  From then on, the oldest point is evicted as each
+    # new point is added, without growing the buffer.
+    $plot setPointsPersistence 10
+    set points [java::cast ptolemy.plot.PlotPointBuffer \
+            [[plotPoints $plot] get 0]]
+    set capacity [$points capacity]
+    for {set i 20} {$i < 1000} {incr i} {
+        $plot addPoint 0 $i $i true
+    }
+    java::call java.awt.EventQueue invokeAndWait [java::new Thread]
+    set points [java::cast ptolemy.plot.PlotPointBuffer \
+            [[plotPoints $plot] get 0]]
+    list $before [expr {[$points capacity] == $capacity}] [$points size] \
+            [$points getX 0] [$points getX [expr {[$points size] - 1}]]
+} {0 1 20 980.0 999.0}